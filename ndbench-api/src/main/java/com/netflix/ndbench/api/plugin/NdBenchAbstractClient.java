@@ -41,6 +41,43 @@ public interface NdBenchAbstractClient<W> {
      */
     void init(DataGenerator dataGenerator) throws Exception;
 
+    /**
+     * Called by the driver before {@link #init}, with the monitor the client may report the size in bytes of its
+     * request and response payloads to, through {@link NdBenchMonitor#recordReadPayload} and
+     * {@link NdBenchMonitor#recordWritePayload}. Clients which do not report payload sizes can ignore it.
+     */
+    default void setPayloadMonitor(NdBenchMonitor monitor) {
+    }
+
+    /**
+     * Called by the driver before {@link #init}, with the handle the client registers its own metrics with. The
+     * metrics are namespaced with the name of the plugin. Clients without metrics of their own can ignore it.
+     */
+    default void setPluginMetrics(PluginMetrics metrics) {
+    }
+
+    /**
+     * Tag recorded with the sampled operations of the operation log, naming the host or partition an operation on the
+     * given key is sent to, so that slow or failing operations can be grouped by it. Only called for the sampled
+     * operations.
+     *
+     * @return the tag, or null if the client does not tag operations
+     */
+    default String getOperationTag(String key) {
+        return null;
+    }
+
+    /**
+     * Client running the same operations as this one against another table, keyspace or index, for the named workloads
+     * which run next to the main one with a target of their own. The returned client shares the connections of this
+     * client where it can, it is not initialized or shut down by the driver.
+     *
+     * @throws UnsupportedOperationException if the client cannot run against another target
+     */
+    default NdBenchAbstractClient<W> forTarget(String target) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support targets");
+    }
+
     /**
      * Perform a single read operation
      *
@@ -57,6 +94,16 @@ public interface NdBenchAbstractClient<W> {
      */
     List<String> readBulk(final List<String> keys) throws Exception;
 
+    /**
+     * Perform a scan of up to limit rows in key order, starting at the given key, reading pageSize rows per request
+     * and passing every row to the callback as it is read.
+     *
+     * @throws UnsupportedOperationException if the client does not support scans
+     */
+    default void scan(final String startKey, int limit, int pageSize, ScanCallback callback) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support scans");
+    }
+
     /**
      * Perform a single write operation
      *
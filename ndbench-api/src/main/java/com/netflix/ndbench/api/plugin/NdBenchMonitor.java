@@ -16,6 +16,9 @@
  */
 package com.netflix.ndbench.api.plugin;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Monitoring interface to receive notification of NdBench events. A concrete
  * monitor will make event stats available to a monitoring application and may
@@ -72,6 +75,118 @@ public interface NdBenchMonitor {
     void recordWriteLatency(long duration);
     int getCacheHitRatioInt();
 
+    /**
+     * Timeouts are operations abandoned by the driver because they ran past the configured per-operation deadline.
+     * They are tracked separately from failures, and their latencies are kept out of the read/write histograms so
+     * that a brownout does not get averaged into the regular percentiles.
+     */
+    default void incReadTimeout() {}
+    default long getReadTimeout() { return 0L; }
+    default void recordReadTimeoutLatency(long duration) {}
+    default long getReadTimeoutLatAvg() { return 0L; }
+
+    default void incWriteTimeout() {}
+    default long getWriteTimeout() { return 0L; }
+    default void recordWriteTimeoutLatency(long duration) {}
+    default long getWriteTimeoutLatAvg() { return 0L; }
+
+    /**
+     * Hedged reads: every hedged read counts one primary request, a hedge is sent when the primary did not complete
+     * within the hedge delay, and a win is a hedge which returned before its primary.
+     */
+    default void incHedgePrimary() {}
+    default long getHedgePrimaries() { return 0L; }
+    default void incHedgeSent() {}
+    default long getHedgesSent() { return 0L; }
+    default void incHedgeWin() {}
+    default long getHedgeWins() { return 0L; }
+
+    /**
+     * Current in-flight limits chosen by the driver's adaptive concurrency limiter, updated every stats interval.
+     */
+    default void setReadConcurrencyLimit(long readConcurrencyLimit) {}
+    default long getReadConcurrencyLimit() { return 0L; }
+    default void setWriteConcurrencyLimit(long writeConcurrencyLimit) {}
+    default long getWriteConcurrencyLimit() { return 0L; }
+
+    /**
+     * Stalls of the benchmark client itself during the last stats interval: scheduling hiccups in microseconds and
+     * total GC pause time in milliseconds. An interval is flagged as stalled when either exceeds the stall threshold,
+     * in which case its latency percentiles cannot be attributed to the datastore alone.
+     */
+    default void setClientHiccupP99(long clientHiccupP99) {}
+    default long getClientHiccupP99() { return 0L; }
+    default void setClientHiccupMax(long clientHiccupMax) {}
+    default long getClientHiccupMax() { return 0L; }
+    default void setClientGcPauseMillis(long clientGcPauseMillis) {}
+    default long getClientGcPauseMillis() { return 0L; }
+    default void setClientStalled(boolean clientStalled) {}
+    default boolean isClientStalled() { return false; }
+    default void incClientStalledIntervals() {}
+    default long getClientStalledIntervals() { return 0L; }
+
+    /**
+     * Payload accounting, reported by the client plugins which know the size in bytes of what they send and receive,
+     * see {@link NdBenchAbstractClient#setPayloadMonitor}. The read throughput and size histogram are those of the
+     * read responses, the write ones those of the write requests, while bytes in and out add both directions up.
+     */
+    default void recordReadPayload(long requestBytes, long responseBytes) {}
+    default void recordWritePayload(long requestBytes, long responseBytes) {}
+    default long getReadBytes() { return 0L; }
+    default long getWriteBytes() { return 0L; }
+    default long getReadBytesPerSec() { return 0L; }
+    default long getWriteBytesPerSec() { return 0L; }
+    default long getBytesInPerSec() { return 0L; }
+    default long getBytesOutPerSec() { return 0L; }
+    default long getReadPayloadSizeAvg() { return 0L; }
+    default long getReadPayloadSizeP50() { return 0L; }
+    default long getReadPayloadSizeP99() { return 0L; }
+    default long getWritePayloadSizeAvg() { return 0L; }
+    default long getWritePayloadSizeP50() { return 0L; }
+    default long getWritePayloadSizeP99() { return 0L; }
+
+    /**
+     * Scans: a scan counts once, as a success, a failure or a timeout, however many pages it read. The first row latency is the time in
+     * microseconds from the start of a scan to its first row, the page latency the time between two pages, and the rows
+     * and bytes are those the scans streamed back.
+     */
+    default void incScanSuccess() {}
+    default long getScanSuccess() { return 0L; }
+    default void incScanFailure() {}
+    default long getScanFailure() { return 0L; }
+    default void incScanTimeout() {}
+    default long getScanTimeout() { return 0L; }
+    default void recordScanFirstRowLatency(long duration) {}
+    default long getScanFirstRowLatP50() { return 0L; }
+    default long getScanFirstRowLatP99() { return 0L; }
+    default void recordScanPageLatency(long duration) {}
+    default long getScanPageLatP50() { return 0L; }
+    default long getScanPageLatP99() { return 0L; }
+    default void recordScanRows(long rows, long bytes) {}
+    default long getScanRows() { return 0L; }
+    default long getScanBytes() { return 0L; }
+    default long getScanRowsPerSec() { return 0L; }
+    default long getScanBytesPerSec() { return 0L; }
+
+    /**
+     * @return the handle the metrics of a client plugin are registered with, under the given namespace
+     */
+    default PluginMetrics getPluginMetrics(String namespace) { return PluginMetrics.NOOP; }
+
+    /**
+     * @return the current value of every plugin metric by its name prefixed with its namespace, histograms being
+     * reported as their count, mean, median, 99th percentile and max
+     */
+    default Map<String, Number> getPluginMetricValues() { return Collections.emptyMap(); }
+
+    /**
+     * @return extra read load generated by hedging, as a percentage of the primary reads
+     */
+    default int getHedgeExtraLoadPercentInt() {
+        long primaries = getHedgePrimaries();
+        return primaries == 0 ? 0 : (int) (getHedgesSent() * 100L / primaries);
+    }
+
      void resetStats();
 
      default String getDocumentation() {
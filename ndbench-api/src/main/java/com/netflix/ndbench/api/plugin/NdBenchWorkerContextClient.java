@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.netflix.ndbench.api.plugin;
+
+import java.util.List;
+
+/**
+ * Optional lifecycle for clients which hold per worker state rather than sharing it between all the workers: a
+ * connection of their own, prepared statements, scratch buffers or a random generator.
+ * <p>
+ * The driver asks the client for one context per worker thread, on the first operation of the worker, and passes it
+ * to every operation the worker issues, which then runs without checking a connection out of a pool, synchronizing
+ * or allocating helpers. A context is only ever used by one operation at a time. It is closed when its worker exits,
+ * as soon as an operation using it times out since the abandoned operation may still be using it, or when the client
+ * reports it broken after a failed operation, in which case the worker creates a new one.
+ * <p>
+ * Contexts are not thread-affine: when operations have a deadline, the operations of a worker run one at a time on
+ * the threads of the driver's deadline pool rather than on the worker thread, so a context must not depend on the
+ * thread it is used from, e.g. through thread locals.
+ * <p>
+ * The methods without a context remain in use outside of the workers, e.g. for backfills, single operations issued
+ * through REST and hedged reads, and are what the context methods default to.
+ *
+ * @param <W> - the type of the result returned by {@link #writeSingle}
+ * @param <C> - the type of the worker context
+ */
+public interface NdBenchWorkerContextClient<W, C> extends NdBenchAbstractClient<W> {
+
+    /**
+     * Create the context of a worker, called on the worker thread
+     */
+    C createWorkerContext() throws Exception;
+
+    /**
+     * Release the resources held by a worker context, the context is not used anymore
+     */
+    default void closeWorkerContext(C context) throws Exception {
+    }
+
+    /**
+     * Called on the worker thread after an operation using the context failed, other than by timing out.
+     *
+     * @return true if the context cannot be used anymore, e.g. its connection was lost, in which case it is closed and
+     * the worker creates a new one for its next operation
+     */
+    default boolean isWorkerContextBroken(C context, Exception failure) {
+        return false;
+    }
+
+    default String readSingle(C context, String key) throws Exception {
+        return readSingle(key);
+    }
+
+    default List<String> readBulk(C context, List<String> keys) throws Exception {
+        return readBulk(keys);
+    }
+
+    default W writeSingle(C context, String key) throws Exception {
+        return writeSingle(key);
+    }
+
+    default List<W> writeBulk(C context, List<String> keys) throws Exception {
+        return writeBulk(keys);
+    }
+}
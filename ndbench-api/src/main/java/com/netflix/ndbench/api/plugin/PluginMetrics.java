@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package com.netflix.ndbench.api.plugin;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Handle through which a client plugin registers its own metrics, such as consumed capacity, transaction retries or
+ * connection pool usage, under the plugin's namespace. Plugin metrics are reported next to the driver's own: in the
+ * stats, the stats stream, the recorded run results and the metrics endpoints.
+ * <p>
+ * Registering a metric which already exists returns the existing one. Updating counters and histograms takes no lock,
+ * so they can be updated from any thread on every operation.
+ */
+public interface PluginMetrics {
+
+    /**
+     * Handle of the monitors which do not report plugin metrics, every metric it returns ignores its updates.
+     */
+    PluginMetrics NOOP = new PluginMetrics() {
+        @Override
+        public Counter counter(String name) {
+            return delta -> {
+            };
+        }
+
+        @Override
+        public Histogram histogram(String name) {
+            return value -> {
+            };
+        }
+
+        @Override
+        public void gauge(String name, DoubleSupplier value) {
+        }
+    };
+
+    Counter counter(String name);
+
+    Histogram histogram(String name);
+
+    /**
+     * Registers a gauge, replacing any gauge previously registered under that name. The value is read whenever the
+     * metrics are reported, not on the hot path.
+     */
+    void gauge(String name, DoubleSupplier value);
+
+    interface Counter {
+        void add(long delta);
+
+        default void inc() {
+            add(1L);
+        }
+    }
+
+    interface Histogram {
+        void record(long value);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.api.plugin;
+
+/**
+ * Receives the rows of a scan as the client reads them, see {@link NdBenchAbstractClient#scan}. The rows are not kept
+ * by the client once they have been passed on, so that a scan of any length runs in constant memory.
+ */
+public interface ScanCallback {
+    /**
+     * Called for every row, in the order the datastore returned them.
+     *
+     * @param key       the key of the row
+     * @param sizeBytes the size in bytes of the row as read, or an estimate of it
+     */
+    void onRow(String key, long sizeBytes);
+
+    /**
+     * Called once all the rows of a page have been passed to {@link #onRow}, before the next page is requested.
+     *
+     * @param rows the number of rows in the page
+     */
+    void onPage(int rows);
+}
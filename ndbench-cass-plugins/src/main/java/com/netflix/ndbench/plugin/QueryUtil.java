@@ -6,6 +6,7 @@ import java.util.stream.IntStream;
 public class QueryUtil {
     public static final String INSERT_QUERY = "INSERT INTO %s.%s (key, column1 , %s ) VALUES (?, ?, %s )";
     public static final String READ_QUERY = "SELECT * FROM %s.%s WHERE key = ?";
+    public static final String SCAN_QUERY = "SELECT * FROM %s.%s WHERE key = ? LIMIT ?";
 
     public static String upsertCFQuery(Integer colsPerRow, String keyspaceName, String tableName) {
         String createTblQuery = "CREATE TABLE IF NOT EXISTS %s.%s (key text, column1 int, %s, PRIMARY KEY ((key), column1)) WITH compression = {'sstable_compression': ''}";
@@ -5,10 +5,14 @@ package com.netflix.ndbench.plugin.cass;
 
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Host;
+import com.datastax.driver.core.LatencyTracker;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
 import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
 import com.netflix.ndbench.core.config.IConfiguration;
 import com.netflix.ndbench.plugin.configs.CassandraConfigurationBase;
 import org.slf4j.Logger;
@@ -16,6 +20,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -47,6 +54,9 @@ public abstract class CJavaDriverBasePlugin<C extends CassandraConfigurationBase
     protected volatile PreparedStatement readPstmt;
     protected volatile PreparedStatement writePstmt;
     protected volatile boolean allowBetaProtocol;
+    protected volatile NdBenchMonitor payloadMonitor;
+    protected volatile PluginMetrics pluginMetrics = PluginMetrics.NOOP;
+    private volatile LatencyTracker hostLatencyTracker;
 
     /**
      * Creates an instance of the abstract CJavaDriverBasePlugin class. Subclasses calling this method should use
@@ -60,6 +70,16 @@ public abstract class CJavaDriverBasePlugin<C extends CassandraConfigurationBase
         this.config = config;
     }
 
+    @Override
+    public void setPayloadMonitor(NdBenchMonitor monitor) {
+        this.payloadMonitor = monitor;
+    }
+
+    @Override
+    public void setPluginMetrics(PluginMetrics metrics) {
+        this.pluginMetrics = metrics;
+    }
+
     @Override
     public void init(DataGenerator dataGenerator) throws Exception {
         this.dataGenerator = dataGenerator;
@@ -84,6 +104,9 @@ public abstract class CJavaDriverBasePlugin<C extends CassandraConfigurationBase
 
     @Override
     public void shutdown() {
+        if (hostLatencyTracker != null) {
+            cluster.unregister(hostLatencyTracker);
+        }
         this.cassJavaDriverManager.shutDown();
     }
 
@@ -107,6 +130,8 @@ public abstract class CJavaDriverBasePlugin<C extends CassandraConfigurationBase
 
         logger.info("Protocol version in use: {}", session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion());
 
+        registerPluginMetrics();
+
         if(config.getCreateSchema())
         {
             logger.info("Trying to upsert schema");
@@ -115,6 +140,51 @@ public abstract class CJavaDriverBasePlugin<C extends CassandraConfigurationBase
         }
     }
 
+    /**
+     * Registers the in-flight queries and open connections of the session's pools, and the latency of the successful
+     * requests to each host, as plugin metrics.
+     */
+    private void registerPluginMetrics() {
+        if (pluginMetrics == PluginMetrics.NOOP) {
+            return;
+        }
+        Session metricsSession = this.session;
+        pluginMetrics.gauge("inFlightQueries", () -> {
+            Session.State state = metricsSession.getState();
+            return state.getConnectedHosts().stream().mapToInt(state::getInFlightQueries).sum();
+        });
+        pluginMetrics.gauge("openConnections", () -> {
+            Session.State state = metricsSession.getState();
+            return state.getConnectedHosts().stream().mapToInt(state::getOpenConnections).sum();
+        });
+
+        PluginMetrics metrics = this.pluginMetrics;
+        ConcurrentMap<Host, PluginMetrics.Histogram> hostLatencies = new ConcurrentHashMap<>();
+        this.hostLatencyTracker = new LatencyTracker() {
+            @Override
+            public void update(Host host, Statement statement, Exception exception, long newLatencyNanos) {
+                if (exception != null) {
+                    return;
+                }
+                PluginMetrics.Histogram histogram = hostLatencies.get(host);
+                if (histogram == null) {
+                    histogram = hostLatencies.computeIfAbsent(host,
+                            h -> metrics.histogram("hostLatencyMicros." + h.getAddress().getHostAddress()));
+                }
+                histogram.record(TimeUnit.NANOSECONDS.toMicros(newLatencyNanos));
+            }
+
+            @Override
+            public void onRegister(Cluster cluster) {
+            }
+
+            @Override
+            public void onUnregister(Cluster cluster) {
+            }
+        };
+        cluster.register(hostLatencyTracker);
+    }
+
     abstract void prepStatements(Session session);
     abstract void upsertKeyspace(Session session);
     abstract void upsertCF(Session session);
@@ -22,6 +22,11 @@ public class CassJavaDriverBatch extends CJavaDriverBasePlugin<CassandraGenericC
 
     //Settings
     private volatile String TableName2;
+    private volatile ConsistencyLevel readConsistencyLevel;
+    private volatile ConsistencyLevel writeConsistencyLevel;
+    private volatile int batchSize;
+    private volatile boolean useMultiPartition;
+    private volatile boolean useTimestamp;
 
     Random randomObj = new Random();
 
@@ -54,13 +59,18 @@ public class CassJavaDriverBatch extends CJavaDriverBasePlugin<CassandraGenericC
     @Override
     void preInit() {
         this.TableName2 = config.getCfname2();
+        this.readConsistencyLevel = ConsistencyLevel.valueOf(config.getReadConsistencyLevel());
+        this.writeConsistencyLevel = ConsistencyLevel.valueOf(config.getWriteConsistencyLevel());
+        this.batchSize = config.getBatchSize();
+        this.useMultiPartition = config.getUseMultiPartition();
+        this.useTimestamp = config.getUseTimestamp();
     }
 
     @Override
     public String readSingle(String key) throws Exception {
         BoundStatement statement = readPstmt.bind();
         statement.setString("cyclist_name", key);
-        statement.setConsistencyLevel(ConsistencyLevel.valueOf(config.getReadConsistencyLevel()));
+        statement.setConsistencyLevel(readConsistencyLevel);
         ResultSet rs = session.execute(statement);
 
         List<Row> result = rs.all();
@@ -81,10 +91,10 @@ public class CassJavaDriverBatch extends CJavaDriverBasePlugin<CassandraGenericC
     public String writeSingle(String key) throws Exception {
 
         BatchStatement batch = new BatchStatement();
-        for (int i = 0; i < config.getBatchSize(); i++) {
+        for (int i = 0; i < batchSize; i++) {
 
             BoundStatement bStmt;
-            if(config.getUseMultiPartition())
+            if(useMultiPartition)
             {
                 if(randomObj.nextBoolean())
                 {
@@ -100,10 +110,10 @@ public class CassJavaDriverBatch extends CJavaDriverBasePlugin<CassandraGenericC
                 bStmt = getBStmtTable1(key);
             }
 
-            bStmt.setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel()));
+            bStmt.setConsistencyLevel(writeConsistencyLevel);
             batch.add(bStmt);
         }
-        if(config.getUseTimestamp()) {
+        if(useTimestamp) {
             batch.setDefaultTimestamp(Instant.now().toEpochMilli()*1000);
         }
         session.execute(batch);
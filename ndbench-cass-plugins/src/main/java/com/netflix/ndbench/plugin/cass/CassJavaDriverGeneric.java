@@ -18,6 +18,9 @@ package com.netflix.ndbench.plugin.cass;
 
 import com.netflix.ndbench.plugin.QueryUtil;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -28,11 +31,14 @@ import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.Host;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TypeCodec;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.ScanCallback;
 import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
 import com.netflix.ndbench.core.config.IConfiguration;
 import com.netflix.ndbench.core.util.CheckSumUtil;
@@ -48,11 +54,60 @@ import static java.util.stream.Collectors.groupingBy;
 public class CassJavaDriverGeneric extends CJavaDriverBasePlugin<CassandraGenericConfiguration> {
     private static final Logger logger = LoggerFactory.getLogger(CassJavaDriverGeneric.class);
 
+    // Settings read by every operation, parsed once when the client is initialized
+    private volatile ConsistencyLevel readConsistencyLevel;
+    private volatile ConsistencyLevel writeConsistencyLevel;
+    private volatile String[] valueColumnNames;
+    private volatile int rowsPerPartition;
+    private volatile boolean validateRowsPerPartition;
+    private volatile boolean useBatchWrites;
+    private volatile boolean validateChecksum;
+    private volatile PreparedStatement scanPstmt;
+    private final ConcurrentMap<String, CassJavaDriverGeneric> targets = new ConcurrentHashMap<>();
+
     @Inject
     public CassJavaDriverGeneric(CassJavaDriverManager cassJavaDriverManager, IConfiguration coreConfig, CassandraGenericConfiguration cassConfigs) {
         super(cassJavaDriverManager, coreConfig, cassConfigs);
     }
 
+    @Override
+    void preInit() {
+        this.readConsistencyLevel = ConsistencyLevel.valueOf(config.getReadConsistencyLevel());
+        this.writeConsistencyLevel = ConsistencyLevel.valueOf(config.getWriteConsistencyLevel());
+        this.valueColumnNames = IntStream.range(0, config.getColsPerRow()).mapToObj(i -> "value" + i).toArray(String[]::new);
+        this.rowsPerPartition = config.getRowsPerPartition();
+        this.validateRowsPerPartition = config.getValidateRowsPerPartition();
+        this.useBatchWrites = config.getUseBatchWrites();
+        this.validateChecksum = coreConfig.isValidateChecksum();
+    }
+
+    /**
+     * Each target is a table of the client's keyspace, created if createSchema is set, run against through the session
+     * of this client.
+     */
+    @Override
+    public CassJavaDriverGeneric forTarget(String target) {
+        return targets.computeIfAbsent(target, this::newTargetClient);
+    }
+
+    private CassJavaDriverGeneric newTargetClient(String target) {
+        CassJavaDriverGeneric client = new CassJavaDriverGeneric(cassJavaDriverManager, coreConfig, config);
+        client.dataGenerator = dataGenerator;
+        client.clusterName = clusterName;
+        client.keyspaceName = keyspaceName;
+        client.tableName = target;
+        client.cluster = cluster;
+        client.session = session;
+        client.payloadMonitor = payloadMonitor;
+        client.preInit();
+        if (config.getCreateSchema()) {
+            logger.info("Trying to upsert schema of target {}", target);
+            client.upsertCF(session);
+        }
+        client.prepStatements(session);
+        return client;
+    }
+
     @Override
     public String readSingle(String key) throws Exception {
 
@@ -61,25 +116,39 @@ public class CassJavaDriverGeneric extends CJavaDriverBasePlugin<CassandraGeneri
 
         BoundStatement bStmt = readPstmt.bind();
         bStmt.setString("key", key);
-        bStmt.setConsistencyLevel(ConsistencyLevel.valueOf(config.getReadConsistencyLevel()));
+        bStmt.setConsistencyLevel(readConsistencyLevel);
         ResultSet rs = session.execute(bStmt);
         List<Row> result=rs.all();
 
+        if (payloadMonitor != null)
+        {
+            long responseBytes = 0;
+            for (Row row : result)
+            {
+                for (String valueColumnName : valueColumnNames)
+                {
+                    String value = row.getString(valueColumnName);
+                    responseBytes += value == null ? 0 : value.length();
+                }
+            }
+            payloadMonitor.recordReadPayload(key.length(), responseBytes);
+        }
+
         if (!result.isEmpty())
         {
             nRows = result.size();
-            if (config.getValidateRowsPerPartition() && nRows < (config.getRowsPerPartition()))
+            if (validateRowsPerPartition && nRows < rowsPerPartition)
             {
                 throw new Exception("Num rows returned not ok " + nRows);
             }
 
-            if (coreConfig.isValidateChecksum())
+            if (validateChecksum)
             {
                 for (Row row : result)
                 {
-                    for (int i = 0; i < config.getColsPerRow(); i++)
+                    for (String valueColumnName : valueColumnNames)
                     {
-                        String value = row.getString(getValueColumnName(i));
+                        String value = row.getString(valueColumnName);
                         if (!CheckSumUtil.isChecksumValid(value))
                         {
                             throw new Exception(String.format("Value %s is corrupt. Key %s.", value, key));
@@ -95,48 +164,109 @@ public class CassJavaDriverGeneric extends CJavaDriverBasePlugin<CassandraGeneri
         return ResultOK;
     }
 
+    /**
+     * Slices the clustering rows of the start key's partition, which holds up to rowsPerPartition rows, in clustering
+     * order. The driver fetches the next page once the rows of the current one have been iterated over, so only one page
+     * is held at a time.
+     */
+    @Override
+    public void scan(String startKey, int limit, int pageSize, ScanCallback callback)
+    {
+        BoundStatement bStmt = scanPstmt.bind(startKey, limit);
+        bStmt.setConsistencyLevel(readConsistencyLevel);
+        bStmt.setFetchSize(pageSize);
+        ResultSet rs = session.execute(bStmt);
+
+        int pageRows = 0;
+        for (Row row : rs)
+        {
+            long bytes = 0;
+            for (String valueColumnName : valueColumnNames)
+            {
+                String value = row.getString(valueColumnName);
+                bytes += value == null ? 0 : value.length();
+            }
+            callback.onRow(startKey + ":" + row.getInt("column1"), bytes);
+            pageRows++;
+            if (rs.getAvailableWithoutFetching() == 0)
+            {
+                callback.onPage(pageRows);
+                pageRows = 0;
+            }
+        }
+    }
+
     @Override
     public String writeSingle(String key)
     {
-        if(config.getRowsPerPartition() > 1)
+        long requestBytes = 0;
+        if(rowsPerPartition > 1)
         {
-            if (config.getUseBatchWrites()) {
+            if (useBatchWrites) {
                 BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
-                batch.setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel()));
-                for (int i = 0; i < config.getRowsPerPartition(); i++) {
-                    batch.add(getWriteBStmt(key, i));
+                batch.setConsistencyLevel(writeConsistencyLevel);
+                for (int i = 0; i < rowsPerPartition; i++) {
+                    BoundStatement bStmt = getWriteBStmt(key, i);
+                    requestBytes += getPayloadBytes(key, bStmt);
+                    batch.add(bStmt);
                 }
                 session.execute(batch);
                 batch.clear();
             } else {
-                session.execute(getWriteBStmt(key, dataGenerator.getRandomInteger() % config.getRowsPerPartition())
-                        .setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel())));
+                BoundStatement bStmt = getWriteBStmt(key, dataGenerator.getRandomInteger() % rowsPerPartition);
+                requestBytes = getPayloadBytes(key, bStmt);
+                session.execute(bStmt.setConsistencyLevel(writeConsistencyLevel));
 
             }
         }
         else
         {
-            session.execute(getWriteBStmt(key, 1)
-                            .setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel())));
+            BoundStatement bStmt = getWriteBStmt(key, 1);
+            requestBytes = getPayloadBytes(key, bStmt);
+            session.execute(bStmt.setConsistencyLevel(writeConsistencyLevel));
+        }
+        if (payloadMonitor != null)
+        {
+            payloadMonitor.recordWritePayload(requestBytes, 0);
         }
         return ResultOK;
     }
 
+    /**
+     * Size of the key and values bound to a write, the column keys and the protocol framing are not accounted.
+     */
+    private long getPayloadBytes(String key, BoundStatement bStmt)
+    {
+        long bytes = key.length();
+        for (String valueColumnName : valueColumnNames)
+        {
+            bytes += bStmt.getString(valueColumnName).length();
+        }
+        return bytes;
+    }
+
     private BoundStatement getWriteBStmt(String key, int col)
     {
         BoundStatement bStmt = writePstmt.bind();
         bStmt.setString("key", key);
         bStmt.setInt("column1", col);
-        for (int i = 0; i < config.getColsPerRow(); i++)
+        for (String valueColumnName : valueColumnNames)
         {
-            bStmt.setString(getValueColumnName(i), this.dataGenerator.getRandomValue());
+            bStmt.setString(valueColumnName, this.dataGenerator.getRandomValue());
         }
         return bStmt;
     }
 
-    private String getValueColumnName(int index)
+    /**
+     * Tags operations with the address of the first replica of the key's partition, which is the coordinator the
+     * token aware load balancing policy sends it to.
+     */
+    @Override
+    public String getOperationTag(String key)
     {
-        return "value" + index;
+        Set<Host> replicas = cluster.getMetadata().getReplicas(keyspaceName, TypeCodec.varchar().serialize(key,
+                cluster.getConfiguration().getProtocolOptions().getProtocolVersion()));
+        return replicas.isEmpty() ? null : replicas.iterator().next().getAddress().getHostAddress();
     }
 
     @Override
@@ -146,19 +276,18 @@ public class CassJavaDriverGeneric extends CJavaDriverBasePlugin<CassandraGeneri
 
     @Override
     void upsertCF(Session session) {
-        session.execute(QueryUtil.upsertCFQuery(config.getColsPerRow(), keyspaceName, tableName));
+        session.execute(QueryUtil.upsertCFQuery(valueColumnNames.length, keyspaceName, tableName));
     }
 
     @Override
     void prepStatements(Session session) {
 
-        int nCols = config.getColsPerRow();
-
-        String values = IntStream.range(0, nCols).mapToObj(i -> "value"+i).collect(Collectors.joining(", "));
-        String bindValues = IntStream.range(0, nCols).mapToObj(i -> "?").collect(Collectors.joining(", "));
+        String values = String.join(", ", valueColumnNames);
+        String bindValues = IntStream.range(0, valueColumnNames.length).mapToObj(i -> "?").collect(Collectors.joining(", "));
 
         writePstmt = session.prepare(String.format(QueryUtil.INSERT_QUERY, keyspaceName, tableName, values, bindValues));
         readPstmt = session.prepare(String.format(QueryUtil.READ_QUERY, keyspaceName, tableName));
+        scanPstmt = session.prepare(String.format(QueryUtil.SCAN_QUERY, keyspaceName, tableName));
     }
 
     @Override
@@ -41,6 +41,8 @@ public class CassUDTFrozen extends CJavaDriverBasePlugin<CassandraUdtConfigurati
     private volatile String emailType;
     private volatile Boolean randomReads;
     private volatile Boolean randomWrites;
+    private volatile ConsistencyLevel readConsistencyLevel;
+    private volatile ConsistencyLevel writeConsistencyLevel;
 
     //Settings postInit
     private volatile UserType cassFullnameType;
@@ -63,6 +65,8 @@ public class CassUDTFrozen extends CJavaDriverBasePlugin<CassandraUdtConfigurati
         emailType = config.getEmailType();
         randomReads = config.getRandomReads();
         randomWrites = config.getRandomWrites();
+        readConsistencyLevel = ConsistencyLevel.valueOf(config.getReadConsistencyLevel());
+        writeConsistencyLevel = ConsistencyLevel.valueOf(config.getWriteConsistencyLevel());
 
     }
     @Inject
@@ -153,7 +157,7 @@ public class CassUDTFrozen extends CJavaDriverBasePlugin<CassandraUdtConfigurati
     {
         BoundStatement statement = preparedStatement.bind();
         statement.setString("id", key);
-        statement.setConsistencyLevel(ConsistencyLevel.valueOf(config.getReadConsistencyLevel()));
+        statement.setConsistencyLevel(readConsistencyLevel);
         ResultSet rs = session.execute(statement);
 
         List<Row> result = rs.all();
@@ -207,7 +211,7 @@ public class CassUDTFrozen extends CJavaDriverBasePlugin<CassandraUdtConfigurati
 
         BoundStatement bStmt = insertPstmt1.bind(key,name,this.dataGenerator.getRandomInteger()%2==0?"Paid":"Free");
 
-        bStmt.setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel()));
+        bStmt.setConsistencyLevel(writeConsistencyLevel);
 
         ResultSet rs = session.execute(bStmt);
 
@@ -250,7 +254,7 @@ public class CassUDTFrozen extends CJavaDriverBasePlugin<CassandraUdtConfigurati
         bStmt.setSet("emails", emails);
         bStmt.setString("id", key);
 
-        bStmt.setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel()));
+        bStmt.setConsistencyLevel(writeConsistencyLevel);
 
         ResultSet rs = session.execute(bStmt);
 
@@ -286,7 +290,7 @@ public class CassUDTFrozen extends CJavaDriverBasePlugin<CassandraUdtConfigurati
 
         bStmt1.setMap("billing_addresses", billing_addresses);
         bStmt1.setString("id", key);
-        bStmt1.setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel()));
+        bStmt1.setConsistencyLevel(writeConsistencyLevel);
 
         batch.add(bStmt1);
 
@@ -304,7 +308,7 @@ public class CassUDTFrozen extends CJavaDriverBasePlugin<CassandraUdtConfigurati
 
         bStmt2.setSet("emails", emails);
         bStmt2.setString("id", key);
-        bStmt2.setConsistencyLevel(ConsistencyLevel.valueOf(config.getWriteConsistencyLevel()));
+        bStmt2.setConsistencyLevel(writeConsistencyLevel);
 
         batch.add(bStmt2);
 
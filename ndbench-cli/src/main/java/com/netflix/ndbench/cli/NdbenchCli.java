@@ -21,9 +21,17 @@ import com.netflix.ndbench.cli.config.CliConfigs;
 import com.netflix.ndbench.core.NdBenchClientFactory;
 import com.netflix.ndbench.core.NdBenchDriver;
 import com.netflix.ndbench.core.config.GuiceInjectorProvider;
+import com.netflix.ndbench.core.report.RunReporter;
+import com.netflix.ndbench.core.report.SloAssertion;
+import com.netflix.ndbench.core.scenario.Scenario;
+import com.netflix.ndbench.core.scenario.ScenarioRunner;
 import com.netflix.ndbench.core.util.LoadPattern;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
 /**
  * This class is a CLI entry point to facilitate quick testing of the Netflix Data Benchmark (NdBench).
  * In particular, this class does not require deploying a WAR to Tomcat to run the benchmark.
@@ -33,13 +41,29 @@ import org.slf4j.LoggerFactory;
  */
 public class NdbenchCli {
     private static final org.slf4j.Logger logger = LoggerFactory.getLogger(NdbenchCli.class);
+
+    static final int EXIT_SLO_VIOLATED = 2;
+
     public static void main(final String[] argv) {
         Injector injector = new GuiceInjectorProvider().getInjector(new CliModule());
         CliConfigs cliConfigs = injector.getInstance(CliConfigs.class);
         NdBenchDriver driver = injector.getInstance(NdBenchDriver.class);
 
         try {
+            List<SloAssertion> sloAssertions = SloAssertion.parseAll(cliConfigs.getSloAssertions());
             driver.init(injector.getInstance(NdBenchClientFactory.class).getClient(cliConfigs.getClientName()));
+
+            if (!cliConfigs.getScenarioFile().isEmpty()) {
+                Scenario scenario = Scenario.fromYaml(new File(cliConfigs.getScenarioFile()));
+                logger.info("Running scenario " + scenario.getName() + " from " + cliConfigs.getScenarioFile()
+                        + " with clientName=" + cliConfigs.getClientName());
+                ScenarioRunner scenarioRunner = injector.getInstance(ScenarioRunner.class);
+                scenarioRunner.start(scenario).get(); //blocking
+                logger.info("Scenario " + scenario.getName() + " completed. Stopping driver.");
+                // Throughputs are averaged over the load phases only, backfill phases run no reads or writes
+                System.exit(finishRun(injector, driver, cliConfigs, scenarioRunner.getLoadMillis(), sloAssertions));
+            }
+
             long millisToWait = Integer.valueOf(cliConfigs.getCliTimeoutMillis());
 
             logger.info("Starting driver in CLI with loadPattern=" + cliConfigs.getLoadPattern()
@@ -49,6 +73,7 @@ public class NdbenchCli {
                     + ", timeout(ms)=" + (millisToWait == 0L ? "no timeout" : cliConfigs.getCliTimeoutMillis())
 
                     + ", clientName=" + cliConfigs.getClientName());
+            long startTime = System.currentTimeMillis();
             driver.start(
                     LoadPattern.fromString(cliConfigs.getLoadPattern()),
                     Integer.valueOf(cliConfigs.getWindowSize()),
@@ -60,13 +85,41 @@ public class NdbenchCli {
                 logger.info("Waiting " + millisToWait + " ms for reads and writes to finish");
                 Thread.sleep(millisToWait); //blocking
                 logger.info("Waited " + millisToWait + " ms for reads and writes to finish. Stopping driver.");
-                driver.stop(); //blocking
-                logger.info("Stopped driver");
-                System.exit(0);
+                System.exit(finishRun(injector, driver, cliConfigs, System.currentTimeMillis() - startTime, sloAssertions));
             }
         } catch(Exception e) {
             logger.error("Encountered an exception when driving load", e);
             System.exit(-1);
         }
     }
+
+    /**
+     * Stops the workers, writes the run report and checks the SLO assertions against it.
+     *
+     * @return the exit code of the CLI, {@link #EXIT_SLO_VIOLATED} if an SLO assertion failed
+     */
+    private static int finishRun(Injector injector, NdBenchDriver driver, CliConfigs cliConfigs, long durationMillis,
+                                 List<SloAssertion> sloAssertions) throws Exception {
+        // Stopping the driver resets the stats, the report is built in between
+        if (driver.getIsWriteRunning()) {
+            driver.stopWrites();
+        }
+        if (driver.getIsReadRunning()) {
+            driver.stopReads();
+        }
+        RunReporter reporter = injector.getInstance(RunReporter.class);
+        Map<String, Object> report = reporter.buildReport(durationMillis, sloAssertions);
+        if (!cliConfigs.getReportFile().isEmpty()) {
+            reporter.writeReport(report, new File(cliConfigs.getReportFile()));
+            logger.info("Wrote run report to " + cliConfigs.getReportFile());
+        }
+        driver.stop(); //blocking
+        logger.info("Stopped driver");
+
+        if (!RunReporter.isSloPassed(report)) {
+            logger.error("SLO assertions failed: " + report.get("slo"));
+            return EXIT_SLO_VIOLATED;
+        }
+        return 0;
+    }
 }
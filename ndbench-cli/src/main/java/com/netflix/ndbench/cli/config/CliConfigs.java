@@ -52,4 +52,27 @@ public interface CliConfigs {
     @PropertyName(name = "clientName")
     @DefaultValue("InMemoryTest")
     String getClientName();
+
+    /**
+     * Path of a YAML scenario file to run instead of a single load pattern. The CLI exits once the scenario completes.
+     */
+    @PropertyName(name = "scenarioFile")
+    @DefaultValue("")
+    String getScenarioFile();
+
+    /**
+     * File the JSON report of a run which stops by itself is written to, empty to not write a report.
+     */
+    @PropertyName(name = "reportFile")
+    @DefaultValue("ndbench-report.json")
+    String getReportFile();
+
+    /**
+     * SLO assertions checked against the report, separated by semicolons, e.g.
+     * "read.latencyMicros.p99 &lt; 5ms; read.throughput &gt;= 20000; read.errorRatePercent &lt; 0.1".
+     * The CLI exits with code 2 if any of them fails.
+     */
+    @PropertyName(name = "slo")
+    @DefaultValue("")
+    String getSloAssertions();
 }
@@ -25,25 +25,41 @@ import org.apache.commons.lang.StringUtils;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.NdBenchWorkerContextClient;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
 import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
 import com.netflix.ndbench.plugin.cockroachdb.configs.CockroachDBConfiguration;
 
 /**
+ * Workers each hold a connection of the pool for as long as they run, along with the prepared read statement, so the
+ * pool should be sized to the number of workers.
+ *
  * @author Sumanth Pasupuleti
  */
 @Singleton
 @NdBenchClientPlugin("CockroachDBTransactionPlugin")
 public class CockroachDBTransactionPlugin extends CockroachDBPluginBase
+        implements NdBenchWorkerContextClient<String, CockroachDBTransactionPlugin.WorkerConnection>
 {
     private static String readFromMainQuery = "SELECT key, %s FROM %s where key = ";
     private static String writeToMainQuery = "UPSERT INTO %s (key, %s) VALUES ";
     private static String writeToChildQuery = "UPSERT INTO child%d (key, column1, value) VALUES ";
 
+    private static final int CONNECTION_VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private volatile PluginMetrics.Counter serializationRetries = PluginMetrics.NOOP.counter("serializationRetries");
+
     @Inject
     public CockroachDBTransactionPlugin(CockroachDBConfiguration cockroachDBConfiguration) {
         super(cockroachDBConfiguration);
     }
 
+    @Override
+    public void setPluginMetrics(PluginMetrics metrics)
+    {
+        this.serializationRetries = metrics.counter("serializationRetries");
+    }
+
     @Override
     public String readSingle(String key) throws Exception
     {
@@ -85,27 +101,137 @@ public class CockroachDBTransactionPlugin extends CockroachDBPluginBase
     }
 
     @Override
-    public String writeSingle(String key) throws Exception
+    public WorkerConnection createWorkerContext() throws SQLException
     {
-        Connection connection = null;
+        Connection connection = ds.getConnection();
+        try
+        {
+            return new WorkerConnection(connection, connection.prepareStatement(readFromMainQuery + "?"));
+        }
+        catch (SQLException e)
+        {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeWorkerContext(WorkerConnection context) throws SQLException
+    {
+        // returns the connection to the pool
+        context.connection.close();
+    }
+
+    @Override
+    public boolean isWorkerContextBroken(WorkerConnection context, Exception failure)
+    {
+        if (!(failure instanceof SQLException))
+        {
+            return false;
+        }
         try
         {
-            //execute transaction
-            String[] childKeys = new String[config.getColsPerRow()];
-            for (int i = 0; i < config.getColsPerRow(); i++)
+            return !context.connection.isValid(CONNECTION_VALIDATION_TIMEOUT_SECONDS);
+        }
+        catch (SQLException e)
+        {
+            return true;
+        }
+    }
+
+    @Override
+    public String readSingle(WorkerConnection context, String key) throws Exception
+    {
+        context.readStatement.setString(1, key);
+        int rsSize = 0;
+        try (ResultSet rs = context.readStatement.executeQuery())
+        {
+            while (rs.next())
             {
-                childKeys[i] = "'" + dataGenerator.getRandomValue() + "'";
+                rsSize++;
             }
+        }
+
+        if (rsSize == 0)
+        {
+            return CacheMiss;
+        }
+
+        if (rsSize > 1)
+        {
+            throw new Exception("Expecting only 1 row with a given key: " + key);
+        }
+
+        return ResultOK;
+    }
 
+    @Override
+    public String writeSingle(WorkerConnection context, String key) throws Exception
+    {
+        try
+        {
+            runTransaction(context.connection, key);
+            return ResultOK;
+        }
+        catch (Exception ex)
+        {
+            // leave the worker's connection ready for its next transaction
+            try
+            {
+                if (!context.connection.getAutoCommit())
+                {
+                    context.connection.rollback();
+                    context.connection.setAutoCommit(true);
+                }
+            }
+            catch (SQLException rollbackFailure)
+            {
+                // the connection is likely lost, the worker replaces it
+                ex.addSuppressed(rollbackFailure);
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public String writeSingle(String key) throws Exception
+    {
+        Connection connection = null;
+        try
+        {
             connection = ds.getConnection();
+            runTransaction(connection, key);
+            connection.close();
 
-            connection.setAutoCommit(false);
+            return ResultOK;
+        }
+        catch (Exception ex)
+        {
+            if (connection != null)
+            {
+                connection.close();
+            }
+            throw ex;
+        }
+    }
 
-            Connection closurePtr = connection;
+    private void runTransaction(Connection connection, String key) throws SQLException
+    {
+        //execute transaction
+        String[] childKeys = new String[config.getColsPerRow()];
+        for (int i = 0; i < config.getColsPerRow(); i++)
+        {
+            childKeys[i] = "'" + dataGenerator.getRandomValue() + "'";
+        }
+
+        connection.setAutoCommit(false);
 
-            CockroachDBRetryableTransaction transaction = conn -> {
-                Statement statement = closurePtr.createStatement();
+        Connection closurePtr = connection;
 
+        CockroachDBRetryableTransaction transaction = conn -> {
+            // workers hold their connection for the whole run, the statements of every attempt are closed right away
+            try (Statement statement = closurePtr.createStatement())
+            {
                 // write to main table
                 statement.addBatch(writeToMainQuery + "('" + key + "', " + StringUtils.join(childKeys, ',') + ")");
 
@@ -116,58 +242,46 @@ public class CockroachDBTransactionPlugin extends CockroachDBPluginBase
                 }
 
                 statement.executeBatch();
-            };
+            }
+        };
 
-            Savepoint sp = connection.setSavepoint("cockroach_restart");
+        Savepoint sp = connection.setSavepoint("cockroach_restart");
 
-            while (true)
+        while (true)
+        {
+            boolean releaseAttempted = false;
+            try
+            {
+                transaction.run(connection);
+                releaseAttempted = true;
+                connection.releaseSavepoint(sp);
+                break;
+            }
+            catch (SQLException e)
             {
-                boolean releaseAttempted = false;
-                try
+                String sqlState = e.getSQLState();
+
+                // Check if the error code indicates a SERIALIZATION_FAILURE.
+                if (sqlState.equals("40001"))
                 {
-                    transaction.run(connection);
-                    releaseAttempted = true;
-                    connection.releaseSavepoint(sp);
-                    break;
+                    // Signal the database that we will attempt a retry.
+                    serializationRetries.inc();
+                    connection.rollback(sp);
                 }
-                catch (SQLException e)
+                else if (releaseAttempted)
                 {
-                    String sqlState = e.getSQLState();
-
-                    // Check if the error code indicates a SERIALIZATION_FAILURE.
-                    if (sqlState.equals("40001"))
-                    {
-                        // Signal the database that we will attempt a retry.
-                        connection.rollback(sp);
-                    }
-                    else if (releaseAttempted)
-                    {
-                        connection.close();
-                        // ResultAmbiguous;
-                        throw e;
-                    }
-                    else
-                    {
-                        connection.close();
-                        // ResultFailed;
-                        throw e;
-                    }
+                    // ResultAmbiguous;
+                    throw e;
+                }
+                else
+                {
+                    // ResultFailed;
+                    throw e;
                 }
             }
-            connection.commit();
-            connection.setAutoCommit(true);
-            connection.close();
-
-            return ResultOK;
-        }
-        catch (Exception ex)
-        {
-            if (connection != null)
-            {
-                connection.close();
-            }
-            throw ex;
         }
+        connection.commit();
+        connection.setAutoCommit(true);
     }
 
     public void createTables() throws Exception
@@ -190,6 +304,21 @@ public class CockroachDBTransactionPlugin extends CockroachDBPluginBase
         connection.close();
     }
 
+    /**
+     * Connection a worker holds for as long as it runs, with its prepared statements.
+     */
+    static class WorkerConnection
+    {
+        private final Connection connection;
+        private final PreparedStatement readStatement;
+
+        WorkerConnection(Connection connection, PreparedStatement readStatement)
+        {
+            this.connection = connection;
+            this.readStatement = readStatement;
+        }
+    }
+
     public void prepareStatements()
     {
         String columns = IntStream.range(0, config.getColsPerRow()).mapToObj(i -> "column" + i).collect(Collectors.joining(", "));
@@ -39,6 +39,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
 import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.monitoring.events.FlightRecorderEvents;
 
 /**
  * @author vchella
@@ -48,6 +49,9 @@ public class DataBackfill {
 
     private static final Logger logger = LoggerFactory.getLogger(DataBackfill.class);
 
+    // Number of keys after which a backfill worker reports the progress of its key range
+    private static final int CHUNK_SIZE = 1000;
+
     private final IConfiguration config;
     private final AtomicBoolean stop = new AtomicBoolean(false);
     private final AtomicReference<ExecutorService> threadPool = new AtomicReference<>(null);
@@ -101,6 +105,7 @@ public class DataBackfill {
                                                                        config.getNumKeys());
 
         final CountDownLatch latch = new CountDownLatch(numThreads);
+        FlightRecorderEvents.phaseTransition("backfill", "start");
 
         for (int i = 0; i < numThreads; i++) {
             final int startKey = keyRanges.get(i).getLeft();
@@ -108,6 +113,8 @@ public class DataBackfill {
 
             threadPool.get().submit(() -> {
                 int k = startKey;
+                int chunkStartKey = k;
+                long chunkStartTime = System.nanoTime();
 
                 while (k < endKey && !stop.get()) {
                     try {
@@ -119,6 +126,11 @@ public class DataBackfill {
                     } catch (Exception e) {
                         logger.error("Exception in processing backfill write. Key: T{}", k, e);
                     }
+                    if (k - chunkStartKey >= CHUNK_SIZE || k == endKey) {
+                        FlightRecorderEvents.backfillChunk(chunkStartKey, k, chunkStartTime);
+                        chunkStartKey = k;
+                        chunkStartTime = System.nanoTime();
+                    }
                 }
 
                 latch.countDown();
@@ -144,6 +156,7 @@ public class DataBackfill {
                 }
             }
             logger.info("Stopping datafill status poller");
+            FlightRecorderEvents.phaseTransition("backfill", "stop");
             return null;
         });
 
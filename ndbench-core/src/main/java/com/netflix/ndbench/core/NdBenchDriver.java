@@ -27,28 +27,61 @@ import com.netflix.archaius.api.inject.RuntimeLayer;
 import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
 import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
 import com.netflix.ndbench.api.plugin.common.NdBenchConstants;
+import com.netflix.ndbench.core.clients.CachingClient;
+import com.netflix.ndbench.core.clients.ComparisonClient;
+import com.netflix.ndbench.core.clients.HedgedReadClient;
 import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.config.RunPlan;
+import com.netflix.ndbench.core.generators.AcknowledgedWrites;
+import com.netflix.ndbench.core.generators.FreshStringKeyGenerator;
 import com.netflix.ndbench.core.generators.KeyGenerator;
 import com.netflix.ndbench.core.generators.KeyGeneratorFactory;
+import com.netflix.ndbench.core.generators.ReadYourWritesKeyGenerator;
+import com.netflix.ndbench.core.generators.TokenRange;
+import com.netflix.ndbench.core.generators.TraceReplayKeyGenerator;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import com.netflix.ndbench.core.monitoring.KeyTier;
+import com.netflix.ndbench.core.monitoring.KeyTierStats;
+import com.netflix.ndbench.core.monitoring.OperationProfiler;
+import com.netflix.ndbench.core.monitoring.VisibilityStats;
+import com.netflix.ndbench.core.monitoring.events.FlightRecorderEvents;
+import com.netflix.ndbench.core.monitoring.OperationProfiler.Phase;
+import com.netflix.ndbench.core.operations.OperationTimeoutException;
+import com.netflix.ndbench.core.oplog.OperationLog;
 import com.netflix.ndbench.core.operations.ReadOperation;
+import com.netflix.ndbench.core.operations.WorkerContext;
 import com.netflix.ndbench.core.operations.WriteOperation;
+import com.netflix.ndbench.core.trace.TraceFile;
+import com.netflix.ndbench.core.util.AdaptiveConcurrencyLimiter;
 import com.netflix.ndbench.core.util.LoadPattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * @author vchella
@@ -58,9 +91,24 @@ public class NdBenchDriver {
     private static final Logger logger = LoggerFactory.getLogger(NdBenchDriver.class);
     public static final int TIMEOUT = 5;
 
+    private static final int CALL_PENDING = 0;
+    private static final int CALL_STARTED = 1;
+    private static final int CALL_ABANDONED = 2;
+    private static final int CALL_DONE = 3;
+
+    private static final long CONCURRENCY_PERMIT_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long IDLE_MARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long KEY_DUE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private final AtomicInteger readWorkers = new AtomicInteger(0);
     private final AtomicInteger writeWorkers = new AtomicInteger(0);
 
+    // worker count the running workers grow or retire to, and the task each of them runs
+    private final AtomicInteger readWorkersTarget = new AtomicInteger(0);
+    private final AtomicInteger writeWorkersTarget = new AtomicInteger(0);
+    private final AtomicReference<Callable<Void>> readWorkerRef = new AtomicReference<>(null);
+    private final AtomicReference<Callable<Void>> writeWorkerRef = new AtomicReference<>(null);
+
     private final AtomicReference<ExecutorService> tpReadRef = new AtomicReference<>(null);
     private final AtomicReference<ExecutorService> tpWriteRef = new AtomicReference<>(null);
 
@@ -73,14 +121,45 @@ public class NdBenchDriver {
     private final AtomicReference<RateLimiter> readLimiter;
     private final AtomicReference<RateLimiter> writeLimiter;
 
+    private final AtomicReference<AdaptiveConcurrencyLimiter> readConcurrencyLimiter = new AtomicReference<>(null);
+    private final AtomicReference<AdaptiveConcurrencyLimiter> writeConcurrencyLimiter = new AtomicReference<>(null);
+
+    private final AtomicReference<OperationProfiler> readProfiler = new AtomicReference<>(null);
+    private final AtomicReference<OperationProfiler> writeProfiler = new AtomicReference<>(null);
+
+    // The System.nanoTime() a worker of the type was last found idle, i.e. refused a permit, at, or its workers started
+    private final AtomicLong readIdleNanos = new AtomicLong();
+    private final AtomicLong writeIdleNanos = new AtomicLong();
+
+    private final BucketedLatencyHistogram readLatencyHistogram = new BucketedLatencyHistogram();
+    private final BucketedLatencyHistogram writeLatencyHistogram = new BucketedLatencyHistogram();
+
+    private final KeyTierStats readKeyTierStats = new KeyTierStats();
+    private final KeyTierStats writeKeyTierStats = new KeyTierStats();
+    private final VisibilityStats visibilityStats = new VisibilityStats();
+    private final AcknowledgedWrites acknowledgedWrites;
+
+    private final AtomicReference<OperationLog> operationLogRef = new AtomicReference<>(null);
+
     private final AtomicReference<ExecutorService> timerRef = new AtomicReference<>(null);
+    private final AtomicReference<ExecutorService> deadlinePoolRef = new AtomicReference<>(null);
+    private final AtomicInteger abandonedCalls = new AtomicInteger();
     private final RPSCount rpsCount;
 
     private final AtomicReference<NdBenchAbstractClient<?>> clientRef =
             new AtomicReference<>(null);
+    // The client plugin the driver was initialized with, clientRef holds it decorated
+    private final AtomicReference<NdBenchAbstractClient<?>> pluginClientRef =
+            new AtomicReference<>(null);
+    private final AtomicReference<HedgedReadClient<?>> readClientRef =
+            new AtomicReference<>(null);
+    // Whether every worker issues the keys of its operations twice, once to each client of a comparison
+    private volatile boolean pairKeys = false;
+
+    private final AtomicReference<KeyGenerator<String>> keyGeneratorWriteRef = new AtomicReference<>(null);
+    private final AtomicReference<KeyGenerator<String>> keyGeneratorReadRef = new AtomicReference<>(null);
 
-    private final AtomicReference<KeyGenerator> keyGeneratorWriteRef = new AtomicReference<>(null);
-    private final AtomicReference<KeyGenerator> keyGeneratorReadRef = new AtomicReference<>(null);
+    private final AtomicReference<RunPlan> runPlanRef;
 
 
     private final IConfiguration config;
@@ -95,6 +174,8 @@ public class NdBenchDriver {
                   @RuntimeLayer SettableConfig settableConfig) {
 
         this.config = config;
+        this.runPlanRef = new AtomicReference<>(RunPlan.of(config));
+        this.acknowledgedWrites = new AcknowledgedWrites(config.getReadYourWritesRingSize());
 
         this.ndBenchMonitor = ndBenchMonitor;
         this.readLimiter = new AtomicReference<>();
@@ -102,7 +183,8 @@ public class NdBenchDriver {
 
         this.dataGenerator = dataGenerator;
         this.settableConfig = settableConfig;
-        this.rpsCount = new RPSCount(readsStarted, writesStarted, readLimiter, writeLimiter, config, ndBenchMonitor);
+        this.rpsCount = new RPSCount(readsStarted, writesStarted, readLimiter, writeLimiter, config, ndBenchMonitor,
+                this::onUnderRate);
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("*** shutting down NdBench server since JVM is shutting down");
@@ -133,28 +215,42 @@ public class NdBenchDriver {
 
     private void startReadsInternal(LoadPattern loadPattern, int windowSize, long windowDurationInSec, int bulkSize) {
         logger.info("Starting NdBenchDriver reads...");
+        RunPlan plan = checkAndTakeRunPlan();
+        if (pairKeys && plan.getScanRatio() > 0) {
+            // scans are issued without a worker context and drawn at random, so the operations of a pair may differ
+            throw new IllegalArgumentException("scanRatio must be 0 when comparing clients, scans are not paired");
+        }
         NdBenchOperation operation;
 
-        operation = new ReadOperation(clientRef.get());
+        operation = new ReadOperation(readClientRef.get());
 
-        KeyGeneratorFactory keyGeneratorFactory = new KeyGeneratorFactory();
+        KeyGeneratorFactory keyGeneratorFactory = new KeyGeneratorFactory(acknowledgedWrites,
+                plan.getReadYourWritesLagMillis(), getTargetRange(plan, loadPattern), plan.getTargetTrafficRatio(),
+                getTraceOptions(plan), TraceFile.OpType.READ);
 
         KeyGenerator<String> keyGenerator = keyGeneratorFactory.getKeyGenerator(loadPattern,
-                config.getNumKeys(), windowSize, windowDurationInSec, config.isPreloadKeys(), config.getZipfExponent());
+                plan.getNumKeys(), windowSize, windowDurationInSec, plan.isPreloadKeys(), plan.getZipfExponent());
 
         keyGeneratorReadRef.set(keyGenerator);
 
         startOperation(
-                config.isReadEnabled(),
-                config.getNumReaders(),
+                plan,
+                plan.isReadEnabled(),
+                plan.getNumReaders(),
                 readWorkers,
+                readWorkersTarget,
+                readWorkerRef,
                 tpReadRef,
                 readLimiter,
+                readConcurrencyLimiter,
+                readProfiler,
+                readIdleNanos,
                 operation,
                 keyGenerator,
-                config.isAutoTuneEnabled(),
+                plan.isAutoTuneEnabled(),
                 bulkSize);
         readsStarted.set(true);
+        FlightRecorderEvents.phaseTransition("reads", "start");
     }
 
     public void startWrites(LoadPattern loadPattern, int windowSize, long windowDurationInSec, int bulkSize) {
@@ -168,28 +264,44 @@ public class NdBenchDriver {
 
     private void startWritesInternal(LoadPattern loadPattern, int windowSize, long windowDurationInSec, int bulkSize) {
         logger.info("Starting NdBenchDriver writes...");
+        RunPlan plan = checkAndTakeRunPlan();
         NdBenchOperation operation;
 
         operation = new WriteOperation(clientRef.get());
 
-        KeyGeneratorFactory keyGeneratorFactory = new KeyGeneratorFactory();
-
-        KeyGenerator<String> keyGenerator = keyGeneratorFactory.getKeyGenerator(loadPattern,
-                config.getNumKeys(), windowSize, windowDurationInSec, config.isPreloadKeys(), config.getZipfExponent());
+        KeyGenerator<String> keyGenerator;
+        if (loadPattern == LoadPattern.READ_YOUR_WRITES) {
+            // Writes of a read-your-writes run go to fresh keys, the reads follow them and only find a value once the
+            // write is visible
+            keyGenerator = new FreshStringKeyGenerator(plan.getNumKeys());
+        } else {
+            KeyGeneratorFactory keyGeneratorFactory = new KeyGeneratorFactory(null, 0L,
+                    getTargetRange(plan, loadPattern), plan.getTargetTrafficRatio(), getTraceOptions(plan),
+                    TraceFile.OpType.WRITE);
+            keyGenerator = keyGeneratorFactory.getKeyGenerator(loadPattern, plan.getNumKeys(), windowSize,
+                    windowDurationInSec, plan.isPreloadKeys(), plan.getZipfExponent());
+        }
 
         keyGeneratorWriteRef.set(keyGenerator);
 
-        startOperation(config.isWriteEnabled(),
-                config.getNumWriters(),
+        startOperation(plan,
+                plan.isWriteEnabled(),
+                plan.getNumWriters(),
                 writeWorkers,
+                writeWorkersTarget,
+                writeWorkerRef,
                 tpWriteRef,
                 writeLimiter,
+                writeConcurrencyLimiter,
+                writeProfiler,
+                writeIdleNanos,
                 operation,
                 keyGenerator,
-                config.isAutoTuneEnabled(),
+                plan.isAutoTuneEnabled(),
                 bulkSize);
 
         writesStarted.set(true);
+        FlightRecorderEvents.phaseTransition("writes", "start");
     }
 
     public boolean getIsWriteRunning() {
@@ -205,11 +317,17 @@ public class NdBenchDriver {
         return tp != null;
     }
 
-    private void startOperation(boolean operationEnabled,
+    private void startOperation(RunPlan plan,
+                                boolean operationEnabled,
                                 int numWorkersConfig,
                                 AtomicInteger numWorkers,
+                                AtomicInteger targetWorkers,
+                                AtomicReference<Callable<Void>> workerRef,
                                 AtomicReference<ExecutorService> tpRef,
                                 final AtomicReference<RateLimiter> rateLimiter,
+                                AtomicReference<AdaptiveConcurrencyLimiter> concurrencyLimiterRef,
+                                AtomicReference<OperationProfiler> profilerRef,
+                                final AtomicLong idleNanos,
                                 final NdBenchOperation operation,
                                 final KeyGenerator<String> keyGenerator,
                                 Boolean isAutoTuneEnabled,
@@ -224,38 +342,106 @@ public class NdBenchDriver {
                                       .setNameFormat("ndbench-"+operation.getClass().getSimpleName()+"-pool-%d")
                                       .setDaemon(false).build();
 
-        ExecutorService threadPool = Executors.newFixedThreadPool(numWorkersConfig, threadFactory);
+        // A fixed size pool whose size is changed when the workers are resized
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(numWorkersConfig, numWorkersConfig,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
         boolean success = tpRef.compareAndSet(null, threadPool);
         if (!success) {
             throw new RuntimeException("Unknown threadpool when performing tpRef CAS operation");
         }
 
-        logger.info("\n\nWorker threads: " + numWorkersConfig + ", Num Keys: " + config.getNumKeys() + "\n\n");
-
-        for (int i = 0; i < numWorkersConfig; i++) {
-
-            threadPool.submit((Callable<Void>) () -> {
+        int maxConcurrency = Math.min(plan.getAdaptiveConcurrencyMaxLimit(), numWorkersConfig);
+        final AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                plan.isAdaptiveConcurrencyEnabled(),
+                Math.min(plan.getAdaptiveConcurrencyInitialLimit(), maxConcurrency),
+                maxConcurrency);
+        concurrencyLimiterRef.set(concurrencyLimiter);
+
+        final OperationProfiler profiler = new OperationProfiler(plan.getPhaseTimingSampleRate());
+        profilerRef.set(profiler);
+        idleNanos.set(System.nanoTime());
+
+        logger.info("\n\nWorker threads: " + numWorkersConfig + ", Num Keys: " + plan.getNumKeys() + "\n\n");
+
+        final boolean pairOperations = pairKeys;
+        final Callable<Void> worker = () -> {
+            final OperationProfiler.Sample sample = profiler.newSample();
+            final WorkerContext workerContext = operation.newWorkerContext();
+            boolean retired = false;
+            // The keys of the first operation of a pair, which the second one is issued with, see ComparisonClient
+            List<String> pairedKeys = null;
+            // Whether the worker reserved the key of its next operation and waited until it was due
+            boolean keyReserved = false;
 
-                while (!Thread.currentThread().isInterrupted()) {
+            try {
+                while (!Thread.currentThread().isInterrupted() && !threadPool.isShutdown()) {
+                    // Workers are retired between two operations, once the one they have in flight completed
+                    if (checkAndRetire(numWorkers, targetWorkers)) {
+                        retired = true;
+                        logger.info("NdBenchWorker retired, {} workers left", numWorkers.get());
+                        break;
+                    }
                     boolean noMoreKey = false;
-
-                    if (((operation.isReadType() && readsStarted.get()) ||
-                            (operation.isWriteType() && writesStarted.get())) && rateLimiter.get().tryAcquire()) {
-                        final Set<String> keys = new HashSet<>(bulkSize * 2);
-                        while (keys.size() < bulkSize) {
-                            keys.add(keyGenerator.getNextKey());
-                            if (!keyGenerator.hasNextKey()) {
-                                noMoreKey = true;
-                                break;
+                    if (!keyReserved && pairedKeys == null && isStarted(operation)) {
+                        awaitKeyDue(keyGenerator.reserveNextKey(), idleNanos, operation);
+                        keyReserved = true;
+                    }
+                    sample.begin();
+
+                    // The concurrency permit is only taken once the rate permit is, so that the workers held back by
+                    // the rate limit are not counted as in flight
+                    if (isStarted(operation) && rateLimiter.get().tryAcquire()
+                            && awaitConcurrencyPermit(concurrencyLimiter, operation)) {
+                        try {
+                            sample.mark(Phase.LIMITER_WAIT);
+                            List<String> keyList;
+                            if (pairedKeys != null) {
+                                keyList = pairedKeys;
+                                pairedKeys = null;
+                            } else {
+                                final Set<String> keys = new HashSet<>(bulkSize * 2);
+                                while (keys.size() < bulkSize) {
+                                    // generators which run out of keys while other workers draw from them return null
+                                    String key = keyGenerator.getNextKey();
+                                    if (key != null) {
+                                        keys.add(key);
+                                    }
+                                    if (key == null || !keyGenerator.hasNextKey()) {
+                                        noMoreKey = true;
+                                        break;
+                                    }
+                                } // eo keygens
+                                keyList = new ArrayList<>(keys);
+                                keyReserved = false;
+                                if (pairOperations && !keyList.isEmpty()) {
+                                    pairedKeys = keyList;
+                                }
+                            }
+                            sample.mark(Phase.KEY_GENERATION);
+
+                            if (!keyList.isEmpty()) {
+                                long startTime = System.nanoTime();
+                                boolean processed = operation.process(
+                                        NdBenchDriver.this,
+                                        ndBenchMonitor,
+                                        keyList,
+                                        rateLimiter,
+                                        isAutoTuneEnabled,
+                                        workerContext);
+                                concurrencyLimiter.onSample(System.nanoTime() - startTime, processed);
+                                if (pairedKeys != null && !workerContext.isAcquired()) {
+                                    // the client's pairing went with the discarded context, the next operation is
+                                    // the first of a new pair
+                                    pairedKeys = null;
+                                }
+                                sample.mark(Phase.POST_PROCESSING);
                             }
-                        } // eo keygens
-
-                        operation.process(
-                                NdBenchDriver.this,
-                                ndBenchMonitor,
-                                new ArrayList<>(keys),
-                                rateLimiter,
-                                isAutoTuneEnabled);
+                            sample.end();
+                        } finally {
+                            concurrencyLimiter.release();
+                        }
+                    } else {
+                        markIdle(idleNanos);
                     } // eo if read or write
 
                     if (noMoreKey) {
@@ -269,10 +455,152 @@ public class NdBenchDriver {
                         break;
                     } // eo if noMoreKey
                 } // eo while thread not interrupted
-                logger.info("NdBenchWorker shutting down");
-                return null;
-            });
+            } finally {
+                workerContext.close();
+                if (!retired) {
+                    numWorkers.decrementAndGet();
+                }
+            }
+            logger.info("NdBenchWorker shutting down");
+            return null;
+        };
+        targetWorkers.set(numWorkersConfig);
+        workerRef.set(worker);
+        for (int i = 0; i < numWorkersConfig; i++) {
             numWorkers.incrementAndGet();
+            threadPool.submit(worker);
+        }
+    }
+
+    /**
+     * Waits until the key a worker reserved is due, before it acquires its permits, so that a worker waiting on the
+     * time of its key holds no permit and is counted as idle rather than busy generating keys.
+     *
+     * @param dueNanos the {@link System#nanoTime()} the key is due at, 0 if it is due at once
+     */
+    private void awaitKeyDue(long dueNanos, AtomicLong idleNanos, NdBenchOperation operation) {
+        if (dueNanos == 0L) {
+            return;
+        }
+        long waitNanos;
+        while ((waitNanos = dueNanos - System.nanoTime()) > 0
+                && !Thread.currentThread().isInterrupted() && isStarted(operation)) {
+            markIdle(idleNanos);
+            // wakes up regularly to notice the operation being stopped
+            LockSupport.parkNanos(Math.min(waitNanos, KEY_DUE_POLL_NANOS));
+        }
+    }
+
+    /**
+     * Records that a worker is idle now. Idle workers poll for permits, the time is only updated once it is older than
+     * {@link #IDLE_MARK_NANOS} so that they do not all write it on every poll.
+     */
+    private static void markIdle(AtomicLong idleNanos) {
+        long now = System.nanoTime();
+        if (now - idleNanos.get() > IDLE_MARK_NANOS) {
+            idleNanos.set(now);
+        }
+    }
+
+    /**
+     * Takes one worker off the count when there are more workers than the target.
+     *
+     * @return true if the calling worker is to exit
+     */
+    private static boolean checkAndRetire(AtomicInteger numWorkers, AtomicInteger targetWorkers) {
+        int current;
+        while ((current = numWorkers.get()) > targetWorkers.get()) {
+            if (numWorkers.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void onNumReadersChange() {
+        RunPlan plan = runPlanRef.updateAndGet(p -> p.withNumReaders(config.getNumReaders()));
+        resizeWorkers("read", plan.getNumReaders(), readWorkers, readWorkersTarget, readWorkerRef, tpReadRef,
+                readConcurrencyLimiter);
+    }
+
+    public void onNumWritersChange() {
+        RunPlan plan = runPlanRef.updateAndGet(p -> p.withNumWriters(config.getNumWriters()));
+        resizeWorkers("write", plan.getNumWriters(), writeWorkers, writeWorkersTarget, writeWorkerRef, tpWriteRef,
+                writeConcurrencyLimiter);
+    }
+
+    /**
+     * Resizes the running workers of one type without stopping them: new workers are started right away, surplus
+     * workers retire once the operation they have in flight completed. Does nothing when the workers of the type are
+     * not running, the new count is then taken when they start.
+     */
+    private synchronized void resizeWorkers(String type, int target, AtomicInteger numWorkers,
+                                            AtomicInteger targetWorkers, AtomicReference<Callable<Void>> workerRef,
+                                            AtomicReference<ExecutorService> tpRef,
+                                            AtomicReference<AdaptiveConcurrencyLimiter> concurrencyLimiterRef) {
+        ExecutorService tp = tpRef.get();
+        Callable<Void> worker = workerRef.get();
+        if (target <= 0 || !(tp instanceof ThreadPoolExecutor) || worker == null) {
+            return;
+        }
+        ThreadPoolExecutor threadPool = (ThreadPoolExecutor) tp;
+        int previous = targetWorkers.getAndSet(target);
+        logger.info("Resizing {} workers from {} to {}", type, previous, target);
+        if (target > threadPool.getMaximumPoolSize()) {
+            threadPool.setMaximumPoolSize(target);
+            threadPool.setCorePoolSize(target);
+        } else {
+            threadPool.setCorePoolSize(target);
+            threadPool.setMaximumPoolSize(target);
+        }
+        // The concurrency limit is bounded by the number of workers, as when the workers were started
+        AdaptiveConcurrencyLimiter concurrencyLimiter = concurrencyLimiterRef.get();
+        if (concurrencyLimiter != null) {
+            RunPlan plan = runPlanRef.get();
+            int maxConcurrency = Math.min(plan.getAdaptiveConcurrencyMaxLimit(), target);
+            concurrencyLimiter.setMaxLimit(maxConcurrency,
+                    Math.min(plan.getAdaptiveConcurrencyInitialLimit(), maxConcurrency));
+        }
+        // Workers still to retire from an earlier shrink are kept instead of starting new ones
+        for (int i = numWorkers.get(); i < target; i++) {
+            numWorkers.incrementAndGet();
+            threadPool.submit(worker);
+        }
+        FlightRecorderEvents.phaseTransition(type + "s", "resize");
+    }
+
+    /**
+     * Grows the workers of a type by a quarter after a stats interval in which their rate fell well short of the rate
+     * limit while every worker was busy: none of them was found idle, waiting on a permit, during the interval, and no
+     * lower concurrency limit held them back. More workers are then needed to reach the rate.
+     */
+    void onUnderRate(boolean isRead, long observedRps, long expectedRps) {
+        if (!config.isAutoGrowWorkersEnabled()) {
+            return;
+        }
+        AtomicInteger numWorkers = isRead ? readWorkers : writeWorkers;
+        AdaptiveConcurrencyLimiter concurrencyLimiter = (isRead ? readConcurrencyLimiter : writeConcurrencyLimiter).get();
+        int workers = numWorkers.get();
+        if (concurrencyLimiter == null || workers <= 0
+                || (concurrencyLimiter.isEnabled() && concurrencyLimiter.getLimit() < workers)) {
+            return;
+        }
+        long idleNanos = (isRead ? readIdleNanos : writeIdleNanos).get();
+        if (System.nanoTime() - idleNanos < TimeUnit.SECONDS.toNanos(config.getStatsUpdateFreqSeconds())) {
+            return;
+        }
+        int target = Math.min(config.getAutoGrowWorkersMax(), workers + Math.max(1, workers / 4));
+        if (target <= workers) {
+            return;
+        }
+        logger.info("Observed {} RPS ({}) below the rate limit ({}) with every worker busy, growing workers to {}",
+                isRead ? "read" : "write", observedRps, expectedRps, target);
+        // Goes through the tunable property, so that the new count shows in the configuration and lasts for the run
+        settableConfig.setProperty(NdBenchConstants.PROP_NAMESPACE + (isRead ? "numReaders" : "numWriters"), target);
+        if (isRead) {
+            onNumReadersChange();
+        } else {
+            onNumWritersChange();
         }
     }
 
@@ -286,19 +614,35 @@ public class NdBenchDriver {
             timerRef.get().shutdownNow();
             timerRef.set(null);
         }
+        shutdownDeadlinePool();
         ndBenchMonitor.resetStats();
     }
 
+    /**
+     * Interrupts the calls still running on the deadline pool, a new pool is created by the next call with a deadline.
+     */
+    private void shutdownDeadlinePool() {
+        ExecutorService pool = deadlinePoolRef.getAndSet(null);
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
     public void stopReads() {
         readsStarted.set(false);
         keyGeneratorReadRef.set(null);
+        acknowledgedWrites.setEnabled(false);
         stopOperation(tpReadRef);
+        FlightRecorderEvents.phaseTransition("reads", "stop");
+        checkAndCloseOperationLog();
     }
 
     public void stopWrites() {
         writesStarted.set(false);
         keyGeneratorWriteRef.set(null);
         stopOperation(tpWriteRef);
+        FlightRecorderEvents.phaseTransition("writes", "stop");
+        checkAndCloseOperationLog();
     }
 
     public void stopOperation(AtomicReference<ExecutorService> tpRef) {
@@ -309,50 +653,167 @@ public class NdBenchDriver {
             return;
         }
 
-        tp.shutdownNow();
+        // Workers finish the operation they are executing and exit, no new operations are started
+        tp.shutdown();
         tpRef.set(null);
 
-        logger.info("Attempting to shutdown threadpool");
-        while (!tp.isTerminated()) {
-            try {
-                logger.info("Waiting for worker pool to stop, sleeping for 5 to 10 seconds");
-
-                // Wait a while for existing tasks to terminate
+        int drainTimeoutMillis = config.getStopDrainTimeoutMillis();
+        logger.info("Attempting to shutdown threadpool, draining in-flight operations for up to {} ms", drainTimeoutMillis);
+        try {
+            if (!tp.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.info("In-flight operations did not drain in time, interrupting workers");
+                tp.shutdownNow(); // Cancel currently executing tasks
+                // Wait a while for tasks to respond to being cancelled
                 if (!tp.awaitTermination(TIMEOUT, TimeUnit.SECONDS)) {
-                    tp.shutdownNow(); // Cancel currently executing tasks
-                    // Wait a while for tasks to respond to being cancelled
-                    if (!tp.awaitTermination(TIMEOUT, TimeUnit.SECONDS))
-                        logger.error("Error while shutting down executor service : ");
+                    logger.error("Worker pool did not terminate within {} seconds, abandoning stuck workers", TIMEOUT);
+                    return;
                 }
-                logger.info("Threadpool has terminated!");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();//preserve the message
-                tp.shutdownNow();
-                logger.info("Failed to terminate Threadpool! Ignoring.");
-                break;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();//preserve the message
+            tp.shutdownNow();
+            logger.info("Failed to terminate Threadpool! Ignoring.");
+            return;
         }
         logger.info("Threadpool has terminated!");
     }
 
+    private boolean isStarted(NdBenchOperation operation) {
+        return (operation.isReadType() && readsStarted.get()) || (operation.isWriteType() && writesStarted.get());
+    }
+
+    /**
+     * Waits for a permit of the concurrency limiter, for a worker which already holds a permit of the rate limiter.
+     *
+     * @return false if the operations were stopped or the worker interrupted while waiting
+     */
+    private boolean awaitConcurrencyPermit(AdaptiveConcurrencyLimiter concurrencyLimiter, NdBenchOperation operation) {
+        while (!concurrencyLimiter.tryAcquire()) {
+            if (Thread.currentThread().isInterrupted() || !isStarted(operation)) {
+                return false;
+            }
+            LockSupport.parkNanos(CONCURRENCY_PERMIT_WAIT_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Runs the given client call under the configured operation deadline. The call is handed off to a separate pool
+     * so that a hung call only costs a pool thread while the worker is released to issue its next operation, which
+     * keeps the effective concurrency constant when the datastore browns out.
+     * <p>
+     * Most client libraries ignore the interrupt of a cancelled call, so an abandoned call holds on to its pool thread
+     * until it returns by itself. The pool therefore holds at most a thread per worker call in progress plus
+     * operationTimeoutMaxAbandoned threads of abandoned calls. Once that many calls are abandoned, further calls fail
+     * fast as timeouts without being made, until some of the abandoned calls return.
+     *
+     * @throws OperationTimeoutException if the call did not complete in time, the call is cancelled and abandoned
+     */
+    public <T> T callWithDeadline(Callable<T> call) throws Exception {
+        RunPlan plan = runPlanRef.get();
+        int timeoutMillis = plan.getOperationTimeoutMillis();
+        if (timeoutMillis <= 0) {
+            return call.call();
+        }
+        int maxAbandoned = plan.getOperationTimeoutMaxAbandoned();
+        if (maxAbandoned > 0 && abandonedCalls.get() >= maxAbandoned) {
+            throw new OperationTimeoutException("Operation not attempted, " + maxAbandoned +
+                                                " calls which timed out are still running");
+        }
+
+        // CALL_STARTED once the call runs, CALL_ABANDONED once given up on while running, CALL_DONE once it returned
+        AtomicInteger state = new AtomicInteger(CALL_PENDING);
+        Future<T> future = getDeadlinePool().submit(() -> {
+            state.set(CALL_STARTED);
+            try {
+                return call.call();
+            } finally {
+                if (state.getAndSet(CALL_DONE) == CALL_ABANDONED) {
+                    abandonedCalls.decrementAndGet();
+                }
+            }
+        });
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // a call cancelled before it started never runs and holds no thread
+            future.cancel(true);
+            if (state.compareAndSet(CALL_STARTED, CALL_ABANDONED)) {
+                abandonedCalls.incrementAndGet();
+            }
+            throw new OperationTimeoutException(timeoutMillis);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of client calls which were abandoned after timing out and are still running
+     */
+    public int getAbandonedCalls() {
+        return abandonedCalls.get();
+    }
+
+    private ExecutorService getDeadlinePool() {
+        ExecutorService pool = deadlinePoolRef.get();
+        if (pool == null) {
+            ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                                          .setNameFormat("ndbench-deadline-pool-%d")
+                                          .setDaemon(true).build();
+            pool = Executors.newCachedThreadPool(threadFactory);
+            if (!deadlinePoolRef.compareAndSet(null, pool)) {
+                pool.shutdown();
+                pool = deadlinePoolRef.get();
+            }
+        }
+        return pool;
+    }
+
     public interface NdBenchOperation {
         boolean process(NdBenchDriver driver,
                         NdBenchMonitor monitor,
                         List<String> keys,
                         AtomicReference<RateLimiter> rateLimiter,
-                        boolean isAutoTuneEnabled);
+                        boolean isAutoTuneEnabled,
+                        WorkerContext workerContext);
+
+        /**
+         * @return the context of a new worker thread, which the worker passes to every operation and closes on exit
+         */
+        WorkerContext newWorkerContext();
 
         boolean isReadType();
 
         boolean isWriteType();
     }
 
+    /**
+     * @return the namespace of the metrics of a client plugin, the name it is registered with if annotated
+     */
+    public static String getPluginNamespace(NdBenchAbstractClient<?> client) {
+        NdBenchClientPlugin plugin = client.getClass().getAnnotation(NdBenchClientPlugin.class);
+        return plugin != null ? plugin.value() : client.getClass().getSimpleName();
+    }
+
     public void init(NdBenchAbstractClient<?> client) throws Exception {
         if (!clientInited.get()) {
             try {
                 if (clientInited.compareAndSet(false, true)) {
-                    client.init(this.dataGenerator); // Exceptions from init method will be caught and clientInited will be reset
-                    clientRef.set(client);
+                    NdBenchAbstractClient<?> decorated = config.isClientCacheEnabled() ? cachingClient(client) : client;
+                    decorated.setPayloadMonitor(ndBenchMonitor);
+                    decorated.setPluginMetrics(ndBenchMonitor.getPluginMetrics(getPluginNamespace(client)));
+                    decorated.init(this.dataGenerator); // Exceptions from init method will be caught and clientInited will be reset
+                    pairKeys = client instanceof ComparisonClient;
+                    pluginClientRef.set(client);
+                    clientRef.set(decorated);
+                    readClientRef.set(hedgedReadClient(decorated));
                 }
             } catch (Exception e) {
                 clientInited.compareAndSet(true, false);
@@ -367,6 +828,107 @@ public class NdBenchDriver {
         }
     }
 
+    /**
+     * Takes a new run plan from the current configuration when nothing is running, reads and writes started while the
+     * other one is running share its plan.
+     */
+    private RunPlan checkAndTakeRunPlan() {
+        if (getIsReadRunning() || getIsWriteRunning()) {
+            return runPlanRef.get();
+        }
+        RunPlan plan = RunPlan.of(config);
+        runPlanRef.set(plan);
+        readKeyTierStats.reset();
+        writeKeyTierStats.reset();
+        visibilityStats.reset();
+        logger.info("Starting run with {}", plan);
+        checkAndOpenOperationLog(plan);
+        return plan;
+    }
+
+    /**
+     * @return the token range of the targeted load pattern, null for the other load patterns
+     * @throws IllegalArgumentException if the partitioner or token range is invalid
+     */
+    private static TokenRange getTargetRange(RunPlan plan, LoadPattern loadPattern) {
+        if (loadPattern != LoadPattern.TARGETED) {
+            return null;
+        }
+        return TokenRange.parse(plan.getTargetPartitioner(), plan.getTargetTokenRange());
+    }
+
+    private static TraceReplayKeyGenerator.Options getTraceOptions(RunPlan plan) {
+        return new TraceReplayKeyGenerator.Options(plan.getTraceFile(), plan.isTraceLoop(),
+                plan.isTraceHonorInterArrival(), plan.getTraceSpeed());
+    }
+
+    /**
+     * Every run gets its own operation log file, a log which could not be created is logged and the run goes on
+     * without it.
+     */
+    private void checkAndOpenOperationLog(RunPlan plan) {
+        closeOperationLog(operationLogRef.getAndSet(null));
+        if (plan.getOperationLogSampleRate() <= 0) {
+            return;
+        }
+        File dir = new File(config.getOperationLogDir());
+        File file = new File(dir, "oplog-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + ".bin");
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Could not create operation log directory " + dir.getAbsolutePath());
+            }
+            operationLogRef.set(new OperationLog(file, plan.getOperationLogSampleRate(),
+                    config.getOperationLogFlushIntervalMillis()));
+        } catch (IOException e) {
+            logger.error("Failed to open operation log {}, running without it", file, e);
+        }
+    }
+
+    private void checkAndCloseOperationLog() {
+        if (!getIsReadRunning() && !getIsWriteRunning()) {
+            closeOperationLog(operationLogRef.getAndSet(null));
+        }
+    }
+
+    private static void closeOperationLog(OperationLog operationLog) {
+        if (operationLog != null) {
+            try {
+                operationLog.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close operation log {}", operationLog.getFile(), e);
+            }
+        }
+    }
+
+    /**
+     * Records an operation in the operation log of the current run, if it has one and the operation is sampled.
+     */
+    public void logOperation(NdBenchAbstractClient<?> client, OperationLog.OpType opType, List<String> keys,
+                             long latencyMicros, OperationLog.Outcome outcome) {
+        OperationLog operationLog = operationLogRef.get();
+        if (operationLog != null) {
+            operationLog.record(client, opType, keys, latencyMicros, outcome);
+        }
+    }
+
+    public void onOperationTimeoutChange() {
+        RunPlan plan = runPlanRef.updateAndGet(p -> p.withOperationTimeoutMillis(config.getOperationTimeoutMillis()));
+        logger.info("Operation timeout changed to {} ms", plan.getOperationTimeoutMillis());
+    }
+
+    public void onJfrOperationSampleRateChange() {
+        runPlanRef.updateAndGet(p -> p.withJfrOperationSampleRate(config.getJfrOperationSampleRate()));
+    }
+
+    public void onHedgeReadsChange() {
+        RunPlan plan = runPlanRef.updateAndGet(p -> p.withHedgeReads(config.isHedgeReadsEnabled(),
+                config.getHedgeDelayMillis(), config.getHedgeDelayPercentile()));
+        logger.info("Hedged reads {}, hedge delay {} ms, hedge delay percentile '{}'",
+                plan.isHedgeReadsEnabled() ? "enabled" : "disabled", plan.getHedgeDelayMillis(),
+                plan.getHedgeDelayPercentile());
+        refreshHedgeDelay();
+    }
+
     public void onWriteRateLimitChange() {
         checkAndInitRateLimit(writeLimiter, config.getWriteRateLimit(), "writeLimiter");
     }
@@ -394,6 +956,7 @@ public class NdBenchDriver {
         if (oldLimiter == null) {
             logger.info("Setting rate Limit for: " + prop + " to: " + property);
             rateLimiter.set(RateLimiter.create(property));
+            FlightRecorderEvents.rateLimitChange(prop, 0, property);
             return;
         }
 
@@ -404,6 +967,35 @@ public class NdBenchDriver {
         if (oldLimit != newLimit) {
             logger.info("Updating rate Limit for: " + prop + " to: " + newLimit);
             rateLimiter.set(RateLimiter.create(newLimit));
+            FlightRecorderEvents.rateLimitChange(prop, oldLimit, newLimit);
+        }
+    }
+
+    private <W> HedgedReadClient<W> hedgedReadClient(NdBenchAbstractClient<W> client) {
+        return new HedgedReadClient<>(client, this::getRunPlan, ndBenchMonitor);
+    }
+
+    private <W> CachingClient<W> cachingClient(NdBenchAbstractClient<W> client) {
+        return new CachingClient<>(client, config, ndBenchMonitor);
+    }
+
+    private void updateConcurrencyLimits() {
+        AdaptiveConcurrencyLimiter readConcurrency = readConcurrencyLimiter.get();
+        AdaptiveConcurrencyLimiter writeConcurrency = writeConcurrencyLimiter.get();
+        if (readConcurrency != null && readConcurrency.isEnabled()) {
+            ndBenchMonitor.setReadConcurrencyLimit(readConcurrency.getLimit());
+            logger.info("Read concurrency limit: {}, in flight: {}", readConcurrency.getLimit(), readConcurrency.getInFlight());
+        }
+        if (writeConcurrency != null && writeConcurrency.isEnabled()) {
+            ndBenchMonitor.setWriteConcurrencyLimit(writeConcurrency.getLimit());
+            logger.info("Write concurrency limit: {}, in flight: {}", writeConcurrency.getLimit(), writeConcurrency.getInFlight());
+        }
+    }
+
+    private void refreshHedgeDelay() {
+        HedgedReadClient<?> readClient = readClientRef.get();
+        if (readClient != null) {
+            readClient.refreshHedgeDelay();
         }
     }
 
@@ -418,6 +1010,8 @@ public class NdBenchDriver {
             timer.submit(() -> {
                 while (!Thread.currentThread().isInterrupted()) {
                     rpsCount.updateRPS();
+                    updateConcurrencyLimits();
+                    refreshHedgeDelay();
                     Thread.sleep(config.getStatsUpdateFreqSeconds() * 1000);
                 }
                 return null;
@@ -427,10 +1021,14 @@ public class NdBenchDriver {
     }
 
     public void shutdownClient() throws Exception {
+        shutdownDeadlinePool();
         if (clientInited.get()) {
             clientRef.get().shutdown();
+            readClientRef.get().shutdown();
             if (clientInited.compareAndSet(true, false)) {
                 clientRef.set(null);
+                readClientRef.set(null);
+                pluginClientRef.set(null);
             }
         }
     }
@@ -454,6 +1052,121 @@ public class NdBenchDriver {
         return clientRef.get();
     }
 
+    /**
+     * @return the client plugin the driver was initialized with, without the decorators {@link #getClient()} has,
+     * null if no client is initialized
+     */
+    public NdBenchAbstractClient<?> getPluginClient() {
+        return pluginClientRef.get();
+    }
+
+    public AdaptiveConcurrencyLimiter getReadConcurrencyLimiter() {
+        return readConcurrencyLimiter.get();
+    }
+
+    public AdaptiveConcurrencyLimiter getWriteConcurrencyLimiter() {
+        return writeConcurrencyLimiter.get();
+    }
+
+    public BucketedLatencyHistogram getReadLatencyHistogram() {
+        return readLatencyHistogram;
+    }
+
+    public BucketedLatencyHistogram getWriteLatencyHistogram() {
+        return writeLatencyHistogram;
+    }
+
+    public KeyTierStats getReadKeyTierStats() {
+        return readKeyTierStats;
+    }
+
+    public KeyTierStats getWriteKeyTierStats() {
+        return writeKeyTierStats;
+    }
+
+    public VisibilityStats getVisibilityStats() {
+        return visibilityStats;
+    }
+
+    public AcknowledgedWrites getAcknowledgedWrites() {
+        return acknowledgedWrites;
+    }
+
+    /**
+     * @return the time the youngest write whose key the calling reader drew since its last call was acknowledged at,
+     * or 0 if the reads do not follow the writes
+     */
+    public long takeReadAckNanos() {
+        KeyGenerator<String> generator = keyGeneratorReadRef.get();
+        if (generator instanceof ReadYourWritesKeyGenerator) {
+            return ((ReadYourWritesKeyGenerator) generator).takeAckNanos();
+        }
+        return 0L;
+    }
+
+    /**
+     * @return the popularity tier of the keys of a read, null if the load pattern does not draw keys by popularity
+     */
+    public KeyTier getReadKeyTier(List<String> keys) {
+        return getKeyTier(keyGeneratorReadRef.get(), keys);
+    }
+
+    public KeyTier getWriteKeyTier(List<String> keys) {
+        return getKeyTier(keyGeneratorWriteRef.get(), keys);
+    }
+
+    private static KeyTier getKeyTier(KeyGenerator<String> generator, List<String> keys) {
+        if (generator == null) {
+            return null;
+        }
+        KeyTier tier = null;
+        for (String key : keys) {
+            int rank = generator.getKeyRank(key);
+            if (rank <= 0) {
+                return null;
+            }
+            KeyTier keyTier = KeyTier.of(rank, generator.getNumKeys());
+            if (tier == null || keyTier.compareTo(tier) > 0) {
+                tier = keyTier;
+            }
+        }
+        return tier;
+    }
+
+    public int getReadWorkers() {
+        return readWorkers.get();
+    }
+
+    public int getWriteWorkers() {
+        return writeWorkers.get();
+    }
+
+    public double getJfrOperationSampleRate() {
+        return runPlanRef.get().getJfrOperationSampleRate();
+    }
+
+    public RunPlan getRunPlan() {
+        return runPlanRef.get();
+    }
+
+    public double getReadRateLimit() {
+        RateLimiter limiter = readLimiter.get();
+        return limiter == null ? 0D : limiter.getRate();
+    }
+
+    public double getWriteRateLimit() {
+        RateLimiter limiter = writeLimiter.get();
+        return limiter == null ? 0D : limiter.getRate();
+    }
+
+    public OperationProfiler getReadProfiler() {
+        return readProfiler.get();
+    }
+
+    public OperationProfiler getWriteProfiler() {
+        return writeProfiler.get();
+    }
+
     public KeyGenerator getWriteLoadPattern() {
         return keyGeneratorWriteRef.get();
     }
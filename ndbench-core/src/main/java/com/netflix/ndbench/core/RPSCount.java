@@ -31,6 +31,11 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class RPSCount {
     private static final Logger logger = LoggerFactory.getLogger(RPSCount.class);
+    /**
+     * Share of the rate limit below which the rate of an interval is a shortfall the under rate listener is told of,
+     * rather than the expected jitter of a run holding its rate limit
+     */
+    static final double UNDER_RATE_SHARE = 0.9;
     private final AtomicLong reads = new AtomicLong(0L);
     private final AtomicLong writes = new AtomicLong(0L);
     private final IConfiguration config;
@@ -39,6 +44,19 @@ public class RPSCount {
     private final AtomicReference<RateLimiter> writeLimiter;
     private final AtomicBoolean readsStarted;
     private final AtomicBoolean writesStarted;
+    private final UnderRateListener underRateListener;
+    // Whether reads and writes were running at the previous update, i.e. throughout the interval since, only read
+    // and written by the stats timer
+    private boolean readsRunning = false;
+    private boolean writesRunning = false;
+
+    /**
+     * Told when the observed rate of reads or writes fell short of {@link #UNDER_RATE_SHARE} of their rate limit over
+     * a stats interval they were running throughout.
+     */
+    interface UnderRateListener {
+        void onUnderRate(boolean isRead, long observedRps, long expectedRps);
+    }
 
     RPSCount(AtomicBoolean readsStarted,
              AtomicBoolean writesStarted,
@@ -46,7 +64,18 @@ public class RPSCount {
              AtomicReference<RateLimiter> writeLimiter,
              IConfiguration config,
              NdBenchMonitor ndBenchMonitor) {
+        this(readsStarted, writesStarted, readLimiter, writeLimiter, config, ndBenchMonitor, (r, o, e) -> {});
+    }
+
+    RPSCount(AtomicBoolean readsStarted,
+             AtomicBoolean writesStarted,
+             AtomicReference<RateLimiter> readLimiter,
+             AtomicReference<RateLimiter> writeLimiter,
+             IConfiguration config,
+             NdBenchMonitor ndBenchMonitor,
+             UnderRateListener underRateListener) {
 
+        this.underRateListener = underRateListener;
         this.readsStarted = readsStarted;
         this.writesStarted = writesStarted;
         this.readLimiter = readLimiter;
@@ -60,13 +89,17 @@ public class RPSCount {
         int secondsFreq = config.getStatsUpdateFreqSeconds();
 
 
-        long totalReads = ndBenchMonitor.getReadSuccess() + ndBenchMonitor.getReadFailure();
-        long totalWrites = ndBenchMonitor.getWriteSuccess() + ndBenchMonitor.getWriteFailure();
+        // scans are issued by the read workers in place of reads, and count against the read rate limit
+        long totalReads = ndBenchMonitor.getReadSuccess() + ndBenchMonitor.getReadFailure() + ndBenchMonitor.getReadTimeout()
+                + ndBenchMonitor.getScanSuccess() + ndBenchMonitor.getScanFailure() + ndBenchMonitor.getScanTimeout();
+        long totalWrites = ndBenchMonitor.getWriteSuccess() + ndBenchMonitor.getWriteFailure() + ndBenchMonitor.getWriteTimeout();
         long totalOps = totalReads + totalWrites;
-        long totalSuccess = ndBenchMonitor.getReadSuccess() + ndBenchMonitor.getWriteSuccess();
+        long totalSuccess = ndBenchMonitor.getReadSuccess() + ndBenchMonitor.getScanSuccess() + ndBenchMonitor.getWriteSuccess();
 
-        long readRps = (totalReads - reads.get()) / secondsFreq;
-        long writeRps = (totalWrites - writes.get()) / secondsFreq;
+        long intervalReads = totalReads - reads.get();
+        long intervalWrites = totalWrites - writes.get();
+        long readRps = intervalReads / secondsFreq;
+        long writeRps = intervalWrites / secondsFreq;
 
         long sRatio = (totalOps > 0) ? (totalSuccess * 100L / (totalOps)) : 0;
 
@@ -77,18 +110,31 @@ public class RPSCount {
 
         logger.info("Read avg: "  + (double) ndBenchMonitor.getReadLatAvg() / 1000.0  + "ms, Read RPS: "  + readRps
                 + ", Write avg: " + (double) ndBenchMonitor.getWriteLatAvg() / 1000.0 + "ms, Write RPS: " + writeRps
-                + ", total RPS: " + (readRps + writeRps) + ", Success Ratio: " + sRatio + "%");
-        long expectedReadRate = (long) this.readLimiter.get().getRate();
-        long expectedwriteRate = (long) this.writeLimiter.get().getRate();
+                + ", total RPS: " + (readRps + writeRps) + ", Success Ratio: " + sRatio + "%"
+                + ", Read timeouts: " + ndBenchMonitor.getReadTimeout() + ", Write timeouts: " + ndBenchMonitor.getWriteTimeout());
+        double readRate = this.readLimiter.get().getRate();
+        double writeRate = this.writeLimiter.get().getRate();
+        long expectedReadRate = (long) readRate;
+        long expectedwriteRate = (long) writeRate;
         String bottleneckMsg = "If this occurs consistently the benchmark client could be the bottleneck.";
 
-        if (this.config.isReadEnabled() && readsStarted.get() && readRps < expectedReadRate) {
+        boolean readsWereRunning = readsRunning;
+        boolean writesWereRunning = writesRunning;
+        readsRunning = this.config.isReadEnabled() && readsStarted.get();
+        writesRunning = this.config.isWriteEnabled() && writesStarted.get();
+        if (readsRunning && readRps < expectedReadRate) {
             logger.warn("Observed Read RPS ({}) less than expected read rate + ({}).\n{}",
                     readRps, expectedReadRate, bottleneckMsg);
+            if (readsWereRunning && intervalReads < UNDER_RATE_SHARE * readRate * secondsFreq) {
+                underRateListener.onUnderRate(true, readRps, expectedReadRate);
+            }
         }
-        if (this.config.isWriteEnabled() && writesStarted.get() && writeRps < expectedwriteRate) {
+        if (writesRunning && writeRps < expectedwriteRate) {
             logger.warn("Observed Write RPS ({}) less than expected write rate + ({}).\n{}",
                     writeRps, expectedwriteRate, bottleneckMsg);
+            if (writesWereRunning && intervalWrites < UNDER_RATE_SHARE * writeRate * secondsFreq) {
+                underRateListener.onUnderRate(false, writeRps, expectedwriteRate);
+            }
         }
     }
 }
@@ -0,0 +1,442 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.clients;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.ndbench.api.plugin.DataGenerator;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.NdBenchWorkerContextClient;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+import com.netflix.ndbench.api.plugin.ScanCallback;
+import com.netflix.ndbench.core.config.IConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator which puts a read-through cache in front of any client plugin, to benchmark a near cache and its backing
+ * store together rather than the store alone.
+ * <p>
+ * Reads are served from the cache when the key is cached, and otherwise read from the decorated client, caching the
+ * value if one was found. Writes always go to the decorated client, after which the key is either invalidated or, in
+ * write-through mode, cached with the value written to it. The cache learns that value from the data generator it
+ * hands to the decorated client: a write which takes exactly one value per key from it, on the thread calling the
+ * write, is taken to write those values in the order of its keys. The keys of any other write are invalidated, as
+ * their values are not known to the cache. The capacity, time to live, eviction policy and write mode are taken from
+ * the configuration when the client is initialized.
+ * <p>
+ * Besides the driver's usual stats, which cover reads served from either tier, the cache reports the following plugin
+ * metrics under the <code>clientCache</code> namespace: its hit ratio over the keys read, the backend load reduction,
+ * i.e. the share of the reads which did not have to go to the decorated client, and the latency of the reads served by
+ * the cache and of those which went to the decorated client, in microseconds.
+ *
+ * @param <W> - the type of the result returned by the decorated client's writes
+ */
+public class CachingClient<W> implements NdBenchWorkerContextClient<W, Object> {
+    private static final Logger logger = LoggerFactory.getLogger(CachingClient.class);
+
+    public enum EvictionPolicy {
+        /**
+         * Least recently used entries are evicted once the cache is full, entries expire a time to live after they
+         * were written.
+         */
+        LRU,
+        /**
+         * Same as {@link #LRU}, except entries expire a time to live after they were last read or written.
+         */
+        LRU_IDLE,
+        /**
+         * Same as {@link #LRU}, with values also being evicted by the garbage collector under memory pressure.
+         */
+        SOFT
+    }
+
+    public enum WriteMode {
+        THROUGH, INVALIDATE
+    }
+
+    private final NdBenchAbstractClient<W> client;
+    private final NdBenchWorkerContextClient<W, Object> contextClient;
+    private final IConfiguration config;
+
+    private volatile Cache<String, String> cache;
+    private volatile WriteMode writeMode = WriteMode.INVALIDATE;
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder backendReads = new LongAdder();
+    private final PluginMetrics.Histogram hitLatency;
+    private final PluginMetrics.Histogram backendLatency;
+    private final ValueCapture written = new ValueCapture();
+
+    public CachingClient(NdBenchAbstractClient<W> client, IConfiguration config, NdBenchMonitor monitor) {
+        this.client = client;
+        this.contextClient = getContextClient(client);
+        this.config = config;
+
+        PluginMetrics metrics = monitor.getPluginMetrics("clientCache");
+        this.hitLatency = metrics.histogram("hitLatencyMicros");
+        this.backendLatency = metrics.histogram("backendLatencyMicros");
+        metrics.gauge("hits", () -> cache == null ? 0 : cache.stats().hitCount());
+        metrics.gauge("misses", () -> cache == null ? 0 : cache.stats().missCount());
+        metrics.gauge("reads", reads::sum);
+        metrics.gauge("backendReads", backendReads::sum);
+        metrics.gauge("hitRatio", this::getHitRatio);
+        metrics.gauge("backendLoadReduction", this::getBackendLoadReduction);
+        metrics.gauge("size", () -> cache == null ? 0 : cache.size());
+        metrics.gauge("evictions", () -> cache == null ? 0 : cache.stats().evictionCount());
+    }
+
+    @Override
+    public void setPayloadMonitor(NdBenchMonitor monitor) {
+        client.setPayloadMonitor(monitor);
+    }
+
+    @Override
+    public void setPluginMetrics(PluginMetrics metrics) {
+        client.setPluginMetrics(metrics);
+    }
+
+    @Override
+    public String getOperationTag(String key) {
+        return client.getOperationTag(key);
+    }
+
+    /**
+     * Operations against another target are not cached, they go to the plugin's client for the target.
+     */
+    @Override
+    public NdBenchAbstractClient<W> forTarget(String target) throws Exception {
+        return client.forTarget(target);
+    }
+
+    /**
+     * Scans always go to the plugin's client, their rows are neither looked up in nor added to the cache.
+     */
+    @Override
+    public void scan(String startKey, int limit, int pageSize, ScanCallback callback) throws Exception {
+        client.scan(startKey, limit, pageSize, callback);
+    }
+
+    @Override
+    public void init(DataGenerator dataGenerator) throws Exception {
+        EvictionPolicy policy = EvictionPolicy.valueOf(config.getClientCacheEvictionPolicy().toUpperCase());
+        this.writeMode = WriteMode.valueOf(config.getClientCacheWriteMode().toUpperCase());
+        this.cache = buildCache(config.getClientCacheCapacity(), config.getClientCacheTtlMillis(), policy);
+        logger.info("Caching reads in front of the client, capacity: {}, ttl: {} ms, eviction: {}, writes: {}",
+                config.getClientCacheCapacity(), config.getClientCacheTtlMillis(), policy, writeMode);
+        client.init(new CapturingDataGenerator(dataGenerator, written));
+    }
+
+    static Cache<String, String> buildCache(long capacity, long ttlMillis, EvictionPolicy policy) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .maximumSize(capacity)
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .recordStats();
+        if (ttlMillis > 0) {
+            if (policy == EvictionPolicy.LRU_IDLE) {
+                builder.expireAfterAccess(ttlMillis, TimeUnit.MILLISECONDS);
+            } else {
+                builder.expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (policy == EvictionPolicy.SOFT) {
+            builder.softValues();
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String readSingle(String key) throws Exception {
+        return readThrough(key, () -> client.readSingle(key));
+    }
+
+    @Override
+    public List<String> readBulk(List<String> keys) throws Exception {
+        return readBulkThrough(keys, client::readBulk);
+    }
+
+    @Override
+    public W writeSingle(String key) throws Exception {
+        return writeThrough(Collections.singletonList(key), () -> client.writeSingle(key));
+    }
+
+    @Override
+    public List<W> writeBulk(List<String> keys) throws Exception {
+        return writeThrough(keys, () -> client.writeBulk(keys));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <W> NdBenchWorkerContextClient<W, Object> getContextClient(NdBenchAbstractClient<W> client) {
+        return client instanceof NdBenchWorkerContextClient ? (NdBenchWorkerContextClient<W, Object>) client : null;
+    }
+
+    /**
+     * @return the decorated client's worker context, null if it does not have worker contexts
+     */
+    @Override
+    public Object createWorkerContext() throws Exception {
+        return contextClient == null ? null : contextClient.createWorkerContext();
+    }
+
+    @Override
+    public void closeWorkerContext(Object context) throws Exception {
+        if (contextClient != null && context != null) {
+            contextClient.closeWorkerContext(context);
+        }
+    }
+
+    @Override
+    public String readSingle(Object context, String key) throws Exception {
+        if (contextClient == null) {
+            return readSingle(key);
+        }
+        return readThrough(key, () -> contextClient.readSingle(context, key));
+    }
+
+    @Override
+    public List<String> readBulk(Object context, List<String> keys) throws Exception {
+        if (contextClient == null) {
+            return readBulk(keys);
+        }
+        return readBulkThrough(keys, missing -> contextClient.readBulk(context, missing));
+    }
+
+    @Override
+    public W writeSingle(Object context, String key) throws Exception {
+        if (contextClient == null) {
+            return writeSingle(key);
+        }
+        return writeThrough(Collections.singletonList(key), () -> contextClient.writeSingle(context, key));
+    }
+
+    @Override
+    public List<W> writeBulk(Object context, List<String> keys) throws Exception {
+        if (contextClient == null) {
+            return writeBulk(keys);
+        }
+        return writeThrough(keys, () -> contextClient.writeBulk(context, keys));
+    }
+
+    private String readThrough(String key, Callable<String> backendRead) throws Exception {
+        long start = System.nanoTime();
+        reads.increment();
+        String value = cache.getIfPresent(key);
+        if (value != null) {
+            hitLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            return value;
+        }
+        backendReads.increment();
+        value = backendRead.call();
+        backendLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        if (value != null) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Reads the keys which are not cached with one bulk read of the decorated client. The values it returns are cached
+     * when there is one per key read, and are otherwise only returned after the cached values.
+     */
+    private List<String> readBulkThrough(List<String> keys, BulkRead backendRead) throws Exception {
+        long start = System.nanoTime();
+        reads.increment();
+        List<String> cached = new ArrayList<>(keys.size());
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            String value = cache.getIfPresent(key);
+            cached.add(value);
+            if (value == null) {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            hitLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            return cached;
+        }
+
+        backendReads.increment();
+        List<String> values = backendRead.apply(missing);
+        backendLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        if (values == null || values.size() != missing.size()) {
+            List<String> result = new ArrayList<>(keys.size());
+            for (String value : cached) {
+                if (value != null) {
+                    result.add(value);
+                }
+            }
+            if (values != null) {
+                result.addAll(values);
+            }
+            return result;
+        }
+
+        Iterator<String> backendValues = values.iterator();
+        for (int i = 0; i < cached.size(); i++) {
+            if (cached.get(i) == null) {
+                String value = backendValues.next();
+                cached.set(i, value);
+                if (value != null) {
+                    cache.put(keys.get(i), value);
+                }
+            }
+        }
+        return cached;
+    }
+
+    private <R> R writeThrough(List<String> keys, Callable<R> backendWrite) throws Exception {
+        if (writeMode != WriteMode.THROUGH) {
+            R result = backendWrite.call();
+            cache.invalidateAll(keys);
+            return result;
+        }
+        List<String> values = written.start();
+        try {
+            R result = backendWrite.call();
+            if (values.size() == keys.size()) {
+                for (int i = 0; i < keys.size(); i++) {
+                    cache.put(keys.get(i), values.get(i));
+                }
+            } else {
+                cache.invalidateAll(keys);
+            }
+            return result;
+        } catch (Exception e) {
+            cache.invalidateAll(keys);
+            throw e;
+        } finally {
+            written.stop();
+        }
+    }
+
+    /**
+     * @return the share of the keys read which were found in the cache, between 0 and 1
+     */
+    double getHitRatio() {
+        return cache == null ? 0D : cache.stats().hitRate();
+    }
+
+    /**
+     * @return the share of the reads, single or bulk, which did not have to go to the decorated client, between 0
+     * and 1. A bulk read goes to the decorated client if any of its keys is not cached.
+     */
+    double getBackendLoadReduction() {
+        long readCount = reads.sum();
+        return readCount == 0 ? 0D : 1D - backendReads.sum() / (double) readCount;
+    }
+
+    /**
+     * Shuts down the decorated client, which the cache owns, and empties the cache.
+     */
+    @Override
+    public void shutdown() throws Exception {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        client.shutdown();
+    }
+
+    @Override
+    public String getConnectionInfo() throws Exception {
+        return client.getConnectionInfo() + " (cached)";
+    }
+
+    @Override
+    public String runWorkFlow() throws Exception {
+        return client.runWorkFlow();
+    }
+
+    @Override
+    public Double autoTuneWriteRateLimit(Double currentRateLimit, List<W> event, NdBenchMonitor runStats) {
+        return client.autoTuneWriteRateLimit(currentRateLimit, event, runStats);
+    }
+
+    @Override
+    public double autoTuneReadRateLimit(double currentRateLimit, List<W> event, NdBenchMonitor runStats) {
+        return client.autoTuneReadRateLimit(currentRateLimit, event, runStats);
+    }
+
+    private interface BulkRead {
+        List<String> apply(List<String> keys) throws Exception;
+    }
+
+    /**
+     * The values taken from the data generator by the write in progress on each thread.
+     */
+    private static class ValueCapture {
+        private final ThreadLocal<List<String>> values = new ThreadLocal<>();
+
+        List<String> start() {
+            List<String> captured = new ArrayList<>(1);
+            values.set(captured);
+            return captured;
+        }
+
+        void stop() {
+            values.remove();
+        }
+
+        String add(String value) {
+            List<String> captured = values.get();
+            if (captured != null && value != null) {
+                captured.add(value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Data generator handed to the decorated client, which records the values it takes while a write is in progress.
+     */
+    private static class CapturingDataGenerator implements DataGenerator {
+        private final DataGenerator dataGenerator;
+        private final ValueCapture capture;
+
+        CapturingDataGenerator(DataGenerator dataGenerator, ValueCapture capture) {
+            this.dataGenerator = dataGenerator;
+            this.capture = capture;
+        }
+
+        @Override
+        public String getRandomString() {
+            return capture.add(dataGenerator.getRandomString());
+        }
+
+        @Override
+        public String getRandomValue() {
+            return capture.add(dataGenerator.getRandomValue());
+        }
+
+        @Override
+        public Integer getRandomInteger() {
+            return dataGenerator.getRandomInteger();
+        }
+
+        @Override
+        public Integer getRandomIntegerValue() {
+            return dataGenerator.getRandomIntegerValue();
+        }
+    }
+}
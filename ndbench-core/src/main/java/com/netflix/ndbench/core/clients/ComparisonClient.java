@@ -0,0 +1,411 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.clients;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.ndbench.api.plugin.DataGenerator;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.NdBenchWorkerContextClient;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.generators.DefaultDataGenerator;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import com.netflix.ndbench.core.results.RunComparison;
+import com.netflix.ndbench.core.results.RunResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs two client plugins side by side under the same load, so that they can be compared on measurements taken at the
+ * same time against the backend in the same state, rather than in two runs made one after the other.
+ * <p>
+ * Every worker pairs up its operations: the driver issues the second operation of a pair with the keys of the first
+ * one, so that what it records of both operations is the keys they actually ran with. The first operation of a pair
+ * goes to one client, and the second goes to the other client. Both clients therefore see the same sequence of keys,
+ * interleaved, each at half of the driver's rate. The client going first alternates from one pair to the next, so that
+ * neither always finds the keys warmed up by the other. Both clients are initialized with a data generator created
+ * from the same seed, so they draw their values from the same data set.
+ * <p>
+ * The latencies and failures of each client are kept apart, reported as plugin metrics under the namespaces
+ * <code>comparison.a</code> and <code>comparison.b</code>, and recorded every run result interval so that
+ * {@link #getReport} can compare the interval values of both clients with a rank test.
+ * <p>
+ * Operations issued without a worker context, i.e. backfills, single operations issued through REST and hedged reads,
+ * are applied to both clients one after the other. Scans are not supported, the driver does not start reads with a
+ * scan ratio when comparing clients.
+ */
+public class ComparisonClient implements NdBenchWorkerContextClient<Object, ComparisonClient.Pairing> {
+    private static final Logger logger = LoggerFactory.getLogger(ComparisonClient.class);
+
+    /**
+     * Intervals kept for the report, older intervals are dropped.
+     */
+    static final int MAX_INTERVALS = 3600;
+
+    private final Variant a;
+    private final Variant b;
+    private final IConfiguration config;
+    private final NdBenchMonitor monitor;
+    private volatile ScheduledExecutorService timer;
+    private volatile long startTime;
+
+    public ComparisonClient(String nameA, NdBenchAbstractClient<?> clientA, String nameB, NdBenchAbstractClient<?> clientB,
+                            IConfiguration config, NdBenchMonitor monitor) {
+        if (clientA == clientB) {
+            throw new IllegalArgumentException("A client cannot be compared with itself: " + nameA);
+        }
+        this.a = new Variant(0, nameA, clientA);
+        this.b = new Variant(1, nameB, clientB);
+        this.config = config;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void setPayloadMonitor(NdBenchMonitor monitor) {
+        a.client.setPayloadMonitor(monitor);
+        b.client.setPayloadMonitor(monitor);
+    }
+
+    /**
+     * Each client gets the metrics of its own plugin namespace rather than the one of the comparison.
+     */
+    @Override
+    public void setPluginMetrics(PluginMetrics metrics) {
+        a.client.setPluginMetrics(monitor.getPluginMetrics(NdBenchDriver.getPluginNamespace(a.client)));
+        b.client.setPluginMetrics(monitor.getPluginMetrics(NdBenchDriver.getPluginNamespace(b.client)));
+    }
+
+    @Override
+    public void init(DataGenerator dataGenerator) throws Exception {
+        long seed = config.getComparisonSeed();
+        a.client.init(new DefaultDataGenerator(config, seed));
+        b.client.init(new DefaultDataGenerator(config, seed));
+        a.registerMetrics(monitor.getPluginMetrics("comparison.a"));
+        b.registerMetrics(monitor.getPluginMetrics("comparison.b"));
+
+        startTime = System.currentTimeMillis();
+        int intervalSeconds = config.getRunResultIntervalSeconds();
+        timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ndbench-comparison-%d")
+                .setDaemon(true).build());
+        timer.scheduleAtFixedRate(this::recordInterval, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        logger.info("Comparing {} with {}", a.name, b.name);
+    }
+
+    @Override
+    public Pairing createWorkerContext() throws Exception {
+        Object contextA = a.createWorkerContext();
+        try {
+            return new Pairing(contextA, b.createWorkerContext());
+        } catch (Exception e) {
+            a.closeWorkerContext(contextA);
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeWorkerContext(Pairing pairing) throws Exception {
+        try {
+            a.closeWorkerContext(pairing.contexts[a.index]);
+        } finally {
+            b.closeWorkerContext(pairing.contexts[b.index]);
+        }
+    }
+
+    @Override
+    public String readSingle(Pairing pairing, String key) throws Exception {
+        return pairing.next(a, b).readSingle(pairing, key);
+    }
+
+    @Override
+    public List<String> readBulk(Pairing pairing, List<String> keys) throws Exception {
+        return pairing.next(a, b).readBulk(pairing, keys);
+    }
+
+    @Override
+    public Object writeSingle(Pairing pairing, String key) throws Exception {
+        return pairing.next(a, b).writeSingle(pairing, key);
+    }
+
+    @Override
+    public List<Object> writeBulk(Pairing pairing, List<String> keys) throws Exception {
+        return pairing.next(a, b).writeBulk(pairing, keys);
+    }
+
+    @Override
+    public String readSingle(String key) throws Exception {
+        String result = a.readSingle(null, key);
+        b.readSingle(null, key);
+        return result;
+    }
+
+    @Override
+    public List<String> readBulk(List<String> keys) throws Exception {
+        List<String> result = a.readBulk(null, keys);
+        b.readBulk(null, keys);
+        return result;
+    }
+
+    @Override
+    public Object writeSingle(String key) throws Exception {
+        Object result = a.writeSingle(null, key);
+        b.writeSingle(null, key);
+        return result;
+    }
+
+    @Override
+    public List<Object> writeBulk(List<String> keys) throws Exception {
+        List<Object> result = a.writeBulk(null, keys);
+        b.writeBulk(null, keys);
+        return result;
+    }
+
+    /**
+     * Shuts down both clients, which the comparison owns.
+     */
+    @Override
+    public void shutdown() throws Exception {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        try {
+            a.client.shutdown();
+        } finally {
+            b.client.shutdown();
+        }
+    }
+
+    @Override
+    public String getConnectionInfo() throws Exception {
+        return "A: " + a.client.getConnectionInfo() + " | B: " + b.client.getConnectionInfo();
+    }
+
+    @Override
+    public String runWorkFlow() throws Exception {
+        return "A: " + a.client.runWorkFlow() + " | B: " + b.client.runWorkFlow();
+    }
+
+    private void recordInterval() {
+        try {
+            long now = System.currentTimeMillis();
+            a.recordInterval(now);
+            b.recordInterval(now);
+        } catch (Exception e) {
+            logger.warn("Failed to record comparison interval", e);
+        }
+    }
+
+    /**
+     * Compares the latencies and throughput of the second client, the candidate, with those of the first one, the
+     * baseline, over the intervals recorded so far.
+     *
+     * @param alpha significance level of the difference of each metric
+     */
+    public Map<String, Object> getReport(double alpha) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("a", a.getSummary());
+        report.put("b", b.getSummary());
+        report.put("comparison", RunComparison.compare(a.toRunResult(), b.toRunResult(), null, alpha));
+        return report;
+    }
+
+    /**
+     * Per worker state of a comparison: the worker contexts of both clients, whether the next operation is the second
+     * of a pair, and which client goes first. It is discarded with the worker's context, e.g. when an operation timed
+     * out, upon which the driver starts a new pair as well.
+     */
+    static class Pairing {
+        private final Object[] contexts;
+        private boolean second = false;
+        private boolean aFirst = true;
+
+        Pairing(Object contextA, Object contextB) {
+            this.contexts = new Object[]{contextA, contextB};
+        }
+
+        /**
+         * @return the client the next operation goes to
+         */
+        <V> V next(V a, V b) {
+            if (!second) {
+                second = true;
+                return aFirst ? a : b;
+            }
+            second = false;
+            V client = aFirst ? b : a;
+            aFirst = !aFirst;
+            return client;
+        }
+    }
+
+    /**
+     * One of the two clients being compared, with its own stats.
+     */
+    private class Variant {
+        private final int index;
+        private final String name;
+        private final NdBenchAbstractClient<Object> client;
+        private final NdBenchWorkerContextClient<Object, Object> contextClient;
+        private final BucketedLatencyHistogram readLatency = new BucketedLatencyHistogram();
+        private final BucketedLatencyHistogram writeLatency = new BucketedLatencyHistogram();
+        private final LongAdder readFailures = new LongAdder();
+        private final LongAdder writeFailures = new LongAdder();
+
+        // guarded by this
+        private final Deque<RunResult.Interval> intervals = new ArrayDeque<>();
+        private long[] lastReadCounts = readLatency.getFineBucketCounts();
+        private long[] lastWriteCounts = writeLatency.getFineBucketCounts();
+
+        @SuppressWarnings("unchecked")
+        private Variant(int index, String name, NdBenchAbstractClient<?> client) {
+            this.index = index;
+            this.name = name;
+            this.client = (NdBenchAbstractClient<Object>) client;
+            this.contextClient = client instanceof NdBenchWorkerContextClient
+                    ? (NdBenchWorkerContextClient<Object, Object>) client : null;
+        }
+
+        private void registerMetrics(PluginMetrics metrics) {
+            metrics.gauge("readSuccess", readLatency::getCount);
+            metrics.gauge("readFailure", readFailures::sum);
+            metrics.gauge("readLatP50", () -> readLatency.getPercentile(0.5));
+            metrics.gauge("readLatP99", () -> readLatency.getPercentile(0.99));
+            metrics.gauge("writeSuccess", writeLatency::getCount);
+            metrics.gauge("writeFailure", writeFailures::sum);
+            metrics.gauge("writeLatP50", () -> writeLatency.getPercentile(0.5));
+            metrics.gauge("writeLatP99", () -> writeLatency.getPercentile(0.99));
+        }
+
+        private Object createWorkerContext() throws Exception {
+            return contextClient == null ? null : contextClient.createWorkerContext();
+        }
+
+        private void closeWorkerContext(Object context) throws Exception {
+            if (contextClient != null && context != null) {
+                contextClient.closeWorkerContext(context);
+            }
+        }
+
+        /**
+         * The methods of the variant's client are called with the variant's worker context from the pairing, or
+         * without a context if the pairing is null.
+         */
+        private String readSingle(Pairing pairing, String key) throws Exception {
+            return read(() -> pairing == null || contextClient == null ? client.readSingle(key)
+                    : contextClient.readSingle(pairing.contexts[index], key));
+        }
+
+        private List<String> readBulk(Pairing pairing, List<String> keys) throws Exception {
+            return read(() -> pairing == null || contextClient == null ? client.readBulk(keys)
+                    : contextClient.readBulk(pairing.contexts[index], keys));
+        }
+
+        private Object writeSingle(Pairing pairing, String key) throws Exception {
+            return write(() -> pairing == null || contextClient == null ? client.writeSingle(key)
+                    : contextClient.writeSingle(pairing.contexts[index], key));
+        }
+
+        private List<Object> writeBulk(Pairing pairing, List<String> keys) throws Exception {
+            return write(() -> pairing == null || contextClient == null ? client.writeBulk(keys)
+                    : contextClient.writeBulk(pairing.contexts[index], keys));
+        }
+
+        private <T> T read(Callable<T> operation) throws Exception {
+            return measure(operation, readLatency, readFailures);
+        }
+
+        private <T> T write(Callable<T> operation) throws Exception {
+            return measure(operation, writeLatency, writeFailures);
+        }
+
+        private <T> T measure(Callable<T> operation, BucketedLatencyHistogram latency, LongAdder failures)
+                throws Exception {
+            long start = System.nanoTime();
+            try {
+                T result = operation.call();
+                latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                return result;
+            } catch (Exception e) {
+                failures.increment();
+                throw e;
+            }
+        }
+
+        private synchronized void recordInterval(long now) {
+            long[] readCounts = readLatency.getFineBucketCounts();
+            long[] writeCounts = writeLatency.getFineBucketCounts();
+            intervals.addLast(new RunResult.Interval(now, subtract(readCounts, lastReadCounts),
+                    subtract(writeCounts, lastWriteCounts)));
+            if (intervals.size() > MAX_INTERVALS) {
+                intervals.removeFirst();
+            }
+            lastReadCounts = readCounts;
+            lastWriteCounts = writeCounts;
+        }
+
+        private synchronized RunResult toRunResult() {
+            RunResult run = new RunResult();
+            run.setId(name);
+            run.setPlugin(NdBenchDriver.getPluginNamespace(client));
+            run.setStartTime(startTime);
+            run.setEndTime(System.currentTimeMillis());
+            run.setIntervalSeconds(config.getRunResultIntervalSeconds());
+            run.setLatencyBucketBoundsMicros(BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS.clone());
+            run.setIntervals(new ArrayList<>(intervals));
+            return run;
+        }
+
+        private Map<String, Object> getSummary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("client", name);
+            summary.put("read", getOperationSummary(readLatency, readFailures));
+            summary.put("write", getOperationSummary(writeLatency, writeFailures));
+            return summary;
+        }
+
+        private Map<String, Object> getOperationSummary(BucketedLatencyHistogram latency, LongAdder failures) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("success", latency.getCount());
+            summary.put("failure", failures.sum());
+            summary.put("latencyMicrosP50", latency.getPercentile(0.5));
+            summary.put("latencyMicrosP99", latency.getPercentile(0.99));
+            return summary;
+        }
+    }
+
+    private static long[] subtract(long[] counts, long[] previous) {
+        long[] difference = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            difference[i] = counts[i] - previous[i];
+        }
+        return difference;
+    }
+}
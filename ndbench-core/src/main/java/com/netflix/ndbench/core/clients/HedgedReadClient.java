@@ -0,0 +1,301 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.clients;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.ndbench.api.plugin.DataGenerator;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.NdBenchWorkerContextClient;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+import com.netflix.ndbench.api.plugin.ScanCallback;
+import com.netflix.ndbench.core.config.RunPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decorator which hedges the reads of any client plugin. When hedging is enabled a read which has not completed
+ * after the hedge delay is issued a second time and the first successful response wins, the slower request is left to
+ * complete in the background. Writes are never hedged since they are not guaranteed to be idempotent.
+ * <p>
+ * Hedging is controlled through the tunable configs, so it can be switched on and off while a benchmark is running.
+ * The settings are read from the current {@link RunPlan} rather than from the configuration on every read.
+ * The hedge delay is either a fixed number of milliseconds or, when a percentile is configured, the read latency
+ * percentile reported by the {@link NdBenchMonitor}. Reading a percentile takes a snapshot of the whole latency
+ * reservoir, so the delay is only recomputed by {@link #refreshHedgeDelay()}, once per stats interval.
+ * <p>
+ * The primary read of a hedged read runs on a thread of the hedge pool rather than on the calling thread: the caller
+ * has to be free to return the hedge's response while the primary read is still blocked in the client.
+ * <p>
+ * Worker contexts of a decorated {@link NdBenchWorkerContextClient} are passed through, except to hedged reads which
+ * run on two threads at once and therefore go through the decorated client's methods without a context.
+ *
+ * @param <W> - the type of the result returned by the decorated client's writes
+ */
+public class HedgedReadClient<W> implements NdBenchWorkerContextClient<W, Object> {
+    private static final Logger logger = LoggerFactory.getLogger(HedgedReadClient.class);
+
+    private final NdBenchAbstractClient<W> client;
+    private final NdBenchWorkerContextClient<W, Object> contextClient;
+    private final Supplier<RunPlan> planSupplier;
+    private final NdBenchMonitor monitor;
+    private final ExecutorService hedgePool;
+    private volatile long hedgeDelayMicros;
+
+    /**
+     * @param planSupplier the run plan the hedging settings are taken from, which changes when they are tuned
+     */
+    public HedgedReadClient(NdBenchAbstractClient<W> client, Supplier<RunPlan> planSupplier, NdBenchMonitor monitor) {
+        this.client = client;
+        this.contextClient = getContextClient(client);
+        this.planSupplier = planSupplier;
+        this.monitor = monitor;
+        this.hedgePool = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("ndbench-hedge-pool-%d")
+                .setDaemon(true).build());
+        refreshHedgeDelay();
+    }
+
+    /**
+     * Recomputes the hedge delay from the configuration and the read latency percentiles observed so far.
+     */
+    public void refreshHedgeDelay() {
+        hedgeDelayMicros = computeHedgeDelayMicros();
+    }
+
+    long getHedgeDelayMicros() {
+        return hedgeDelayMicros;
+    }
+
+    @Override
+    public void setPayloadMonitor(NdBenchMonitor monitor) {
+        client.setPayloadMonitor(monitor);
+    }
+
+    @Override
+    public void setPluginMetrics(PluginMetrics metrics) {
+        client.setPluginMetrics(metrics);
+    }
+
+    @Override
+    public String getOperationTag(String key) {
+        return client.getOperationTag(key);
+    }
+
+    @Override
+    public void init(DataGenerator dataGenerator) throws Exception {
+        client.init(dataGenerator);
+    }
+
+    @Override
+    public String readSingle(String key) throws Exception {
+        if (!planSupplier.get().isHedgeReadsEnabled()) {
+            return client.readSingle(key);
+        }
+        return hedge(() -> client.readSingle(key));
+    }
+
+    @Override
+    public List<String> readBulk(List<String> keys) throws Exception {
+        if (!planSupplier.get().isHedgeReadsEnabled()) {
+            return client.readBulk(keys);
+        }
+        return hedge(() -> client.readBulk(keys));
+    }
+
+    /**
+     * Scans are not hedged, the rows of a second scan could not be told apart from those of the first.
+     */
+    @Override
+    public void scan(String startKey, int limit, int pageSize, ScanCallback callback) throws Exception {
+        client.scan(startKey, limit, pageSize, callback);
+    }
+
+    @Override
+    public W writeSingle(String key) throws Exception {
+        return client.writeSingle(key);
+    }
+
+    @Override
+    public List<W> writeBulk(List<String> keys) throws Exception {
+        return client.writeBulk(keys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <W> NdBenchWorkerContextClient<W, Object> getContextClient(NdBenchAbstractClient<W> client) {
+        return client instanceof NdBenchWorkerContextClient ? (NdBenchWorkerContextClient<W, Object>) client : null;
+    }
+
+    /**
+     * @return the decorated client's worker context, null if it does not have worker contexts
+     */
+    @Override
+    public Object createWorkerContext() throws Exception {
+        return contextClient == null ? null : contextClient.createWorkerContext();
+    }
+
+    @Override
+    public void closeWorkerContext(Object context) throws Exception {
+        if (contextClient != null && context != null) {
+            contextClient.closeWorkerContext(context);
+        }
+    }
+
+    @Override
+    public String readSingle(Object context, String key) throws Exception {
+        if (contextClient == null || planSupplier.get().isHedgeReadsEnabled()) {
+            return readSingle(key);
+        }
+        return contextClient.readSingle(context, key);
+    }
+
+    @Override
+    public List<String> readBulk(Object context, List<String> keys) throws Exception {
+        if (contextClient == null || planSupplier.get().isHedgeReadsEnabled()) {
+            return readBulk(keys);
+        }
+        return contextClient.readBulk(context, keys);
+    }
+
+    @Override
+    public W writeSingle(Object context, String key) throws Exception {
+        return contextClient == null ? client.writeSingle(key) : contextClient.writeSingle(context, key);
+    }
+
+    @Override
+    public List<W> writeBulk(Object context, List<String> keys) throws Exception {
+        return contextClient == null ? client.writeBulk(keys) : contextClient.writeBulk(context, keys);
+    }
+
+    /**
+     * Only releases the hedging threads, the decorated client is shut down by its owner.
+     */
+    @Override
+    public void shutdown() throws Exception {
+        hedgePool.shutdownNow();
+    }
+
+    @Override
+    public String getConnectionInfo() throws Exception {
+        return client.getConnectionInfo();
+    }
+
+    @Override
+    public String runWorkFlow() throws Exception {
+        return client.runWorkFlow();
+    }
+
+    @Override
+    public Double autoTuneWriteRateLimit(Double currentRateLimit, List<W> event, NdBenchMonitor runStats) {
+        return client.autoTuneWriteRateLimit(currentRateLimit, event, runStats);
+    }
+
+    @Override
+    public double autoTuneReadRateLimit(double currentRateLimit, List<W> event, NdBenchMonitor runStats) {
+        return client.autoTuneReadRateLimit(currentRateLimit, event, runStats);
+    }
+
+    private <T> T hedge(Callable<T> read) throws Exception {
+        ExecutorCompletionService<T> completionService = new ExecutorCompletionService<>(hedgePool);
+
+        Future<T> primary = completionService.submit(read);
+        monitor.incHedgePrimary();
+
+        Future<T> first = completionService.poll(hedgeDelayMicros, TimeUnit.MICROSECONDS);
+        if (first != null) {
+            return getResult(first);
+        }
+
+        Future<T> hedge = completionService.submit(read);
+        monitor.incHedgeSent();
+        try {
+            first = completionService.take();
+            try {
+                T result = getResult(first);
+                if (first == hedge) {
+                    monitor.incHedgeWin();
+                }
+                return result;
+            } catch (Exception e) {
+                // The first response was a failure, give the other request the chance to succeed
+                logger.debug("First of the hedged reads failed, waiting for the other one", e);
+                Future<T> second = completionService.take();
+                T result = getResult(second);
+                if (second == hedge) {
+                    monitor.incHedgeWin();
+                }
+                return result;
+            }
+        } finally {
+            // Leave the losing request running rather than interrupting it, some client libraries do not cope well
+            // with interrupts and the extra load is what we want to measure anyway
+            primary.cancel(false);
+            hedge.cancel(false);
+        }
+    }
+
+    private long computeHedgeDelayMicros() {
+        RunPlan plan = planSupplier.get();
+        String percentile = plan.getHedgeDelayPercentile();
+        if (percentile != null && !percentile.isEmpty()) {
+            long latency = getReadLatencyPercentile(percentile);
+            if (latency > 0) {
+                return latency;
+            }
+        }
+        return TimeUnit.MILLISECONDS.toMicros(plan.getHedgeDelayMillis());
+    }
+
+    private long getReadLatencyPercentile(String percentile) {
+        switch (percentile.toLowerCase()) {
+            case "p50":
+                return monitor.getReadLatP50();
+            case "p95":
+                return monitor.getReadLatP95();
+            case "p99":
+                return monitor.getReadLatP99();
+            case "p995":
+                return monitor.getReadLatP995();
+            case "p999":
+                return monitor.getReadLatP999();
+            default:
+                logger.warn("Unsupported hedge delay percentile: {}, falling back to the fixed hedge delay", percentile);
+                return 0L;
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -54,6 +54,17 @@ public interface IConfiguration {
         return Runtime.getRuntime().availableProcessors() * 4;
     }
 
+    /**
+     * Grows the read or write workers by a quarter, up to autoGrowWorkersMax, after every full stats interval in which
+     * their rate fell below 90% of the rate limit while every worker was busy, i.e. none of them waited on a permit,
+     * and the adaptive concurrency limit was not holding them back.
+     */
+    @DefaultValue("false")
+    boolean isAutoGrowWorkersEnabled();
+
+    @DefaultValue("256")
+    int getAutoGrowWorkersMax();
+
     //Backfill Settings
     @DefaultValue("1")
     //This configuration usually represents number of workers on your ndbench cluster working on backfill
@@ -74,6 +85,162 @@ public interface IConfiguration {
     @DefaultValue("200")
     int getStatsResetFreqSeconds();
 
+    /**
+     * Interval in milliseconds at which a stats frame is computed and pushed to the subscribers of the stats stream.
+     */
+    @DefaultValue("1000")
+    int getStatsStreamIntervalMillis();
+
+    /**
+     * Deadline in milliseconds the driver enforces on every client call. Calls running past it are recorded as
+     * timeouts and abandoned so that the worker can move on to its next operation. 0 disables deadlines and the
+     * call is made directly on the worker thread.
+     */
+    @DefaultValue("0")
+    int getOperationTimeoutMillis();
+
+    /**
+     * Number of client calls abandoned after running past the operation deadline which may still be running, each
+     * holding a thread, before further calls fail fast as timeouts. 0 disables the limit.
+     */
+    @DefaultValue("100")
+    int getOperationTimeoutMaxAbandoned();
+
+    /**
+     * Adaptive concurrency limit: gates how many operations each of the read and write worker pools may have in
+     * flight, adjusting the limit from the measured latency versus the minimum latency. The limit never exceeds the
+     * number of workers.
+     */
+    @DefaultValue("false")
+    boolean isAdaptiveConcurrencyEnabled();
+
+    @DefaultValue("10")
+    int getAdaptiveConcurrencyInitialLimit();
+
+    @DefaultValue("1000")
+    int getAdaptiveConcurrencyMaxLimit();
+
+    /**
+     * Fraction of the operations, between 0 and 1, for which the time spent in each phase of the driver (limiter
+     * wait, key generation, client call, post-processing, stats recording) is measured. 0 disables phase timing.
+     */
+    @DefaultValue("0")
+    double getPhaseTimingSampleRate();
+
+    /**
+     * Fraction of the operations, between 0 and 1, for which a Java Flight Recorder event is emitted. Events are only
+     * recorded while a JFR recording with the NdBench events enabled is running.
+     */
+    @DefaultValue("0.01")
+    double getJfrOperationSampleRate();
+
+    /**
+     * Time in milliseconds a stop waits for in-flight operations to complete before the workers get interrupted.
+     */
+    @DefaultValue("2000")
+    int getStopDrainTimeoutMillis();
+
+
+    /**
+     * Hiccup recorder: measures the scheduling delay of a thread sleeping for hiccupResolutionMillis, and accounts
+     * GC pauses, to flag stats intervals in which the benchmark client stalled for clientStallThresholdMillis or more.
+     */
+    @DefaultValue("true")
+    boolean isHiccupRecorderEnabled();
+
+    @DefaultValue("1")
+    int getHiccupResolutionMillis();
+
+    @DefaultValue("50")
+    int getClientStallThresholdMillis();
+
+    /**
+     * Run result store: every run is saved to runResultStoreDir with its configuration, phases and the latency
+     * histograms of each runResultIntervalSeconds interval, so that runs can be compared afterwards.
+     */
+    @DefaultValue("true")
+    boolean isRunResultStoreEnabled();
+
+    @DefaultValue("ndbench-results")
+    String getRunResultStoreDir();
+
+    @DefaultValue("1")
+    int getRunResultIntervalSeconds();
+
+    /**
+     * Operation log: fraction of the operations, between 0 and 1, written with their timestamp, key, latency, outcome,
+     * payload bytes and client tag to a binary file in operationLogDir, flushed every operationLogFlushIntervalMillis.
+     * 0 disables the operation log.
+     */
+    @DefaultValue("0")
+    double getOperationLogSampleRate();
+
+    @DefaultValue("ndbench-oplogs")
+    String getOperationLogDir();
+
+    @DefaultValue("1000")
+    int getOperationLogFlushIntervalMillis();
+
+    /**
+     * Seed of the data generators given to both clients of a comparison run, so that they write the same values.
+     */
+    @DefaultValue("42")
+    long getComparisonSeed();
+
+    /**
+     * Read-your-writes load pattern: writes go to fresh keys, and reads go to the keys of the writes acknowledged at
+     * least readYourWritesLagMillis earlier, taken from a ring of the last readYourWritesRingSize acknowledged writes.
+     */
+    @DefaultValue("100")
+    int getReadYourWritesLagMillis();
+
+    @DefaultValue("65536")
+    int getReadYourWritesRingSize();
+
+    /**
+     * Scans: fraction of the read operations, between 0 and 1, issued as a scan of up to scanLimit rows from the key
+     * of the read, read scanPageSize rows at a time. 0 disables scans, it must be 0 when comparing two clients.
+     */
+    @DefaultValue("0")
+    double getScanRatio();
+
+    @DefaultValue("1000")
+    int getScanLimit();
+
+    @DefaultValue("100")
+    int getScanPageSize();
+
+    /**
+     * Targeted load pattern: targetTrafficRatio of the keys, between 0 and 1, are drawn from the keys whose token falls
+     * in targetTokenRange, given as start:end in the tokens of targetPartitioner (murmur3, redis_cluster or md5).
+     * An empty range targets the first sixteenth of the tokens.
+     */
+    @DefaultValue("murmur3")
+    String getTargetPartitioner();
+
+    @DefaultValue("")
+    String getTargetTokenRange();
+
+    @DefaultValue("0.5")
+    double getTargetTrafficRatio();
+
+    /**
+     * Trace load pattern: reads and writes replay the keys of the read and write accesses of traceFile, a trace written
+     * by TraceConverter, once or in a loop. With traceHonorInterArrival the accesses are spaced as they were recorded,
+     * sped up traceSpeed times.
+     */
+    @DefaultValue("")
+    String getTraceFile();
+
+    @DefaultValue("true")
+    boolean isTraceLoop();
+
+    @DefaultValue("false")
+    boolean isTraceHonorInterArrival();
+
+    @DefaultValue("1.0")
+    double getTraceSpeed();
+
 
     //DataGenerator Configs
     @DefaultValue("false")
@@ -105,6 +272,40 @@ public interface IConfiguration {
     @DefaultValue("false")
     boolean isAutoTuneEnabled();
 
+    /**
+     * Hedged reads: a read which has not completed after the hedge delay is sent a second time and the first
+     * response wins. The delay is the read latency percentile named by hedgeDelayPercentile (p50, p95, p99, p995 or
+     * p999) when set and already observed, hedgeDelayMillis otherwise.
+     */
+    @DefaultValue("false")
+    boolean isHedgeReadsEnabled();
+
+    @DefaultValue("10")
+    int getHedgeDelayMillis();
+
+    @DefaultValue("")
+    String getHedgeDelayPercentile();
+
+    /**
+     * Client cache: a read-through cache in front of the client plugin, holding up to clientCacheCapacity entries for
+     * clientCacheTtlMillis (0 for no expiry). The eviction policy is one of lru, lru_idle or soft, and writes either
+     * invalidate the written keys or, with the write mode set to through, cache the values written to them.
+     */
+    @DefaultValue("false")
+    boolean isClientCacheEnabled();
+
+    @DefaultValue("10000")
+    int getClientCacheCapacity();
+
+    @DefaultValue("60000")
+    int getClientCacheTtlMillis();
+
+    @DefaultValue("lru")
+    String getClientCacheEvictionPolicy();
+
+    @DefaultValue("invalidate")
+    String getClientCacheWriteMode();
+
 
     @DefaultValue("60")
     Integer getAutoTuneRampPeriodMillisecs();
@@ -7,7 +7,9 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.netflix.archaius.api.PropertyFactory;
 import com.netflix.archaius.api.PropertyListener;
+import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.generators.DefaultDataGenerator;
 
 import static com.netflix.ndbench.api.plugin.common.NdBenchConstants.PROP_NAMESPACE;
 
@@ -16,9 +18,15 @@ import static com.netflix.ndbench.api.plugin.common.NdBenchConstants.PROP_NAMESP
  */
 @Singleton
 public class NdbenchConfigListener {
+    private static final String[] HEDGE_READS_PROPERTIES = {
+            "hedgeReadsEnabled", "hedgeDelayMillis", "hedgeDelayPercentile"
+    };
+    private static final String[] VALUE_SIZE_PROPERTIES = {
+            "dataSize", "useVariableDataSize", "dataSizeLowerBound", "dataSizeUpperBound", "generateChecksum"
+    };
 
     @Inject
-    public NdbenchConfigListener(PropertyFactory factory, NdBenchDriver ndBenchDriver)
+    public NdbenchConfigListener(PropertyFactory factory, NdBenchDriver ndBenchDriver, DataGenerator dataGenerator)
     {
         factory.getProperty(PROP_NAMESPACE + "readRateLimit").asInteger(100).addListener(new PropertyListener<Integer>() {
             @Override
@@ -42,5 +50,79 @@ public class NdbenchConfigListener {
 
             }
         });
+        factory.getProperty(PROP_NAMESPACE + "numReaders").asInteger(0).addListener(new PropertyListener<Integer>() {
+            @Override
+            public void onChange(Integer value) {
+                ndBenchDriver.onNumReadersChange();
+            }
+
+            @Override
+            public void onParseError(Throwable error) {
+
+            }
+        });
+        factory.getProperty(PROP_NAMESPACE + "numWriters").asInteger(0).addListener(new PropertyListener<Integer>() {
+            @Override
+            public void onChange(Integer value) {
+                ndBenchDriver.onNumWritersChange();
+            }
+
+            @Override
+            public void onParseError(Throwable error) {
+
+            }
+        });
+        factory.getProperty(PROP_NAMESPACE + "operationTimeoutMillis").asInteger(0).addListener(new PropertyListener<Integer>() {
+            @Override
+            public void onChange(Integer value) {
+                ndBenchDriver.onOperationTimeoutChange();
+            }
+
+            @Override
+            public void onParseError(Throwable error) {
+
+            }
+        });
+        factory.getProperty(PROP_NAMESPACE + "jfrOperationSampleRate").asDouble(0.01).addListener(new PropertyListener<Double>() {
+            @Override
+            public void onChange(Double value) {
+                ndBenchDriver.onJfrOperationSampleRateChange();
+            }
+
+            @Override
+            public void onParseError(Throwable error) {
+
+            }
+        });
+        for (String name : HEDGE_READS_PROPERTIES) {
+            factory.getProperty(PROP_NAMESPACE + name).asString("").addListener(new PropertyListener<String>() {
+                @Override
+                public void onChange(String value) {
+                    ndBenchDriver.onHedgeReadsChange();
+                }
+
+                @Override
+                public void onParseError(Throwable error) {
+
+                }
+            });
+        }
+
+        if (dataGenerator instanceof DefaultDataGenerator) {
+            DefaultDataGenerator defaultDataGenerator = (DefaultDataGenerator) dataGenerator;
+            for (String name : VALUE_SIZE_PROPERTIES) {
+                factory.getProperty(PROP_NAMESPACE + name).asString("").addListener(new PropertyListener<String>() {
+                    @Override
+                    public void onChange(String value) {
+                        defaultDataGenerator.onValueSizeChange();
+                    }
+
+                    @Override
+                    public void onParseError(Throwable error) {
+
+                    }
+                });
+            }
+        }
     }
 }
@@ -0,0 +1,287 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.config;
+
+/**
+ * Immutable snapshot of the settings a benchmark run is made of, taken when the run starts.
+ * <p>
+ * The {@link IConfiguration} proxy resolves every getter through the property layers, which is too costly to do on
+ * every operation, and a property changed in the middle of a run would otherwise be seen by some operations and not
+ * by others. Workers read their settings from the run plan instead. Settings which are meant to be tuned while a run is
+ * in progress are applied to the current plan by {@link NdbenchConfigListener}, every other change takes effect with
+ * the next run.
+ */
+public final class RunPlan {
+    private final int numKeys;
+    private final boolean preloadKeys;
+    private final double zipfExponent;
+    private final boolean readEnabled;
+    private final boolean writeEnabled;
+    private final boolean autoTuneEnabled;
+    private final boolean adaptiveConcurrencyEnabled;
+    private final int adaptiveConcurrencyInitialLimit;
+    private final int adaptiveConcurrencyMaxLimit;
+    private final double phaseTimingSampleRate;
+    private final double operationLogSampleRate;
+    private final int readYourWritesLagMillis;
+    private final double scanRatio;
+    private final int scanLimit;
+    private final int scanPageSize;
+    private final String targetPartitioner;
+    private final String targetTokenRange;
+    private final double targetTrafficRatio;
+    private final String traceFile;
+    private final boolean traceLoop;
+    private final boolean traceHonorInterArrival;
+    private final double traceSpeed;
+    private final int operationTimeoutMaxAbandoned;
+
+    // tunable while running
+    private final int numReaders;
+    private final int numWriters;
+    private final int operationTimeoutMillis;
+    private final double jfrOperationSampleRate;
+    private final boolean hedgeReadsEnabled;
+    private final int hedgeDelayMillis;
+    private final String hedgeDelayPercentile;
+
+    private RunPlan(IConfiguration config) {
+        this.numKeys = config.getNumKeys();
+        this.preloadKeys = config.isPreloadKeys();
+        this.zipfExponent = config.getZipfExponent();
+        this.numReaders = config.getNumReaders();
+        this.numWriters = config.getNumWriters();
+        this.readEnabled = config.isReadEnabled();
+        this.writeEnabled = config.isWriteEnabled();
+        this.autoTuneEnabled = config.isAutoTuneEnabled();
+        this.adaptiveConcurrencyEnabled = config.isAdaptiveConcurrencyEnabled();
+        this.adaptiveConcurrencyInitialLimit = config.getAdaptiveConcurrencyInitialLimit();
+        this.adaptiveConcurrencyMaxLimit = config.getAdaptiveConcurrencyMaxLimit();
+        this.phaseTimingSampleRate = config.getPhaseTimingSampleRate();
+        this.operationLogSampleRate = config.getOperationLogSampleRate();
+        this.readYourWritesLagMillis = config.getReadYourWritesLagMillis();
+        this.scanRatio = config.getScanRatio();
+        this.scanLimit = config.getScanLimit();
+        this.scanPageSize = config.getScanPageSize();
+        this.targetPartitioner = config.getTargetPartitioner();
+        this.targetTokenRange = config.getTargetTokenRange();
+        this.targetTrafficRatio = config.getTargetTrafficRatio();
+        this.traceFile = config.getTraceFile();
+        this.traceLoop = config.isTraceLoop();
+        this.traceHonorInterArrival = config.isTraceHonorInterArrival();
+        this.traceSpeed = config.getTraceSpeed();
+        this.operationTimeoutMaxAbandoned = config.getOperationTimeoutMaxAbandoned();
+        this.operationTimeoutMillis = config.getOperationTimeoutMillis();
+        this.jfrOperationSampleRate = config.getJfrOperationSampleRate();
+        this.hedgeReadsEnabled = config.isHedgeReadsEnabled();
+        this.hedgeDelayMillis = config.getHedgeDelayMillis();
+        this.hedgeDelayPercentile = config.getHedgeDelayPercentile();
+    }
+
+    private RunPlan(RunPlan plan, int numReaders, int numWriters, int operationTimeoutMillis,
+                    double jfrOperationSampleRate, boolean hedgeReadsEnabled, int hedgeDelayMillis,
+                    String hedgeDelayPercentile) {
+        this.numKeys = plan.numKeys;
+        this.preloadKeys = plan.preloadKeys;
+        this.zipfExponent = plan.zipfExponent;
+        this.numReaders = numReaders;
+        this.numWriters = numWriters;
+        this.readEnabled = plan.readEnabled;
+        this.writeEnabled = plan.writeEnabled;
+        this.autoTuneEnabled = plan.autoTuneEnabled;
+        this.adaptiveConcurrencyEnabled = plan.adaptiveConcurrencyEnabled;
+        this.adaptiveConcurrencyInitialLimit = plan.adaptiveConcurrencyInitialLimit;
+        this.adaptiveConcurrencyMaxLimit = plan.adaptiveConcurrencyMaxLimit;
+        this.phaseTimingSampleRate = plan.phaseTimingSampleRate;
+        this.operationLogSampleRate = plan.operationLogSampleRate;
+        this.readYourWritesLagMillis = plan.readYourWritesLagMillis;
+        this.scanRatio = plan.scanRatio;
+        this.scanLimit = plan.scanLimit;
+        this.scanPageSize = plan.scanPageSize;
+        this.targetPartitioner = plan.targetPartitioner;
+        this.targetTokenRange = plan.targetTokenRange;
+        this.targetTrafficRatio = plan.targetTrafficRatio;
+        this.traceFile = plan.traceFile;
+        this.traceLoop = plan.traceLoop;
+        this.traceHonorInterArrival = plan.traceHonorInterArrival;
+        this.traceSpeed = plan.traceSpeed;
+        this.operationTimeoutMaxAbandoned = plan.operationTimeoutMaxAbandoned;
+        this.operationTimeoutMillis = operationTimeoutMillis;
+        this.jfrOperationSampleRate = jfrOperationSampleRate;
+        this.hedgeReadsEnabled = hedgeReadsEnabled;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.hedgeDelayPercentile = hedgeDelayPercentile;
+    }
+
+    public static RunPlan of(IConfiguration config) {
+        return new RunPlan(config);
+    }
+
+    public RunPlan withNumReaders(int numReaders) {
+        return new RunPlan(this, numReaders, numWriters, operationTimeoutMillis, jfrOperationSampleRate,
+                hedgeReadsEnabled, hedgeDelayMillis, hedgeDelayPercentile);
+    }
+
+    public RunPlan withNumWriters(int numWriters) {
+        return new RunPlan(this, numReaders, numWriters, operationTimeoutMillis, jfrOperationSampleRate,
+                hedgeReadsEnabled, hedgeDelayMillis, hedgeDelayPercentile);
+    }
+
+    public RunPlan withOperationTimeoutMillis(int operationTimeoutMillis) {
+        return new RunPlan(this, numReaders, numWriters, operationTimeoutMillis, jfrOperationSampleRate,
+                hedgeReadsEnabled, hedgeDelayMillis, hedgeDelayPercentile);
+    }
+
+    public RunPlan withJfrOperationSampleRate(double jfrOperationSampleRate) {
+        return new RunPlan(this, numReaders, numWriters, operationTimeoutMillis, jfrOperationSampleRate,
+                hedgeReadsEnabled, hedgeDelayMillis, hedgeDelayPercentile);
+    }
+
+    public RunPlan withHedgeReads(boolean hedgeReadsEnabled, int hedgeDelayMillis, String hedgeDelayPercentile) {
+        return new RunPlan(this, numReaders, numWriters, operationTimeoutMillis, jfrOperationSampleRate,
+                hedgeReadsEnabled, hedgeDelayMillis, hedgeDelayPercentile);
+    }
+
+    public int getNumKeys() {
+        return numKeys;
+    }
+
+    public boolean isPreloadKeys() {
+        return preloadKeys;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getNumReaders() {
+        return numReaders;
+    }
+
+    public int getNumWriters() {
+        return numWriters;
+    }
+
+    public boolean isReadEnabled() {
+        return readEnabled;
+    }
+
+    public boolean isWriteEnabled() {
+        return writeEnabled;
+    }
+
+    public boolean isAutoTuneEnabled() {
+        return autoTuneEnabled;
+    }
+
+    public boolean isAdaptiveConcurrencyEnabled() {
+        return adaptiveConcurrencyEnabled;
+    }
+
+    public int getAdaptiveConcurrencyInitialLimit() {
+        return adaptiveConcurrencyInitialLimit;
+    }
+
+    public int getAdaptiveConcurrencyMaxLimit() {
+        return adaptiveConcurrencyMaxLimit;
+    }
+
+    public double getPhaseTimingSampleRate() {
+        return phaseTimingSampleRate;
+    }
+
+    public double getOperationLogSampleRate() {
+        return operationLogSampleRate;
+    }
+
+    public int getReadYourWritesLagMillis() {
+        return readYourWritesLagMillis;
+    }
+
+    public double getScanRatio() {
+        return scanRatio;
+    }
+
+    public int getScanLimit() {
+        return scanLimit;
+    }
+
+    public int getScanPageSize() {
+        return scanPageSize;
+    }
+
+    public String getTargetPartitioner() {
+        return targetPartitioner;
+    }
+
+    public String getTargetTokenRange() {
+        return targetTokenRange;
+    }
+
+    public double getTargetTrafficRatio() {
+        return targetTrafficRatio;
+    }
+
+    public String getTraceFile() {
+        return traceFile;
+    }
+
+    public boolean isTraceLoop() {
+        return traceLoop;
+    }
+
+    public boolean isTraceHonorInterArrival() {
+        return traceHonorInterArrival;
+    }
+
+    public double getTraceSpeed() {
+        return traceSpeed;
+    }
+
+    public int getOperationTimeoutMillis() {
+        return operationTimeoutMillis;
+    }
+
+    public int getOperationTimeoutMaxAbandoned() {
+        return operationTimeoutMaxAbandoned;
+    }
+
+    public double getJfrOperationSampleRate() {
+        return jfrOperationSampleRate;
+    }
+
+    public boolean isHedgeReadsEnabled() {
+        return hedgeReadsEnabled;
+    }
+
+    public int getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    public String getHedgeDelayPercentile() {
+        return hedgeDelayPercentile;
+    }
+
+    @Override
+    public String toString() {
+        return "RunPlan{numKeys=" + numKeys + ", preloadKeys=" + preloadKeys + ", zipfExponent=" + zipfExponent +
+               ", numReaders=" + numReaders + ", numWriters=" + numWriters + ", readEnabled=" + readEnabled +
+               ", writeEnabled=" + writeEnabled + ", autoTuneEnabled=" + autoTuneEnabled +
+               ", adaptiveConcurrencyEnabled=" + adaptiveConcurrencyEnabled +
+               ", operationTimeoutMillis=" + operationTimeoutMillis + "}";
+    }
+}
@@ -22,11 +22,23 @@ package com.netflix.ndbench.core.config;
 public class TunableConfig {
     public int readRateLimit;
     public int writeRateLimit;
+    public boolean hedgeReadsEnabled;
+    public int hedgeDelayMillis;
+    public String hedgeDelayPercentile;
+    public int numReaders;
+    public int numWriters;
+    public boolean autoGrowWorkersEnabled;
 
     public TunableConfig(IConfiguration configuration)
     {
         this.readRateLimit = configuration.getReadRateLimit();
         this.writeRateLimit = configuration.getWriteRateLimit();
+        this.hedgeReadsEnabled = configuration.isHedgeReadsEnabled();
+        this.hedgeDelayMillis = configuration.getHedgeDelayMillis();
+        this.hedgeDelayPercentile = configuration.getHedgeDelayPercentile();
+        this.numReaders = configuration.getNumReaders();
+        this.numWriters = configuration.getNumWriters();
+        this.autoGrowWorkersEnabled = configuration.isAutoGrowWorkersEnabled();
     }
 
     public int getReadRateLimit()
@@ -37,6 +49,30 @@ public class TunableConfig {
     {
         return writeRateLimit;
     }
+    public boolean isHedgeReadsEnabled()
+    {
+        return hedgeReadsEnabled;
+    }
+    public int getHedgeDelayMillis()
+    {
+        return hedgeDelayMillis;
+    }
+    public String getHedgeDelayPercentile()
+    {
+        return hedgeDelayPercentile;
+    }
+    public int getNumReaders()
+    {
+        return numReaders;
+    }
+    public int getNumWriters()
+    {
+        return numWriters;
+    }
+    public boolean isAutoGrowWorkersEnabled()
+    {
+        return autoGrowWorkersEnabled;
+    }
 
     public TunableConfig setReadRateLimit(int readRateLimit) {
         this.readRateLimit = readRateLimit;
@@ -48,4 +84,34 @@ public class TunableConfig {
         return this;
     }
 
+    public TunableConfig setHedgeReadsEnabled(boolean hedgeReadsEnabled) {
+        this.hedgeReadsEnabled = hedgeReadsEnabled;
+        return this;
+    }
+
+    public TunableConfig setHedgeDelayMillis(int hedgeDelayMillis) {
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        return this;
+    }
+
+    public TunableConfig setHedgeDelayPercentile(String hedgeDelayPercentile) {
+        this.hedgeDelayPercentile = hedgeDelayPercentile;
+        return this;
+    }
+
+    public TunableConfig setNumReaders(int numReaders) {
+        this.numReaders = numReaders;
+        return this;
+    }
+
+    public TunableConfig setNumWriters(int numWriters) {
+        this.numWriters = numWriters;
+        return this;
+    }
+
+    public TunableConfig setAutoGrowWorkersEnabled(boolean autoGrowWorkersEnabled) {
+        this.autoGrowWorkersEnabled = autoGrowWorkersEnabled;
+        return this;
+    }
+
 }
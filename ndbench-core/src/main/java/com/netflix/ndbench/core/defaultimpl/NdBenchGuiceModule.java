@@ -27,7 +27,9 @@ import com.netflix.ndbench.core.config.NdbenchConfigListener;
 import com.netflix.ndbench.core.discovery.*;
 import com.netflix.ndbench.core.generators.DefaultDataGenerator;
 import com.netflix.ndbench.core.monitoring.FakeMonitor;
+import com.netflix.ndbench.core.monitoring.HiccupRecorder;
 import com.netflix.ndbench.core.monitoring.NdBenchDefaultMonitor;
+import com.netflix.ndbench.core.results.RunResultRecorder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +61,8 @@ public class NdBenchGuiceModule extends AbstractModule {
         }
         bind(DataGenerator.class).to(DefaultDataGenerator.class);
         bind(NdbenchConfigListener.class).asEagerSingleton();
+        bind(HiccupRecorder.class).asEagerSingleton();
+        bind(RunResultRecorder.class).asEagerSingleton();
     }
 
     @Provides
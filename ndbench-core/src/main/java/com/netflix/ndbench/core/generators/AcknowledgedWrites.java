@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.generators;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring of the keys of the most recently acknowledged writes, with the time they were acknowledged at.
+ * <p>
+ * Writers publish without locking: each key takes the next sequence number and overwrites the oldest slot, so a
+ * reader which falls more than the capacity behind loses the oldest entries rather than holding writers up. Nothing is
+ * published until the ring is enabled, which the {@link ReadYourWritesKeyGenerator} reading from it does.
+ */
+public class AcknowledgedWrites {
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private volatile boolean enabled = false;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public AcknowledgedWrites(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publishes the keys of a write which was just acknowledged, does nothing while the ring is disabled.
+     */
+    public void publish(List<String> keys) {
+        if (!enabled) {
+            return;
+        }
+        long ackNanos = System.nanoTime();
+        for (String key : keys) {
+            long seq = head.getAndIncrement();
+            slots.lazySet((int) (seq & mask), new Entry(seq, key, ackNanos));
+        }
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return the sequence number the next published key gets
+     */
+    long getHead() {
+        return head.get();
+    }
+
+    /**
+     * @return the entry in the slot of the given sequence number, which may be older or newer than it, or null
+     */
+    Entry get(long seq) {
+        return slots.get((int) (seq & mask));
+    }
+
+    static final class Entry {
+        final long seq;
+        final String key;
+        final long ackNanos;
+
+        Entry(long seq, String key, long ackNanos) {
+            this.seq = seq;
+            this.key = key;
+            this.ackNanos = ackNanos;
+        }
+    }
+}
@@ -45,14 +45,22 @@ public class DefaultDataGenerator implements DataGenerator
     private static Logger logger = LoggerFactory.getLogger(DefaultDataGenerator.class);
     protected final IConfiguration config;
     private final List<String> values = new ArrayList<>();
+    private final int numValues;
 
-    private final Random vRandom = new Random();
-    private final Random vvRandom = new Random(DateTime.now().getMillis()); // variable value random
+    // Read on every generated value, so taken from the config once and refreshed through onValueSizeChange
+    private volatile ValueSize valueSize;
+
+    private final Random vRandom;
+    private final Random vvRandom; // variable value random
 
     @Inject
     public DefaultDataGenerator(IConfiguration config)
     {
         this.config = config;
+        this.numValues = config.getNumValues();
+        this.valueSize = new ValueSize(config);
+        this.vRandom = new Random();
+        this.vvRandom = new Random(DateTime.now().getMillis());
 
         initialize();
 
@@ -62,10 +70,26 @@ public class DefaultDataGenerator implements DataGenerator
         executor.scheduleAtFixedRate(this::upsertRandomString, 10, 10, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Creates a generator whose data set and sequence of values are determined by the seed, so that two generators
+     * created with the same seed produce the same values when called in the same order. The data set is not modified
+     * over time.
+     */
+    public DefaultDataGenerator(IConfiguration config, long seed)
+    {
+        this.config = config;
+        this.numValues = config.getNumValues();
+        this.valueSize = new ValueSize(config);
+        this.vRandom = new Random(seed);
+        this.vvRandom = new Random(seed);
+
+        initialize();
+    }
+
     @Override
     public String getRandomValue()
     {
-        int randomValueIndex = vRandom.nextInt(config.getNumValues());
+        int randomValueIndex = vRandom.nextInt(numValues);
         return values.get(randomValueIndex);
     }
 
@@ -78,7 +102,7 @@ public class DefaultDataGenerator implements DataGenerator
     @Override
     public Integer getRandomIntegerValue()
     {
-        return vRandom.nextInt(config.getNumValues());
+        return vRandom.nextInt(numValues);
     }
 
     @Override
@@ -90,11 +114,11 @@ public class DefaultDataGenerator implements DataGenerator
     private void initialize()
     {
         Instant start = Instant.now();
-        for (int i = 0; i < config.getNumValues(); i++)
+        for (int i = 0; i < numValues; i++)
         {
             if (i % 1000 == 0)
             {
-                logger.info("Still initializing sample data for values. So far: " + i + " /" + config.getNumValues());
+                logger.info("Still initializing sample data for values. So far: " + i + " /" + numValues);
             }
             values.add(generateRandomString(getValueSize()));
         }
@@ -102,20 +126,28 @@ public class DefaultDataGenerator implements DataGenerator
         logger.info("Duration to initialize the dataset of random data (ISO-8601 format): " + Duration.between(start, end));
     }
 
+    /**
+     * Picks up changes to the data size and checksum settings, the number of values is fixed by the pre generated
+     * data set.
+     */
+    public void onValueSizeChange()
+    {
+        this.valueSize = new ValueSize(config);
+    }
+
     private int getValueSize()
     {
-        if (config.isUseVariableDataSize())
+        ValueSize size = valueSize;
+        if (size.useVariableDataSize)
         {
-            return vvRandom.nextInt(
-            Math.abs(config.getDataSizeUpperBound() - config.getDataSizeLowerBound()))
-                   + config.getDataSizeLowerBound();
+            return vvRandom.nextInt(size.dataSizeRange) + size.dataSizeLowerBound;
         }
-        return config.getDataSize();
+        return size.dataSize;
     }
 
     private void upsertRandomString()
     {
-        values.set(vRandom.nextInt(config.getNumValues()), generateRandomString(getValueSize()));
+        values.set(vRandom.nextInt(numValues), generateRandomString(getValueSize()));
     }
 
     private String generateRandomString(int length)
@@ -127,6 +159,24 @@ public class DefaultDataGenerator implements DataGenerator
         }
 
         String randomString = builder.toString().substring(0, length);
-        return config.isGenerateChecksum() ? CheckSumUtil.appendCheckSumAndEncodeBase64(randomString, false) : randomString;
+        return valueSize.generateChecksum ? CheckSumUtil.appendCheckSumAndEncodeBase64(randomString, false) : randomString;
+    }
+
+    private static final class ValueSize
+    {
+        private final boolean useVariableDataSize;
+        private final int dataSize;
+        private final int dataSizeLowerBound;
+        private final int dataSizeRange;
+        private final boolean generateChecksum;
+
+        private ValueSize(IConfiguration config)
+        {
+            this.useVariableDataSize = config.isUseVariableDataSize();
+            this.dataSize = config.getDataSize();
+            this.dataSizeLowerBound = config.getDataSizeLowerBound();
+            this.dataSizeRange = Math.abs(config.getDataSizeUpperBound() - config.getDataSizeLowerBound());
+            this.generateChecksum = config.isGenerateChecksum();
+        }
     }
 }
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.generators;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Draws a key never drawn before on every call, for the writes of the read-your-writes load pattern.
+ * <p>
+ * A read of a key written before, by a backfill, an earlier run or an earlier write of the same run, finds a value
+ * whether or not the write being checked is visible yet. Keys are therefore prefixed with the time the generator was
+ * created and numbered from there, so that a read finding a value proves that the acknowledged write is visible.
+ */
+public class FreshStringKeyGenerator implements KeyGenerator<String> {
+    private final String prefix;
+    private final int numKeys;
+    private final AtomicLong next = new AtomicLong();
+
+    public FreshStringKeyGenerator(int numKeys) {
+        this.prefix = "RYW" + Long.toString(System.currentTimeMillis(), 36) + "-";
+        this.numKeys = numKeys;
+    }
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public String getNextKey() {
+        return prefix + next.getAndIncrement();
+    }
+
+    @Override
+    public boolean hasNextKey() {
+        return true;
+    }
+
+    @Override
+    public boolean isPreLoadKeys() {
+        return false;
+    }
+
+    @Override
+    public int getNumKeys() {
+        return numKeys;
+    }
+}
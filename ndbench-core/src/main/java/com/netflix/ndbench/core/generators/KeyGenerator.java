@@ -26,4 +26,23 @@ public interface KeyGenerator<T> {
     boolean hasNextKey();
     boolean isPreLoadKeys();
     int getNumKeys();
+
+    /**
+     * @return the popularity rank of a key returned by {@link #getNextKey()}, 1 being the most often returned key, or 0
+     * if keys are not drawn by popularity
+     */
+    default int getKeyRank(T key) {
+        return 0;
+    }
+
+    /**
+     * Reserves the next key for the calling worker, for generators whose keys are due at a given time, so that the
+     * worker waits for it before it acquires the permits of its operation. The next call to {@link #getNextKey()} on
+     * the same thread returns the reserved key.
+     *
+     * @return the {@link System#nanoTime()} the reserved key is due at, or 0 if keys are due at once
+     */
+    default long reserveNextKey() {
+        return 0L;
+    }
 }
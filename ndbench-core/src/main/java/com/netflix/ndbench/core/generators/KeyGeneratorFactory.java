@@ -16,6 +16,7 @@
  */
 package com.netflix.ndbench.core.generators;
 
+import com.netflix.ndbench.core.trace.TraceFile;
 import com.netflix.ndbench.core.util.LoadPattern;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +26,48 @@ import org.slf4j.LoggerFactory;
 public class KeyGeneratorFactory {
     private static final org.slf4j.Logger Logger = LoggerFactory.getLogger(KeyGeneratorFactory.class);
 
+    private final AcknowledgedWrites acknowledgedWrites;
+    private final long readYourWritesLagMillis;
+    private final TokenRange targetRange;
+    private final double targetTrafficRatio;
+    private final TraceReplayKeyGenerator.Options traceOptions;
+    private final TraceFile.OpType traceOpType;
+
+    public KeyGeneratorFactory() {
+        this(null, 0L);
+    }
+
+    /**
+     * @param acknowledgedWrites the writes the {@link LoadPattern#READ_YOUR_WRITES} key generator reads the keys of
+     */
+    public KeyGeneratorFactory(AcknowledgedWrites acknowledgedWrites, long readYourWritesLagMillis) {
+        this(acknowledgedWrites, readYourWritesLagMillis, null, 0D);
+    }
+
+    /**
+     * @param targetRange        the token range the {@link LoadPattern#TARGETED} key generator steers keys at
+     * @param targetTrafficRatio the share of the keys steered at the target range
+     */
+    public KeyGeneratorFactory(AcknowledgedWrites acknowledgedWrites, long readYourWritesLagMillis,
+                               TokenRange targetRange, double targetTrafficRatio) {
+        this(acknowledgedWrites, readYourWritesLagMillis, targetRange, targetTrafficRatio, null, null);
+    }
+
+    /**
+     * @param traceOptions the trace the {@link LoadPattern#TRACE} key generator replays
+     * @param traceOpType  the accesses of the trace to replay
+     */
+    public KeyGeneratorFactory(AcknowledgedWrites acknowledgedWrites, long readYourWritesLagMillis,
+                               TokenRange targetRange, double targetTrafficRatio,
+                               TraceReplayKeyGenerator.Options traceOptions, TraceFile.OpType traceOpType) {
+        this.acknowledgedWrites = acknowledgedWrites;
+        this.readYourWritesLagMillis = readYourWritesLagMillis;
+        this.targetRange = targetRange;
+        this.targetTrafficRatio = targetTrafficRatio;
+        this.traceOptions = traceOptions;
+        this.traceOpType = traceOpType;
+    }
+
     public KeyGenerator<String> getKeyGenerator(LoadPattern loadPattern, int numKeys, int windowSize, long durationInSec, boolean preLoadKeys, double zipfExponent) {
         Logger.info("Loading "+loadPattern.toString()+" KeyGenerator");
 
@@ -35,6 +78,12 @@ public class KeyGeneratorFactory {
             return new SlidingWindowFlipStringKeyGenerator(windowSize, durationInSec, preLoadKeys, numKeys);
         } else if (loadPattern.equals(LoadPattern.ZIPFIAN)) {
             return new ZipfianStringKeyGenerator(preLoadKeys, numKeys, zipfExponent);
+        } else if (loadPattern.equals(LoadPattern.READ_YOUR_WRITES) && acknowledgedWrites != null) {
+            return new ReadYourWritesKeyGenerator(acknowledgedWrites, readYourWritesLagMillis, preLoadKeys, numKeys);
+        } else if (loadPattern.equals(LoadPattern.TARGETED) && targetRange != null) {
+            return new TargetedKeyGenerator(targetRange, targetTrafficRatio, preLoadKeys, numKeys);
+        } else if (loadPattern.equals(LoadPattern.TRACE) && traceOptions != null) {
+            return new TraceReplayKeyGenerator(traceOptions, traceOpType);
         } else {
             return new RandomStringKeyGenerator(preLoadKeys, numKeys);
         }
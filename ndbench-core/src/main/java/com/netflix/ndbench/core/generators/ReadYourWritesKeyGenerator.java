@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.generators;
+
+import com.netflix.ndbench.core.generators.AcknowledgedWrites.Entry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Draws the keys of the writes acknowledged at least a lag earlier, so that reads check whether a write is visible
+ * that long after it was acknowledged.
+ * <p>
+ * All the readers share one cursor into the {@link AcknowledgedWrites} ring and move it forward with a compare and
+ * set, every acknowledged key being read once. Keys the writers published faster than they were read, and which got
+ * overwritten, are skipped. When no acknowledged write is old enough yet, a random key is drawn instead and the read
+ * is not counted as a visibility check.
+ */
+public class ReadYourWritesKeyGenerator extends RandomStringKeyGenerator {
+    private final AcknowledgedWrites acknowledgedWrites;
+    private final long lagNanos;
+    private final AtomicLong cursor;
+    private final ThreadLocal<Drawn> drawn = ThreadLocal.withInitial(Drawn::new);
+
+    public ReadYourWritesKeyGenerator(AcknowledgedWrites acknowledgedWrites, long lagMillis, boolean preLoadKeys,
+                                      int numKeys) {
+        super(preLoadKeys, numKeys);
+        this.acknowledgedWrites = acknowledgedWrites;
+        this.lagNanos = TimeUnit.MILLISECONDS.toNanos(lagMillis);
+        this.cursor = new AtomicLong(acknowledgedWrites.getHead());
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        acknowledgedWrites.setEnabled(true);
+    }
+
+    @Override
+    public String getNextKey() {
+        Drawn current = drawn.get();
+        Entry entry = nextDue();
+        if (entry == null) {
+            current.untracked = true;
+            return super.getNextKey();
+        }
+        current.youngestAckNanos = Math.max(current.youngestAckNanos, entry.ackNanos);
+        return entry.key;
+    }
+
+    /**
+     * @return the time the youngest write whose key this thread drew since the last call was acknowledged at, in
+     * {@link System#nanoTime()} terms, or 0 if any of the keys drawn was not the key of an acknowledged write
+     */
+    public long takeAckNanos() {
+        Drawn current = drawn.get();
+        long ackNanos = current.untracked ? 0L : current.youngestAckNanos;
+        current.youngestAckNanos = 0L;
+        current.untracked = false;
+        return ackNanos;
+    }
+
+    private Entry nextDue() {
+        while (true) {
+            long seq = cursor.get();
+            long head = acknowledgedWrites.getHead();
+            if (seq >= head) {
+                return null;
+            }
+            long oldest = head - acknowledgedWrites.getCapacity();
+            if (seq < oldest) {
+                cursor.compareAndSet(seq, oldest);
+                continue;
+            }
+            Entry entry = acknowledgedWrites.get(seq);
+            if (entry == null || entry.seq < seq) {
+                // the writer holding this sequence number has not filled its slot yet
+                return null;
+            }
+            if (entry.seq > seq) {
+                cursor.compareAndSet(seq, seq + 1);
+                continue;
+            }
+            if (System.nanoTime() - entry.ackNanos < lagNanos) {
+                return null;
+            }
+            if (cursor.compareAndSet(seq, seq + 1)) {
+                return entry;
+            }
+        }
+    }
+
+    private static class Drawn {
+        private long youngestAckNanos;
+        private boolean untracked;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.generators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Steers a share of the keys at a token range, to create a hot partition, node or shard: the keys whose token falls in
+ * the target range are found when the generator is initialized, and targetTrafficRatio of the keys returned are drawn
+ * from them, the others from all of the keys.
+ */
+public class TargetedKeyGenerator extends RandomStringKeyGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(TargetedKeyGenerator.class);
+
+    private final TokenRange targetRange;
+    private final double targetTrafficRatio;
+    private int[] targetKeys;
+
+    public TargetedKeyGenerator(TokenRange targetRange, double targetTrafficRatio, boolean preLoadKeys, int numKeys) {
+        super(preLoadKeys, numKeys);
+        this.targetRange = targetRange;
+        this.targetTrafficRatio = targetTrafficRatio;
+    }
+
+    /**
+     * @throws IllegalStateException if none of the keys falls in the target range
+     */
+    @Override
+    public void init() {
+        super.init();
+        int[] found = new int[Math.min(numKeys, 1024)];
+        int count = 0;
+        for (int i = 0; i < numKeys; i++) {
+            if (targetRange.contains("T" + i)) {
+                if (count == found.length) {
+                    int[] grown = new int[Math.min(numKeys, found.length * 2)];
+                    System.arraycopy(found, 0, grown, 0, count);
+                    found = grown;
+                }
+                found[count++] = i;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalStateException("None of the " + numKeys + " keys falls in the target range " + targetRange);
+        }
+        int[] keys = new int[count];
+        System.arraycopy(found, 0, keys, 0, count);
+        this.targetKeys = keys;
+        logger.info("{} of the {} keys fall in the target range {}, {}% of the keys are drawn from them", count,
+                numKeys, targetRange, targetTrafficRatio * 100);
+    }
+
+    @Override
+    public String getNextKey() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() >= targetTrafficRatio) {
+            return super.getNextKey();
+        }
+        int keyIndex = targetKeys[random.nextInt(targetKeys.length)];
+        return isPreLoadKeys() ? keys.get(keyIndex) : "T" + keyIndex;
+    }
+
+    /**
+     * @return the number of keys in the target range, once initialized
+     */
+    public int getNumTargetKeys() {
+        return targetKeys.length;
+    }
+}
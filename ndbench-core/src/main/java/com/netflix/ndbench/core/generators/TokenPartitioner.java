@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.generators;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash functions datastores place their keys with, computing the token of a key the way the datastore does, so that
+ * keys landing on a chosen node, shard or token range can be picked before any request is sent.
+ */
+public enum TokenPartitioner {
+    /**
+     * Cassandra's Murmur3Partitioner: the first half of the 128 bit MurmurHash3 of the key, from Long.MIN_VALUE + 1 to
+     * Long.MAX_VALUE. Tokens match the ones reported by nodetool ring for the ASCII keys ndbench generates.
+     */
+    MURMUR3("murmur3", Long.MIN_VALUE, Long.MAX_VALUE) {
+        @Override
+        public long getToken(String key) {
+            long token = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+            return token == Long.MIN_VALUE ? Long.MAX_VALUE : token;
+        }
+    },
+
+    /**
+     * Redis cluster hash slots: the CRC16 of the key, or of its hash tag when it has one, modulo 16384.
+     */
+    REDIS_CLUSTER("redis_cluster", 0L, 16383L) {
+        @Override
+        public long getToken(String key) {
+            int start = key.indexOf('{');
+            if (start >= 0) {
+                int end = key.indexOf('}', start + 1);
+                if (end > start + 1) {
+                    key = key.substring(start + 1, end);
+                }
+            }
+            return crc16(key.getBytes(StandardCharsets.UTF_8)) & 16383;
+        }
+    },
+
+    /**
+     * The first 64 bits of the MD5 of the key, for datastores which spread their keys uniformly with a hash function
+     * they do not document, e.g. DynamoDB. The keys of a token range form a fixed share of the key space, but not
+     * necessarily the keys of one partition of the datastore.
+     */
+    MD5("md5", Long.MIN_VALUE, Long.MAX_VALUE) {
+        @Override
+        public long getToken(String key) {
+            try {
+                byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+                long token = 0L;
+                for (int i = 0; i < 8; i++) {
+                    token = (token << 8) | (digest[i] & 0xFF);
+                }
+                return token;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private final String text;
+    private final long minToken;
+    private final long maxToken;
+
+    TokenPartitioner(String text, long minToken, long maxToken) {
+        this.text = text;
+        this.minToken = minToken;
+        this.maxToken = maxToken;
+    }
+
+    public abstract long getToken(String key);
+
+    public long getMinToken() {
+        return minToken;
+    }
+
+    public long getMaxToken() {
+        return maxToken;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public static TokenPartitioner fromString(String text) {
+        if (text != null) {
+            for (TokenPartitioner partitioner : TokenPartitioner.values()) {
+                if (text.equalsIgnoreCase(partitioner.text)) {
+                    return partitioner;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * CRC16-CCITT (XMODEM), as used by Redis cluster
+     */
+    static int crc16(byte[] bytes) {
+        int crc = 0;
+        for (byte b : bytes) {
+            crc ^= (b & 0xFF) << 8;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.generators;
+
+import java.math.BigInteger;
+
+/**
+ * Range of tokens of a {@link TokenPartitioner}, both ends included. A range whose start is greater than its end wraps
+ * around the end of the token ring.
+ */
+public final class TokenRange {
+    /**
+     * Share of the token space covered by the range of a partitioner when no range is given
+     */
+    private static final int DEFAULT_RANGE_FRACTION = 16;
+
+    private final TokenPartitioner partitioner;
+    private final long start;
+    private final long end;
+
+    public TokenRange(TokenPartitioner partitioner, long start, long end) {
+        this.partitioner = partitioner;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @param partitioner one of murmur3, redis_cluster or md5
+     * @param range       start and end tokens separated by a colon, or empty for the first sixteenth of the tokens
+     * @throws IllegalArgumentException if the partitioner is unknown or the range is malformed
+     */
+    public static TokenRange parse(String partitioner, String range) {
+        TokenPartitioner tokenPartitioner = TokenPartitioner.fromString(partitioner);
+        if (tokenPartitioner == null) {
+            throw new IllegalArgumentException("Unknown partitioner " + partitioner);
+        }
+        if (range == null || range.trim().isEmpty()) {
+            BigInteger span = BigInteger.valueOf(tokenPartitioner.getMaxToken())
+                    .subtract(BigInteger.valueOf(tokenPartitioner.getMinToken()))
+                    .add(BigInteger.ONE)
+                    .divide(BigInteger.valueOf(DEFAULT_RANGE_FRACTION));
+            long start = tokenPartitioner.getMinToken();
+            return new TokenRange(tokenPartitioner, start,
+                    BigInteger.valueOf(start).add(span).subtract(BigInteger.ONE).longValue());
+        }
+        // tokens may be negative, the separator is the colon after the first character
+        int separator = range.indexOf(':', 1);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Token range " + range + " is not of the form start:end");
+        }
+        try {
+            long start = Long.parseLong(range.substring(0, separator).trim());
+            long end = Long.parseLong(range.substring(separator + 1).trim());
+            if (start < tokenPartitioner.getMinToken() || end > tokenPartitioner.getMaxToken()) {
+                throw new IllegalArgumentException("Token range " + range + " is outside of the tokens of "
+                        + partitioner + ", " + tokenPartitioner.getMinToken() + ":" + tokenPartitioner.getMaxToken());
+            }
+            return new TokenRange(tokenPartitioner, start, end);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Token range " + range + " is not of the form start:end", e);
+        }
+    }
+
+    public boolean contains(String key) {
+        long token = partitioner.getToken(key);
+        return start <= end ? token >= start && token <= end : token >= start || token <= end;
+    }
+
+    public TokenPartitioner getPartitioner() {
+        return partitioner;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return partitioner.getText() + "[" + start + ":" + end + "]";
+    }
+}
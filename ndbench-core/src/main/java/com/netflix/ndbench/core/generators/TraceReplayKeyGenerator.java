@@ -0,0 +1,167 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.generators;
+
+import com.netflix.ndbench.core.trace.TraceFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the keys of the accesses of one op type from a recorded {@link TraceFile}, in the order they were recorded.
+ * <p>
+ * All workers draw from one cursor, which a worker moves past the next access of its op type with a single atomic
+ * increment per access of the trace, so every access is replayed once per pass whatever the number of workers. The trace
+ * is replayed in a loop, or once, after which no more keys are returned and the operation stops. When the original
+ * inter-arrival times are honored, a worker reserves its next access with {@link #reserveNextKey()} and waits until
+ * the time of the access, relative to the start of the replay and divided by the speed, before it acquires its
+ * permits, so that a speed of 10 replays the trace ten times faster. A bulk operation is issued once its first key is
+ * due. The rate limit still applies and should be set above the rate of the trace.
+ */
+public class TraceReplayKeyGenerator implements KeyGenerator<String> {
+    private static final Logger logger = LoggerFactory.getLogger(TraceReplayKeyGenerator.class);
+
+    /**
+     * Settings of a replay, which are the same for the reads and the writes except for the op type
+     */
+    public static class Options {
+        private final String traceFile;
+        private final boolean loop;
+        private final boolean honorInterArrival;
+        private final double speed;
+
+        public Options(String traceFile, boolean loop, boolean honorInterArrival, double speed) {
+            this.traceFile = traceFile;
+            this.loop = loop;
+            this.honorInterArrival = honorInterArrival;
+            this.speed = speed;
+        }
+    }
+
+    private final Options options;
+    private final TraceFile.OpType opType;
+    private final AtomicLong cursor = new AtomicLong(0L);
+    private volatile TraceFile trace;
+    private volatile boolean paced;
+    private volatile long startNanos;
+    private volatile boolean exhausted = false;
+    // The index of the access each worker reserved, null if it has none
+    private final ThreadLocal<Long> reserved = new ThreadLocal<>();
+
+    public TraceReplayKeyGenerator(Options options, TraceFile.OpType opType) {
+        this.options = options;
+        this.opType = opType;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the speed is not positive
+     * @throws IllegalStateException    if the trace cannot be opened
+     */
+    @Override
+    public void init() {
+        if (options.speed <= 0) {
+            throw new IllegalArgumentException("Trace replay speed must be > 0");
+        }
+        try {
+            trace = TraceFile.open(new File(options.traceFile));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open trace " + options.traceFile, e);
+        }
+        paced = options.honorInterArrival && trace.hasTimestamps();
+        if (options.honorInterArrival && !trace.hasTimestamps()) {
+            logger.warn("Trace {} has no timestamps, its accesses are replayed as fast as the rate limit allows",
+                    options.traceFile);
+        }
+        logger.info("Replaying the {} accesses of trace {}, {} distinct keys, {}{}", opType, options.traceFile,
+                trace.getKeyCount(), options.loop ? "in a loop" : "once",
+                paced ? " at " + options.speed + "x the original speed" : "");
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the key of the access the calling worker reserved if it did, otherwise of the next access of the op
+     * type, or null once the trace has been replayed
+     */
+    @Override
+    public String getNextKey() {
+        Long index = reserved.get();
+        if (index != null) {
+            reserved.remove();
+        } else {
+            index = nextAccess();
+        }
+        return index < 0 ? null : trace.getKey(trace.getKeyId(index % trace.getRecordCount()));
+    }
+
+    /**
+     * @return the time the reserved access is due at, 0 if the inter-arrival times are not honored or no access is
+     * left
+     */
+    @Override
+    public long reserveNextKey() {
+        if (!paced) {
+            return 0L;
+        }
+        long index = nextAccess();
+        if (index < 0) {
+            return 0L;
+        }
+        reserved.set(index);
+        long recordCount = trace.getRecordCount();
+        // a pass lasts from the first access to the last one, the next pass starts with the last access
+        double dueMicros = (index / recordCount) * (double) trace.getDurationMicros()
+                + trace.getTimestampMicros(index % recordCount);
+        return startNanos + (long) (dueMicros * 1000 / options.speed);
+    }
+
+    /**
+     * @return the index of the next access of the op type, counted over all passes, or -1 if there is none
+     */
+    private long nextAccess() {
+        long recordCount = trace.getRecordCount();
+        for (long skipped = 0; skipped < recordCount; skipped++) {
+            long index = cursor.getAndIncrement();
+            if (!options.loop && index >= recordCount) {
+                break;
+            }
+            if (trace.getOpType(index % recordCount) == opType) {
+                return index;
+            }
+        }
+        // past the end of the trace, or none of its accesses is of the op type
+        exhausted = true;
+        return -1L;
+    }
+
+    @Override
+    public boolean hasNextKey() {
+        return reserved.get() != null || (!exhausted && (options.loop || cursor.get() < trace.getRecordCount()));
+    }
+
+    @Override
+    public boolean isPreLoadKeys() {
+        return false;
+    }
+
+    @Override
+    public int getNumKeys() {
+        return (int) Math.min(Integer.MAX_VALUE, trace.getKeyCount());
+    }
+}
@@ -38,4 +38,20 @@ public class ZipfianStringKeyGenerator extends StringKeyGenerator {
             return "T" + keyIndex;
         }
     }
+
+    /**
+     * The distribution samples ranks, which are the index of the keys.
+     */
+    @Override
+    public int getKeyRank(String key) {
+        int rank = 0;
+        for (int i = 1; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            rank = rank * 10 + (c - '0');
+        }
+        return rank;
+    }
 }
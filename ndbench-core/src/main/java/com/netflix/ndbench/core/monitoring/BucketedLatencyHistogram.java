@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed bucket boundaries, counting every recorded latency since the start of the process.
+ * <p>
+ * Unlike the reservoir backed histograms of the monitors, the bucket counts of several ndbench nodes can simply be
+ * added up, which is what makes percentiles computed by a metrics backend across a whole cluster correct. Recording is
+ * a binary search over the boundaries and a {@link LongAdder} increment, and reading the histogram costs the same
+ * however many latencies were recorded.
+ * <p>
+ * Latencies are counted in fine log-linear buckets, every latency with two significant digits from 10 &micro;s to
+ * 10 s, so that percentiles estimated from them are off by less than 10 %. The coarse buckets exported to metrics
+ * backends are sums of fine buckets, percentiles and saved run results use the fine ones.
+ */
+public class BucketedLatencyHistogram {
+    /**
+     * Upper bounds of the coarse buckets in microseconds, a last unbounded bucket holds everything above them.
+     */
+    public static final long[] BUCKET_BOUNDS_MICROS = {
+            100L, 250L, 500L,
+            1_000L, 2_500L, 5_000L,
+            10_000L, 25_000L, 50_000L,
+            100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L
+    };
+
+    /**
+     * Upper bounds of the fine buckets in microseconds: 10, 11, ..., 99, 100, 110, ..., 990, 1000, ... up to 10 s, a
+     * last unbounded bucket holds everything above them. Every coarse bound is also a fine bound.
+     */
+    public static final long[] FINE_BUCKET_BOUNDS_MICROS = getFineBucketBounds();
+
+    // Index of the first fine bucket past each coarse bucket
+    private static final int[] COARSE_BUCKET_ENDS = getCoarseBucketEnds();
+
+    private final LongAdder[] buckets = new LongAdder[FINE_BUCKET_BOUNDS_MICROS.length + 1];
+    private final LongAdder sumMicros = new LongAdder();
+
+    public BucketedLatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long latencyMicros) {
+        buckets[getFineBucket(latencyMicros)].increment();
+        sumMicros.add(latencyMicros);
+    }
+
+    /**
+     * @return the index of the coarse bucket a latency is counted in
+     */
+    public static int getBucket(long latencyMicros) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MICROS.length && latencyMicros > BUCKET_BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * @return the index of the fine bucket a latency is counted in
+     */
+    public static int getFineBucket(long latencyMicros) {
+        int index = Arrays.binarySearch(FINE_BUCKET_BOUNDS_MICROS, latencyMicros);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * @return the number of latencies in the coarse bucket with the given index, not including the buckets below it
+     */
+    public long getBucketCount(int bucket) {
+        long count = 0L;
+        for (int i = bucket == 0 ? 0 : COARSE_BUCKET_ENDS[bucket - 1]; i < COARSE_BUCKET_ENDS[bucket]; i++) {
+            count += buckets[i].sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of coarse buckets
+     */
+    public int getNumBuckets() {
+        return BUCKET_BOUNDS_MICROS.length + 1;
+    }
+
+    public long getSumMicros() {
+        return sumMicros.sum();
+    }
+
+    public long getCount() {
+        long count = 0L;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return a copy of the count of every coarse bucket, which subtracted from a later copy gives the histogram of the
+     * latencies recorded in between
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[getNumBuckets()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = getBucketCount(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Same as {@link #getBucketCounts()} for the fine buckets.
+     */
+    public long[] getFineBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Estimates a percentile by linear interpolation within the fine bucket holding it, the estimate for the last,
+     * unbounded bucket is its lower bound.
+     *
+     * @param quantile between 0 and 1
+     * @return the estimated latency in microseconds, 0 if nothing was recorded
+     */
+    public long getPercentile(double quantile) {
+        return getPercentile(FINE_BUCKET_BOUNDS_MICROS, getFineBucketCounts(), quantile);
+    }
+
+    /**
+     * Same as {@link #getPercentile(double)}, for coarse bucket counts taken from {@link #getBucketCounts()}.
+     */
+    public static long getPercentile(long[] counts, double quantile) {
+        return getPercentile(BUCKET_BOUNDS_MICROS, counts, quantile);
+    }
+
+    /**
+     * Same as {@link #getPercentile(double)}, for the counts of buckets with the given upper bounds, such as those of a
+     * saved run result.
+     */
+    public static long getPercentile(long[] boundsMicros, long[] counts, double quantile) {
+        long total = 0L;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        double rank = quantile * total;
+        long cumulative = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && cumulative + counts[i] >= rank) {
+                long lower = i == 0 ? 0L : boundsMicros[i - 1];
+                if (i == boundsMicros.length) {
+                    return lower;
+                }
+                return lower + (long) ((boundsMicros[i] - lower) * Math.max(0, rank - cumulative) / counts[i]);
+            }
+            cumulative += counts[i];
+        }
+        return boundsMicros[boundsMicros.length - 1];
+    }
+
+    private static long[] getFineBucketBounds() {
+        long[] bounds = new long[6 * 90 + 1];
+        int i = 0;
+        for (long scale = 1L; scale <= 100_000L; scale *= 10) {
+            for (long mantissa = 10L; mantissa < 100L; mantissa++) {
+                bounds[i++] = mantissa * scale;
+            }
+        }
+        bounds[i] = 10_000_000L;
+        return bounds;
+    }
+
+    private static int[] getCoarseBucketEnds() {
+        int[] ends = new int[BUCKET_BOUNDS_MICROS.length + 1];
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+            ends[i] = Arrays.binarySearch(FINE_BUCKET_BOUNDS_MICROS, BUCKET_BOUNDS_MICROS[i]) + 1;
+        }
+        ends[BUCKET_BOUNDS_MICROS.length] = FINE_BUCKET_BOUNDS_MICROS.length + 1;
+        return ends;
+    }
+}
@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -41,15 +42,29 @@ public class FakeMonitor implements NdBenchMonitor {
     private final AtomicReference<ScheduledExecutorService> timerRef = new AtomicReference<>(null);
     private final AtomicReference<Histogram> readHistogram = new AtomicReference<>();
     private final AtomicReference<Histogram> writeHistogram = new AtomicReference<>();
+    private final AtomicReference<Histogram> readTimeoutHistogram = new AtomicReference<>();
+    private final AtomicReference<Histogram> writeTimeoutHistogram = new AtomicReference<>();
 
     private final AtomicLong readSuccess = new AtomicLong(0L);
     private final AtomicLong readFailure = new AtomicLong(0L);
     private final AtomicLong writeSuccess = new AtomicLong(0L);
     private final AtomicLong writeFailure = new AtomicLong(0L);
+    private final AtomicLong readTimeout = new AtomicLong(0L);
+    private final AtomicLong writeTimeout = new AtomicLong(0L);
+    private final AtomicLong hedgePrimaries = new AtomicLong(0L);
+    private final AtomicLong hedgesSent = new AtomicLong(0L);
+    private final AtomicLong hedgeWins = new AtomicLong(0L);
     private final AtomicLong cacheHits = new AtomicLong(0L);
     private final AtomicLong cacheMiss = new AtomicLong(0L);
     private final AtomicLong readRPS = new AtomicLong(0L);
     private final AtomicLong writeRPS = new AtomicLong(0L);
+    private final AtomicLong readConcurrencyLimit = new AtomicLong(0L);
+    private final AtomicLong writeConcurrencyLimit = new AtomicLong(0L);
+    private final AtomicLong clientHiccupP99 = new AtomicLong(0L);
+    private final AtomicLong clientHiccupMax = new AtomicLong(0L);
+    private final AtomicLong clientGcPauseMillis = new AtomicLong(0L);
+    private final AtomicBoolean clientStalled = new AtomicBoolean(false);
+    private final AtomicLong clientStalledIntervals = new AtomicLong(0L);
 
     private final IConfiguration config;
 
@@ -79,6 +94,8 @@ public class FakeMonitor implements NdBenchMonitor {
     private void setReadWriteHistograms() {
         readHistogram.set(createHistogramFromConfig());
         writeHistogram.set(createHistogramFromConfig());
+        readTimeoutHistogram.set(createHistogramFromConfig());
+        writeTimeoutHistogram.set(createHistogramFromConfig());
     }
 
     @Override
@@ -121,6 +138,146 @@ public class FakeMonitor implements NdBenchMonitor {
         return writeFailure.get();
     }
 
+    @Override
+    public void incReadTimeout() {
+        readTimeout.incrementAndGet();
+    }
+
+    @Override
+    public long getReadTimeout() {
+        return readTimeout.get();
+    }
+
+    @Override
+    public void recordReadTimeoutLatency(long duration) {
+        readTimeoutHistogram.get().update(duration);
+    }
+
+    @Override
+    public long getReadTimeoutLatAvg() {
+        return longValueOfDouble(readTimeoutHistogram.get().getSnapshot().getMean());
+    }
+
+    @Override
+    public void incWriteTimeout() {
+        writeTimeout.incrementAndGet();
+    }
+
+    @Override
+    public long getWriteTimeout() {
+        return writeTimeout.get();
+    }
+
+    @Override
+    public void recordWriteTimeoutLatency(long duration) {
+        writeTimeoutHistogram.get().update(duration);
+    }
+
+    @Override
+    public long getWriteTimeoutLatAvg() {
+        return longValueOfDouble(writeTimeoutHistogram.get().getSnapshot().getMean());
+    }
+
+    @Override
+    public void incHedgePrimary() {
+        hedgePrimaries.incrementAndGet();
+    }
+
+    @Override
+    public long getHedgePrimaries() {
+        return hedgePrimaries.get();
+    }
+
+    @Override
+    public void incHedgeSent() {
+        hedgesSent.incrementAndGet();
+    }
+
+    @Override
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    @Override
+    public void incHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    @Override
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    @Override
+    public void setReadConcurrencyLimit(long readConcurrencyLimit) {
+        this.readConcurrencyLimit.set(readConcurrencyLimit);
+    }
+
+    @Override
+    public long getReadConcurrencyLimit() {
+        return readConcurrencyLimit.get();
+    }
+
+    @Override
+    public void setWriteConcurrencyLimit(long writeConcurrencyLimit) {
+        this.writeConcurrencyLimit.set(writeConcurrencyLimit);
+    }
+
+    @Override
+    public long getWriteConcurrencyLimit() {
+        return writeConcurrencyLimit.get();
+    }
+
+    @Override
+    public void setClientHiccupP99(long clientHiccupP99) {
+        this.clientHiccupP99.set(clientHiccupP99);
+    }
+
+    @Override
+    public long getClientHiccupP99() {
+        return clientHiccupP99.get();
+    }
+
+    @Override
+    public void setClientHiccupMax(long clientHiccupMax) {
+        this.clientHiccupMax.set(clientHiccupMax);
+    }
+
+    @Override
+    public long getClientHiccupMax() {
+        return clientHiccupMax.get();
+    }
+
+    @Override
+    public void setClientGcPauseMillis(long clientGcPauseMillis) {
+        this.clientGcPauseMillis.set(clientGcPauseMillis);
+    }
+
+    @Override
+    public long getClientGcPauseMillis() {
+        return clientGcPauseMillis.get();
+    }
+
+    @Override
+    public void setClientStalled(boolean clientStalled) {
+        this.clientStalled.set(clientStalled);
+    }
+
+    @Override
+    public boolean isClientStalled() {
+        return clientStalled.get();
+    }
+
+    @Override
+    public void incClientStalledIntervals() {
+        clientStalledIntervals.incrementAndGet();
+    }
+
+    @Override
+    public long getClientStalledIntervals() {
+        return clientStalledIntervals.get();
+    }
+
     @Override
     public void incCacheHit() {
         cacheHits.incrementAndGet();
@@ -242,6 +399,11 @@ public class FakeMonitor implements NdBenchMonitor {
         readFailure.set(0L);
         writeSuccess.set(0L);
         writeFailure.set(0L);
+        readTimeout.set(0L);
+        writeTimeout.set(0L);
+        hedgePrimaries.set(0L);
+        hedgesSent.set(0L);
+        hedgeWins.set(0L);
         cacheHits.set(0L);
         cacheMiss.set(0L);
         readRPS.set(0L);
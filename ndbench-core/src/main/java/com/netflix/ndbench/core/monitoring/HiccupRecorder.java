@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Records stalls of the ndbench JVM itself, so that a bad tail latency can be attributed either to the datastore or
+ * to the benchmark client.
+ * <p>
+ * A background thread repeatedly sleeps for a fixed resolution and records how much later than expected it woke up,
+ * which captures every cause of the process not getting scheduled (GC, safepoints, CPU starvation, swapping).
+ * GC pauses are additionally accounted from the JMX notifications of the garbage collectors. At the end of every
+ * stats interval the figures of the interval are published to the {@link NdBenchMonitor}, and the interval is flagged
+ * as stalled when the worst hiccup or the total GC pause exceeds the configured threshold.
+ */
+@Singleton
+public class HiccupRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(HiccupRecorder.class);
+
+    private final IConfiguration config;
+    private final NdBenchMonitor monitor;
+
+    // The reservoir samples the hiccups of an interval for their p99, it would usually sample out the worst one
+    private final AtomicReference<Histogram> intervalHiccups = new AtomicReference<>(newHistogram());
+    private final AtomicLong intervalMaxHiccupMicros = new AtomicLong(0L);
+    private final AtomicLong intervalGcPauseMillis = new AtomicLong(0L);
+    private final AtomicLong totalStallMicros = new AtomicLong(0L);
+    private final AtomicLong totalGcPauseMillis = new AtomicLong(0L);
+    private final AtomicLong maxHiccupMicros = new AtomicLong(0L);
+    private final AtomicReference<ScheduledExecutorService> timerRef = new AtomicReference<>(null);
+
+    @Inject
+    public HiccupRecorder(IConfiguration config, NdBenchMonitor monitor) {
+        this.config = config;
+        this.monitor = monitor;
+        if (config.isHiccupRecorderEnabled()) {
+            registerGcListeners();
+            checkAndInitTimer();
+        }
+    }
+
+    private void checkAndInitTimer() {
+        ScheduledExecutorService timer = timerRef.get();
+        if (timer == null) {
+            timer = Executors.newScheduledThreadPool(2, new ThreadFactoryBuilder()
+                    .setNameFormat("ndbench-hiccup-recorder-%d")
+                    .setDaemon(true).build());
+            long resolutionMicros = TimeUnit.MILLISECONDS.toMicros(config.getHiccupResolutionMillis());
+            logger.info("Starting hiccup recorder with a resolution of {} ms", config.getHiccupResolutionMillis());
+            timer.submit(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    long startTime = System.nanoTime();
+                    Thread.sleep(config.getHiccupResolutionMillis());
+                    long elapsedMicros = (System.nanoTime() - startTime) / 1000;
+                    recordHiccup(Math.max(0L, elapsedMicros - resolutionMicros));
+                }
+                return null;
+            });
+            timer.scheduleAtFixedRate(this::endInterval, config.getStatsUpdateFreqSeconds(),
+                    config.getStatsUpdateFreqSeconds(), TimeUnit.SECONDS);
+            timerRef.set(timer);
+        }
+    }
+
+    private void registerGcListeners() {
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcBean).addNotificationListener(this::handleGcNotification, null, null);
+            }
+        }
+    }
+
+    private void handleGcNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        // Concurrent cycles run alongside the application threads, they are not pauses
+        if (info.getGcName().contains("Concurrent")) {
+            return;
+        }
+        recordGcPause(info.getGcInfo().getDuration());
+    }
+
+    void recordHiccup(long hiccupMicros) {
+        intervalHiccups.get().update(hiccupMicros);
+        // Scheduling jitter below the resolution is not counted as a stall
+        if (hiccupMicros >= TimeUnit.MILLISECONDS.toMicros(config.getHiccupResolutionMillis())) {
+            totalStallMicros.addAndGet(hiccupMicros);
+        }
+        intervalMaxHiccupMicros.accumulateAndGet(hiccupMicros, Math::max);
+        maxHiccupMicros.accumulateAndGet(hiccupMicros, Math::max);
+    }
+
+    void recordGcPause(long pauseMillis) {
+        intervalGcPauseMillis.addAndGet(pauseMillis);
+        totalGcPauseMillis.addAndGet(pauseMillis);
+    }
+
+    /**
+     * @return the time since the start of the process the client was stalled for at least the hiccup resolution
+     */
+    public long getTotalStallMillis() {
+        return totalStallMicros.get() / 1000;
+    }
+
+    public long getTotalGcPauseMillis() {
+        return totalGcPauseMillis.get();
+    }
+
+    public long getMaxHiccupMillis() {
+        return maxHiccupMicros.get() / 1000;
+    }
+
+    void endInterval() {
+        Snapshot hiccups = intervalHiccups.getAndSet(newHistogram()).getSnapshot();
+        long gcPauseMillis = intervalGcPauseMillis.getAndSet(0L);
+        long hiccupMaxMicros = intervalMaxHiccupMicros.getAndSet(0L);
+
+        long thresholdMicros = TimeUnit.MILLISECONDS.toMicros(config.getClientStallThresholdMillis());
+        boolean stalled = hiccupMaxMicros >= thresholdMicros
+                || TimeUnit.MILLISECONDS.toMicros(gcPauseMillis) >= thresholdMicros;
+
+        monitor.setClientHiccupP99(Double.valueOf(hiccups.get99thPercentile()).longValue());
+        monitor.setClientHiccupMax(hiccupMaxMicros);
+        monitor.setClientGcPauseMillis(gcPauseMillis);
+        monitor.setClientStalled(stalled);
+        if (stalled) {
+            monitor.incClientStalledIntervals();
+            logger.warn("Client stall detected in the last stats interval: max hiccup {} ms, GC pauses {} ms. "
+                    + "Latencies of this interval include time the benchmark client was not running.",
+                    hiccupMaxMicros / 1000, gcPauseMillis);
+        }
+    }
+
+    public void shutdown() {
+        ScheduledExecutorService timer = timerRef.getAndSet(null);
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(new UniformReservoir());
+    }
+}
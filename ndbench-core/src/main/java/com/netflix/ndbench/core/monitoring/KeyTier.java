@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+/**
+ * Popularity tier of a key, from its rank among the keys of a load pattern drawing keys by popularity.
+ */
+public enum KeyTier {
+    /**
+     * The top 1% of the keys
+     */
+    HOT,
+    /**
+     * The top 10% of the keys, other than the hot ones
+     */
+    WARM,
+    /**
+     * All the other keys
+     */
+    COLD;
+
+    /**
+     * @param rank    1 for the most popular key
+     * @param numKeys number of keys the ranks go up to
+     */
+    public static KeyTier of(int rank, int numKeys) {
+        if (rank <= Math.max(1, numKeys / 100)) {
+            return HOT;
+        }
+        if (rank <= Math.max(1, numKeys / 10)) {
+            return WARM;
+        }
+        return COLD;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and cache hits of the operations of one type, split by the {@link KeyTier} of their keys. A bulk
+ * operation falls in the coldest tier of its keys.
+ */
+public class KeyTierStats {
+    private final AtomicReference<Tier[]> tiersRef = new AtomicReference<>(newTiers());
+
+    public void recordLatency(KeyTier tier, long latencyMicros) {
+        tiersRef.get()[tier.ordinal()].latency.record(latencyMicros);
+    }
+
+    public void recordCacheHit(KeyTier tier, boolean hit) {
+        Tier stats = tiersRef.get()[tier.ordinal()];
+        if (hit) {
+            stats.cacheHits.increment();
+        } else {
+            stats.cacheMisses.increment();
+        }
+    }
+
+    public BucketedLatencyHistogram getLatencyHistogram(KeyTier tier) {
+        return tiersRef.get()[tier.ordinal()].latency;
+    }
+
+    /**
+     * @return the percentage of the reads of the tier which found a value, 0 if there were none
+     */
+    public double getCacheHitRatioPercent(KeyTier tier) {
+        Tier stats = tiersRef.get()[tier.ordinal()];
+        long hits = stats.cacheHits.sum();
+        long total = hits + stats.cacheMisses.sum();
+        return total == 0 ? 0D : hits * 100D / total;
+    }
+
+    public boolean isEmpty() {
+        for (Tier tier : tiersRef.get()) {
+            if (tier.latency.getCount() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void reset() {
+        tiersRef.set(newTiers());
+    }
+
+    /**
+     * Reports, per tier, the number of operations, the hit ratio, the latency percentiles and the tier's share of
+     * the operations in the tail, i.e. in the latency buckets at or above the one holding the overall p99.
+     *
+     * @param overall the latencies of all the operations, with or without a tier
+     */
+    public Map<String, Object> getReport(BucketedLatencyHistogram overall) {
+        Tier[] tiers = tiersRef.get();
+        int tailBucket = BucketedLatencyHistogram.getBucket(overall.getPercentile(0.99));
+        long[] tailCounts = new long[tiers.length];
+        long tailTotal = 0L;
+        for (int i = 0; i < tiers.length; i++) {
+            long[] counts = tiers[i].latency.getBucketCounts();
+            for (int bucket = tailBucket; bucket < counts.length; bucket++) {
+                tailCounts[i] += counts[bucket];
+            }
+            tailTotal += tailCounts[i];
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        for (KeyTier tier : KeyTier.values()) {
+            BucketedLatencyHistogram histogram = tiers[tier.ordinal()].latency;
+            Map<String, Object> tierReport = new LinkedHashMap<>();
+            tierReport.put("count", histogram.getCount());
+            tierReport.put("cacheHitRatioPercent", getCacheHitRatioPercent(tier));
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", histogram.getPercentile(0.5));
+            latency.put("p95", histogram.getPercentile(0.95));
+            latency.put("p99", histogram.getPercentile(0.99));
+            latency.put("p999", histogram.getPercentile(0.999));
+            tierReport.put("latencyMicros", latency);
+            tierReport.put("p99TailSharePercent", tailTotal == 0 ? 0D : tailCounts[tier.ordinal()] * 100D / tailTotal);
+            report.put(tier.name().toLowerCase(), tierReport);
+        }
+        return report;
+    }
+
+    private static Tier[] newTiers() {
+        Tier[] tiers = new Tier[KeyTier.values().length];
+        for (int i = 0; i < tiers.length; i++) {
+            tiers[i] = new Tier();
+        }
+        return tiers;
+    }
+
+    private static class Tier {
+        private final BucketedLatencyHistogram latency = new BucketedLatencyHistogram();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+    }
+}
@@ -4,6 +4,7 @@
 package com.netflix.ndbench.core.monitoring;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.Meter;
@@ -11,7 +12,13 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
 import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.oplog.OperationLog;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -24,18 +31,46 @@ public class NdBenchDefaultMonitor implements NdBenchMonitor
 
     private final IConfiguration config;
     private final MetricRegistry metrics;
+    private final PluginMetricsRegistry pluginMetrics;
 
     private final Histogram readHistogram;
     private final Histogram writeHistogram;
+    private final Histogram readTimeoutHistogram;
+    private final Histogram writeTimeoutHistogram;
 
     private final Counter readSuccess;
     private final Counter readFailure;
     private final Counter writeSuccess;
     private final Counter writeFailure;
+    private final Counter readTimeout;
+    private final Counter writeTimeout;
+    private final Counter hedgePrimaries;
+    private final Counter hedgesSent;
+    private final Counter hedgeWins;
     private final Meter cacheHits;
     private final Meter cacheMiss;
     private final Meter readRPS;
     private final Meter writeRPS;
+    private final Meter readRequestBytes;
+    private final Meter readResponseBytes;
+    private final Meter writeRequestBytes;
+    private final Meter writeResponseBytes;
+    private final Histogram readPayloadSize;
+    private final Histogram writePayloadSize;
+    private final Counter scanSuccess;
+    private final Counter scanFailure;
+    private final Counter scanTimeout;
+    private final Histogram scanFirstRowHistogram;
+    private final Histogram scanPageHistogram;
+    private final Meter scanRows;
+    private final Meter scanBytes;
+    private final AtomicLong readConcurrencyLimit = new AtomicLong(0L);
+    private final AtomicLong writeConcurrencyLimit = new AtomicLong(0L);
+    private final AtomicLong clientHiccupP99 = new AtomicLong(0L);
+    private final AtomicLong clientHiccupMax = new AtomicLong(0L);
+    private final AtomicLong clientGcPauseMillis = new AtomicLong(0L);
+    private final AtomicBoolean clientStalled = new AtomicBoolean(false);
+    private final AtomicLong clientStalledIntervals = new AtomicLong(0L);
 
 
     @Inject
@@ -43,17 +78,42 @@ public class NdBenchDefaultMonitor implements NdBenchMonitor
     {
         this.config = config;
         this.metrics = new MetricRegistry();
+        this.pluginMetrics = new PluginMetricsRegistry(metrics);
 
         readHistogram = metrics.histogram(name("NdBenchDefaultMonitor", "readlatency"));
         writeHistogram = metrics.histogram(name("NdBenchDefaultMonitor", "writelatency"));
+        readTimeoutHistogram = metrics.histogram(name("NdBenchDefaultMonitor", "readtimeoutlatency"));
+        writeTimeoutHistogram = metrics.histogram(name("NdBenchDefaultMonitor", "writetimeoutlatency"));
         readSuccess = metrics.counter(name("NdBenchDefaultMonitor", "readSuccess"));
         readFailure = metrics.counter(name("NdBenchDefaultMonitor", "readFailure"));
         writeSuccess = metrics.counter(name("NdBenchDefaultMonitor", "writeSuccess"));
         writeFailure = metrics.counter(name("NdBenchDefaultMonitor", "writeFailure"));
+        readTimeout = metrics.counter(name("NdBenchDefaultMonitor", "readTimeout"));
+        writeTimeout = metrics.counter(name("NdBenchDefaultMonitor", "writeTimeout"));
+        hedgePrimaries = metrics.counter(name("NdBenchDefaultMonitor", "hedgePrimaries"));
+        hedgesSent = metrics.counter(name("NdBenchDefaultMonitor", "hedgesSent"));
+        hedgeWins = metrics.counter(name("NdBenchDefaultMonitor", "hedgeWins"));
         cacheHits = metrics.meter(name("NdBenchDefaultMonitor", "cacheHits"));
         cacheMiss = metrics.meter(name("NdBenchDefaultMonitor", "cacheMiss"));
         readRPS = metrics.meter(name("NdBenchDefaultMonitor", "readRPS"));
         writeRPS = metrics.meter(name("NdBenchDefaultMonitor", "writeRPS"));
+        readRequestBytes = metrics.meter(name("NdBenchDefaultMonitor", "readRequestBytes"));
+        readResponseBytes = metrics.meter(name("NdBenchDefaultMonitor", "readResponseBytes"));
+        writeRequestBytes = metrics.meter(name("NdBenchDefaultMonitor", "writeRequestBytes"));
+        writeResponseBytes = metrics.meter(name("NdBenchDefaultMonitor", "writeResponseBytes"));
+        readPayloadSize = metrics.histogram(name("NdBenchDefaultMonitor", "readPayloadSize"));
+        writePayloadSize = metrics.histogram(name("NdBenchDefaultMonitor", "writePayloadSize"));
+        scanSuccess = metrics.counter(name("NdBenchDefaultMonitor", "scanSuccess"));
+        scanFailure = metrics.counter(name("NdBenchDefaultMonitor", "scanFailure"));
+        scanTimeout = metrics.counter(name("NdBenchDefaultMonitor", "scanTimeout"));
+        scanFirstRowHistogram = metrics.histogram(name("NdBenchDefaultMonitor", "scanfirstrowlatency"));
+        scanPageHistogram = metrics.histogram(name("NdBenchDefaultMonitor", "scanpagelatency"));
+        scanRows = metrics.meter(name("NdBenchDefaultMonitor", "scanRows"));
+        scanBytes = metrics.meter(name("NdBenchDefaultMonitor", "scanBytes"));
+        metrics.register(name("NdBenchDefaultMonitor", "readConcurrencyLimit"), (Gauge<Long>) readConcurrencyLimit::get);
+        metrics.register(name("NdBenchDefaultMonitor", "writeConcurrencyLimit"), (Gauge<Long>) writeConcurrencyLimit::get);
+        metrics.register(name("NdBenchDefaultMonitor", "clientHiccupMax"), (Gauge<Long>) clientHiccupMax::get);
+        metrics.register(name("NdBenchDefaultMonitor", "clientGcPauseMillis"), (Gauge<Long>) clientGcPauseMillis::get);
 
         //Starting JMXReporter
         final JmxReporter reporter = JmxReporter.forRegistry(metrics).inDomain("netflix.ndbench.metrics").build();
@@ -110,6 +170,321 @@ public class NdBenchDefaultMonitor implements NdBenchMonitor
         return writeFailure.getCount();
     }
 
+    @Override
+    public void incReadTimeout() {
+        readTimeout.inc();
+        readRPS.mark();
+    }
+
+    @Override
+    public long getReadTimeout() {
+        return readTimeout.getCount();
+    }
+
+    @Override
+    public void recordReadTimeoutLatency(long duration) {
+        readTimeoutHistogram.update(duration);
+    }
+
+    @Override
+    public long getReadTimeoutLatAvg() {
+        return longValueOfDouble(readTimeoutHistogram.getSnapshot().getMean());
+    }
+
+    @Override
+    public void incWriteTimeout() {
+        writeTimeout.inc();
+        writeRPS.mark();
+    }
+
+    @Override
+    public long getWriteTimeout() {
+        return writeTimeout.getCount();
+    }
+
+    @Override
+    public void recordWriteTimeoutLatency(long duration) {
+        writeTimeoutHistogram.update(duration);
+    }
+
+    @Override
+    public long getWriteTimeoutLatAvg() {
+        return longValueOfDouble(writeTimeoutHistogram.getSnapshot().getMean());
+    }
+
+    @Override
+    public void incHedgePrimary() {
+        hedgePrimaries.inc();
+    }
+
+    @Override
+    public long getHedgePrimaries() {
+        return hedgePrimaries.getCount();
+    }
+
+    @Override
+    public void incHedgeSent() {
+        hedgesSent.inc();
+    }
+
+    @Override
+    public long getHedgesSent() {
+        return hedgesSent.getCount();
+    }
+
+    @Override
+    public void incHedgeWin() {
+        hedgeWins.inc();
+    }
+
+    @Override
+    public long getHedgeWins() {
+        return hedgeWins.getCount();
+    }
+
+    @Override
+    public void setReadConcurrencyLimit(long readConcurrencyLimit) {
+        this.readConcurrencyLimit.set(readConcurrencyLimit);
+    }
+
+    @Override
+    public long getReadConcurrencyLimit() {
+        return readConcurrencyLimit.get();
+    }
+
+    @Override
+    public void setWriteConcurrencyLimit(long writeConcurrencyLimit) {
+        this.writeConcurrencyLimit.set(writeConcurrencyLimit);
+    }
+
+    @Override
+    public long getWriteConcurrencyLimit() {
+        return writeConcurrencyLimit.get();
+    }
+
+    @Override
+    public void setClientHiccupP99(long clientHiccupP99) {
+        this.clientHiccupP99.set(clientHiccupP99);
+    }
+
+    @Override
+    public long getClientHiccupP99() {
+        return clientHiccupP99.get();
+    }
+
+    @Override
+    public void setClientHiccupMax(long clientHiccupMax) {
+        this.clientHiccupMax.set(clientHiccupMax);
+    }
+
+    @Override
+    public long getClientHiccupMax() {
+        return clientHiccupMax.get();
+    }
+
+    @Override
+    public void setClientGcPauseMillis(long clientGcPauseMillis) {
+        this.clientGcPauseMillis.set(clientGcPauseMillis);
+    }
+
+    @Override
+    public long getClientGcPauseMillis() {
+        return clientGcPauseMillis.get();
+    }
+
+    @Override
+    public void setClientStalled(boolean clientStalled) {
+        this.clientStalled.set(clientStalled);
+    }
+
+    @Override
+    public boolean isClientStalled() {
+        return clientStalled.get();
+    }
+
+    @Override
+    public void incClientStalledIntervals() {
+        clientStalledIntervals.incrementAndGet();
+    }
+
+    @Override
+    public long getClientStalledIntervals() {
+        return clientStalledIntervals.get();
+    }
+
+    @Override
+    public void recordReadPayload(long requestBytes, long responseBytes) {
+        readRequestBytes.mark(requestBytes);
+        readResponseBytes.mark(responseBytes);
+        readPayloadSize.update(responseBytes);
+        OperationLog.addPayloadBytes(requestBytes + responseBytes);
+    }
+
+    @Override
+    public void recordWritePayload(long requestBytes, long responseBytes) {
+        writeRequestBytes.mark(requestBytes);
+        writeResponseBytes.mark(responseBytes);
+        writePayloadSize.update(requestBytes);
+        OperationLog.addPayloadBytes(requestBytes + responseBytes);
+    }
+
+    @Override
+    public PluginMetrics getPluginMetrics(String namespace) {
+        return pluginMetrics.forNamespace(namespace);
+    }
+
+    @Override
+    public Map<String, Number> getPluginMetricValues() {
+        return pluginMetrics.getValues();
+    }
+
+    @Override
+    public long getReadBytes() {
+        return readResponseBytes.getCount();
+    }
+
+    @Override
+    public long getWriteBytes() {
+        return writeRequestBytes.getCount();
+    }
+
+    @Override
+    public long getReadBytesPerSec() {
+        return longValueOfDouble(readResponseBytes.getOneMinuteRate());
+    }
+
+    @Override
+    public long getWriteBytesPerSec() {
+        return longValueOfDouble(writeRequestBytes.getOneMinuteRate());
+    }
+
+    @Override
+    public long getBytesInPerSec() {
+        return longValueOfDouble(readResponseBytes.getOneMinuteRate() + writeResponseBytes.getOneMinuteRate());
+    }
+
+    @Override
+    public long getBytesOutPerSec() {
+        return longValueOfDouble(readRequestBytes.getOneMinuteRate() + writeRequestBytes.getOneMinuteRate());
+    }
+
+    @Override
+    public long getReadPayloadSizeAvg() {
+        return longValueOfDouble(readPayloadSize.getSnapshot().getMean());
+    }
+
+    @Override
+    public long getReadPayloadSizeP50() {
+        return longValueOfDouble(readPayloadSize.getSnapshot().getMedian());
+    }
+
+    @Override
+    public long getReadPayloadSizeP99() {
+        return longValueOfDouble(readPayloadSize.getSnapshot().get99thPercentile());
+    }
+
+    @Override
+    public long getWritePayloadSizeAvg() {
+        return longValueOfDouble(writePayloadSize.getSnapshot().getMean());
+    }
+
+    @Override
+    public long getWritePayloadSizeP50() {
+        return longValueOfDouble(writePayloadSize.getSnapshot().getMedian());
+    }
+
+    @Override
+    public long getWritePayloadSizeP99() {
+        return longValueOfDouble(writePayloadSize.getSnapshot().get99thPercentile());
+    }
+
+    @Override
+    public void incScanSuccess() {
+        scanSuccess.inc();
+    }
+
+    @Override
+    public long getScanSuccess() {
+        return scanSuccess.getCount();
+    }
+
+    @Override
+    public void incScanFailure() {
+        scanFailure.inc();
+    }
+
+    @Override
+    public long getScanFailure() {
+        return scanFailure.getCount();
+    }
+
+    @Override
+    public void incScanTimeout() {
+        scanTimeout.inc();
+    }
+
+    @Override
+    public long getScanTimeout() {
+        return scanTimeout.getCount();
+    }
+
+    @Override
+    public void recordScanFirstRowLatency(long duration) {
+        scanFirstRowHistogram.update(duration);
+    }
+
+    @Override
+    public long getScanFirstRowLatP50() {
+        return longValueOfDouble(scanFirstRowHistogram.getSnapshot().getMedian());
+    }
+
+    @Override
+    public long getScanFirstRowLatP99() {
+        return longValueOfDouble(scanFirstRowHistogram.getSnapshot().get99thPercentile());
+    }
+
+    @Override
+    public void recordScanPageLatency(long duration) {
+        scanPageHistogram.update(duration);
+    }
+
+    @Override
+    public long getScanPageLatP50() {
+        return longValueOfDouble(scanPageHistogram.getSnapshot().getMedian());
+    }
+
+    @Override
+    public long getScanPageLatP99() {
+        return longValueOfDouble(scanPageHistogram.getSnapshot().get99thPercentile());
+    }
+
+    @Override
+    public void recordScanRows(long rows, long bytes) {
+        scanRows.mark(rows);
+        scanBytes.mark(bytes);
+        OperationLog.addPayloadBytes(bytes);
+    }
+
+    @Override
+    public long getScanRows() {
+        return scanRows.getCount();
+    }
+
+    @Override
+    public long getScanBytes() {
+        return scanBytes.getCount();
+    }
+
+    @Override
+    public long getScanRowsPerSec() {
+        return longValueOfDouble(scanRows.getOneMinuteRate());
+    }
+
+    @Override
+    public long getScanBytesPerSec() {
+        return longValueOfDouble(scanBytes.getOneMinuteRate());
+    }
+
     @Override
     public void incCacheHit() {
         cacheHits.mark();
@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.util.AdaptiveConcurrencyLimiter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Renders the driver's metrics in the OpenMetrics text format, for Prometheus style scrapers.
+ * <p>
+ * Latencies are exported as the cumulative buckets of the driver's {@link BucketedLatencyHistogram}s, so they can be
+ * aggregated across all ndbench nodes, next to the operation counters by outcome, the rate limits, the number of active
+ * workers and the operations in flight. A scrape only reads counters, its cost does not depend on the operation rate.
+ */
+@Singleton
+public class OpenMetricsExporter {
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static final String[] BUCKET_BOUNDS_SECONDS = new String[BucketedLatencyHistogram.BUCKET_BOUNDS_MICROS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+            BUCKET_BOUNDS_SECONDS[i] = BigDecimal.valueOf(BucketedLatencyHistogram.BUCKET_BOUNDS_MICROS[i], 6)
+                    .stripTrailingZeros().toPlainString();
+        }
+    }
+
+    private final NdBenchDriver driver;
+    private final NdBenchMonitor monitor;
+
+    @Inject
+    public OpenMetricsExporter(NdBenchDriver driver, NdBenchMonitor monitor) {
+        this.driver = driver;
+        this.monitor = monitor;
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# TYPE ndbench_operation_latency_seconds histogram\n");
+        out.append("# UNIT ndbench_operation_latency_seconds seconds\n");
+        out.append("# HELP ndbench_operation_latency_seconds Latency of successful operations.\n");
+        appendHistogram(out, "read", driver.getReadLatencyHistogram());
+        appendHistogram(out, "write", driver.getWriteLatencyHistogram());
+
+        out.append("# TYPE ndbench_operations counter\n");
+        out.append("# HELP ndbench_operations Operations completed, by outcome.\n");
+        appendOperations(out, "read", "success", monitor.getReadSuccess());
+        appendOperations(out, "read", "failure", monitor.getReadFailure());
+        appendOperations(out, "read", "timeout", monitor.getReadTimeout());
+        appendOperations(out, "write", "success", monitor.getWriteSuccess());
+        appendOperations(out, "write", "failure", monitor.getWriteFailure());
+        appendOperations(out, "write", "timeout", monitor.getWriteTimeout());
+
+        out.append("# TYPE ndbench_rate_limit gauge\n");
+        out.append("# HELP ndbench_rate_limit Current rate limit in operations per second.\n");
+        appendGauge(out, "ndbench_rate_limit", "read", driver.getReadRateLimit());
+        appendGauge(out, "ndbench_rate_limit", "write", driver.getWriteRateLimit());
+
+        out.append("# TYPE ndbench_active_workers gauge\n");
+        out.append("# HELP ndbench_active_workers Worker threads currently running.\n");
+        appendGauge(out, "ndbench_active_workers", "read", driver.getReadWorkers());
+        appendGauge(out, "ndbench_active_workers", "write", driver.getWriteWorkers());
+
+        out.append("# TYPE ndbench_inflight_operations gauge\n");
+        out.append("# HELP ndbench_inflight_operations Operations currently in flight.\n");
+        appendGauge(out, "ndbench_inflight_operations", "read", getInFlight(driver.getReadConcurrencyLimiter()));
+        appendGauge(out, "ndbench_inflight_operations", "write", getInFlight(driver.getWriteConcurrencyLimiter()));
+
+        Map<String, Number> pluginMetrics = monitor.getPluginMetricValues();
+        if (!pluginMetrics.isEmpty()) {
+            out.append("# TYPE ndbench_plugin_metric gauge\n");
+            out.append("# HELP ndbench_plugin_metric Metrics registered by the client plugin.\n");
+            for (Map.Entry<String, Number> metric : pluginMetrics.entrySet()) {
+                out.append("ndbench_plugin_metric{name=\"")
+                   .append(metric.getKey().replace("\\", "\\\\").replace("\"", "\\\""))
+                   .append("\"} ").append(metric.getValue().doubleValue()).append('\n');
+            }
+        }
+
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String op, BucketedLatencyHistogram histogram) {
+        long cumulative = 0L;
+        for (int i = 0; i < histogram.getNumBuckets(); i++) {
+            cumulative += histogram.getBucketCount(i);
+            out.append("ndbench_operation_latency_seconds_bucket{op=\"").append(op).append("\",le=\"")
+               .append(i < BUCKET_BOUNDS_SECONDS.length ? BUCKET_BOUNDS_SECONDS[i] : "+Inf")
+               .append("\"} ").append(cumulative).append('\n');
+        }
+        out.append("ndbench_operation_latency_seconds_count{op=\"").append(op).append("\"} ")
+           .append(cumulative).append('\n');
+        out.append("ndbench_operation_latency_seconds_sum{op=\"").append(op).append("\"} ")
+           .append(histogram.getSumMicros() / 1_000_000D).append('\n');
+    }
+
+    private static void appendOperations(StringBuilder out, String op, String outcome, long count) {
+        out.append("ndbench_operations_total{op=\"").append(op).append("\",outcome=\"").append(outcome)
+           .append("\"} ").append(count).append('\n');
+    }
+
+    private static void appendGauge(StringBuilder out, String name, String op, double value) {
+        out.append(name).append("{op=\"").append(op).append("\"} ").append(value).append('\n');
+    }
+
+    private static int getInFlight(AdaptiveConcurrencyLimiter limiter) {
+        return limiter == null ? 0 : limiter.getInFlight();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Breaks a sample of the operations issued by the driver's workers down into the time spent in each phase, to show
+ * how much of a measured operation is spent in ndbench itself.
+ * <p>
+ * Every worker owns a {@link Sample}, which decides once per operation whether that operation is timed. Phases are
+ * marked as the operation progresses, each mark attributing the time since the previous mark to a phase, and the
+ * per-phase totals of a timed operation are added to the phase histograms once it completes. Operations which are
+ * not sampled only pay for the sampling decision and for a thread local lookup in {@link #mark(Phase)}.
+ * <p>
+ * The time a worker spends waiting for its concurrency and rate limiter permits is the limiter wait phase, all other
+ * phases count as busy time for the worker utilization.
+ */
+public class OperationProfiler {
+    public enum Phase {
+        LIMITER_WAIT,
+        KEY_GENERATION,
+        CLIENT_CALL,
+        POST_PROCESSING,
+        STATS_RECORDING
+    }
+
+    private static final ThreadLocal<Sample> currentSample = new ThreadLocal<>();
+
+    private final double sampleRate;
+    private final Map<Phase, Histogram> phaseHistograms = new EnumMap<>(Phase.class);
+    private final AtomicLong sampledOperations = new AtomicLong(0L);
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder waitingNanos = new LongAdder();
+
+    public OperationProfiler(double sampleRate) {
+        this.sampleRate = sampleRate;
+        for (Phase phase : Phase.values()) {
+            phaseHistograms.put(phase, new Histogram(new UniformReservoir()));
+        }
+    }
+
+    /**
+     * Creates the sample of the calling worker thread, which is also the one {@link #mark(Phase)} reports to.
+     */
+    public Sample newSample() {
+        Sample sample = new Sample();
+        currentSample.set(sample);
+        return sample;
+    }
+
+    /**
+     * Attributes the time since the previous mark of the calling worker's operation to the given phase, if that
+     * operation is being sampled.
+     */
+    public static void mark(Phase phase) {
+        Sample sample = currentSample.get();
+        if (sample != null) {
+            sample.mark(phase);
+        }
+    }
+
+    public boolean isEnabled() {
+        return sampleRate > 0;
+    }
+
+    /**
+     * @return per phase latency percentiles in microseconds, and the share of the sampled time workers were busy
+     */
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sampleRate", sampleRate);
+        report.put("sampledOperations", sampledOperations.get());
+
+        long busy = busyNanos.sum();
+        long total = busy + waitingNanos.sum();
+        report.put("workerUtilizationPercent", total == 0 ? 0 : busy * 100L / total);
+
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Map.Entry<Phase, Histogram> entry : phaseHistograms.entrySet()) {
+            Snapshot snapshot = entry.getValue().getSnapshot();
+            Map<String, Long> phase = new LinkedHashMap<>();
+            phase.put("avg", Double.valueOf(snapshot.getMean()).longValue());
+            phase.put("p50", Double.valueOf(snapshot.getMedian()).longValue());
+            phase.put("p99", Double.valueOf(snapshot.get99thPercentile()).longValue());
+            phase.put("p999", Double.valueOf(snapshot.get999thPercentile()).longValue());
+            phase.put("max", snapshot.getMax());
+            phases.put(entry.getKey().name(), phase);
+        }
+        report.put("phasesMicros", phases);
+        return report;
+    }
+
+    /**
+     * Phase timings of the operation a worker is currently executing, only used by the worker owning it.
+     */
+    public class Sample {
+        private final long[] phaseNanos = new long[Phase.values().length];
+        private boolean decided = false;
+        private boolean active = false;
+        private long lastMark;
+
+        /**
+         * Decides whether the worker's next operation is sampled, starting its limiter wait phase if it is. Only the
+         * first call after an operation completed decides, so that the sampled wait covers the whole wait.
+         */
+        public void begin() {
+            if (!decided) {
+                decided = true;
+                if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                    active = true;
+                    lastMark = System.nanoTime();
+                }
+            }
+        }
+
+        public void mark(Phase phase) {
+            if (active) {
+                long now = System.nanoTime();
+                phaseNanos[phase.ordinal()] += now - lastMark;
+                lastMark = now;
+            }
+        }
+
+        /**
+         * Completes the operation, adding its phase timings to the profiler's histograms if it was sampled.
+         */
+        public void end() {
+            decided = false;
+            if (!active) {
+                return;
+            }
+            active = false;
+            for (Phase phase : Phase.values()) {
+                long nanos = phaseNanos[phase.ordinal()];
+                phaseHistograms.get(phase).update(nanos / 1000);
+                if (phase == Phase.LIMITER_WAIT) {
+                    waitingNanos.add(nanos);
+                } else {
+                    busyNanos.add(nanos);
+                }
+                phaseNanos[phase.ordinal()] = 0L;
+            }
+            sampledOperations.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registers the metrics of the client plugins in the metric registry of the monitor, named
+ * <code>plugin.&lt;namespace&gt;.&lt;name&gt;</code>, so that they are reported by JMX like the driver's own metrics.
+ * <p>
+ * Counters are backed by a {@link java.util.concurrent.atomic.LongAdder} and histograms by a {@link UniformReservoir},
+ * neither of which takes a lock when updated.
+ */
+public class PluginMetricsRegistry {
+    static final String PREFIX = "plugin";
+
+    private final MetricRegistry metrics;
+
+    public PluginMetricsRegistry(MetricRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    public PluginMetrics forNamespace(String namespace) {
+        return new PluginMetrics() {
+            @Override
+            public PluginMetrics.Counter counter(String name) {
+                com.codahale.metrics.Counter counter = metrics.counter(MetricRegistry.name(PREFIX, namespace, name));
+                return counter::inc;
+            }
+
+            @Override
+            public PluginMetrics.Histogram histogram(String name) {
+                return getOrRegisterHistogram(MetricRegistry.name(PREFIX, namespace, name))::update;
+            }
+
+            @Override
+            public void gauge(String name, DoubleSupplier value) {
+                String metricName = MetricRegistry.name(PREFIX, namespace, name);
+                metrics.remove(metricName);
+                metrics.register(metricName, (Gauge<Double>) value::getAsDouble);
+            }
+        };
+    }
+
+    private Histogram getOrRegisterHistogram(String name) {
+        Histogram histogram = metrics.getHistograms().get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        try {
+            return metrics.register(name, new Histogram(new UniformReservoir()));
+        } catch (IllegalArgumentException e) {
+            // registered concurrently
+            return metrics.getHistograms().get(name);
+        }
+    }
+
+    /**
+     * @return the current value of every plugin metric, sorted by name and without the plugin prefix
+     */
+    public Map<String, Number> getValues() {
+        Map<String, Number> values = new TreeMap<>();
+        for (Map.Entry<String, Metric> entry : metrics.getMetrics().entrySet()) {
+            if (!entry.getKey().startsWith(PREFIX + ".")) {
+                continue;
+            }
+            String name = entry.getKey().substring(PREFIX.length() + 1);
+            Metric metric = entry.getValue();
+            if (metric instanceof Counter) {
+                values.put(name, ((Counter) metric).getCount());
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                Snapshot snapshot = histogram.getSnapshot();
+                values.put(name + ".count", histogram.getCount());
+                values.put(name + ".mean", snapshot.getMean());
+                values.put(name + ".p50", snapshot.getMedian());
+                values.put(name + ".p99", snapshot.get99thPercentile());
+                values.put(name + ".max", snapshot.getMax());
+            } else if (metric instanceof Gauge) {
+                Object value = ((Gauge<?>) metric).getValue();
+                if (value instanceof Number) {
+                    values.put(name, (Number) value);
+                }
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.util.AdaptiveConcurrencyLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the live stats of the driver to any number of subscribers, typically the stats charts of the web UI.
+ * <p>
+ * One stats frame is computed per interval, whatever the number of subscribers, and serialized once. A frame only holds
+ * the stats which changed since the previous frame, so subscribers keep their own copy of the stats and merge every
+ * frame into it. A new subscriber first receives a full frame to start from. Subscribers which do not keep up have their
+ * pending frames dropped and get a new full frame instead, so that a slow consumer never holds memory or the timer up.
+ * No frames are computed while nobody is subscribed.
+ */
+@Singleton
+public class StatsStreamer {
+    private static final Logger logger = LoggerFactory.getLogger(StatsStreamer.class);
+
+    static final int SUBSCRIBER_QUEUE_CAPACITY = 16;
+
+    private final IConfiguration config;
+    private final NdBenchMonitor monitor;
+    private final NdBenchDriver driver;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<ScheduledExecutorService> timerRef = new AtomicReference<>(null);
+
+    // guarded by this
+    private Map<String, Object> lastStats = Collections.emptyMap();
+    private long sequence = 0L;
+
+    @Inject
+    public StatsStreamer(IConfiguration config, NdBenchMonitor monitor, NdBenchDriver driver) {
+        this.config = config;
+        this.monitor = monitor;
+        this.driver = driver;
+    }
+
+    private void checkAndInitTimer() {
+        if (timerRef.get() != null) {
+            return;
+        }
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ndbench-stats-streamer-%d")
+                .setDaemon(true).build());
+        if (timerRef.compareAndSet(null, timer)) {
+            logger.info("Starting stats stream with an interval of {} ms", config.getStatsStreamIntervalMillis());
+            timer.scheduleAtFixedRate(this::publish, config.getStatsStreamIntervalMillis(),
+                    config.getStatsStreamIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            timer.shutdown();
+        }
+    }
+
+    /**
+     * Subscribes to the stream. The returned subscriber's first frame holds the full stats, and it must be passed to
+     * {@link #unsubscribe(Subscriber)} once the consumer goes away.
+     */
+    public synchronized Subscriber subscribe() throws JsonProcessingException {
+        if (subscribers.isEmpty()) {
+            // Frames are not computed without subscribers, the last ones may be long outdated
+            lastStats = collectStats();
+            sequence++;
+        }
+        Subscriber subscriber = new Subscriber();
+        subscriber.offer(toFrame(lastStats, true));
+        subscribers.add(subscriber);
+        checkAndInitTimer();
+        return subscriber;
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public int getNumSubscribers() {
+        return subscribers.size();
+    }
+
+    synchronized void publish() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Object> stats = collectStats();
+            Map<String, Object> changed = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : stats.entrySet()) {
+                if (!Objects.equals(entry.getValue(), lastStats.get(entry.getKey()))) {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
+            }
+            lastStats = stats;
+            sequence++;
+
+            String delta = toFrame(changed, false);
+            String full = null;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(delta)) {
+                    if (full == null) {
+                        full = toFrame(stats, true);
+                    }
+                    subscriber.resync(full);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to publish stats frame", e);
+        }
+    }
+
+    Map<String, Object> collectStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("isReadsRunning", driver.getIsReadRunning());
+        stats.put("isWritesRunning", driver.getIsWriteRunning());
+        stats.put("readRPS", monitor.getReadRPS());
+        stats.put("writeRPS", monitor.getWriteRPS());
+        stats.put("readBytesPerSec", monitor.getReadBytesPerSec());
+        stats.put("writeBytesPerSec", monitor.getWriteBytesPerSec());
+        stats.put("scanRowsPerSec", monitor.getScanRowsPerSec());
+        stats.put("scanBytesPerSec", monitor.getScanBytesPerSec());
+        stats.put("readLatP50", monitor.getReadLatP50());
+        stats.put("readLatP95", monitor.getReadLatP95());
+        stats.put("readLatP99", monitor.getReadLatP99());
+        stats.put("readLatP999", monitor.getReadLatP999());
+        stats.put("writeLatP50", monitor.getWriteLatP50());
+        stats.put("writeLatP95", monitor.getWriteLatP95());
+        stats.put("writeLatP99", monitor.getWriteLatP99());
+        stats.put("writeLatP999", monitor.getWriteLatP999());
+        stats.put("readFailure", monitor.getReadFailure());
+        stats.put("writeFailure", monitor.getWriteFailure());
+        stats.put("readTimeout", monitor.getReadTimeout());
+        stats.put("writeTimeout", monitor.getWriteTimeout());
+        stats.put("readRateLimit", driver.getReadRateLimit());
+        stats.put("writeRateLimit", driver.getWriteRateLimit());
+        stats.put("readConcurrencyLimit", getLimit(driver.getReadConcurrencyLimiter()));
+        stats.put("writeConcurrencyLimit", getLimit(driver.getWriteConcurrencyLimiter()));
+        stats.put("cacheHitRatioInt", monitor.getCacheHitRatioInt());
+        stats.put("clientStalled", monitor.isClientStalled());
+        for (Map.Entry<String, Number> metric : monitor.getPluginMetricValues().entrySet()) {
+            stats.put("plugin." + metric.getKey(), metric.getValue());
+        }
+        return stats;
+    }
+
+    private String toFrame(Map<String, Object> stats, boolean full) throws JsonProcessingException {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("seq", sequence);
+        frame.put("timestamp", System.currentTimeMillis());
+        frame.put("full", full);
+        frame.put("stats", stats);
+        return mapper.writeValueAsString(frame);
+    }
+
+    private static int getLimit(AdaptiveConcurrencyLimiter limiter) {
+        return limiter == null || !limiter.isEnabled() ? 0 : limiter.getLimit();
+    }
+
+    public void shutdown() {
+        ScheduledExecutorService timer = timerRef.getAndSet(null);
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Frames pending for one consumer of the stream, as serialized JSON.
+     */
+    public static class Subscriber {
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+
+        boolean offer(String frame) {
+            return frames.offer(frame);
+        }
+
+        void resync(String fullFrame) {
+            frames.clear();
+            frames.offer(fullFrame);
+        }
+
+        /**
+         * @return the next frame, or null if none was published within the timeout
+         */
+        public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return frames.poll(timeout, unit);
+        }
+    }
+}
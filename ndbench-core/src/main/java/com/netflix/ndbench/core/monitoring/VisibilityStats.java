@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and visibility of the reads of the read-your-writes load pattern, split by how long after the write was
+ * acknowledged the read was issued. A read which does not find the value of every key it reads counts as not yet
+ * visible.
+ */
+public class VisibilityStats {
+    /**
+     * Upper bounds of the lag buckets in milliseconds, a last unbounded bucket holds everything above them.
+     */
+    public static final long[] LAG_BOUNDS_MILLIS = {1L, 5L, 10L, 50L, 100L, 500L, 1_000L, 5_000L};
+
+    private final AtomicReference<Bucket[]> bucketsRef = new AtomicReference<>(newBuckets());
+
+    /**
+     * @param lagMicros time between the acknowledgement of the write and the start of the read
+     */
+    public void record(long lagMicros, long latencyMicros, boolean visible) {
+        Bucket bucket = bucketsRef.get()[getBucket(lagMicros / 1000)];
+        bucket.latency.record(latencyMicros);
+        if (!visible) {
+            bucket.notVisible.increment();
+        }
+    }
+
+    static int getBucket(long lagMillis) {
+        int bucket = 0;
+        while (bucket < LAG_BOUNDS_MILLIS.length && lagMillis >= LAG_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * @return the percentage of all the reads recorded which did not find the written value, 0 if there were none
+     */
+    public double getNotVisiblePercent() {
+        long reads = 0L;
+        long notVisible = 0L;
+        for (Bucket bucket : bucketsRef.get()) {
+            reads += bucket.latency.getCount();
+            notVisible += bucket.notVisible.sum();
+        }
+        return reads == 0 ? 0D : notVisible * 100D / reads;
+    }
+
+    public boolean isEmpty() {
+        for (Bucket bucket : bucketsRef.get()) {
+            if (bucket.latency.getCount() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void reset() {
+        bucketsRef.set(newBuckets());
+    }
+
+    /**
+     * Reports, per lag bucket with reads in it, the number of reads, the percentage of them which did not find the
+     * written value and their latency percentiles.
+     */
+    public Map<String, Object> getReport() {
+        Bucket[] buckets = bucketsRef.get();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("notVisiblePercent", getNotVisiblePercent());
+        Map<String, Object> lags = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            BucketedLatencyHistogram histogram = buckets[i].latency;
+            long reads = histogram.getCount();
+            if (reads == 0) {
+                continue;
+            }
+            Map<String, Object> bucketReport = new LinkedHashMap<>();
+            bucketReport.put("reads", reads);
+            bucketReport.put("notVisiblePercent", buckets[i].notVisible.sum() * 100D / reads);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", histogram.getPercentile(0.5));
+            latency.put("p99", histogram.getPercentile(0.99));
+            bucketReport.put("latencyMicros", latency);
+            lags.put(getLabel(i), bucketReport);
+        }
+        report.put("lagMillis", lags);
+        return report;
+    }
+
+    private static String getLabel(int bucket) {
+        if (bucket == LAG_BOUNDS_MILLIS.length) {
+            return ">=" + LAG_BOUNDS_MILLIS[bucket - 1];
+        }
+        return (bucket == 0 ? 0L : LAG_BOUNDS_MILLIS[bucket - 1]) + "-" + LAG_BOUNDS_MILLIS[bucket];
+    }
+
+    private static Bucket[] newBuckets() {
+        Bucket[] buckets = new Bucket[LAG_BOUNDS_MILLIS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        return buckets;
+    }
+
+    private static class Bucket {
+        private final BucketedLatencyHistogram latency = new BucketedLatencyHistogram();
+        private final LongAdder notVisible = new LongAdder();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.netflix.ndbench.BackfillChunk")
+@Label("NdBench Backfill Chunk")
+@Description("A backfill worker completed a chunk of its key range")
+@Category("NdBench")
+@StackTrace(false)
+class BackfillChunkEvent extends jdk.jfr.Event {
+    @Label("Start Key")
+    int startKey;
+
+    @Label("End Key")
+    int endKey;
+
+    @Label("Duration")
+    @Timespan(Timespan.MICROSECONDS)
+    long duration;
+}
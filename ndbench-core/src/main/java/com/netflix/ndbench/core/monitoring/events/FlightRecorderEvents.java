@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Emits custom Java Flight Recorder events for ndbench's own activity, so that a JFR recording of an ndbench node lines
+ * up latency spikes with rate limit changes, phase transitions and backfill progress, next to GC, safepoints and
+ * socket I/O.
+ * <p>
+ * The events need the jdk.jfr API, which ships with JDK 11 and later and with OpenJDK 8u262 and later. On older JVMs
+ * every method returns right away and the event classes are never loaded. Events are only committed while a recording
+ * has them enabled, and operations are additionally sampled, so the events can be left on in every run.
+ */
+public final class FlightRecorderEvents {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEvents.class);
+
+    private static final boolean AVAILABLE = isJfrAvailable();
+
+    private FlightRecorderEvents() {
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.info("Java Flight Recorder API is not available, NdBench JFR events are disabled");
+            return false;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Emits an operation event for the given fraction of the calls.
+     *
+     * @param sampleRate fraction of the operations, between 0 and 1, to emit an event for
+     * @param keys       the keys of the operation, the first one is recorded along with their number
+     * @param outcome    success, failure or timeout
+     */
+    public static void operation(double sampleRate, String operation, List<String> keys, long latencyMicros,
+                                 String outcome) {
+        if (!AVAILABLE || sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        OperationEvent event = new OperationEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.key = keys.isEmpty() ? null : keys.get(0);
+            event.keyCount = keys.size();
+            event.latency = latencyMicros;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    public static void rateLimitChange(String limiter, double oldLimit, double newLimit) {
+        if (!AVAILABLE) {
+            return;
+        }
+        RateLimitChangeEvent event = new RateLimitChangeEvent();
+        if (event.isEnabled()) {
+            event.limiter = limiter;
+            event.oldLimit = oldLimit;
+            event.newLimit = newLimit;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param phase      what is transitioning, e.g. reads, writes or backfill
+     * @param transition e.g. start or stop
+     */
+    public static void phaseTransition(String phase, String transition) {
+        if (!AVAILABLE) {
+            return;
+        }
+        PhaseTransitionEvent event = new PhaseTransitionEvent();
+        if (event.isEnabled()) {
+            event.phase = phase;
+            event.transition = transition;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param startKey   first key of the chunk
+     * @param endKey     key following the last one of the chunk
+     * @param startNanos {@link System#nanoTime()} when the chunk was started
+     */
+    public static void backfillChunk(int startKey, int endKey, long startNanos) {
+        if (!AVAILABLE) {
+            return;
+        }
+        BackfillChunkEvent event = new BackfillChunkEvent();
+        if (event.isEnabled()) {
+            event.startKey = startKey;
+            event.endKey = endKey;
+            event.duration = (System.nanoTime() - startNanos) / 1000;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.monitoring.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.netflix.ndbench.RateLimitChange")
+@Label("NdBench Rate Limit Change")
+@Description("The rate limit of the read or write workers changed")
+@Category("NdBench")
+@StackTrace(false)
+class RateLimitChangeEvent extends jdk.jfr.Event {
+    @Label("Limiter")
+    String limiter;
+
+    @Label("Old Limit")
+    double oldLimit;
+
+    @Label("New Limit")
+    double newLimit;
+}
@@ -0,0 +1,33 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.operations;
+
+/**
+ * Thrown by {@link com.netflix.ndbench.core.NdBenchDriver#callWithDeadline} when a client call does not complete
+ * within the configured operation timeout.
+ */
+public class OperationTimeoutException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public OperationTimeoutException(long timeoutMillis) {
+        super("Operation did not complete within " + timeoutMillis + " ms");
+    }
+
+    public OperationTimeoutException(String message) {
+        super(message);
+    }
+}
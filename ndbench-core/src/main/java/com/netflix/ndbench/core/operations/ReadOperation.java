@@ -21,11 +21,19 @@ import com.google.common.util.concurrent.RateLimiter;
 import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
 import com.netflix.ndbench.api.plugin.NdBenchMonitor;
 import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.RunPlan;
+import com.netflix.ndbench.core.monitoring.KeyTier;
+import com.netflix.ndbench.core.monitoring.OperationProfiler;
+import com.netflix.ndbench.core.monitoring.OperationProfiler.Phase;
+import com.netflix.ndbench.core.monitoring.events.FlightRecorderEvents;
+import com.netflix.ndbench.core.oplog.OperationLog.OpType;
+import com.netflix.ndbench.core.oplog.OperationLog.Outcome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -45,36 +53,78 @@ public class ReadOperation implements NdBenchDriver.NdBenchOperation {
                            NdBenchMonitor monitor,
                            List<String> keys,
                            AtomicReference<RateLimiter> ignoredForNow,
-                           boolean isAutoTuneEnabled) {
+                           boolean isAutoTuneEnabled,
+                           WorkerContext workerContext) {
+        long ackNanos = driver.takeReadAckNanos();
+        RunPlan plan = driver.getRunPlan();
+        if (plan.getScanRatio() > 0 && ThreadLocalRandom.current().nextDouble() < plan.getScanRatio()) {
+            return scan(driver, monitor, keys, plan);
+        }
+        Long startTime = System.nanoTime();
         try {
-
+            // Creating the worker's context is not part of its first operation's latency
+            final Object context = workerContext.acquire();
+            startTime = System.nanoTime();
+            long latency;
             if (keys.size() > 1) {
                 //Bulk requests
                 List<String> values = new ArrayList<>(keys.size());
 
-                Long startTime = System.nanoTime();
-                values.addAll(client.readBulk(keys));
-                monitor.recordReadLatency((System.nanoTime() - startTime) / 1000);
+                values.addAll(driver.callWithDeadline(() -> workerContext.readBulk(client, context, keys)));
+                OperationProfiler.mark(Phase.CLIENT_CALL);
+                latency = (System.nanoTime() - startTime) / 1000;
+                monitor.recordReadLatency(latency);
+                driver.getReadLatencyHistogram().record(latency);
+                KeyTier tier = recordKeyTierLatency(driver, keys, latency);
+                OperationProfiler.mark(Phase.STATS_RECORDING);
 
+                boolean visible = true;
                 for (String value : values) {
-                    processCacheStats(value, monitor);
+                    processCacheStats(value, monitor, driver, tier);
+                    visible &= value != null;
                 }
+                recordVisibility(driver, ackNanos, startTime, latency, visible);
+                OperationProfiler.mark(Phase.POST_PROCESSING);
             } else {
                 //Single requests
 
-                Long startTime = System.nanoTime();
-                String value = client.readSingle(keys.get(0));
-                monitor.recordReadLatency((System.nanoTime() - startTime) / 1000);
-
-                processCacheStats(value, monitor);
+                String value = driver.callWithDeadline(() -> workerContext.readSingle(client, context, keys.get(0)));
+                OperationProfiler.mark(Phase.CLIENT_CALL);
+                latency = (System.nanoTime() - startTime) / 1000;
+                monitor.recordReadLatency(latency);
+                driver.getReadLatencyHistogram().record(latency);
+                KeyTier tier = recordKeyTierLatency(driver, keys, latency);
+                OperationProfiler.mark(Phase.STATS_RECORDING);
+
+                processCacheStats(value, monitor, driver, tier);
+                recordVisibility(driver, ackNanos, startTime, latency, value != null);
+                OperationProfiler.mark(Phase.POST_PROCESSING);
             }
 
             monitor.incReadSuccess();
+            FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "read", keys, latency, "success");
+            driver.logOperation(client, OpType.READ, keys, latency, Outcome.SUCCESS);
+            OperationProfiler.mark(Phase.STATS_RECORDING);
             return true;
 
+        } catch (OperationTimeoutException e) {
+            workerContext.discard();
+            if (driver.getIsReadRunning()) {
+                long latency = (System.nanoTime() - startTime) / 1000;
+                monitor.recordReadTimeoutLatency(latency);
+                monitor.incReadTimeout();
+                FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "read", keys, latency, "timeout");
+                driver.logOperation(client, OpType.READ, keys, latency, Outcome.TIMEOUT);
+                logger.warn("NdBench read operation timed out: " + e.getMessage());
+            }
+            return false;
         } catch (Exception e) {
+            workerContext.onFailure(e);
             if (driver.getIsReadRunning()) {
+                long latency = (System.nanoTime() - startTime) / 1000;
                 monitor.incReadFailure();
+                FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "read", keys, latency, "failure");
+                driver.logOperation(client, OpType.READ, keys, latency, Outcome.FAILURE);
                 logger.error("Failed to process NdBench read operation", e);
             } else {
                 logger.warn("Caught exception while stopping reads: " + e.getMessage());
@@ -83,13 +133,86 @@ public class ReadOperation implements NdBenchDriver.NdBenchOperation {
         }
     }
 
-    private void processCacheStats(String value, NdBenchMonitor monitor)
+    /**
+     * Scans up to scanLimit rows from the first key, in place of the read of the keys. The rows are recorded page by
+     * page as they come in, the success, failure or timeout once the scan is over. A scan which timed out may still run
+     * on the deadline pool, the rows it reads after it was reported are not recorded.
+     */
+    private boolean scan(NdBenchDriver driver, NdBenchMonitor monitor, List<String> keys, RunPlan plan) {
+        long startTime = System.nanoTime();
+        ScanRecorder recorder = new ScanRecorder(monitor, startTime);
+        try {
+            driver.callWithDeadline(() -> {
+                client.scan(keys.get(0), plan.getScanLimit(), plan.getScanPageSize(), recorder);
+                return null;
+            });
+            OperationProfiler.mark(Phase.CLIENT_CALL);
+            long latency = (System.nanoTime() - startTime) / 1000;
+            monitor.incScanSuccess();
+            FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "scan", keys, latency, "success");
+            driver.logOperation(client, OpType.READ, keys, latency, Outcome.SUCCESS);
+            OperationProfiler.mark(Phase.STATS_RECORDING);
+            return true;
+        } catch (OperationTimeoutException e) {
+            if (driver.getIsReadRunning()) {
+                long latency = (System.nanoTime() - startTime) / 1000;
+                monitor.incScanTimeout();
+                FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "scan", keys, latency, "timeout");
+                driver.logOperation(client, OpType.READ, keys, latency, Outcome.TIMEOUT);
+                logger.warn("NdBench scan operation timed out after " + recorder.getRows() + " rows: " + e.getMessage());
+            }
+            return false;
+        } catch (Exception e) {
+            if (driver.getIsReadRunning()) {
+                long latency = (System.nanoTime() - startTime) / 1000;
+                monitor.incScanFailure();
+                FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "scan", keys, latency, "failure");
+                driver.logOperation(client, OpType.READ, keys, latency, Outcome.FAILURE);
+                logger.error("Failed to process NdBench scan operation", e);
+            } else {
+                logger.warn("Caught exception while stopping scans: " + e.getMessage());
+            }
+            return false;
+        } finally {
+            recorder.close();
+        }
+    }
+
+    private KeyTier recordKeyTierLatency(NdBenchDriver driver, List<String> keys, long latency)
+    {
+        KeyTier tier = driver.getReadKeyTier(keys);
+        if (tier != null) {
+            driver.getReadKeyTierStats().recordLatency(tier, latency);
+        }
+        return tier;
+    }
+
+    /**
+     * Records whether the value of a key read after its write was acknowledged was found, for the reads of the
+     * read-your-writes load pattern
+     */
+    private void recordVisibility(NdBenchDriver driver, long ackNanos, long startTime, long latency, boolean visible)
+    {
+        if (ackNanos != 0L) {
+            driver.getVisibilityStats().record((startTime - ackNanos) / 1000, latency, visible);
+        }
+    }
+
+    private void processCacheStats(String value, NdBenchMonitor monitor, NdBenchDriver driver, KeyTier tier)
     {
         if (value != null) {
             monitor.incCacheHit();
         } else {
             monitor.incCacheMiss();
         }
+        if (tier != null) {
+            driver.getReadKeyTierStats().recordCacheHit(tier, value != null);
+        }
+    }
+
+    @Override
+    public WorkerContext newWorkerContext() {
+        return new WorkerContext(client);
     }
 
     @Override
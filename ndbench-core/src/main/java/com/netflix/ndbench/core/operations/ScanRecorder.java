@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.operations;
+
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.ScanCallback;
+
+/**
+ * Callback of the scans issued by {@link ReadOperation}, recording to the monitor the time to the first row, the time
+ * each page took and the rows and bytes of every page as soon as the page is complete, so that the throughput of a long
+ * scan shows while it runs. A recorder belongs to one scan, and is called by one thread at a time. Once the scan has
+ * been reported the recorder is closed, and the rows a scan which timed out goes on reading are dropped.
+ */
+class ScanRecorder implements ScanCallback {
+    private final NdBenchMonitor monitor;
+    private final long startNanos;
+    private long lastPageNanos;
+    private long rows = 0L;
+    private long pageBytes = 0L;
+    private volatile boolean closed = false;
+
+    ScanRecorder(NdBenchMonitor monitor, long startNanos) {
+        this.monitor = monitor;
+        this.startNanos = startNanos;
+        this.lastPageNanos = startNanos;
+    }
+
+    @Override
+    public void onRow(String key, long sizeBytes) {
+        if (closed) {
+            return;
+        }
+        if (rows == 0L) {
+            monitor.recordScanFirstRowLatency((System.nanoTime() - startNanos) / 1000);
+        }
+        rows++;
+        pageBytes += sizeBytes;
+    }
+
+    @Override
+    public void onPage(int pageRows) {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        monitor.recordScanPageLatency((now - lastPageNanos) / 1000);
+        monitor.recordScanRows(pageRows, pageBytes);
+        lastPageNanos = now;
+        pageBytes = 0L;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    void close() {
+        closed = true;
+    }
+}
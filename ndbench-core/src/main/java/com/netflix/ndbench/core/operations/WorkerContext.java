@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.operations;
+
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.api.plugin.NdBenchWorkerContextClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * The context a worker thread passes to the client with each of its operations, for clients implementing
+ * {@link NdBenchWorkerContextClient}. Other clients are called without a context and the worker context does nothing.
+ * <p>
+ * A worker context is owned by one worker: {@link #acquire()} is called on the worker thread before each operation,
+ * creating the client's context on the first one, and the context it returns is handed to the client call, which may
+ * run on another thread when operations have a deadline. A context whose operation timed out, or which the client
+ * reports broken after a failed operation, is discarded, the next operation of the worker gets a new one.
+ */
+public class WorkerContext {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerContext.class);
+
+    private final NdBenchWorkerContextClient<?, Object> client;
+    private Object context;
+    private boolean created = false;
+
+    @SuppressWarnings("unchecked")
+    public WorkerContext(NdBenchAbstractClient<?> client) {
+        this.client = client instanceof NdBenchWorkerContextClient ? (NdBenchWorkerContextClient<?, Object>) client : null;
+    }
+
+    /**
+     * @return the client's context for this worker, null if the client does not have worker contexts
+     */
+    public Object acquire() throws Exception {
+        if (client != null && !created) {
+            context = client.createWorkerContext();
+            created = true;
+        }
+        return context;
+    }
+
+    /**
+     * @return true if the client's context for this worker was created and not discarded since
+     */
+    public boolean isAcquired() {
+        return created;
+    }
+
+    public String readSingle(NdBenchAbstractClient<?> client, Object context, String key) throws Exception {
+        return this.client == null ? client.readSingle(key) : this.client.readSingle(context, key);
+    }
+
+    public List<String> readBulk(NdBenchAbstractClient<?> client, Object context, List<String> keys) throws Exception {
+        return this.client == null ? client.readBulk(keys) : this.client.readBulk(context, keys);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <W> W writeSingle(NdBenchAbstractClient<W> client, Object context, String key) throws Exception {
+        return this.client == null ? client.writeSingle(key)
+                : ((NdBenchWorkerContextClient<W, Object>) this.client).writeSingle(context, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <W> List<W> writeBulk(NdBenchAbstractClient<W> client, Object context, List<String> keys) throws Exception {
+        return this.client == null ? client.writeBulk(keys)
+                : ((NdBenchWorkerContextClient<W, Object>) this.client).writeBulk(context, keys);
+    }
+
+    /**
+     * Called after an operation failed other than by timing out, discards the current context if the client reports it
+     * broken.
+     */
+    public void onFailure(Exception failure) {
+        if (!created) {
+            return;
+        }
+        boolean broken;
+        try {
+            broken = client.isWorkerContextBroken(context, failure);
+        } catch (Exception e) {
+            logger.warn("Failed to check worker context, discarding it", e);
+            broken = true;
+        }
+        if (broken) {
+            close();
+        }
+    }
+
+    /**
+     * Closes the current context, an operation abandoned after timing out may still be using it.
+     */
+    public void discard() {
+        close();
+    }
+
+    /**
+     * Closes the current context, called when the worker exits.
+     */
+    public void close() {
+        if (!created) {
+            return;
+        }
+        Object closing = context;
+        context = null;
+        created = false;
+        try {
+            client.closeWorkerContext(closing);
+        } catch (Exception e) {
+            logger.warn("Failed to close worker context", e);
+        }
+    }
+}
@@ -21,6 +21,12 @@ import com.google.common.util.concurrent.RateLimiter;
 import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
 import com.netflix.ndbench.api.plugin.NdBenchMonitor;
 import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.monitoring.KeyTier;
+import com.netflix.ndbench.core.monitoring.OperationProfiler;
+import com.netflix.ndbench.core.monitoring.OperationProfiler.Phase;
+import com.netflix.ndbench.core.monitoring.events.FlightRecorderEvents;
+import com.netflix.ndbench.core.oplog.OperationLog.OpType;
+import com.netflix.ndbench.core.oplog.OperationLog.Outcome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,19 +53,32 @@ public class WriteOperation<W> implements NdBenchDriver.NdBenchOperation {
                            NdBenchMonitor stats,
                            List<String> keys,
                            AtomicReference<RateLimiter> rateLimiter,
-                           boolean isAutoTuneEnabled) {
+                           boolean isAutoTuneEnabled,
+                           WorkerContext workerContext) {
+        Long startTime = System.nanoTime();
         try {
-            Long startTime = System.nanoTime();
+            // Creating the worker's context is not part of its first operation's latency
+            final Object context = workerContext.acquire();
+            startTime = System.nanoTime();
             List<W> result;
             if (keys.size() > 1) {
                 // bulk
-                result = client.writeBulk(keys);
+                result = driver.callWithDeadline(() -> workerContext.writeBulk(client, context, keys));
             } else {
                 // single
                 result = new ArrayList<>(1);
-                result.add(client.writeSingle(keys.get(0)));
+                result.add(driver.callWithDeadline(() -> workerContext.writeSingle(client, context, keys.get(0))));
             }
-            stats.recordWriteLatency((System.nanoTime() - startTime)/1000);
+            OperationProfiler.mark(Phase.CLIENT_CALL);
+            driver.getAcknowledgedWrites().publish(keys);
+            long latency = (System.nanoTime() - startTime)/1000;
+            stats.recordWriteLatency(latency);
+            driver.getWriteLatencyHistogram().record(latency);
+            KeyTier tier = driver.getWriteKeyTier(keys);
+            if (tier != null) {
+                driver.getWriteKeyTierStats().recordLatency(tier, latency);
+            }
+            OperationProfiler.mark(Phase.STATS_RECORDING);
 
             if (isAutoTuneEnabled) {
                 Double newRateLimit;
@@ -69,11 +88,30 @@ public class WriteOperation<W> implements NdBenchDriver.NdBenchOperation {
                     driver.updateWriteRateLimit(newRateLimit);
                 }
             }
+            OperationProfiler.mark(Phase.POST_PROCESSING);
             stats.incWriteSuccess();
+            FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "write", keys, latency, "success");
+            driver.logOperation(client, OpType.WRITE, keys, latency, Outcome.SUCCESS);
+            OperationProfiler.mark(Phase.STATS_RECORDING);
             return true;
+        } catch (OperationTimeoutException e) {
+            workerContext.discard();
+            if (driver.getIsWriteRunning()) {
+                long latency = (System.nanoTime() - startTime)/1000;
+                stats.recordWriteTimeoutLatency(latency);
+                stats.incWriteTimeout();
+                FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "write", keys, latency, "timeout");
+                driver.logOperation(client, OpType.WRITE, keys, latency, Outcome.TIMEOUT);
+                logger.warn("NdBench write operation timed out: " + e.getMessage());
+            }
+            return false;
         } catch (Exception e) {
+            workerContext.onFailure(e);
             if (driver.getIsWriteRunning()) {
+                long latency = (System.nanoTime() - startTime)/1000;
                 stats.incWriteFailure();
+                FlightRecorderEvents.operation(driver.getJfrOperationSampleRate(), "write", keys, latency, "failure");
+                driver.logOperation(client, OpType.WRITE, keys, latency, Outcome.FAILURE);
                 logger.error("Failed to process NdBench write operation", e);
             } else {
                 logger.warn("Caught exception while stopping writes: " + e.getMessage());
@@ -82,6 +120,11 @@ public class WriteOperation<W> implements NdBenchDriver.NdBenchOperation {
         }
     }
 
+    @Override
+    public WorkerContext newWorkerContext() {
+        return new WorkerContext(client);
+    }
+
     @Override
     public boolean isReadType() {
         return false;
@@ -0,0 +1,322 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.oplog;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a sample of the operations to a compact binary file, one record per operation with its timestamp, type, key
+ * index, latency, outcome, payload bytes and the tag of the host or partition the client sent it to, for the kind of
+ * analysis averages and percentiles hide: periodic stalls, slow keys or errors clustered on one coordinator.
+ * <p>
+ * Every worker thread appends its records to its own ring buffer, which only it writes to and which a background
+ * writer drains to the file at every flush interval, so recording an operation neither locks nor allocates. A worker
+ * whose ring is full drops the record rather than waiting for the writer. Operations which are not sampled only pay for
+ * the sampling decision and a thread local lookup. Payload bytes are those the client reported to the monitor from the
+ * worker thread during the operation, operations run under a deadline are reported from another thread and log 0.
+ * <p>
+ * The file starts with {@link #MAGIC} and {@link #VERSION}, followed by tag blocks, which map a tag id to its name
+ * before the id is first used, and record blocks. {@link OperationLogReader} turns a file into CSV.
+ */
+public class OperationLog {
+    private static final Logger logger = LoggerFactory.getLogger(OperationLog.class);
+
+    public enum OpType {
+        READ, WRITE
+    }
+
+    public enum Outcome {
+        SUCCESS, FAILURE, TIMEOUT
+    }
+
+    static final int MAGIC = 0x4E444F4C; // "NDOL"
+    static final short VERSION = 1;
+    static final byte TAG_BLOCK = 1;
+    static final byte RECORD_BLOCK = 2;
+
+    /**
+     * timestamp (8), key index (8), latency (4), bytes (4), tag id (4), key count (2), op type (1), outcome (1)
+     */
+    static final int RECORD_SIZE = 32;
+    static final int RING_CAPACITY = 4096;
+
+    private static volatile OperationLog active;
+
+    private final File file;
+    private final double sampleRate;
+    private final DataOutputStream out;
+    private final ScheduledExecutorService writer;
+
+    private final ThreadLocal<Ring> rings = new ThreadLocal<>();
+    private final List<Ring> allRings = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> tagIds = new ConcurrentHashMap<>();
+    // guarded by tagIds
+    private final List<String> tags = new ArrayList<>();
+
+    // guarded by this
+    private int writtenTags = 0;
+    private long writtenRecords = 0L;
+    private long reportedDropped = 0L;
+    private boolean closed = false;
+
+    /**
+     * Creates the file and starts the background writer. The log becomes the one payload bytes are reported to
+     * through {@link #addPayloadBytes(long)} until it is closed.
+     *
+     * @param sampleRate fraction of the operations, between 0 and 1, to log
+     */
+    public OperationLog(File file, double sampleRate, int flushIntervalMillis) throws IOException {
+        this.file = file;
+        this.sampleRate = sampleRate;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ndbench-oplog-writer-%d")
+                .setDaemon(true).build());
+        writer.scheduleAtFixedRate(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        active = this;
+        logger.info("Logging {} of the operations to {}", sampleRate, file.getAbsolutePath());
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Adds payload bytes to the operation the calling worker thread is executing, if an operation log is open.
+     */
+    public static void addPayloadBytes(long bytes) {
+        OperationLog log = active;
+        if (log != null) {
+            Ring ring = log.rings.get();
+            if (ring != null) {
+                ring.pendingBytes += bytes;
+            }
+        }
+    }
+
+    /**
+     * Records a completed operation of the calling worker thread for the configured fraction of the calls.
+     *
+     * @param client asked for the tag of the operation's first key, only when the operation is sampled
+     * @param keys   the keys of the operation, the first one is recorded along with their number
+     */
+    public void record(NdBenchAbstractClient<?> client, OpType opType, List<String> keys, long latencyMicros,
+                       Outcome outcome) {
+        Ring ring = rings.get();
+        if (ring == null) {
+            ring = new Ring();
+            rings.set(ring);
+            allRings.add(ring);
+        }
+        long bytes = ring.pendingBytes;
+        ring.pendingBytes = 0L;
+        if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        String key = keys.isEmpty() ? null : keys.get(0);
+        ring.append(System.currentTimeMillis(), getKeyIndex(key), latencyMicros, bytes, getTagId(client, key),
+                keys.size(), opType, outcome);
+    }
+
+    /**
+     * @return the number at the end of the key, which is the key index for the keys of the ndbench key generators, or
+     * -1 if the key does not end with a number
+     */
+    static long getKeyIndex(String key) {
+        if (key == null) {
+            return -1L;
+        }
+        int start = key.length();
+        while (start > 0 && key.length() - start < 18 && Character.isDigit(key.charAt(start - 1))) {
+            start--;
+        }
+        return start == key.length() ? -1L : Long.parseLong(key.substring(start));
+    }
+
+    private int getTagId(NdBenchAbstractClient<?> client, String key) {
+        String tag;
+        try {
+            tag = client == null || key == null ? null : client.getOperationTag(key);
+        } catch (RuntimeException e) {
+            tag = null;
+        }
+        if (tag == null) {
+            return -1;
+        }
+        Integer id = tagIds.get(tag);
+        if (id != null) {
+            return id;
+        }
+        synchronized (tagIds) {
+            id = tagIds.get(tag);
+            if (id == null) {
+                id = tags.size();
+                tags.add(tag);
+                tagIds.put(tag, id);
+            }
+            return id;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Failed to flush operation log {}", file, e);
+        }
+    }
+
+    /**
+     * Writes the records appended so far by every worker to the file.
+     */
+    public synchronized void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        // Tags are assigned before the records using them are published, so the tags of every record written below
+        // are known once the rings' tails were read
+        long[] tails = new long[allRings.size()];
+        for (int i = 0; i < tails.length; i++) {
+            tails[i] = allRings.get(i).tail.get();
+        }
+        List<String> newTags;
+        synchronized (tagIds) {
+            newTags = new ArrayList<>(tags.subList(writtenTags, tags.size()));
+        }
+        for (String tag : newTags) {
+            byte[] name = tag.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(TAG_BLOCK);
+            out.writeInt(writtenTags++);
+            out.writeShort(name.length);
+            out.write(name);
+        }
+
+        long dropped = 0L;
+        for (int i = 0; i < tails.length; i++) {
+            Ring ring = allRings.get(i);
+            writtenRecords += ring.drainTo(out, tails[i]);
+            dropped += ring.dropped.get();
+        }
+        out.flush();
+        if (dropped > reportedDropped) {
+            logger.warn("Operation log dropped {} records as the writer could not keep up", dropped - reportedDropped);
+            reportedDropped = dropped;
+        }
+    }
+
+    /**
+     * Stops the background writer and writes the remaining records, workers should be stopped first.
+     */
+    public void close() throws IOException {
+        if (active == this) {
+            active = null;
+        }
+        writer.shutdownNow();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                flush();
+            } finally {
+                closed = true;
+                out.close();
+            }
+            logger.info("Closed operation log {} with {} records", file.getAbsolutePath(), writtenRecords);
+        }
+    }
+
+    /**
+     * Single producer, single consumer ring of records: only the owning worker appends and advances the tail, only the
+     * writer drains and advances the head.
+     */
+    private static class Ring {
+        private final ByteBuffer buffer = ByteBuffer.allocate(RING_CAPACITY * RECORD_SIZE);
+        private final AtomicLong head = new AtomicLong(0L);
+        private final AtomicLong tail = new AtomicLong(0L);
+        private final AtomicLong dropped = new AtomicLong(0L);
+        // only used by the owning worker
+        private long pendingBytes = 0L;
+
+        void append(long timestamp, long keyIndex, long latencyMicros, long bytes, int tagId, int keyCount,
+                    OpType opType, Outcome outcome) {
+            long t = tail.get();
+            if (t - head.get() >= RING_CAPACITY) {
+                dropped.lazySet(dropped.get() + 1);
+                return;
+            }
+            int offset = (int) (t % RING_CAPACITY) * RECORD_SIZE;
+            buffer.putLong(offset, timestamp);
+            buffer.putLong(offset + 8, keyIndex);
+            buffer.putInt(offset + 16, (int) Math.min(latencyMicros, Integer.MAX_VALUE));
+            buffer.putInt(offset + 20, (int) Math.min(bytes, Integer.MAX_VALUE));
+            buffer.putInt(offset + 24, tagId);
+            buffer.putShort(offset + 28, (short) Math.min(keyCount, Short.MAX_VALUE));
+            buffer.put(offset + 30, (byte) opType.ordinal());
+            buffer.put(offset + 31, (byte) outcome.ordinal());
+            // publishes the record to the writer
+            tail.lazySet(t + 1);
+        }
+
+        /**
+         * @return the number of records written
+         */
+        long drainTo(DataOutputStream out, long upTo) throws IOException {
+            long h = head.get();
+            int count = (int) (upTo - h);
+            if (count == 0) {
+                return 0;
+            }
+            out.writeByte(RECORD_BLOCK);
+            out.writeInt(count);
+            int start = (int) (h % RING_CAPACITY);
+            int firstPart = Math.min(count, RING_CAPACITY - start);
+            out.write(buffer.array(), start * RECORD_SIZE, firstPart * RECORD_SIZE);
+            if (firstPart < count) {
+                out.write(buffer.array(), 0, (count - firstPart) * RECORD_SIZE);
+            }
+            // frees the drained slots for the worker
+            head.lazySet(upTo);
+            return count;
+        }
+    }
+}
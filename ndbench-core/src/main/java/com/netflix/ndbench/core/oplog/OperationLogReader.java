@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.oplog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns an {@link OperationLog} file into CSV, one line per operation:
+ * <pre>
+ * timestamp,op,keyIndex,keyCount,latencyMicros,outcome,bytes,tag
+ * </pre>
+ * The timestamp is in milliseconds since the epoch and the tag is empty when the client did not provide one.
+ * <p>
+ * Usage: {@code OperationLogReader <operation log file> [<csv file>]}, the CSV goes to the standard output when no CSV
+ * file is given.
+ */
+public class OperationLogReader {
+    static final String CSV_HEADER = "timestamp,op,keyIndex,keyCount,latencyMicros,outcome,bytes,tag";
+
+    private static final OperationLog.OpType[] OP_TYPES = OperationLog.OpType.values();
+    private static final OperationLog.Outcome[] OUTCOMES = OperationLog.Outcome.values();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: OperationLogReader <operation log file> [<csv file>]");
+            System.exit(2);
+        }
+        try (InputStream in = new FileInputStream(args[0]);
+             Writer out = new BufferedWriter(new OutputStreamWriter(
+                     args.length > 1 ? new FileOutputStream(args[1]) : System.out, StandardCharsets.UTF_8))) {
+            long records = toCsv(in, out);
+            if (args.length > 1) {
+                System.err.println("Wrote " + records + " operations to " + args[1]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of operations written
+     * @throws IOException if the input is not an operation log, or is truncated within a block
+     */
+    public static long toCsv(InputStream input, Writer out) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        if (in.readInt() != OperationLog.MAGIC) {
+            throw new IOException("Not an operation log");
+        }
+        short version = in.readShort();
+        if (version != OperationLog.VERSION) {
+            throw new IOException("Unsupported operation log version " + version);
+        }
+
+        Map<Integer, String> tags = new HashMap<>();
+        StringBuilder line = new StringBuilder(128);
+        long records = 0L;
+        out.write(CSV_HEADER);
+        out.write('\n');
+        int block;
+        while ((block = in.read()) != -1) {
+            try {
+                if (block == OperationLog.TAG_BLOCK) {
+                    int id = in.readInt();
+                    byte[] name = new byte[in.readUnsignedShort()];
+                    in.readFully(name);
+                    tags.put(id, new String(name, StandardCharsets.UTF_8));
+                } else if (block == OperationLog.RECORD_BLOCK) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        line.setLength(0);
+                        appendRecord(in, tags, line);
+                        out.append(line);
+                        records++;
+                    }
+                } else {
+                    throw new IOException("Corrupt operation log, unknown block type " + block);
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated operation log after " + records + " operations", e);
+            }
+        }
+        out.flush();
+        return records;
+    }
+
+    private static void appendRecord(DataInputStream in, Map<Integer, String> tags, StringBuilder line)
+            throws IOException {
+        long timestamp = in.readLong();
+        long keyIndex = in.readLong();
+        int latencyMicros = in.readInt();
+        int bytes = in.readInt();
+        int tagId = in.readInt();
+        int keyCount = in.readShort();
+        int opType = in.readUnsignedByte();
+        int outcome = in.readUnsignedByte();
+
+        String tag = tagId < 0 ? null : tags.get(tagId);
+        line.append(timestamp).append(',')
+            .append(OP_TYPES[opType].name().toLowerCase()).append(',')
+            .append(keyIndex).append(',')
+            .append(keyCount).append(',')
+            .append(latencyMicros).append(',')
+            .append(OUTCOMES[outcome].name().toLowerCase()).append(',')
+            .append(bytes).append(',')
+            .append(tag == null ? "" : escape(tag)).append('\n');
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import com.netflix.ndbench.core.monitoring.HiccupRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the final report of a headless run: achieved throughput, latency percentiles over the whole run, the error
+ * breakdown and the time the benchmark client itself was stalled, along with the outcome of the run's
+ * {@link SloAssertion}s.
+ * <p>
+ * Latency percentiles are estimated from the fine buckets of the driver's {@link BucketedLatencyHistogram}s, which cover
+ * every successful operation since the start of the process, rather than from the monitor's reservoirs which favor
+ * recent operations.
+ * The report must be built before the driver is stopped: stopping it calls {@link NdBenchMonitor#resetStats()}, which
+ * the default monitor ignores but other monitors, such as the FakeMonitor, implement by zeroing the counters the
+ * report is built from.
+ */
+@Singleton
+public class RunReporter {
+    private final NdBenchDriver driver;
+    private final NdBenchMonitor monitor;
+    private final HiccupRecorder hiccupRecorder;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Inject
+    public RunReporter(NdBenchDriver driver, NdBenchMonitor monitor, HiccupRecorder hiccupRecorder) {
+        this.driver = driver;
+        this.monitor = monitor;
+        this.hiccupRecorder = hiccupRecorder;
+    }
+
+    /**
+     * @param durationMillis how long reads and writes ran, throughputs are averaged over it. Phases of a scenario which
+     *                       run no load, such as a backfill, are not part of it.
+     */
+    public Map<String, Object> buildReport(long durationMillis, List<SloAssertion> assertions) {
+        double durationSeconds = Math.max(durationMillis, 1L) / 1000D;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", durationSeconds);
+        Map<String, Object> read = getOperationReport(durationSeconds, monitor.getReadSuccess(),
+                monitor.getReadFailure(), monitor.getReadTimeout(), driver.getReadLatencyHistogram());
+        Map<String, Object> write = getOperationReport(durationSeconds, monitor.getWriteSuccess(),
+                monitor.getWriteFailure(), monitor.getWriteTimeout(), driver.getWriteLatencyHistogram());
+        // Only clients reporting their payload sizes get a payload section
+        if (monitor.getReadBytes() > 0 || monitor.getWriteBytes() > 0) {
+            read.put("payload", getPayloadReport(durationSeconds, monitor.getReadBytes(),
+                    monitor.getReadPayloadSizeAvg(), monitor.getReadPayloadSizeP50(), monitor.getReadPayloadSizeP99()));
+            write.put("payload", getPayloadReport(durationSeconds, monitor.getWriteBytes(),
+                    monitor.getWritePayloadSizeAvg(), monitor.getWritePayloadSizeP50(), monitor.getWritePayloadSizeP99()));
+        }
+        report.put("read", read);
+        report.put("write", write);
+        report.put("cacheHitRatioPercent", monitor.getCacheHitRatioInt());
+        if (!driver.getReadKeyTierStats().isEmpty() || !driver.getWriteKeyTierStats().isEmpty()) {
+            Map<String, Object> keyTiers = new LinkedHashMap<>();
+            keyTiers.put("read", driver.getReadKeyTierStats().getReport(driver.getReadLatencyHistogram()));
+            keyTiers.put("write", driver.getWriteKeyTierStats().getReport(driver.getWriteLatencyHistogram()));
+            report.put("keyTiers", keyTiers);
+        }
+        if (!driver.getVisibilityStats().isEmpty()) {
+            report.put("readYourWrites", driver.getVisibilityStats().getReport());
+        }
+        if (monitor.getScanSuccess() > 0 || monitor.getScanFailure() > 0 || monitor.getScanTimeout() > 0) {
+            report.put("scan", getScanReport(durationSeconds));
+        }
+
+        Map<String, Object> clientStalls = new LinkedHashMap<>();
+        clientStalls.put("stallMillis", hiccupRecorder.getTotalStallMillis());
+        clientStalls.put("gcPauseMillis", hiccupRecorder.getTotalGcPauseMillis());
+        clientStalls.put("maxHiccupMillis", hiccupRecorder.getMaxHiccupMillis());
+        clientStalls.put("stalledIntervals", monitor.getClientStalledIntervals());
+        report.put("clientStalls", clientStalls);
+
+        Map<String, Object> slo = new LinkedHashMap<>();
+        boolean passed = true;
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (SloAssertion assertion : assertions) {
+            Map<String, Object> result = assertion.evaluate(report);
+            passed &= (Boolean) result.get("passed");
+            results.add(result);
+        }
+        slo.put("passed", passed);
+        slo.put("assertions", results);
+        report.put("slo", slo);
+        return report;
+    }
+
+    public void writeReport(Map<String, Object> report, File file) throws IOException {
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    public static boolean isSloPassed(Map<String, Object> report) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> slo = (Map<String, Object>) report.get("slo");
+        return (Boolean) slo.get("passed");
+    }
+
+    public static Map<String, Object> getOperationReport(double durationSeconds, long success, long failure,
+                                                         long timeout, BucketedLatencyHistogram histogram) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        long total = success + failure + timeout;
+        operation.put("success", success);
+        operation.put("failure", failure);
+        operation.put("timeout", timeout);
+        operation.put("throughput", success / durationSeconds);
+        operation.put("errorRatePercent", total == 0 ? 0D : (failure + timeout) * 100D / total);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        long count = histogram.getCount();
+        latency.put("mean", count == 0 ? 0L : histogram.getSumMicros() / count);
+        latency.put("p50", histogram.getPercentile(0.5));
+        latency.put("p95", histogram.getPercentile(0.95));
+        latency.put("p99", histogram.getPercentile(0.99));
+        latency.put("p995", histogram.getPercentile(0.995));
+        latency.put("p999", histogram.getPercentile(0.999));
+        operation.put("latencyMicros", latency);
+        return operation;
+    }
+
+    private Map<String, Object> getScanReport(double durationSeconds) {
+        Map<String, Object> scan = new LinkedHashMap<>();
+        scan.put("success", monitor.getScanSuccess());
+        scan.put("failure", monitor.getScanFailure());
+        scan.put("timeout", monitor.getScanTimeout());
+        scan.put("rows", monitor.getScanRows());
+        scan.put("rowsPerSecond", monitor.getScanRows() / durationSeconds);
+        scan.put("bytes", monitor.getScanBytes());
+        scan.put("bytesPerSecond", monitor.getScanBytes() / durationSeconds);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("firstRowP50", monitor.getScanFirstRowLatP50());
+        latency.put("firstRowP99", monitor.getScanFirstRowLatP99());
+        latency.put("pageP50", monitor.getScanPageLatP50());
+        latency.put("pageP99", monitor.getScanPageLatP99());
+        scan.put("latencyMicros", latency);
+        return scan;
+    }
+
+    private static Map<String, Object> getPayloadReport(double durationSeconds, long bytes, long sizeAvg,
+                                                        long sizeP50, long sizeP99) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("bytes", bytes);
+        payload.put("bytesPerSecond", bytes / durationSeconds);
+
+        Map<String, Object> size = new LinkedHashMap<>();
+        size.put("mean", sizeAvg);
+        size.put("p50", sizeP50);
+        size.put("p99", sizeP99);
+        payload.put("sizeBytes", size);
+        return payload;
+    }
+}
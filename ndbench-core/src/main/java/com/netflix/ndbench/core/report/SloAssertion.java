@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.report;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A service level objective checked against the final report of a run, such as
+ * <pre>
+ * read.latencyMicros.p99 &lt; 5ms
+ * read.throughput &gt;= 20000
+ * read.errorRatePercent &lt; 0.1
+ * clientStalls.stallMillis &lt;= 1000
+ * </pre>
+ * The metric is the dotted path of a number in the report built by {@link RunReporter}. The threshold is compared with
+ * &lt;, &lt;=, &gt; or &gt;=, and may carry a unit: latencies are reported in microseconds, so "ms" and "s" thresholds
+ * are converted to microseconds, while "us" and "%" are informative only. Latency percentiles are estimates off by less
+ * than 10 %, a threshold should not rely on a finer resolution.
+ */
+public class SloAssertion {
+    private static final Pattern ASSERTION =
+            Pattern.compile("\\s*([\\w.]+)\\s*(<=|>=|<|>)\\s*([0-9]*\\.?[0-9]+)\\s*(us|ms|s|%)?\\s*");
+
+    private final String text;
+    private final String metric;
+    private final String operator;
+    private final double threshold;
+
+    SloAssertion(String text, String metric, String operator, double threshold) {
+        this.text = text;
+        this.metric = metric;
+        this.operator = operator;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @param assertions assertions separated by semicolons, may be empty
+     * @throws IllegalArgumentException if an assertion can not be parsed
+     */
+    public static List<SloAssertion> parseAll(String assertions) {
+        List<SloAssertion> result = new ArrayList<>();
+        for (String assertion : assertions.split(";")) {
+            if (!assertion.trim().isEmpty()) {
+                result.add(parse(assertion));
+            }
+        }
+        return result;
+    }
+
+    public static SloAssertion parse(String assertion) {
+        Matcher matcher = ASSERTION.matcher(assertion);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid SLO assertion: " + assertion
+                    + ", expected <metric> <|<=|>|>= <number>[us|ms|s|%]");
+        }
+        double threshold = Double.parseDouble(matcher.group(3));
+        String unit = matcher.group(4);
+        if ("ms".equals(unit)) {
+            threshold *= 1_000;
+        } else if ("s".equals(unit)) {
+            threshold *= 1_000_000;
+        }
+        return new SloAssertion(assertion.trim(), matcher.group(1), matcher.group(2), threshold);
+    }
+
+    /**
+     * @return the assertion, the actual value and whether it passed. An assertion on a metric the report does not hold
+     * fails.
+     */
+    public Map<String, Object> evaluate(Map<String, Object> report) {
+        Object value = report;
+        for (String key : metric.split("\\.")) {
+            value = value instanceof Map ? ((Map<?, ?>) value).get(key) : null;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("assertion", text);
+        if (!(value instanceof Number)) {
+            result.put("actual", null);
+            result.put("passed", false);
+            return result;
+        }
+        double actual = ((Number) value).doubleValue();
+        result.put("actual", value);
+        result.put("passed", compare(actual));
+        return result;
+    }
+
+    private boolean compare(double actual) {
+        switch (operator) {
+            case "<":
+                return actual < threshold;
+            case "<=":
+                return actual <= threshold;
+            case ">":
+                return actual > threshold;
+            default:
+                return actual >= threshold;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.resources;
+
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.monitoring.OpenMetricsExporter;
+import com.netflix.ndbench.core.util.RestUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+/**
+ * Metrics endpoint in the OpenMetrics text format, to be scraped by Prometheus compatible collectors.
+ */
+@Path("/metrics")
+public class MetricsResource {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsResource.class);
+
+    private final OpenMetricsExporter exporter;
+    private final IConfiguration config;
+
+    @Inject
+    public MetricsResource(OpenMetricsExporter exporter, IConfiguration config) {
+        this.exporter = exporter;
+        this.config = config;
+    }
+
+    @GET
+    @Produces(OpenMetricsExporter.CONTENT_TYPE)
+    public Response getMetrics() throws Exception {
+        try {
+            return Response.ok(exporter.scrape(), OpenMetricsExporter.CONTENT_TYPE).build();
+        } catch (Exception e) {
+            logger.error("Error scraping NdBench metrics", e);
+            return RestUtil.sendErrorResponse("NdBench metrics failed! ", e, config);
+        }
+    }
+}
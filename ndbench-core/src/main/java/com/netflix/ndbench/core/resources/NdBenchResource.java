@@ -24,8 +24,11 @@ import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
 import com.netflix.ndbench.core.DataBackfill;
 import com.netflix.ndbench.core.NdBenchClientFactory;
 import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.clients.ComparisonClient;
 import com.netflix.ndbench.core.config.IConfiguration;
 import com.netflix.ndbench.core.generators.KeyGenerator;
+import com.netflix.ndbench.core.monitoring.OperationProfiler;
+import com.netflix.ndbench.core.monitoring.StatsStreamer;
 import com.netflix.ndbench.core.util.LoadPattern;
 import com.netflix.ndbench.core.util.RestUtil;
 import com.sun.jersey.multipart.FormDataParam;
@@ -37,9 +40,13 @@ import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static com.netflix.ndbench.core.util.RestUtil.*;
 
@@ -51,20 +58,25 @@ public class NdBenchResource {
 
     private static final Logger logger = LoggerFactory.getLogger(NdBenchResource.class);
 
+    private static final long STATS_STREAM_KEEPALIVE_SECONDS = 15;
+
     private final NdBenchClientFactory clientFactory;
     private final NdBenchDriver ndBenchDriver;
     private final DataBackfill dataBackfill;
     private final IConfiguration config;
     private final NdBenchMonitor ndBenchMonitor;
+    private final StatsStreamer statsStreamer;
 
     @Inject
     public NdBenchResource(NdBenchClientFactory cFactory, NdBenchDriver ndBenchDriver,
-                           DataBackfill dataBackfill, IConfiguration config, NdBenchMonitor ndBenchMonitor) {
+                           DataBackfill dataBackfill, IConfiguration config, NdBenchMonitor ndBenchMonitor,
+                           StatsStreamer statsStreamer) {
         this.clientFactory = cFactory;
         this.ndBenchDriver = ndBenchDriver;
         this.dataBackfill = dataBackfill;
         this.config = config;
         this.ndBenchMonitor  = ndBenchMonitor;
+        this.statsStreamer = statsStreamer;
     }
 
 
@@ -210,6 +222,47 @@ public class NdBenchResource {
         }
     }
 
+    /**
+     * Initializes the driver with two clients run side by side under the same key sequence, each at half the rate,
+     * see {@link ComparisonClient}.
+     */
+    @Path("/initComparison/{clientA}/{clientB}")
+    @GET
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response initComparison(@PathParam("clientA") String clientA,
+                                   @PathParam("clientB") String clientB) throws Exception {
+        try {
+            ndBenchDriver.init(new ComparisonClient(clientA, clientFactory.getClient(clientA),
+                    clientB, clientFactory.getClient(clientB), config, ndBenchMonitor));
+
+            return sendSuccessResponse("NdBench comparison of " + clientA + " and " + clientB + " initiated!");
+        } catch (Exception e) {
+            logger.error("Error initializing the comparison of " + clientA + " and " + clientB, e);
+            return sendErrorResponse("Comparison initialization failed!", e);
+        }
+    }
+
+    /**
+     * @param alpha significance level of the difference of each metric
+     */
+    @Path("/comparison")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response comparison(@DefaultValue("0.01") @QueryParam("alpha") double alpha) throws Exception {
+        try {
+            NdBenchAbstractClient<?> client = ndBenchDriver.getClient();
+            if (!(client instanceof ComparisonClient)) {
+                return RestUtil.sendErrorResponse("The driver was not initialized with a comparison of two clients",
+                        config);
+            }
+            return sendJson(((ComparisonClient) client).getReport(alpha));
+        } catch (Exception e) {
+            logger.error("Error getting the comparison report", e);
+            return sendErrorResponse("Comparison report failed! ", e);
+        }
+    }
+
     @Path("/start")
     @GET
     @Consumes(MediaType.APPLICATION_JSON)
@@ -378,6 +431,80 @@ public class NdBenchResource {
         }
     }
 
+    /**
+     * Server-sent events stream of the live stats: a full frame first, then one frame per stats stream interval holding
+     * only the stats which changed.
+     */
+    @Path("/statsStream")
+    @GET
+    @Produces("text/event-stream")
+    public Response streamStats() throws Exception {
+
+        try {
+            StatsStreamer.Subscriber subscriber = statsStreamer.subscribe();
+            StreamingOutput stream = (OutputStream out) -> {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        String frame = subscriber.poll(STATS_STREAM_KEEPALIVE_SECONDS, TimeUnit.SECONDS);
+                        // Comments keep idle connections open, and let a write fail once the client has gone
+                        String event = frame == null ? ": keepalive\n\n" : "data: " + frame + "\n\n";
+                        out.write(event.getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    statsStreamer.unsubscribe(subscriber);
+                }
+            };
+            return Response.ok(stream)
+                    .header("Cache-Control", "no-cache")
+                    .build();
+        } catch (Exception e) {
+            logger.error("Error subscribing to NdBench stats stream", e);
+            return sendErrorResponse("NdBench stats stream failed! ", e);
+        }
+    }
+
+    @Path("/profile")
+    @GET
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getOperationProfile() throws Exception {
+
+        try {
+            Map<String, Object> profile = new HashMap<>();
+            OperationProfiler readProfiler = ndBenchDriver.getReadProfiler();
+            OperationProfiler writeProfiler = ndBenchDriver.getWriteProfiler();
+            profile.put("Read", readProfiler == null ? "NA" : readProfiler.getReport());
+            profile.put("Write", writeProfiler == null ? "NA" : writeProfiler.getReport());
+            return sendJson(profile);
+        } catch (Exception e) {
+            logger.error("Error getting NdBench operation profile", e);
+            return sendErrorResponse("NdBench profile failed! ", e);
+        }
+    }
+
+    /**
+     * Latencies and hit ratios of the hot, warm and cold keys, for load patterns drawing keys by popularity.
+     */
+    @Path("/keyTiers")
+    @GET
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getKeyTiers() throws Exception {
+
+        try {
+            Map<String, Object> keyTiers = new HashMap<>();
+            keyTiers.put("Read", ndBenchDriver.getReadKeyTierStats().getReport(ndBenchDriver.getReadLatencyHistogram()));
+            keyTiers.put("Write", ndBenchDriver.getWriteKeyTierStats().getReport(ndBenchDriver.getWriteLatencyHistogram()));
+            return sendJson(keyTiers);
+        } catch (Exception e) {
+            logger.error("Error getting NdBench key tier stats", e);
+            return sendErrorResponse("NdBench key tiers failed! ", e);
+        }
+    }
+
     @Path("/getReadStatus")
     @GET
     @Consumes(MediaType.APPLICATION_JSON)
@@ -486,7 +613,6 @@ public class NdBenchResource {
             serverStatusJson.put("ConnectionInfo",connectionInfo);
             serverStatusJson.put("IsReadsRunning", ndBenchDriver.getIsReadRunning());
             serverStatusJson.put("IsWritesRunning", ndBenchDriver.getIsWriteRunning());
-            serverStatusJson.put("Stats",ndBenchMonitor);
             serverStatusJson.put("DriverConfig",config);
             serverStatusJson.put("IsBackfillRunning",dataBackfill.getIsBackfillRunning());
 
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.resources;
+
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.results.RunComparison;
+import com.netflix.ndbench.core.results.RunResultStore;
+import com.netflix.ndbench.core.util.RestUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Lists and compares the results of past runs, as saved by the run result recorder.
+ */
+@Path("/ndbench/results")
+public class RunResultResource {
+    private static final Logger logger = LoggerFactory.getLogger(RunResultResource.class);
+
+    private final RunResultStore store;
+    private final IConfiguration config;
+
+    @Inject
+    public RunResultResource(RunResultStore store, IConfiguration config) {
+        this.store = store;
+        this.config = config;
+    }
+
+    @Path("/list")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response listResults() throws Exception {
+        try {
+            return RestUtil.sendJson(store.list(), config);
+        } catch (Exception e) {
+            logger.error("Error listing run results", e);
+            return RestUtil.sendErrorResponse("Listing run results failed! ", e, config);
+        }
+    }
+
+    @Path("/get/{id}")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getResult(@PathParam("id") String id) throws Exception {
+        try {
+            return RestUtil.sendJson(store.load(id), config);
+        } catch (Exception e) {
+            logger.error("Error getting run result " + id, e);
+            return RestUtil.sendErrorResponse("Getting run result " + id + " failed! ", e, config);
+        }
+    }
+
+    /**
+     * @param phase only compare the intervals of this phase of both runs, whole runs if not set
+     * @param alpha significance level of the difference of each metric
+     */
+    @Path("/compare")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response compare(@QueryParam("baseline") String baseline,
+                            @QueryParam("candidate") String candidate,
+                            @QueryParam("phase") String phase,
+                            @DefaultValue("0.01") @QueryParam("alpha") double alpha) throws Exception {
+        try {
+            return RestUtil.sendJson(RunComparison.compare(store.load(baseline), store.load(candidate), phase, alpha),
+                    config);
+        } catch (Exception e) {
+            logger.error("Error comparing run " + candidate + " to " + baseline, e);
+            return RestUtil.sendErrorResponse("Comparing runs failed! ", e, config);
+        }
+    }
+}
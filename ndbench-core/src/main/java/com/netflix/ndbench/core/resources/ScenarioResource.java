@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.resources;
+
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.scenario.Scenario;
+import com.netflix.ndbench.core.scenario.ScenarioRunner;
+import com.netflix.ndbench.core.util.RestUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Runs multi-phase benchmark scenarios, posted as YAML documents.
+ */
+@Path("/ndbench/scenario")
+public class ScenarioResource {
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioResource.class);
+
+    private final ScenarioRunner scenarioRunner;
+    private final IConfiguration config;
+
+    @Inject
+    public ScenarioResource(ScenarioRunner scenarioRunner, IConfiguration config) {
+        this.scenarioRunner = scenarioRunner;
+        this.config = config;
+    }
+
+    @Path("/run")
+    @POST
+    @Consumes({"application/x-yaml", "text/yaml", MediaType.TEXT_PLAIN})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response runScenario(String yaml) throws Exception {
+        try {
+            Scenario scenario = Scenario.fromYaml(yaml);
+            scenarioRunner.start(scenario);
+            return RestUtil.sendSuccessResponse("Scenario " + scenario.getName() + " started", config);
+        } catch (Exception e) {
+            logger.error("Error starting scenario", e);
+            return RestUtil.sendErrorResponse("Starting scenario failed! ", e, config);
+        }
+    }
+
+    @Path("/status")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getStatus() throws Exception {
+        try {
+            return RestUtil.sendJson(scenarioRunner.getStatus(), config);
+        } catch (Exception e) {
+            logger.error("Error getting scenario status", e);
+            return RestUtil.sendErrorResponse("Scenario status failed! ", e, config);
+        }
+    }
+
+    @Path("/stop")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response stopScenario() throws Exception {
+        try {
+            scenarioRunner.stop();
+            return RestUtil.sendSuccessResponse("Scenario stopped", config);
+        } catch (Exception e) {
+            logger.error("Error stopping scenario", e);
+            return RestUtil.sendErrorResponse("Stopping scenario failed! ", e, config);
+        }
+    }
+}
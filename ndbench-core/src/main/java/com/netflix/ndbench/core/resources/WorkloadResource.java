@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.resources;
+
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.util.RestUtil;
+import com.netflix.ndbench.core.workloads.WorkloadManager;
+import com.netflix.ndbench.core.workloads.WorkloadSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * Starts, stops and tunes named workloads running next to the main workload, see {@link WorkloadSpec} for the
+ * document a workload is started with.
+ */
+@Path("/ndbench/workloads")
+public class WorkloadResource {
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadResource.class);
+
+    private final WorkloadManager workloadManager;
+    private final IConfiguration config;
+
+    @Inject
+    public WorkloadResource(WorkloadManager workloadManager, IConfiguration config) {
+        this.workloadManager = workloadManager;
+        this.config = config;
+    }
+
+    @Path("/{name}/start")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response startWorkload(@PathParam("name") String name, String json) throws Exception {
+        try {
+            WorkloadSpec spec = json == null || json.trim().isEmpty() ? new WorkloadSpec() : WorkloadSpec.fromJson(json);
+            workloadManager.start(name, spec);
+            return RestUtil.sendSuccessResponse("Workload " + name + " started", config);
+        } catch (Exception e) {
+            logger.error("Error starting workload " + name, e);
+            return RestUtil.sendErrorResponse("Starting workload " + name + " failed! ", e, config);
+        }
+    }
+
+    @Path("/{name}/stop")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response stopWorkload(@PathParam("name") String name) throws Exception {
+        try {
+            workloadManager.stop(name);
+            return RestUtil.sendSuccessResponse("Workload " + name + " stopped", config);
+        } catch (Exception e) {
+            logger.error("Error stopping workload " + name, e);
+            return RestUtil.sendErrorResponse("Stopping workload " + name + " failed! ", e, config);
+        }
+    }
+
+    @Path("/stop")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response stopAllWorkloads() throws Exception {
+        try {
+            workloadManager.stopAll();
+            return RestUtil.sendSuccessResponse("Workloads stopped", config);
+        } catch (Exception e) {
+            logger.error("Error stopping workloads", e);
+            return RestUtil.sendErrorResponse("Stopping workloads failed! ", e, config);
+        }
+    }
+
+    /**
+     * Takes new values of readRateLimit, writeRateLimit, numReaders and numWriters.
+     */
+    @Path("/{name}/tune")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response tuneWorkload(@PathParam("name") String name, Map<String, String> settings) throws Exception {
+        try {
+            workloadManager.tune(name, settings);
+            return RestUtil.sendSuccessResponse("Workload " + name + " tuned", config);
+        } catch (Exception e) {
+            logger.error("Error tuning workload " + name, e);
+            return RestUtil.sendErrorResponse("Tuning workload " + name + " failed! ", e, config);
+        }
+    }
+
+    @Path("/{name}")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getWorkloadStatus(@PathParam("name") String name) throws Exception {
+        try {
+            return RestUtil.sendJson(workloadManager.getStatus(name), config);
+        } catch (Exception e) {
+            logger.error("Error getting the status of workload " + name, e);
+            return RestUtil.sendErrorResponse("Workload status failed! ", e, config);
+        }
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getWorkloadsStatus() throws Exception {
+        try {
+            return RestUtil.sendJson(workloadManager.getStatus(), config);
+        } catch (Exception e) {
+            logger.error("Error getting the status of the workloads", e);
+            return RestUtil.sendErrorResponse("Workloads status failed! ", e, config);
+        }
+    }
+}
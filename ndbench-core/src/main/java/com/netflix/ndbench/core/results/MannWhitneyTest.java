@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.results;
+
+import java.util.Arrays;
+
+/**
+ * Mann-Whitney U test, telling whether the values of one sample tend to be larger or smaller than those of another.
+ * <p>
+ * Being rank based it makes no assumption on the distribution of the values, which suits latency percentiles and
+ * throughputs with their long tails and outliers. The p-value comes from the normal approximation of U with tie and
+ * continuity corrections, which is accurate from a handful of values per sample.
+ */
+public final class MannWhitneyTest {
+    private MannWhitneyTest() {
+    }
+
+    /**
+     * @return the two-sided p-value of the hypothesis that both samples come from the same distribution
+     */
+    public static double pValue(double[] sample1, double[] sample2) {
+        int n1 = sample1.length;
+        int n2 = sample2.length;
+        int n = n1 + n2;
+        if (n1 == 0 || n2 == 0) {
+            throw new IllegalArgumentException("Both samples need values");
+        }
+
+        // Sort the pooled values, remembering which sample each one came from
+        double[][] pooled = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            pooled[i] = new double[]{sample1[i], 1};
+        }
+        for (int i = 0; i < n2; i++) {
+            pooled[n1 + i] = new double[]{sample2[i], 2};
+        }
+        Arrays.sort(pooled, (a, b) -> Double.compare(a[0], b[0]));
+
+        double rankSum1 = 0D;
+        double tieCorrection = 0D;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && pooled[j + 1][0] == pooled[i][0]) {
+                j++;
+            }
+            // Tied values share the average of their ranks, ranks start at 1
+            double rank = (i + j + 2) / 2D;
+            for (int k = i; k <= j; k++) {
+                if (pooled[k][1] == 1) {
+                    rankSum1 += rank;
+                }
+            }
+            double ties = j - i + 1;
+            tieCorrection += ties * ties * ties - ties;
+            i = j + 1;
+        }
+
+        double u1 = rankSum1 - n1 * (n1 + 1) / 2D;
+        double mean = n1 * (double) n2 / 2D;
+        double variance = n1 * (double) n2 / 12D * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+        if (variance <= 0D) {
+            // Every value is the same
+            return 1D;
+        }
+        double z = Math.max(0D, Math.abs(u1 - mean) - 0.5D) / Math.sqrt(variance);
+        return Math.min(1D, erfc(z / Math.sqrt(2D)));
+    }
+
+    /**
+     * Complementary error function, with a fractional error below 1.2e-7 (Numerical Recipes' erfcc).
+     */
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1D / (1D + 0.5D * z);
+        double result = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 +
+                t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 +
+                t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? result : 2D - result;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.results;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compares a candidate run with a baseline run, metric by metric.
+ * <p>
+ * Rather than comparing one number per run, every metric is computed for each interval of both runs, and the two sets
+ * of interval values are compared with a {@link MannWhitneyTest}. A difference is significant when its p-value is below
+ * alpha, and a significant difference for the worse, i.e. a lower throughput or a higher latency, is a regression.
+ * Intervals without any operation of the metric's type count as a throughput of zero, so that a run which stalls shows
+ * a lower throughput, but they are left out of the latency percentiles. Since consecutive intervals of a run are not
+ * fully independent, an alpha of 0.01 or less is advisable to flag regressions with confidence.
+ */
+public class RunComparison {
+    static final int MIN_SAMPLES = 5;
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 0.999};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p95", "p99", "p999"};
+
+    private final String baseline;
+    private final String candidate;
+    private final String phase;
+    private final double alpha;
+    private final List<MetricComparison> metrics = new ArrayList<>();
+
+    private RunComparison(String baseline, String candidate, String phase, double alpha) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.phase = phase;
+        this.alpha = alpha;
+    }
+
+    /**
+     * @param phase only compare the intervals of the phase with this name in both runs, null to compare whole runs
+     * @param alpha significance level, between 0 and 1
+     */
+    public static RunComparison compare(RunResult baseline, RunResult candidate, String phase, double alpha) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("alpha must be between 0 and 1: " + alpha);
+        }
+        if (!Arrays.equals(baseline.getLatencyBucketBoundsMicros(), candidate.getLatencyBucketBoundsMicros())) {
+            throw new IllegalArgumentException("Runs " + baseline.getId() + " and " + candidate.getId() +
+                                               " were recorded with different latency buckets");
+        }
+        RunComparison comparison = new RunComparison(baseline.getId(), candidate.getId(), phase, alpha);
+        List<RunResult.Interval> baselineIntervals = baseline.getIntervals(phase);
+        List<RunResult.Interval> candidateIntervals = candidate.getIntervals(phase);
+
+        long[] bounds = baseline.getLatencyBucketBoundsMicros();
+
+        comparison.compareOperation("read", RunResult.Interval::getReadLatencyBuckets, bounds,
+                baseline, baselineIntervals, candidate, candidateIntervals);
+        comparison.compareOperation("write", RunResult.Interval::getWriteLatencyBuckets, bounds,
+                baseline, baselineIntervals, candidate, candidateIntervals);
+        return comparison;
+    }
+
+    private void compareOperation(String operation, Function<RunResult.Interval, long[]> buckets, long[] bounds,
+                                  RunResult baselineRun, List<RunResult.Interval> baselineIntervals,
+                                  RunResult candidateRun, List<RunResult.Interval> candidateIntervals) {
+        List<long[]> baselineBuckets = getBuckets(baselineIntervals, buckets, false);
+        List<long[]> candidateBuckets = getBuckets(candidateIntervals, buckets, false);
+        List<long[]> baselineActiveBuckets = getBuckets(baselineIntervals, buckets, true);
+        List<long[]> candidateActiveBuckets = getBuckets(candidateIntervals, buckets, true);
+        if (baselineActiveBuckets.isEmpty() && candidateActiveBuckets.isEmpty()) {
+            return;
+        }
+
+        metrics.add(compareMetric(operation + ".throughput", true,
+                throughputs(baselineBuckets, baselineRun.getIntervalSeconds()),
+                throughputs(candidateBuckets, candidateRun.getIntervalSeconds())));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            metrics.add(compareMetric(operation + ".latencyMicros." + PERCENTILE_NAMES[i], false,
+                    percentiles(baselineActiveBuckets, bounds, PERCENTILES[i]),
+                    percentiles(candidateActiveBuckets, bounds, PERCENTILES[i])));
+        }
+    }
+
+    private MetricComparison compareMetric(String metric, boolean higherIsBetter, double[] baselineValues,
+                                           double[] candidateValues) {
+        MetricComparison comparison = new MetricComparison(metric, baselineValues.length, candidateValues.length);
+        if (baselineValues.length > 0 && candidateValues.length > 0) {
+            comparison.baselineMedian = median(baselineValues);
+            comparison.candidateMedian = median(candidateValues);
+            if (comparison.baselineMedian != 0) {
+                comparison.changePercent = (comparison.candidateMedian - comparison.baselineMedian) * 100D /
+                                           comparison.baselineMedian;
+            }
+        }
+        if (baselineValues.length >= MIN_SAMPLES && candidateValues.length >= MIN_SAMPLES) {
+            comparison.pValue = MannWhitneyTest.pValue(baselineValues, candidateValues);
+            comparison.significant = comparison.pValue < alpha;
+            boolean worse = higherIsBetter ? comparison.candidateMedian < comparison.baselineMedian
+                                           : comparison.candidateMedian > comparison.baselineMedian;
+            comparison.regression = comparison.significant && worse;
+        }
+        return comparison;
+    }
+
+    /**
+     * @param activeOnly whether to leave out the intervals without any operation
+     */
+    private static List<long[]> getBuckets(List<RunResult.Interval> intervals,
+                                           Function<RunResult.Interval, long[]> buckets, boolean activeOnly) {
+        List<long[]> selected = new ArrayList<>(intervals.size());
+        for (RunResult.Interval interval : intervals) {
+            long[] counts = buckets.apply(interval);
+            if (counts != null && (!activeOnly || sum(counts) > 0)) {
+                selected.add(counts);
+            }
+        }
+        return selected;
+    }
+
+    private static double[] throughputs(List<long[]> buckets, int intervalSeconds) {
+        double[] values = new double[buckets.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = sum(buckets.get(i)) / (double) Math.max(1, intervalSeconds);
+        }
+        return values;
+    }
+
+    private static double[] percentiles(List<long[]> buckets, long[] bounds, double quantile) {
+        double[] values = new double[buckets.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = BucketedLatencyHistogram.getPercentile(bounds, buckets.get(i), quantile);
+        }
+        return values;
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0L;
+        for (long count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2D;
+    }
+
+    public String getBaseline() {
+        return baseline;
+    }
+
+    public String getCandidate() {
+        return candidate;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public List<MetricComparison> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return whether any metric regressed significantly
+     */
+    public boolean isRegression() {
+        return metrics.stream().anyMatch(MetricComparison::isRegression);
+    }
+
+    /**
+     * Comparison of the interval values of one metric. The p-value is null when either run has fewer than
+     * {@value #MIN_SAMPLES} intervals to compare.
+     */
+    public static class MetricComparison {
+        private final String metric;
+        private final int baselineSamples;
+        private final int candidateSamples;
+        private double baselineMedian;
+        private double candidateMedian;
+        private double changePercent;
+        private Double pValue;
+        private boolean significant;
+        private boolean regression;
+
+        MetricComparison(String metric, int baselineSamples, int candidateSamples) {
+            this.metric = metric;
+            this.baselineSamples = baselineSamples;
+            this.candidateSamples = candidateSamples;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public int getBaselineSamples() {
+            return baselineSamples;
+        }
+
+        public int getCandidateSamples() {
+            return candidateSamples;
+        }
+
+        public double getBaselineMedian() {
+            return baselineMedian;
+        }
+
+        public double getCandidateMedian() {
+            return candidateMedian;
+        }
+
+        public double getChangePercent() {
+            return changePercent;
+        }
+
+        @JsonProperty("pValue")
+        public Double getPValue() {
+            return pValue;
+        }
+
+        public boolean isSignificant() {
+            return significant;
+        }
+
+        public boolean isRegression() {
+            return regression;
+        }
+    }
+}
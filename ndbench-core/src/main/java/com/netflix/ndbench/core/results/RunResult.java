@@ -0,0 +1,256 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.results;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything saved about one benchmark run: the plugin and configuration it ran with, its phases and, for every
+ * interval of the run, the number of successful operations and their latency histogram. The histograms use the fine
+ * buckets of {@link com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram}, whose bounds are saved with the
+ * result, so any percentile of any interval, phase or of the whole run can be computed from a saved result.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RunResult {
+    private String id;
+    private String plugin;
+    private String connectionInfo;
+    private long startTime;
+    private long endTime;
+    private int intervalSeconds;
+    private Map<String, Object> configuration = new LinkedHashMap<>();
+    private List<Phase> phases = new ArrayList<>();
+    private long[] latencyBucketBoundsMicros;
+    private List<Interval> intervals = new ArrayList<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPlugin() {
+        return plugin;
+    }
+
+    public void setPlugin(String plugin) {
+        this.plugin = plugin;
+    }
+
+    public String getConnectionInfo() {
+        return connectionInfo;
+    }
+
+    public void setConnectionInfo(String connectionInfo) {
+        this.connectionInfo = connectionInfo;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(int intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public Map<String, Object> getConfiguration() {
+        return configuration;
+    }
+
+    public void setConfiguration(Map<String, Object> configuration) {
+        this.configuration = configuration;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public void setPhases(List<Phase> phases) {
+        this.phases = phases;
+    }
+
+    public long[] getLatencyBucketBoundsMicros() {
+        return latencyBucketBoundsMicros;
+    }
+
+    public void setLatencyBucketBoundsMicros(long[] latencyBucketBoundsMicros) {
+        this.latencyBucketBoundsMicros = latencyBucketBoundsMicros;
+    }
+
+    public List<Interval> getIntervals() {
+        return intervals;
+    }
+
+    public void setIntervals(List<Interval> intervals) {
+        this.intervals = intervals;
+    }
+
+    /**
+     * @return the intervals which ended within the given phase, or all of them if the phase is null
+     * @throws IllegalArgumentException if the run has no phase with that name
+     */
+    public List<Interval> getIntervals(String phaseName) {
+        if (phaseName == null) {
+            return intervals;
+        }
+        List<Interval> inPhase = new ArrayList<>();
+        boolean found = false;
+        for (Phase phase : phases) {
+            if (phaseName.equals(phase.getName())) {
+                found = true;
+                for (Interval interval : intervals) {
+                    if (interval.getTimestamp() > phase.getStartTime() && interval.getTimestamp() <= phase.getEndTime()) {
+                        inPhase.add(interval);
+                    }
+                }
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("Run " + id + " has no phase " + phaseName);
+        }
+        return inPhase;
+    }
+
+    /**
+     * A stretch of the run with the same workers running, or one phase of a scenario.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Phase {
+        private String name;
+        private long startTime;
+        private long endTime;
+
+        public Phase() {
+        }
+
+        public Phase(String name, long startTime) {
+            this.name = name;
+            this.startTime = startTime;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public void setStartTime(long startTime) {
+            this.startTime = startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public void setEndTime(long endTime) {
+            this.endTime = endTime;
+        }
+    }
+
+    /**
+     * Operations which succeeded within one interval, the latency bucket counts add up to the number of operations.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Interval {
+        private long timestamp;
+        private long[] readLatencyBuckets;
+        private long[] writeLatencyBuckets;
+        private Map<String, Number> pluginMetrics = new LinkedHashMap<>();
+
+        public Interval() {
+        }
+
+        public Interval(long timestamp, long[] readLatencyBuckets, long[] writeLatencyBuckets) {
+            this.timestamp = timestamp;
+            this.readLatencyBuckets = readLatencyBuckets;
+            this.writeLatencyBuckets = writeLatencyBuckets;
+        }
+
+        public Interval(long timestamp, long[] readLatencyBuckets, long[] writeLatencyBuckets,
+                        Map<String, Number> pluginMetrics) {
+            this(timestamp, readLatencyBuckets, writeLatencyBuckets);
+            this.pluginMetrics = new LinkedHashMap<>(pluginMetrics);
+        }
+
+        /**
+         * @return when the interval ended, in milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        public long[] getReadLatencyBuckets() {
+            return readLatencyBuckets;
+        }
+
+        public void setReadLatencyBuckets(long[] readLatencyBuckets) {
+            this.readLatencyBuckets = readLatencyBuckets;
+        }
+
+        public long[] getWriteLatencyBuckets() {
+            return writeLatencyBuckets;
+        }
+
+        public void setWriteLatencyBuckets(long[] writeLatencyBuckets) {
+            this.writeLatencyBuckets = writeLatencyBuckets;
+        }
+
+        /**
+         * @return the values of the metrics of the client plugin at the end of the interval
+         */
+        public Map<String, Number> getPluginMetrics() {
+            return pluginMetrics;
+        }
+
+        public void setPluginMetrics(Map<String, Number> pluginMetrics) {
+            this.pluginMetrics = pluginMetrics;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Records every run of the driver into the {@link RunResultStore}.
+ * <p>
+ * A run lasts from the moment reads or writes start, or a scenario starts, until nothing runs anymore. Every interval
+ * the recorder takes the difference between the fine buckets of the driver's {@link BucketedLatencyHistogram}s and
+ * their counts at the previous interval, which is the latency histogram of the operations completed in that interval. A new phase begins
+ * whenever the set of running workers or the scenario phase changes. Each interval also keeps the values the metrics of
+ * the client plugin had at its end.
+ */
+@Singleton
+public class RunResultRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(RunResultRecorder.class);
+
+    private final IConfiguration config;
+    private final NdBenchDriver driver;
+    private final NdBenchMonitor monitor;
+    private final RunResultStore store;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final AtomicReference<ScheduledExecutorService> timerRef = new AtomicReference<>(null);
+    private volatile String scenarioPhase;
+
+    // guarded by this
+    private RunResult run;
+    private RunResult.Phase phase;
+    private long[] lastReadCounts;
+    private long[] lastWriteCounts;
+
+    @Inject
+    public RunResultRecorder(IConfiguration config, NdBenchDriver driver, NdBenchMonitor monitor,
+                             RunResultStore store) {
+        this.config = config;
+        this.driver = driver;
+        this.monitor = monitor;
+        this.store = store;
+        this.lastReadCounts = driver.getReadLatencyHistogram().getFineBucketCounts();
+        this.lastWriteCounts = driver.getWriteLatencyHistogram().getFineBucketCounts();
+        if (config.isRunResultStoreEnabled()) {
+            checkAndInitTimer();
+        }
+    }
+
+    private void checkAndInitTimer() {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ndbench-run-recorder-%d")
+                .setDaemon(true).build());
+        if (timerRef.compareAndSet(null, timer)) {
+            int intervalSeconds = config.getRunResultIntervalSeconds();
+            logger.info("Recording run results to {} with an interval of {} s", config.getRunResultStoreDir(),
+                    intervalSeconds);
+            timer.scheduleAtFixedRate(this::sample, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            timer.shutdown();
+        }
+    }
+
+    /**
+     * Called by the scenario runner as it goes from one phase to the next, so that the phases of the run are those of
+     * the scenario.
+     *
+     * @param phaseName the name of the phase being run, null once the scenario is over
+     */
+    public void onScenarioPhase(String phaseName) {
+        this.scenarioPhase = phaseName;
+    }
+
+    synchronized void sample() {
+        try {
+            long now = System.currentTimeMillis();
+            long[] readCounts = driver.getReadLatencyHistogram().getFineBucketCounts();
+            long[] writeCounts = driver.getWriteLatencyHistogram().getFineBucketCounts();
+            String phaseName = getPhaseName();
+
+            if (run == null) {
+                if (phaseName != null) {
+                    startRun(now, phaseName);
+                }
+            } else {
+                run.getIntervals().add(new RunResult.Interval(now,
+                        subtract(readCounts, lastReadCounts), subtract(writeCounts, lastWriteCounts),
+                        monitor.getPluginMetricValues()));
+                if (phaseName == null) {
+                    finishRun(now);
+                } else if (!phaseName.equals(phase.getName())) {
+                    phase.setEndTime(now);
+                    phase = new RunResult.Phase(phaseName, now);
+                    run.getPhases().add(phase);
+                }
+            }
+            lastReadCounts = readCounts;
+            lastWriteCounts = writeCounts;
+        } catch (Exception e) {
+            logger.warn("Failed to record run result interval", e);
+        }
+    }
+
+    private void startRun(long now, String phaseName) {
+        run = new RunResult();
+        // The previous interval is when the run was last seen idle, it may have started at any time since
+        run.setStartTime(now - TimeUnit.SECONDS.toMillis(config.getRunResultIntervalSeconds()));
+        run.setIntervalSeconds(config.getRunResultIntervalSeconds());
+        run.setLatencyBucketBoundsMicros(BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS.clone());
+        run.setPlugin(getPluginName(driver.getClient()));
+        try {
+            NdBenchAbstractClient<?> client = driver.getClient();
+            run.setConnectionInfo(client == null ? null : client.getConnectionInfo());
+        } catch (Exception e) {
+            logger.debug("Could not get the connection info of the client", e);
+        }
+        run.setConfiguration(getConfiguration());
+        run.setId(new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(run.getStartTime())) + "-" +
+                  run.getPlugin().replaceAll("[^A-Za-z0-9._-]", "_"));
+        phase = new RunResult.Phase(phaseName, run.getStartTime());
+        run.getPhases().add(phase);
+        logger.info("Recording run {}", run.getId());
+    }
+
+    private void finishRun(long now) {
+        phase.setEndTime(now);
+        run.setEndTime(now);
+        RunResult finished = run;
+        run = null;
+        phase = null;
+        try {
+            store.save(finished);
+        } catch (Exception e) {
+            logger.error("Failed to save run result " + finished.getId(), e);
+        }
+    }
+
+    private String getPhaseName() {
+        String currentScenarioPhase = scenarioPhase;
+        if (currentScenarioPhase != null) {
+            return currentScenarioPhase;
+        }
+        boolean reads = driver.getIsReadRunning();
+        boolean writes = driver.getIsWriteRunning();
+        if (reads && writes) {
+            return "reads+writes";
+        }
+        return reads ? "reads" : writes ? "writes" : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getConfiguration() {
+        try {
+            return mapper.convertValue(config, LinkedHashMap.class);
+        } catch (Exception e) {
+            logger.debug("Could not capture the configuration of the run", e);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private static String getPluginName(NdBenchAbstractClient<?> client) {
+        if (client == null) {
+            return "unknown";
+        }
+        NdBenchClientPlugin annotation = client.getClass().getAnnotation(NdBenchClientPlugin.class);
+        return annotation != null ? annotation.value() : client.getClass().getSimpleName();
+    }
+
+    private static long[] subtract(long[] counts, long[] previous) {
+        long[] delta = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            delta[i] = counts[i] - previous[i];
+        }
+        return delta;
+    }
+
+    public void shutdown() {
+        ScheduledExecutorService timer = timerRef.getAndSet(null);
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+}
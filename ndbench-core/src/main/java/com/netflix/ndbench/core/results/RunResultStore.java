@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.ndbench.core.config.IConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Saves run results as one JSON file per run in the directory configured by runResultStoreDir. A result is written to
+ * a temporary file which is then moved into place, so a result is never read half written.
+ */
+@Singleton
+public class RunResultStore {
+    private static final Logger logger = LoggerFactory.getLogger(RunResultStore.class);
+
+    private static final String SUFFIX = ".json";
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final IConfiguration config;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Inject
+    public RunResultStore(IConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * Saves the result under its id, or under the id followed by a counter if a result already has that id.
+     *
+     * @return the id the result was saved under
+     */
+    public synchronized String save(RunResult result) throws IOException {
+        File dir = getDir();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create run result store directory " + dir.getAbsolutePath());
+        }
+        String id = checkId(result.getId());
+        for (int i = 2; new File(dir, id + SUFFIX).exists(); i++) {
+            id = result.getId() + "-" + i;
+        }
+        result.setId(id);
+
+        File tmp = new File(dir, "." + id + SUFFIX + ".tmp");
+        mapper.writeValue(tmp, result);
+        Files.move(tmp.toPath(), new File(dir, id + SUFFIX).toPath(), StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Saved run result {} to {}", id, dir.getAbsolutePath());
+        return id;
+    }
+
+    /**
+     * @throws NoSuchFileException if there is no result with that id
+     */
+    public RunResult load(String id) throws IOException {
+        checkId(id);
+        File file = new File(getDir(), id + SUFFIX);
+        if (!file.isFile()) {
+            throw new NoSuchFileException("No run result " + id);
+        }
+        return mapper.readValue(file, RunResult.class);
+    }
+
+    /**
+     * @return the ids of the saved results, oldest first
+     */
+    public List<String> list() {
+        File[] files = getDir().listFiles((dir, name) -> name.endsWith(SUFFIX) && !name.startsWith("."));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<String> ids = new ArrayList<>(files.length);
+        for (File file : files) {
+            ids.add(file.getName().substring(0, file.getName().length() - SUFFIX.length()));
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private File getDir() {
+        return new File(config.getRunResultStoreDir());
+    }
+
+    private static String checkId(String id) {
+        if (id == null || !VALID_ID.matcher(id).matches() || id.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid run result id: " + id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A benchmark run declared as an ordered list of phases, for instance a backfill, a warmup, a ramp, a steady state, a
+ * spike and a recovery. Scenarios are written in YAML, and the same file runs in-process from the REST API and from the
+ * CLI:
+ * <pre>
+ * name: nightly-soak
+ * client: InMemoryTest
+ * phases:
+ *   - name: backfill
+ *     type: backfill
+ *   - name: warmup
+ *     durationSeconds: 120
+ *     rate: 1000
+ *     readRatio: 0.8
+ *   - name: ramp
+ *     durationSeconds: 300
+ *     rampToRate: 10000
+ *   - name: steady
+ *     durationSeconds: 1800
+ *     rate: 10000
+ *     loadPattern: zipfian
+ *     zipfExponent: 0.9
+ *     numReaders: 64
+ *     numWriters: 16
+ *   - name: spike
+ *     durationSeconds: 60
+ *     rate: 30000
+ *   - name: recovery
+ *     durationSeconds: 300
+ *     rate: 10000
+ * </pre>
+ * Settings a load phase leaves out are inherited from the previous load phase, see {@link ScenarioPhase}.
+ */
+public class Scenario {
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    private String name = "scenario";
+    private String client;
+    private List<ScenarioPhase> phases = new ArrayList<>();
+
+    public static Scenario fromYaml(String yaml) throws IOException {
+        return YAML_MAPPER.readValue(yaml, Scenario.class);
+    }
+
+    public static Scenario fromYaml(File file) throws IOException {
+        return YAML_MAPPER.readValue(file, Scenario.class);
+    }
+
+    /**
+     * Checks the phases and fills in the settings each load phase inherits from the previous one.
+     *
+     * @throws IllegalArgumentException if the scenario cannot be run
+     */
+    public void validate() {
+        if (phases == null || phases.isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + name + " has no phases");
+        }
+        ScenarioPhase previousLoad = null;
+        for (int i = 0; i < phases.size(); i++) {
+            ScenarioPhase phase = phases.get(i);
+            if (phase.getName() == null) {
+                phase.setName("phase-" + (i + 1));
+            }
+            phase.validate(previousLoad);
+            if (phase.getType() == ScenarioPhase.Type.LOAD) {
+                previousLoad = phase;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the client plugin to initialize the driver with, or null to use the client already initialized
+     */
+    public String getClient() {
+        return client;
+    }
+
+    public void setClient(String client) {
+        this.client = client;
+    }
+
+    public List<ScenarioPhase> getPhases() {
+        return phases;
+    }
+
+    public void setPhases(List<ScenarioPhase> phases) {
+        this.phases = phases;
+    }
+}
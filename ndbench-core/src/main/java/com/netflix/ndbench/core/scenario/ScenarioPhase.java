@@ -0,0 +1,273 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.scenario;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.netflix.ndbench.core.util.LoadPattern;
+
+import java.util.Objects;
+
+/**
+ * One phase of a {@link Scenario}.
+ * <p>
+ * A backfill phase runs the data backfill until it completes, or for at most durationSeconds when set. A load phase
+ * runs the read and write workers for durationSeconds: rate is the total rate limit in operations per second, split
+ * between reads and writes by readRatio, and ramps linearly to rampToRate over the phase when that is set. The key
+ * distribution is given by loadPattern, windowSize, windowDurationInSec and zipfExponent, the concurrency by
+ * numReaders and numWriters.
+ * <p>
+ * Settings a load phase leaves out are inherited from the previous load phase, except for rampToRate. The rate of a
+ * phase following a ramp defaults to the rate the ramp ended at. The workers are only restarted between two phases when
+ * their key distribution, bulk size or concurrency differ, otherwise only the rate limits change.
+ */
+public class ScenarioPhase {
+    public enum Type {
+        LOAD("load"),
+        BACKFILL("backfill");
+
+        private final String text;
+
+        Type(String text) {
+            this.text = text;
+        }
+
+        @JsonValue
+        public String getText() {
+            return text;
+        }
+
+        @JsonCreator
+        public static Type fromString(String text) {
+            for (Type type : Type.values()) {
+                if (type.text.equalsIgnoreCase(text)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown phase type: " + text);
+        }
+    }
+
+    private String name;
+    private Type type = Type.LOAD;
+    private long durationSeconds;
+
+    private Double rate;
+    private Double rampToRate;
+    private Double readRatio;
+
+    private String loadPattern;
+    private Integer windowSize;
+    private Long windowDurationInSec;
+    private Double zipfExponent;
+
+    private Integer numReaders;
+    private Integer numWriters;
+    private Integer bulkSize;
+
+    void validate(ScenarioPhase previousLoad) {
+        if (type == Type.BACKFILL) {
+            check(durationSeconds >= 0, "durationSeconds can not be negative");
+            return;
+        }
+        check(durationSeconds > 0, "durationSeconds must be > 0");
+
+        if (previousLoad != null) {
+            if (rate == null) {
+                rate = previousLoad.rampToRate != null ? previousLoad.rampToRate : previousLoad.rate;
+            }
+            readRatio = inherit(readRatio, previousLoad.readRatio);
+            loadPattern = inherit(loadPattern, previousLoad.loadPattern);
+            windowSize = inherit(windowSize, previousLoad.windowSize);
+            windowDurationInSec = inherit(windowDurationInSec, previousLoad.windowDurationInSec);
+            zipfExponent = inherit(zipfExponent, previousLoad.zipfExponent);
+            numReaders = inherit(numReaders, previousLoad.numReaders);
+            numWriters = inherit(numWriters, previousLoad.numWriters);
+            bulkSize = inherit(bulkSize, previousLoad.bulkSize);
+        }
+        readRatio = inherit(readRatio, 0.5);
+        loadPattern = inherit(loadPattern, LoadPattern.RANDOM.getText());
+        windowSize = inherit(windowSize, -1);
+        windowDurationInSec = inherit(windowDurationInSec, -1L);
+        bulkSize = inherit(bulkSize, 1);
+
+        check(rate != null, "rate is required for the first load phase");
+        check(rate >= 0 && (rampToRate == null || rampToRate >= 0), "rates can not be negative");
+        check(readRatio >= 0 && readRatio <= 1, "readRatio must be between 0 and 1");
+        check(bulkSize >= 1, "bulkSize must be >= 1");
+        check(numReaders == null || numReaders >= 1, "numReaders must be >= 1");
+        check(numWriters == null || numWriters >= 1, "numWriters must be >= 1");
+        LoadPattern pattern = getLoadPatternType();
+        check(pattern != null, "unknown loadPattern " + loadPattern);
+        check(!pattern.equals(LoadPattern.SLIDING_WINDOW) || (windowSize >= 1 && windowDurationInSec >= 1),
+                "windowSize and windowDurationInSec can not be less than 1 for " + loadPattern);
+    }
+
+    private void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException("Phase " + name + ": " + message);
+        }
+    }
+
+    private static <T> T inherit(T value, T inherited) {
+        return value != null ? value : inherited;
+    }
+
+    /**
+     * @param progress elapsed fraction of the phase, between 0 and 1
+     */
+    public double getReadRate(double progress) {
+        return getRate(progress) * readRatio;
+    }
+
+    /**
+     * @param progress elapsed fraction of the phase, between 0 and 1
+     */
+    public double getWriteRate(double progress) {
+        return getRate(progress) * (1 - readRatio);
+    }
+
+    private double getRate(double progress) {
+        return rampToRate == null ? rate : rate + (rampToRate - rate) * progress;
+    }
+
+    public boolean isRamp() {
+        return rampToRate != null;
+    }
+
+    /**
+     * @return true if the workers of the other phase can keep running for this phase
+     */
+    public boolean hasSameWorkers(ScenarioPhase other) {
+        return other != null
+                && Objects.equals(loadPattern, other.loadPattern)
+                && Objects.equals(windowSize, other.windowSize)
+                && Objects.equals(windowDurationInSec, other.windowDurationInSec)
+                && Objects.equals(zipfExponent, other.zipfExponent)
+                && Objects.equals(numReaders, other.numReaders)
+                && Objects.equals(numWriters, other.numWriters)
+                && Objects.equals(bulkSize, other.bulkSize);
+    }
+
+    public LoadPattern getLoadPatternType() {
+        return LoadPattern.fromString(loadPattern);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public Double getRate() {
+        return rate;
+    }
+
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+
+    public Double getRampToRate() {
+        return rampToRate;
+    }
+
+    public void setRampToRate(Double rampToRate) {
+        this.rampToRate = rampToRate;
+    }
+
+    public Double getReadRatio() {
+        return readRatio;
+    }
+
+    public void setReadRatio(Double readRatio) {
+        this.readRatio = readRatio;
+    }
+
+    public String getLoadPattern() {
+        return loadPattern;
+    }
+
+    public void setLoadPattern(String loadPattern) {
+        this.loadPattern = loadPattern;
+    }
+
+    public Integer getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(Integer windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public Long getWindowDurationInSec() {
+        return windowDurationInSec;
+    }
+
+    public void setWindowDurationInSec(Long windowDurationInSec) {
+        this.windowDurationInSec = windowDurationInSec;
+    }
+
+    public Double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public void setZipfExponent(Double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public Integer getNumReaders() {
+        return numReaders;
+    }
+
+    public void setNumReaders(Integer numReaders) {
+        this.numReaders = numReaders;
+    }
+
+    public Integer getNumWriters() {
+        return numWriters;
+    }
+
+    public void setNumWriters(Integer numWriters) {
+        this.numWriters = numWriters;
+    }
+
+    public Integer getBulkSize() {
+        return bulkSize;
+    }
+
+    public void setBulkSize(Integer bulkSize) {
+        this.bulkSize = bulkSize;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.scenario;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.archaius.api.config.SettableConfig;
+import com.netflix.archaius.api.inject.RuntimeLayer;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.api.plugin.common.NdBenchConstants;
+import com.netflix.ndbench.core.DataBackfill;
+import com.netflix.ndbench.core.NdBenchClientFactory;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.monitoring.events.FlightRecorderEvents;
+import com.netflix.ndbench.core.results.RunResultRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a {@link Scenario} in-process, one phase after the other.
+ * <p>
+ * Phase boundaries are computed from the start of the scenario rather than from the end of the previous phase, so the
+ * time taken to restart workers or to apply a rate does not accumulate over a long scenario. A backfill phase takes as
+ * long as it takes, the load phases following it are timed from its end. Ramps adjust the rate limits every
+ * {@link #RAMP_STEP_MILLIS}. Rates, worker counts and the Zipf exponent are applied as runtime properties, so they stay
+ * in effect once the scenario completes.
+ */
+@Singleton
+public class ScenarioRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioRunner.class);
+
+    static final long RAMP_STEP_MILLIS = 1000;
+    private static final long BACKFILL_POLL_MILLIS = 1000;
+
+    private final NdBenchDriver driver;
+    private final DataBackfill dataBackfill;
+    private final NdBenchClientFactory clientFactory;
+    private final SettableConfig settableConfig;
+    private final RunResultRecorder runResultRecorder;
+
+    private final AtomicReference<ExecutorService> executorRef = new AtomicReference<>(null);
+    private final AtomicReference<Future<Void>> runRef = new AtomicReference<>(null);
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    private volatile Scenario scenario;
+    private volatile ScenarioPhase phase;
+    private volatile int phaseIndex;
+    private volatile long phaseStartMillis;
+
+    @Inject
+    public ScenarioRunner(NdBenchDriver driver, DataBackfill dataBackfill, NdBenchClientFactory clientFactory,
+                          @RuntimeLayer SettableConfig settableConfig, RunResultRecorder runResultRecorder) {
+        this.driver = driver;
+        this.dataBackfill = dataBackfill;
+        this.clientFactory = clientFactory;
+        this.settableConfig = settableConfig;
+        this.runResultRecorder = runResultRecorder;
+    }
+
+    /**
+     * Starts running the scenario in the background.
+     *
+     * @return completes once the scenario has run, with the exception of the failed phase if one failed
+     * @throws IllegalArgumentException if the scenario is not valid
+     * @throws IllegalStateException    if a scenario is already running, or the scenario names another client than
+     *                                  the one initialized
+     */
+    public synchronized Future<Void> start(Scenario newScenario) {
+        if (isRunning()) {
+            throw new IllegalStateException("Scenario " + scenario.getName() + " is already running");
+        }
+        newScenario.validate();
+        checkClient(newScenario);
+        ExecutorService executor = executorRef.get();
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("ndbench-scenario-%d")
+                    .setDaemon(true).build());
+            executorRef.set(executor);
+        }
+        scenario = newScenario;
+        Future<Void> future = executor.submit(() -> {
+            run(newScenario);
+            return null;
+        });
+        runRef.set(future);
+        return future;
+    }
+
+    public void stop() {
+        Future<Void> future = runRef.get();
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    public boolean isRunning() {
+        Future<Void> future = runRef.get();
+        return future != null && !future.isDone();
+    }
+
+    /**
+     * @return how long the load phases of the last scenario ran, leaving out its backfill phases
+     */
+    public long getLoadMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(loadNanos.get());
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        Scenario current = scenario;
+        ScenarioPhase currentPhase = phase;
+        status.put("Scenario", current == null ? "NA" : current.getName());
+        status.put("IsRunning", isRunning());
+        status.put("Phase", currentPhase == null ? "NA" : currentPhase.getName());
+        status.put("PhaseIndex", currentPhase == null ? -1 : phaseIndex);
+        status.put("NumPhases", current == null ? 0 : current.getPhases().size());
+        status.put("PhaseElapsedSeconds",
+                currentPhase == null ? 0 : (System.currentTimeMillis() - phaseStartMillis) / 1000);
+        return status;
+    }
+
+    void run(Scenario scenario) throws Exception {
+        logger.info("Starting scenario {} with {} phases", scenario.getName(), scenario.getPhases().size());
+        if (scenario.getClient() != null) {
+            driver.init(clientFactory.getClient(scenario.getClient()));
+            checkClient(scenario);
+        }
+        if (driver.getClient() == null) {
+            throw new IllegalStateException("No client is initialized and scenario " + scenario.getName()
+                    + " does not name one");
+        }
+
+        loadNanos.set(0L);
+        long phaseEndNanos = System.nanoTime();
+        ScenarioPhase previousLoad = null;
+        try {
+            for (int i = 0; i < scenario.getPhases().size(); i++) {
+                ScenarioPhase next = scenario.getPhases().get(i);
+                phaseIndex = i;
+                phase = next;
+                runResultRecorder.onScenarioPhase(next.getName());
+                phaseStartMillis = System.currentTimeMillis();
+                logger.info("Scenario {}: starting phase {} ({}/{})", scenario.getName(), next.getName(), i + 1,
+                        scenario.getPhases().size());
+                FlightRecorderEvents.phaseTransition("scenario " + next.getName(), "start");
+
+                if (next.getType() == ScenarioPhase.Type.BACKFILL) {
+                    stopWorkers();
+                    runBackfill(next);
+                    phaseEndNanos = System.nanoTime();
+                    previousLoad = null;
+                } else {
+                    long startNanos = phaseEndNanos;
+                    phaseEndNanos += TimeUnit.SECONDS.toNanos(next.getDurationSeconds());
+                    long loadStartNanos = System.nanoTime();
+                    try {
+                        runLoad(previousLoad, next, startNanos, phaseEndNanos);
+                    } finally {
+                        loadNanos.addAndGet(System.nanoTime() - loadStartNanos);
+                    }
+                    previousLoad = next;
+                }
+
+                FlightRecorderEvents.phaseTransition("scenario " + next.getName(), "stop");
+            }
+            logger.info("Scenario {} completed", scenario.getName());
+        } catch (InterruptedException e) {
+            logger.info("Scenario {} stopped in phase {}", scenario.getName(), phase.getName());
+        } finally {
+            stopWorkers();
+            phase = null;
+            runResultRecorder.onScenarioPhase(null);
+        }
+    }
+
+    /**
+     * The driver keeps the client it is initialized with until it is shut down, a scenario naming another one would
+     * otherwise run against the client already initialized.
+     *
+     * @throws IllegalStateException if the scenario names another client than the one initialized
+     */
+    private void checkClient(Scenario scenario) {
+        if (scenario.getClient() == null) {
+            return;
+        }
+        NdBenchAbstractClient<?> current = driver.getPluginClient();
+        if (current != null && current != clientFactory.getClient(scenario.getClient())) {
+            throw new IllegalStateException("Scenario " + scenario.getName() + " runs client " + scenario.getClient()
+                    + " but the driver is initialized with " + NdBenchDriver.getPluginNamespace(current)
+                    + ", shut down the client first");
+        }
+    }
+
+    private void runBackfill(ScenarioPhase backfill) throws InterruptedException {
+        long deadlineMillis = backfill.getDurationSeconds() > 0
+                ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(backfill.getDurationSeconds())
+                : Long.MAX_VALUE;
+        dataBackfill.backfillAsync(driver.getClient());
+        try {
+            while (dataBackfill.getIsBackfillRunning() && System.currentTimeMillis() < deadlineMillis) {
+                Thread.sleep(BACKFILL_POLL_MILLIS);
+            }
+        } finally {
+            if (dataBackfill.getIsBackfillRunning()) {
+                dataBackfill.stopBackfill();
+            } else {
+                dataBackfill.shutdown();
+            }
+        }
+    }
+
+    private void runLoad(ScenarioPhase previous, ScenarioPhase load, long startNanos, long endNanos)
+            throws InterruptedException {
+        boolean restart = !load.hasSameWorkers(previous);
+        if (restart) {
+            stopWorkers();
+            setProperty(NdBenchConstants.NUM_READERS, load.getNumReaders());
+            setProperty(NdBenchConstants.NUM_WRITERS, load.getNumWriters());
+            setProperty("zipfExponent", load.getZipfExponent());
+        }
+        applyRates(load, 0);
+        updateWorkers(load, load.getReadRate(0) >= 1, true);
+        updateWorkers(load, load.getWriteRate(0) >= 1, false);
+
+        long remainingNanos;
+        while ((remainingNanos = endNanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(load.isRamp()
+                    ? Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(RAMP_STEP_MILLIS))
+                    : remainingNanos);
+            if (load.isRamp()) {
+                double progress = Math.min(1.0, (double) (System.nanoTime() - startNanos) / (endNanos - startNanos));
+                applyRates(load, progress);
+                updateWorkers(load, load.getReadRate(progress) >= 1, true);
+                updateWorkers(load, load.getWriteRate(progress) >= 1, false);
+            }
+        }
+    }
+
+    private void applyRates(ScenarioPhase load, double progress) {
+        long readRate = Math.round(load.getReadRate(progress));
+        long writeRate = Math.round(load.getWriteRate(progress));
+        // A rate limit of 0 is not valid, those operations are stopped instead
+        if (readRate >= 1) {
+            setProperty(NdBenchConstants.READ_RATE_LIMIT, readRate);
+            driver.onReadRateLimitChange();
+        }
+        if (writeRate >= 1) {
+            setProperty(NdBenchConstants.WRITE_RATE_LIMIT, writeRate);
+            driver.onWriteRateLimitChange();
+        }
+    }
+
+    private void updateWorkers(ScenarioPhase load, boolean shouldRun, boolean reads) {
+        boolean running = reads ? driver.getIsReadRunning() : driver.getIsWriteRunning();
+        if (shouldRun && !running) {
+            if (reads) {
+                driver.startReads(load.getLoadPatternType(), load.getWindowSize(), load.getWindowDurationInSec(),
+                        load.getBulkSize());
+            } else {
+                driver.startWrites(load.getLoadPatternType(), load.getWindowSize(), load.getWindowDurationInSec(),
+                        load.getBulkSize());
+            }
+        } else if (!shouldRun && running) {
+            if (reads) {
+                driver.stopReads();
+            } else {
+                driver.stopWrites();
+            }
+        }
+    }
+
+    private void stopWorkers() {
+        if (driver.getIsReadRunning()) {
+            driver.stopReads();
+        }
+        if (driver.getIsWriteRunning()) {
+            driver.stopWrites();
+        }
+    }
+
+    private void setProperty(String name, Object value) {
+        if (value != null) {
+            settableConfig.setProperty(NdBenchConstants.PROP_NAMESPACE + name, value.toString());
+        }
+    }
+
+    public void shutdown() {
+        stop();
+        ExecutorService executor = executorRef.getAndSet(null);
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a CSV key access trace into a {@link TraceFile}, one access per line:
+ * <pre>
+ * [timestamp,]op,key
+ * </pre>
+ * The timestamp is in milliseconds, fractions allowed, from any origin, and is either given on every line or on none.
+ * The op is read or write (r or w), and the key is the rest of the line, so keys may contain commas. Empty lines, lines
+ * starting with # and a header line are skipped.
+ * <p>
+ * The records are streamed to the trace file, the distinct keys are kept in memory until they are written at its end.
+ * <p>
+ * Usage: {@code TraceConverter <csv file> <trace file>}
+ */
+public class TraceConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TraceConverter <csv file> <trace file>");
+            System.exit(2);
+        }
+        try (Reader in = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8)) {
+            long records = convert(in, new File(args[1]));
+            System.err.println("Wrote " + records + " accesses to " + args[1]);
+        }
+    }
+
+    /**
+     * @return the number of records written
+     * @throws IOException if a line cannot be parsed
+     */
+    public static long convert(Reader csv, File trace) throws IOException {
+        BufferedReader in = new BufferedReader(csv, 64 * 1024);
+        Map<String, Integer> keyIds = new HashMap<>();
+        List<byte[]> keys = new ArrayList<>();
+        long keyBytesLength = 0L;
+        long records = 0L;
+        Boolean timestamps = null;
+        long firstTimestampMicros = 0L;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(trace), 64 * 1024))) {
+            // the header is rewritten once the counts are known
+            out.write(new byte[TraceFile.HEADER_SIZE]);
+
+            String line;
+            long lineNumber = 0L;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                int separator = line.indexOf(',');
+                if (separator < 0) {
+                    throw new IOException("Line " + lineNumber + " is not of the form [timestamp,]op,key");
+                }
+                String first = line.substring(0, separator);
+                boolean hasTimestamp = parseOpType(first) == null;
+                if (timestamps == null) {
+                    timestamps = hasTimestamp;
+                } else if (timestamps != hasTimestamp) {
+                    throw new IOException("Line " + lineNumber + ": timestamps must be given on every line or on none");
+                }
+
+                long timestampMicros = 0L;
+                String rest = line.substring(separator + 1);
+                if (hasTimestamp) {
+                    try {
+                        timestampMicros = Math.round(Double.parseDouble(first) * 1000);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Line " + lineNumber + ": unknown op or timestamp " + first);
+                    }
+                    separator = rest.indexOf(',');
+                    if (separator < 0) {
+                        throw new IOException("Line " + lineNumber + " is not of the form [timestamp,]op,key");
+                    }
+                    first = rest.substring(0, separator);
+                    rest = rest.substring(separator + 1);
+                }
+                TraceFile.OpType opType = parseOpType(first);
+                if (opType == null) {
+                    throw new IOException("Line " + lineNumber + ": unknown op " + first);
+                }
+
+                Integer keyId = keyIds.get(rest);
+                if (keyId == null) {
+                    byte[] key = rest.getBytes(StandardCharsets.UTF_8);
+                    if (key.length > TraceFile.MAX_KEY_BYTES) {
+                        throw new IOException("Line " + lineNumber + ": key longer than " + TraceFile.MAX_KEY_BYTES
+                                + " bytes");
+                    }
+                    if (keys.size() == Integer.MAX_VALUE) {
+                        throw new IOException("More than " + Integer.MAX_VALUE + " distinct keys");
+                    }
+                    keyId = keys.size();
+                    keyIds.put(rest, keyId);
+                    keys.add(key);
+                    keyBytesLength += key.length;
+                }
+
+                if (timestamps) {
+                    if (records == 0) {
+                        firstTimestampMicros = timestampMicros;
+                    }
+                    out.writeLong(Math.max(0L, timestampMicros - firstTimestampMicros));
+                }
+                out.writeInt(opType == TraceFile.OpType.WRITE ? keyId | TraceFile.WRITE_BIT : keyId);
+                records++;
+            }
+
+            long offset = 0L;
+            for (byte[] key : keys) {
+                out.writeLong(offset);
+                offset += key.length;
+            }
+            for (byte[] key : keys) {
+                out.write(key);
+            }
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(trace, "rw")) {
+            raf.writeInt(TraceFile.MAGIC);
+            raf.writeShort(TraceFile.VERSION);
+            raf.writeShort(Boolean.TRUE.equals(timestamps) ? TraceFile.FLAG_TIMESTAMPS : 0);
+            raf.writeLong(records);
+            raf.writeLong(keys.size());
+            raf.writeLong(keyBytesLength);
+        }
+        return records;
+    }
+
+    private static boolean isHeader(String line) {
+        return line.startsWith("timestamp,") || line.startsWith("op,");
+    }
+
+    private static TraceFile.OpType parseOpType(String op) {
+        switch (op.trim().toLowerCase()) {
+            case "read":
+            case "r":
+                return TraceFile.OpType.READ;
+            case "write":
+            case "w":
+                return TraceFile.OpType.WRITE;
+            default:
+                return null;
+        }
+    }
+}
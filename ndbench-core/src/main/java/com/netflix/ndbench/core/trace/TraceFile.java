@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.trace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A recorded key access trace, memory mapped so that traces of any number of entries are read from the page cache
+ * rather than loaded on the heap. {@link TraceConverter} writes traces from CSV.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: {@link #MAGIC}, {@link #VERSION}, flags, the number of
+ * records, the number of distinct keys and the size of the keys. The records follow, each one the time of the access in
+ * microseconds since the first one, when the trace has timestamps, then the key id with the op type in its top bit.
+ * Keys are stored once, as the offset of every key followed by the UTF-8 bytes of all keys.
+ * <p>
+ * All reads are absolute, a trace can be read by any number of threads.
+ */
+public final class TraceFile {
+    public enum OpType {
+        READ, WRITE
+    }
+
+    static final int MAGIC = 0x4E445452; // "NDTR"
+    static final short VERSION = 1;
+    static final short FLAG_TIMESTAMPS = 1;
+
+    /**
+     * magic (4), version (2), flags (2), record count (8), key count (8), key bytes (8)
+     */
+    static final int HEADER_SIZE = 32;
+    static final int MAX_KEY_BYTES = 0xFFFF;
+    static final int WRITE_BIT = 0x80000000;
+
+    private final long recordCount;
+    private final long keyCount;
+    private final long keyBytesLength;
+    private final boolean timestamps;
+    private final int recordSize;
+    private final MappedRegion records;
+    private final MappedRegion keyOffsets;
+    private final MappedRegion keyBytes;
+
+    private TraceFile(FileChannel channel, long recordCount, long keyCount, long keyBytesLength, boolean timestamps)
+            throws IOException {
+        this.recordCount = recordCount;
+        this.keyCount = keyCount;
+        this.keyBytesLength = keyBytesLength;
+        this.timestamps = timestamps;
+        this.recordSize = getRecordSize(timestamps);
+        long recordsStart = HEADER_SIZE;
+        long keyOffsetsStart = recordsStart + recordCount * recordSize;
+        long keyBytesStart = keyOffsetsStart + keyCount * 8;
+        this.records = new MappedRegion(channel, recordsStart, recordCount * recordSize);
+        this.keyOffsets = new MappedRegion(channel, keyOffsetsStart, keyCount * 8);
+        this.keyBytes = new MappedRegion(channel, keyBytesStart, keyBytesLength);
+    }
+
+    /**
+     * @throws IOException if the file is not a trace, or is truncated
+     */
+    public static TraceFile open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() < HEADER_SIZE || raf.readInt() != MAGIC) {
+                throw new IOException(file + " is not a trace");
+            }
+            short version = raf.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace version " + version);
+            }
+            boolean timestamps = (raf.readShort() & FLAG_TIMESTAMPS) != 0;
+            long recordCount = raf.readLong();
+            long keyCount = raf.readLong();
+            long keyBytesLength = raf.readLong();
+            long expected = HEADER_SIZE + recordCount * getRecordSize(timestamps) + keyCount * 8 + keyBytesLength;
+            if (recordCount < 0 || keyCount < 0 || keyBytesLength < 0 || raf.length() < expected) {
+                throw new IOException(file + " is truncated, " + raf.length() + " bytes instead of " + expected);
+            }
+            // the mappings stay valid once the channel is closed
+            return new TraceFile(raf.getChannel(), recordCount, keyCount, keyBytesLength, timestamps);
+        }
+    }
+
+    static int getRecordSize(boolean timestamps) {
+        return timestamps ? 12 : 4;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getKeyCount() {
+        return keyCount;
+    }
+
+    public boolean hasTimestamps() {
+        return timestamps;
+    }
+
+    /**
+     * @return the time of the access in microseconds since the first access of the trace, 0 if the trace has no
+     * timestamps
+     */
+    public long getTimestampMicros(long record) {
+        return timestamps ? records.getLong(record * recordSize) : 0L;
+    }
+
+    /**
+     * @return the time of the last access in microseconds since the first one
+     */
+    public long getDurationMicros() {
+        return recordCount == 0 ? 0L : getTimestampMicros(recordCount - 1);
+    }
+
+    public OpType getOpType(long record) {
+        return (getKeyAndOp(record) & WRITE_BIT) != 0 ? OpType.WRITE : OpType.READ;
+    }
+
+    public int getKeyId(long record) {
+        return getKeyAndOp(record) & ~WRITE_BIT;
+    }
+
+    public String getKey(int keyId) {
+        long start = keyOffsets.getLong(keyId * 8L);
+        long end = keyId + 1 < keyCount ? keyOffsets.getLong((keyId + 1) * 8L) : keyBytesLength;
+        byte[] bytes = new byte[(int) (end - start)];
+        keyBytes.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getKeyAndOp(long record) {
+        return records.getInt(record * recordSize + (timestamps ? 8 : 0));
+    }
+
+    /**
+     * A region of the file mapped in segments, as a single mapping cannot exceed 2GB. Every segment overlaps the next
+     * one by the size of the largest value read, so that a value starting in a segment is read whole from it.
+     */
+    private static final class MappedRegion {
+        private static final int SEGMENT_SHIFT = 30;
+        private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+        private static final int OVERLAP = MAX_KEY_BYTES;
+
+        private final ByteBuffer[] segments;
+
+        MappedRegion(FileChannel channel, long start, long length) throws IOException {
+            int count = (int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            this.segments = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long offset = i * SEGMENT_SIZE;
+                long size = Math.min(SEGMENT_SIZE + OVERLAP, length - offset);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + offset, size);
+            }
+        }
+
+        long getLong(long position) {
+            return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+        }
+
+        int getInt(long position) {
+            return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & (SEGMENT_SIZE - 1)));
+        }
+
+        void get(long position, byte[] bytes) {
+            ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int offset = (int) (position & (SEGMENT_SIZE - 1));
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = segment.get(offset + i);
+            }
+        }
+    }
+}
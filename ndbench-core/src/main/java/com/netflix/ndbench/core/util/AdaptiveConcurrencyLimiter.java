@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gates the number of operations which may be in flight at the same time, using a TCP Vegas style estimate of the
+ * queueing going on between the driver and the datastore.
+ * <p>
+ * Every completed operation reports its round trip time. The smallest round trip time seen since the last probe is
+ * taken as the no-load latency, and limit * (1 - minRtt / rtt) estimates how many of the in-flight operations are
+ * just sitting in a queue. The limit grows while that queue is small and shrinks once it grows past a threshold, both
+ * thresholds scaling with log10(limit). Failed operations cut the limit multiplicatively. The limit only grows while
+ * it is actually being used, so a benchmark held back by its rate limit does not inflate it.
+ * <p>
+ * When the limiter is disabled {@link #tryAcquire()} never rejects, but in-flight operations are still counted.
+ * Callers take their permit once their operation is about to start, e.g. after the rate limit let it through, so that
+ * only the operations actually in flight are counted.
+ */
+public class AdaptiveConcurrencyLimiter {
+    static final int PROBE_INTERVAL_SAMPLES = 1000;
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private volatile int limit;
+
+    // guarded by this
+    private int maxLimit;
+    private double estimatedLimit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe = 0;
+
+    public AdaptiveConcurrencyLimiter(boolean enabled, int initialLimit, int maxLimit) {
+        if (!(maxLimit > 0)) {
+            throw new IllegalArgumentException("maxLimit must be > 0");
+        }
+        if (!(initialLimit > 0 && initialLimit <= maxLimit)) {
+            throw new IllegalArgumentException("initialLimit must be > 0 and <= maxLimit");
+        }
+        this.enabled = enabled;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @return true if the caller may start an operation, in which case it must call {@link #release()} once the
+     * operation is done
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (enabled && current > limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Feeds the round trip time of a completed operation into the limit estimate.
+     */
+    public void onSample(long rttNanos, boolean success) {
+        if (!enabled || rttNanos <= 0) {
+            return;
+        }
+        int currentInFlight = inFlight.get();
+        synchronized (this) {
+            if (++samplesSinceProbe >= PROBE_INTERVAL_SAMPLES) {
+                // The datastore's no-load latency drifts over time, let the next samples rediscover it
+                samplesSinceProbe = 0;
+                minRttNanos = rttNanos;
+            }
+
+            if (!success) {
+                estimatedLimit = estimatedLimit * BACKOFF_RATIO;
+            } else {
+                minRttNanos = Math.min(minRttNanos, rttNanos);
+
+                double queueSize = Math.ceil(estimatedLimit * (1 - (double) minRttNanos / rttNanos));
+                double step = Math.max(1.0, Math.log10(estimatedLimit));
+                double alpha = 3 * step;
+                double beta = 6 * step;
+
+                if (queueSize <= alpha && currentInFlight * 2 >= estimatedLimit) {
+                    estimatedLimit += step;
+                } else if (queueSize > beta) {
+                    estimatedLimit -= step;
+                }
+            }
+
+            estimatedLimit = Math.max(1.0, Math.min(maxLimit, estimatedLimit));
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    /**
+     * Changes the maximum limit, when the number of workers sharing the limiter changes. A limit held at the former
+     * maximum is raised to the initial limit the new maximum allows, as for a limiter created with it.
+     */
+    public synchronized void setMaxLimit(int maxLimit, int initialLimit) {
+        if (!(maxLimit > 0)) {
+            throw new IllegalArgumentException("maxLimit must be > 0");
+        }
+        if (estimatedLimit >= this.maxLimit) {
+            estimatedLimit = Math.max(estimatedLimit, Math.min(initialLimit, maxLimit));
+        }
+        this.maxLimit = maxLimit;
+        estimatedLimit = Math.max(1.0, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public synchronized int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -23,7 +23,10 @@ public enum LoadPattern {
     RANDOM("random"),
     SLIDING_WINDOW("sliding_window"),
     SLIDING_WINDOW_FLIP("sliding_window_flip"),
-    ZIPFIAN("zipfian");
+    ZIPFIAN("zipfian"),
+    READ_YOUR_WRITES("read_your_writes"),
+    TARGETED("targeted"),
+    TRACE("trace");
     private String text;
 
     LoadPattern(String text) {
@@ -0,0 +1,331 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.workloads;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.generators.KeyGenerator;
+import com.netflix.ndbench.core.generators.KeyGeneratorFactory;
+import com.netflix.ndbench.core.operations.OperationTimeoutException;
+import com.netflix.ndbench.core.operations.WorkerContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A named stream of reads and writes running next to the main workload of the {@link NdBenchDriver} and to the other
+ * workloads, with its own key distribution, rate limits, workers and stats. Its operations go through the driver's
+ * client, or the client for its target, under the driver's operation deadline.
+ * <p>
+ * Rate limits and worker counts are tuned while the workload runs: new workers start right away and surplus workers
+ * retire once their in-flight operation completed.
+ */
+public class Workload {
+    private static final Logger logger = LoggerFactory.getLogger(Workload.class);
+    private static final long RATE_LIMITER_WAIT_MILLIS = 100;
+
+    private final String name;
+    private final WorkloadSpec spec;
+    private final NdBenchAbstractClient<?> client;
+    private final NdBenchDriver driver;
+    private final Workers reads;
+    private final Workers writes;
+    private volatile long startMillis;
+    private volatile long stopMillis;
+
+    public Workload(String name, WorkloadSpec spec, NdBenchAbstractClient<?> client, NdBenchDriver driver) {
+        this.name = name;
+        this.spec = spec;
+        this.client = client;
+        this.driver = driver;
+        this.reads = new Workers(true, spec.getReadRateLimit(), spec.getNumReaders());
+        this.writes = new Workers(false, spec.getWriteRateLimit(), spec.getNumWriters());
+    }
+
+    public void start() {
+        logger.info("Starting workload {}", name);
+        startMillis = System.currentTimeMillis();
+        stopMillis = 0L;
+        writes.start();
+        reads.start();
+    }
+
+    /**
+     * Stops the workers, waiting up to the drain timeout for their in-flight operations before interrupting them.
+     */
+    public void stop(long drainTimeoutMillis) {
+        logger.info("Stopping workload {}", name);
+        writes.stop(drainTimeoutMillis);
+        reads.stop(drainTimeoutMillis);
+        stopMillis = System.currentTimeMillis();
+    }
+
+    public boolean isRunning() {
+        return reads.running || writes.running;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Applies new values of readRateLimit, writeRateLimit, numReaders or numWriters to the running workload.
+     *
+     * @throws IllegalArgumentException if another setting or an invalid value is given, nothing is applied then
+     */
+    public synchronized void tune(Map<String, String> settings) {
+        Map<String, Integer> values = new HashMap<>();
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            String key = setting.getKey();
+            int value;
+            try {
+                value = Integer.parseInt(setting.getValue().trim());
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid value for " + key + ": " + setting.getValue());
+            }
+            switch (key) {
+                case "readRateLimit":
+                case "writeRateLimit":
+                    if (value < 1) {
+                        throw new IllegalArgumentException(key + " must be >= 1");
+                    }
+                    break;
+                case "numReaders":
+                case "numWriters":
+                    if (value < 0) {
+                        throw new IllegalArgumentException(key + " can not be negative");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException(key + " can not be changed while workload " + name + " runs");
+            }
+            values.put(key, value);
+        }
+        for (Map.Entry<String, Integer> value : values.entrySet()) {
+            logger.info("Workload {}: setting {} to {}", name, value.getKey(), value.getValue());
+            switch (value.getKey()) {
+                case "readRateLimit":
+                    reads.rateLimiter.get().setRate(value.getValue());
+                    break;
+                case "writeRateLimit":
+                    writes.rateLimiter.get().setRate(value.getValue());
+                    break;
+                case "numReaders":
+                    reads.resize(value.getValue());
+                    break;
+                default:
+                    writes.resize(value.getValue());
+                    break;
+            }
+        }
+    }
+
+    public WorkloadStats getReadStats() {
+        return reads.stats;
+    }
+
+    public WorkloadStats getWriteStats() {
+        return writes.stats;
+    }
+
+    public Map<String, Object> getStatus() {
+        long endMillis = isRunning() || stopMillis == 0L ? System.currentTimeMillis() : stopMillis;
+        double durationSeconds = Math.max(endMillis - startMillis, 1L) / 1000D;
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("name", name);
+        status.put("running", isRunning());
+        status.put("durationSeconds", durationSeconds);
+        status.put("loadPattern", spec.getLoadPattern());
+        status.put("target", spec.getTarget());
+        status.put("keyPrefix", spec.getKeyPrefix());
+        status.put("readRateLimit", reads.rateLimiter.get().getRate());
+        status.put("writeRateLimit", writes.rateLimiter.get().getRate());
+        status.put("readWorkers", reads.numWorkers.get());
+        status.put("writeWorkers", writes.numWorkers.get());
+        status.put("read", reads.stats.getReport(durationSeconds));
+        status.put("write", writes.stats.getReport(durationSeconds));
+        return status;
+    }
+
+    /**
+     * The read or the write workers of the workload.
+     */
+    private class Workers {
+        private final boolean isRead;
+        private final WorkloadStats stats = new WorkloadStats();
+        private final AtomicReference<RateLimiter> rateLimiter;
+        private final AtomicInteger numWorkers = new AtomicInteger(0);
+        private final AtomicInteger targetWorkers;
+        private volatile boolean running = false;
+        private ExecutorService pool;
+        private KeyGenerator<String> keyGenerator;
+
+        private Workers(boolean isRead, int rateLimit, int numWorkers) {
+            this.isRead = isRead;
+            this.rateLimiter = new AtomicReference<>(RateLimiter.create(rateLimit));
+            this.targetWorkers = new AtomicInteger(numWorkers);
+        }
+
+        private String getType() {
+            return isRead ? "read" : "write";
+        }
+
+        private synchronized void start() {
+            keyGenerator = new KeyGeneratorFactory().getKeyGenerator(spec.getLoadPatternType(), spec.getNumKeys(),
+                    spec.getWindowSize(), spec.getWindowDurationInSec(), false, spec.getZipfExponent());
+            keyGenerator.init();
+            pool = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("ndbench-workload-" + name + "-" + getType() + "-%d")
+                    .setDaemon(false).build());
+            running = true;
+            resize(targetWorkers.get());
+        }
+
+        private synchronized void resize(int target) {
+            targetWorkers.set(target);
+            if (!running) {
+                return;
+            }
+            // Workers still to retire from an earlier shrink are kept instead of starting new ones
+            for (int i = numWorkers.get(); i < target; i++) {
+                numWorkers.incrementAndGet();
+                pool.submit(this::work);
+            }
+        }
+
+        private void stop(long drainTimeoutMillis) {
+            ExecutorService toStop;
+            synchronized (this) {
+                running = false;
+                toStop = pool;
+            }
+            if (toStop == null) {
+                return;
+            }
+            toStop.shutdown();
+            try {
+                if (!toStop.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    logger.info("In-flight {} operations of workload {} did not drain in time, interrupting workers",
+                            getType(), name);
+                    toStop.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                toStop.shutdownNow();
+            }
+        }
+
+        private Void work() {
+            final WorkerContext workerContext = new WorkerContext(client);
+            boolean retired = false;
+            try {
+                while (running && !Thread.currentThread().isInterrupted()) {
+                    if (checkAndRetire()) {
+                        retired = true;
+                        break;
+                    }
+                    if (!rateLimiter.get().tryAcquire(RATE_LIMITER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        continue;
+                    }
+                    List<String> keys = nextKeys();
+                    if (keys.isEmpty()) {
+                        logger.info("No more keys for the {}s of workload {}, stopping them", getType(), name);
+                        running = false;
+                        break;
+                    }
+                    process(workerContext, keys);
+                }
+            } finally {
+                workerContext.close();
+                if (!retired) {
+                    numWorkers.decrementAndGet();
+                }
+            }
+            return null;
+        }
+
+        private boolean checkAndRetire() {
+            int current;
+            while ((current = numWorkers.get()) > targetWorkers.get()) {
+                if (numWorkers.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private List<String> nextKeys() {
+            int bulkSize = spec.getBulkSize();
+            Set<String> keys = new HashSet<>(bulkSize * 2);
+            while (keys.size() < bulkSize && keyGenerator.hasNextKey()) {
+                keys.add(spec.getKeyPrefix() + keyGenerator.getNextKey());
+            }
+            return new ArrayList<>(keys);
+        }
+
+        private void process(WorkerContext workerContext, List<String> keys) {
+            long startTime = System.nanoTime();
+            try {
+                // Creating the worker's context is not part of its first operation's latency
+                final Object context = workerContext.acquire();
+                startTime = System.nanoTime();
+                if (isRead) {
+                    List<String> values = keys.size() > 1
+                            ? driver.callWithDeadline(() -> workerContext.readBulk(client, context, keys))
+                            : Collections.singletonList(
+                                    driver.callWithDeadline(() -> workerContext.readSingle(client, context, keys.get(0))));
+                    stats.recordSuccess((System.nanoTime() - startTime) / 1000);
+                    for (String value : values) {
+                        stats.recordCacheHit(value != null);
+                    }
+                } else {
+                    if (keys.size() > 1) {
+                        driver.callWithDeadline(() -> workerContext.writeBulk(client, context, keys));
+                    } else {
+                        driver.callWithDeadline(() -> workerContext.writeSingle(client, context, keys.get(0)));
+                    }
+                    stats.recordSuccess((System.nanoTime() - startTime) / 1000);
+                }
+            } catch (OperationTimeoutException e) {
+                workerContext.discard();
+                stats.recordTimeout();
+            } catch (Exception e) {
+                workerContext.onFailure(e);
+                if (running) {
+                    stats.recordFailure();
+                    logger.error("Failed to process a " + getType() + " operation of workload " + name, e);
+                }
+            }
+        }
+    }
+}
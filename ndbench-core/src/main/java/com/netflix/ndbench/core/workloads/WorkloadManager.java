@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.workloads;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.IConfiguration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Named {@link Workload}s run by one ndbench instance next to its main workload, for instance to measure how the
+ * tenants of a cluster interfere with each other. A stopped workload keeps its stats until a workload of the same name
+ * is started again.
+ */
+@Singleton
+public class WorkloadManager {
+    private final NdBenchDriver driver;
+    private final IConfiguration config;
+    private final ConcurrentMap<String, Workload> workloads = new ConcurrentHashMap<>();
+
+    @Inject
+    public WorkloadManager(NdBenchDriver driver, IConfiguration config) {
+        this.driver = driver;
+        this.config = config;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the spec cannot be run
+     * @throws IllegalStateException    if the workload is already running or the driver has no client
+     */
+    public synchronized void start(String name, WorkloadSpec spec) throws Exception {
+        Workload current = workloads.get(name);
+        if (current != null && current.isRunning()) {
+            throw new IllegalStateException("Workload " + name + " is already running");
+        }
+        spec.validate(config);
+        NdBenchAbstractClient<?> client = driver.getClient();
+        if (client == null) {
+            throw new IllegalStateException("The driver has no client, initialize one before starting workloads");
+        }
+        if (spec.getTarget() != null && !spec.getTarget().isEmpty()) {
+            client = client.forTarget(spec.getTarget());
+        }
+        Workload workload = new Workload(name, spec, client, driver);
+        workloads.put(name, workload);
+        workload.start();
+    }
+
+    public void stop(String name) {
+        get(name).stop(config.getStopDrainTimeoutMillis());
+    }
+
+    public void stopAll() {
+        for (Workload workload : workloads.values()) {
+            if (workload.isRunning()) {
+                workload.stop(config.getStopDrainTimeoutMillis());
+            }
+        }
+    }
+
+    public void tune(String name, Map<String, String> settings) {
+        get(name).tune(settings);
+    }
+
+    public Map<String, Object> getStatus(String name) {
+        return get(name).getStatus();
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        for (Workload workload : workloads.values()) {
+            status.put(workload.getName(), workload.getStatus());
+        }
+        return status;
+    }
+
+    private Workload get(String name) {
+        Workload workload = workloads.get(name);
+        if (workload == null) {
+            throw new IllegalArgumentException("Unknown workload " + name);
+        }
+        return workload;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.workloads;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.util.LoadPattern;
+
+import java.io.IOException;
+
+/**
+ * Settings of a named {@link Workload}, posted as a JSON document:
+ * <pre>
+ * {
+ *   "loadPattern": "zipfian",
+ *   "zipfExponent": 0.9,
+ *   "numKeys": 100000,
+ *   "readRateLimit": 5000,
+ *   "writeRateLimit": 500,
+ *   "numReaders": 32,
+ *   "numWriters": 8,
+ *   "target": "tenant_a",
+ *   "keyPrefix": "a:"
+ * }
+ * </pre>
+ * The key distribution is given by loadPattern, numKeys, windowSize, windowDurationInSec and zipfExponent. A workload
+ * without readers or writers only writes or only reads. target names the table, keyspace or index the workload runs
+ * against instead of the client's own, for the clients which support it, and keyPrefix is prepended to every key so
+ * that workloads sharing a table do not share keys.
+ * <p>
+ * Settings left out are taken from the configuration of the main workload. Rate limits and worker counts can be
+ * changed while the workload runs, see {@link Workload#tune}.
+ */
+public class WorkloadSpec {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private String loadPattern;
+    private Integer numKeys;
+    private Integer windowSize;
+    private Long windowDurationInSec;
+    private Double zipfExponent;
+    private Integer bulkSize;
+
+    private Integer readRateLimit;
+    private Integer writeRateLimit;
+    private Integer numReaders;
+    private Integer numWriters;
+
+    private String target;
+    private String keyPrefix;
+
+    public static WorkloadSpec fromJson(String json) throws IOException {
+        return MAPPER.readValue(json, WorkloadSpec.class);
+    }
+
+    /**
+     * Checks the settings and fills in the ones left out.
+     *
+     * @throws IllegalArgumentException if the workload cannot be run
+     */
+    public void validate(IConfiguration config) {
+        loadPattern = inherit(loadPattern, LoadPattern.RANDOM.getText());
+        numKeys = inherit(numKeys, config.getNumKeys());
+        windowSize = inherit(windowSize, -1);
+        windowDurationInSec = inherit(windowDurationInSec, -1L);
+        zipfExponent = inherit(zipfExponent, config.getZipfExponent());
+        bulkSize = inherit(bulkSize, 1);
+        readRateLimit = inherit(readRateLimit, config.getReadRateLimit());
+        writeRateLimit = inherit(writeRateLimit, config.getWriteRateLimit());
+        numReaders = inherit(numReaders, config.getNumReaders());
+        numWriters = inherit(numWriters, config.getNumWriters());
+        keyPrefix = inherit(keyPrefix, "");
+
+        LoadPattern pattern = getLoadPatternType();
+        check(pattern != null, "unknown loadPattern " + loadPattern);
+        check(!pattern.equals(LoadPattern.SLIDING_WINDOW) || (windowSize >= 1 && windowDurationInSec >= 1),
+                "windowSize and windowDurationInSec can not be less than 1 for " + loadPattern);
+        check(!pattern.equals(LoadPattern.ZIPFIAN) || zipfExponent > 0, "zipfExponent must be > 0 for zipfian");
+        // the tokens of the keys would change with the key prefix
+        check(!pattern.equals(LoadPattern.TARGETED), "targeted is only supported by the main workload");
+        check(!pattern.equals(LoadPattern.TRACE), "trace is only supported by the main workload");
+        // the writes of a workload are not acknowledged to the key generator of its reads
+        check(!pattern.equals(LoadPattern.READ_YOUR_WRITES), "read_your_writes is only supported by the main workload");
+        check(numKeys >= 1, "numKeys must be >= 1");
+        check(bulkSize >= 1, "bulkSize must be >= 1");
+        check(readRateLimit >= 1 && writeRateLimit >= 1, "rate limits must be >= 1");
+        check(numReaders >= 0 && numWriters >= 0, "numReaders and numWriters can not be negative");
+        check(numReaders + numWriters > 0, "a workload needs readers or writers");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static <T> T inherit(T value, T inherited) {
+        return value != null ? value : inherited;
+    }
+
+    public LoadPattern getLoadPatternType() {
+        return LoadPattern.fromString(loadPattern);
+    }
+
+    public String getLoadPattern() {
+        return loadPattern;
+    }
+
+    public void setLoadPattern(String loadPattern) {
+        this.loadPattern = loadPattern;
+    }
+
+    public Integer getNumKeys() {
+        return numKeys;
+    }
+
+    public void setNumKeys(Integer numKeys) {
+        this.numKeys = numKeys;
+    }
+
+    public Integer getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(Integer windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public Long getWindowDurationInSec() {
+        return windowDurationInSec;
+    }
+
+    public void setWindowDurationInSec(Long windowDurationInSec) {
+        this.windowDurationInSec = windowDurationInSec;
+    }
+
+    public Double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public void setZipfExponent(Double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public Integer getBulkSize() {
+        return bulkSize;
+    }
+
+    public void setBulkSize(Integer bulkSize) {
+        this.bulkSize = bulkSize;
+    }
+
+    public Integer getReadRateLimit() {
+        return readRateLimit;
+    }
+
+    public void setReadRateLimit(Integer readRateLimit) {
+        this.readRateLimit = readRateLimit;
+    }
+
+    public Integer getWriteRateLimit() {
+        return writeRateLimit;
+    }
+
+    public void setWriteRateLimit(Integer writeRateLimit) {
+        this.writeRateLimit = writeRateLimit;
+    }
+
+    public Integer getNumReaders() {
+        return numReaders;
+    }
+
+    public void setNumReaders(Integer numReaders) {
+        this.numReaders = numReaders;
+    }
+
+    public Integer getNumWriters() {
+        return numWriters;
+    }
+
+    public void setNumWriters(Integer numWriters) {
+        this.numWriters = numWriters;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.core.workloads;
+
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import com.netflix.ndbench.core.report.RunReporter;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes and latencies of the reads or the writes of one {@link Workload}, kept apart from the stats of the main
+ * workload and of the other workloads.
+ */
+public class WorkloadStats {
+    private final BucketedLatencyHistogram latency = new BucketedLatencyHistogram();
+    private final LongAdder success = new LongAdder();
+    private final LongAdder failure = new LongAdder();
+    private final LongAdder timeout = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    public void recordSuccess(long latencyMicros) {
+        latency.record(latencyMicros);
+        success.increment();
+    }
+
+    public void recordFailure() {
+        failure.increment();
+    }
+
+    public void recordTimeout() {
+        timeout.increment();
+    }
+
+    public void recordCacheHit(boolean hit) {
+        if (hit) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+    }
+
+    public long getSuccess() {
+        return success.sum();
+    }
+
+    public long getFailure() {
+        return failure.sum();
+    }
+
+    public long getTimeout() {
+        return timeout.sum();
+    }
+
+    public BucketedLatencyHistogram getLatencyHistogram() {
+        return latency;
+    }
+
+    /**
+     * Reports the figures of the run report for the operations, plus the cache hit ratio for reads.
+     */
+    public Map<String, Object> getReport(double durationSeconds) {
+        Map<String, Object> report = RunReporter.getOperationReport(durationSeconds, success.sum(), failure.sum(),
+                timeout.sum(), latency);
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        if (total > 0) {
+            report.put("cacheHitRatioPercent", hits * 100D / total);
+        }
+        return report;
+    }
+}
@@ -1,6 +1,7 @@
 package com.netflix.ndbench.core;
 
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.netflix.archaius.api.inject.RuntimeLayer;
 import com.netflix.archaius.guice.ArchaiusModule;
 import com.netflix.archaius.test.Archaius2TestConfig;
@@ -10,20 +11,32 @@ import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.api.plugin.NdBenchClient;
 import com.netflix.ndbench.api.plugin.NdBenchMonitor;
 import com.netflix.ndbench.api.plugin.common.NdBenchConstants;
+import com.netflix.ndbench.core.clients.ComparisonClient;
 import com.netflix.ndbench.core.config.IConfiguration;
 import com.netflix.ndbench.core.defaultimpl.NdBenchGuiceModule;
+import com.netflix.ndbench.core.operations.OperationTimeoutException;
 import com.netflix.ndbench.core.operations.WriteOperation;
+import com.netflix.ndbench.core.trace.TraceConverter;
+import com.netflix.ndbench.core.util.LoadPattern;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import javax.inject.Inject;
+import java.io.File;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 @RunWith(GovernatorJunit4ClassRunner.class)
@@ -33,6 +46,9 @@ public class NdbenchDriverTest {
     @RuntimeLayer
     public Archaius2TestConfig settableConfig = new Archaius2TestConfig();
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Inject
     IConfiguration config;
 
@@ -60,7 +76,8 @@ public class NdbenchDriverTest {
         WriteOperation writeOperation = new WriteOperation(mockClientPlugin);
 
         writeOperation.
-                process(driver, mockMonitor, Collections.singletonList("some-key"), new AtomicReference<>(RateLimiter.create(100)), true);
+                process(driver, mockMonitor, Collections.singletonList("some-key"), new AtomicReference<>(RateLimiter.create(100)), true,
+                        writeOperation.newWorkerContext());
 
         int rateFromSettableConfig = settableConfig.getInteger(NdBenchConstants.WRITE_RATE_LIMIT_FULL_NAME);
 
@@ -96,7 +113,8 @@ public class NdbenchDriverTest {
         }
 
         writeOperation.
-                process(driver, mockMonitor, keys, new AtomicReference<>(RateLimiter.create(100)), true);
+                process(driver, mockMonitor, keys, new AtomicReference<>(RateLimiter.create(100)), true,
+                        writeOperation.newWorkerContext());
 
         int rateFromSettableConfig = settableConfig.getInteger(NdBenchConstants.WRITE_RATE_LIMIT_FULL_NAME);
 
@@ -104,5 +122,323 @@ public class NdbenchDriverTest {
         assertEquals(rateFromSettableConfig , 500D, .001);
     }
 
+    @Test(expected = OperationTimeoutException.class)
+    public void testCallWithDeadlineThrowsWhenCallRunsPastDeadline() throws Exception {
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getOperationTimeoutMillis()).thenReturn(50);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        driver.callWithDeadline(() -> {
+            Thread.sleep(5000);
+            return "too late";
+        });
+    }
+
+    @Test
+    public void testCallWithDeadlineReturnsResultWithinDeadline() throws Exception {
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getOperationTimeoutMillis()).thenReturn(5000);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        assertEquals("foo", driver.callWithDeadline(() -> "foo"));
+    }
+
+    @Test
+    public void testCallWithDeadlineFailsFastOnceTooManyCallsAreAbandoned() throws Exception {
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getOperationTimeoutMillis()).thenReturn(50);
+        when(mockConfig.getOperationTimeoutMaxAbandoned()).thenReturn(1);
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+
+        // a call ignoring interrupts, as most client libraries do
+        CountDownLatch hung = new CountDownLatch(1);
+        try {
+            driver.callWithDeadline(() -> {
+                Uninterruptibles.awaitUninterruptibly(hung);
+                return "too late";
+            });
+            fail("expected a timeout");
+        } catch (OperationTimeoutException e) {
+            assertEquals(1, driver.getAbandonedCalls());
+        }
+
+        AtomicBoolean called = new AtomicBoolean();
+        try {
+            driver.callWithDeadline(() -> called.getAndSet(true));
+            fail("expected to fail fast");
+        } catch (OperationTimeoutException e) {
+            assertFalse(called.get());
+        }
+
+        hung.countDown();
+        for (int i = 0; i < 500 && driver.getAbandonedCalls() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals("foo", driver.callWithDeadline(() -> "foo"));
+        driver.shutdownClient();
+    }
+
+    @Test
+    public void testRunPlanOnlyTakesTunableChangesWhileRunning() throws Exception {
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getNumKeys()).thenReturn(100);
+        when(mockConfig.getOperationTimeoutMillis()).thenReturn(0);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        when(mockConfig.getNumKeys()).thenReturn(200);
+        when(mockConfig.getOperationTimeoutMillis()).thenReturn(50);
+        assertEquals(0, driver.getRunPlan().getOperationTimeoutMillis());
+
+        driver.onOperationTimeoutChange();
+        assertEquals(50, driver.getRunPlan().getOperationTimeoutMillis());
+        assertEquals(100, driver.getRunPlan().getNumKeys());
+    }
+
+    @Test
+    public void testWorkersResizedWhileRunning() throws Exception {
+        NdBenchClient mockClientPlugin = mock(NdBenchClient.class);
+        when(mockClientPlugin.writeSingle(anyString())).thenReturn("foo");
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getNumKeys()).thenReturn(100);
+        when(mockConfig.isWriteEnabled()).thenReturn(true);
+        when(mockConfig.getWriteRateLimit()).thenReturn(100);
+        when(mockConfig.getReadRateLimit()).thenReturn(100);
+        when(mockConfig.getStatsUpdateFreqSeconds()).thenReturn(5);
+        when(mockConfig.getAdaptiveConcurrencyInitialLimit()).thenReturn(10);
+        when(mockConfig.getAdaptiveConcurrencyMaxLimit()).thenReturn(1000);
+        when(mockConfig.getNumWriters()).thenReturn(2);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        driver.init(mockClientPlugin);
+        try {
+            driver.startWrites(LoadPattern.RANDOM, 1, 1, 1);
+            awaitWriteWorkers(driver, 2);
+
+            when(mockConfig.getNumWriters()).thenReturn(5);
+            driver.onNumWritersChange();
+            awaitWriteWorkers(driver, 5);
+            assertEquals(5, driver.getRunPlan().getNumWriters());
+
+            when(mockConfig.getNumWriters()).thenReturn(1);
+            driver.onNumWritersChange();
+            awaitWriteWorkers(driver, 1);
+            assertTrue(driver.getIsWriteRunning());
+        } finally {
+            driver.stop();
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimitFollowsResizedWorkers() throws Exception {
+        NdBenchClient mockClientPlugin = mock(NdBenchClient.class);
+        when(mockClientPlugin.writeSingle(anyString())).thenReturn("foo");
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getNumKeys()).thenReturn(100);
+        when(mockConfig.isWriteEnabled()).thenReturn(true);
+        when(mockConfig.getWriteRateLimit()).thenReturn(100);
+        when(mockConfig.getReadRateLimit()).thenReturn(100);
+        when(mockConfig.getStatsUpdateFreqSeconds()).thenReturn(5);
+        when(mockConfig.isAdaptiveConcurrencyEnabled()).thenReturn(true);
+        when(mockConfig.getAdaptiveConcurrencyInitialLimit()).thenReturn(10);
+        when(mockConfig.getAdaptiveConcurrencyMaxLimit()).thenReturn(1000);
+        when(mockConfig.getNumWriters()).thenReturn(2);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        driver.init(mockClientPlugin);
+        try {
+            driver.startWrites(LoadPattern.RANDOM, 1, 1, 1);
+            awaitWriteWorkers(driver, 2);
+            assertEquals(2, driver.getWriteConcurrencyLimiter().getLimit());
+
+            when(mockConfig.getNumWriters()).thenReturn(5);
+            driver.onNumWritersChange();
+            awaitWriteWorkers(driver, 5);
+            assertEquals(5, driver.getWriteConcurrencyLimiter().getMaxLimit());
+            assertEquals(5, driver.getWriteConcurrencyLimiter().getLimit());
+
+            when(mockConfig.getNumWriters()).thenReturn(3);
+            driver.onNumWritersChange();
+            assertEquals(3, driver.getWriteConcurrencyLimiter().getLimit());
+        } finally {
+            driver.stop();
+        }
+    }
+
+    @Test
+    public void testWorkersOnlyGrowWhenBusy() throws Exception {
+        NdBenchClient mockClientPlugin = mock(NdBenchClient.class);
+        AtomicBoolean slow = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (slow.get()) {
+                Thread.sleep(20);
+            }
+            return "foo";
+        }).when(mockClientPlugin).writeSingle(anyString());
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getNumKeys()).thenReturn(100);
+        when(mockConfig.isWriteEnabled()).thenReturn(true);
+        when(mockConfig.getWriteRateLimit()).thenReturn(100);
+        when(mockConfig.getReadRateLimit()).thenReturn(100);
+        when(mockConfig.getStatsUpdateFreqSeconds()).thenReturn(1);
+        when(mockConfig.getAdaptiveConcurrencyInitialLimit()).thenReturn(10);
+        when(mockConfig.getAdaptiveConcurrencyMaxLimit()).thenReturn(1000);
+        when(mockConfig.isAutoGrowWorkersEnabled()).thenReturn(true);
+        when(mockConfig.getAutoGrowWorkersMax()).thenReturn(256);
+        when(mockConfig.getNumWriters()).thenReturn(2);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        driver.init(mockClientPlugin);
+        try {
+            driver.startWrites(LoadPattern.RANDOM, 1, 1, 1);
+            awaitWriteWorkers(driver, 2);
+            // the count the workers would grow to, the driver takes it from the configuration
+            when(mockConfig.getNumWriters()).thenReturn(3);
+            // the workers wait on the rate limiter
+            Thread.sleep(1200);
+            driver.onUnderRate(false, 50, 100);
+            assertEquals(2, driver.getWriteWorkers());
+
+            // two workers taking 20ms an operation can not reach 100 writes a second
+            slow.set(true);
+            Thread.sleep(1200);
+            driver.onUnderRate(false, 80, 100);
+            awaitWriteWorkers(driver, 3);
+        } finally {
+            driver.stop();
+        }
+    }
+
+    @Test
+    public void testPacedTraceWorkersWaitWithoutPermits() throws Exception {
+        File trace = folder.newFile();
+        TraceConverter.convert(new StringReader("0,write,a\n2000,write,b\n"), trace);
+        NdBenchClient mockClientPlugin = mock(NdBenchClient.class);
+        when(mockClientPlugin.writeSingle(anyString())).thenReturn("foo");
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.isWriteEnabled()).thenReturn(true);
+        when(mockConfig.getWriteRateLimit()).thenReturn(100);
+        when(mockConfig.getReadRateLimit()).thenReturn(100);
+        when(mockConfig.getStatsUpdateFreqSeconds()).thenReturn(5);
+        when(mockConfig.isAdaptiveConcurrencyEnabled()).thenReturn(true);
+        when(mockConfig.getAdaptiveConcurrencyInitialLimit()).thenReturn(10);
+        when(mockConfig.getAdaptiveConcurrencyMaxLimit()).thenReturn(1000);
+        when(mockConfig.getNumWriters()).thenReturn(2);
+        when(mockConfig.getTraceFile()).thenReturn(trace.getPath());
+        when(mockConfig.isTraceHonorInterArrival()).thenReturn(true);
+        when(mockConfig.getTraceSpeed()).thenReturn(1D);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        driver.init(mockClientPlugin);
+        try {
+            driver.startWrites(LoadPattern.TRACE, 1, 1, 1);
+            verify(mockClientPlugin, timeout(1000)).writeSingle("a");
+            // the other worker waits for b, due in 2 seconds
+            Thread.sleep(200);
+            verify(mockClientPlugin, never()).writeSingle("b");
+            assertEquals(0, driver.getWriteConcurrencyLimiter().getInFlight());
+        } finally {
+            driver.stop();
+        }
+    }
+
+    @Test
+    public void testComparedClientsGetTheSameKeys() throws Exception {
+        List<String> writes = Collections.synchronizedList(new ArrayList<>());
+        assertPaired(runComparedWrites(recordingClient("a", writes), recordingClient("b", writes), writes, 0));
+    }
+
+    @Test
+    public void testComparedClientsGetTheSameKeysAfterTimeout() throws Exception {
+        List<String> writes = Collections.synchronizedList(new ArrayList<>());
+        // the first operation of the first pair times out, and is not recorded
+        AtomicBoolean timedOut = new AtomicBoolean();
+        NdBenchClient clientA = mock(NdBenchClient.class);
+        doAnswer(invocation -> {
+            if (timedOut.compareAndSet(false, true)) {
+                Thread.sleep(5000);
+                return "too late";
+            }
+            writes.add("a:" + invocation.getArguments()[0]);
+            return "foo";
+        }).when(clientA).writeSingle(anyString());
+
+        assertPaired(runComparedWrites(clientA, recordingClient("b", writes), writes, 100));
+        assertTrue(timedOut.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScansRejectedWhenComparingClients() throws Exception {
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.isReadEnabled()).thenReturn(true);
+        when(mockConfig.getReadRateLimit()).thenReturn(100);
+        when(mockConfig.getWriteRateLimit()).thenReturn(100);
+        when(mockConfig.getStatsUpdateFreqSeconds()).thenReturn(5);
+        when(mockConfig.getRunResultIntervalSeconds()).thenReturn(1);
+        when(mockConfig.getScanRatio()).thenReturn(0.1);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        driver.init(new ComparisonClient("a", mock(NdBenchClient.class), "b", mock(NdBenchClient.class), mockConfig,
+                ndBenchMonitor));
+        try {
+            driver.startReads(LoadPattern.RANDOM, 1, 1, 1);
+        } finally {
+            driver.stop();
+        }
+    }
+
+    private static NdBenchClient recordingClient(String name, List<String> writes) throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        doAnswer(invocation -> {
+            writes.add(name + ":" + invocation.getArguments()[0]);
+            return "foo";
+        }).when(client).writeSingle(anyString());
+        return client;
+    }
 
+    private List<String> runComparedWrites(NdBenchClient clientA, NdBenchClient clientB, List<String> writes,
+                                           int timeoutMillis) throws Exception {
+        IConfiguration mockConfig = mock(IConfiguration.class);
+        when(mockConfig.getNumKeys()).thenReturn(1000);
+        when(mockConfig.isWriteEnabled()).thenReturn(true);
+        when(mockConfig.getWriteRateLimit()).thenReturn(1000);
+        when(mockConfig.getReadRateLimit()).thenReturn(1000);
+        when(mockConfig.getStatsUpdateFreqSeconds()).thenReturn(5);
+        when(mockConfig.getRunResultIntervalSeconds()).thenReturn(1);
+        when(mockConfig.getAdaptiveConcurrencyInitialLimit()).thenReturn(10);
+        when(mockConfig.getAdaptiveConcurrencyMaxLimit()).thenReturn(1000);
+        when(mockConfig.getNumWriters()).thenReturn(1);
+        when(mockConfig.getOperationTimeoutMillis()).thenReturn(timeoutMillis);
+
+        NdBenchDriver driver = new NdBenchDriver(mockConfig, ndBenchMonitor, dataGenerator, settableConfig);
+        driver.init(new ComparisonClient("a", clientA, "b", clientB, mockConfig, ndBenchMonitor));
+        try {
+            driver.startWrites(LoadPattern.RANDOM, 1, 1, 1);
+            for (int i = 0; i < 100 && writes.size() < 20; i++) {
+                Thread.sleep(50);
+            }
+        } finally {
+            driver.stop();
+        }
+        return new ArrayList<>(writes);
+    }
+
+    /**
+     * Asserts the writes come in pairs of one write to each client with the same key.
+     */
+    private static void assertPaired(List<String> writes) {
+        assertTrue(writes.size() >= 20);
+        for (int i = 0; i + 1 < writes.size(); i += 2) {
+            String first = writes.get(i);
+            String second = writes.get(i + 1);
+            assertFalse(first.charAt(0) == second.charAt(0));
+            assertEquals(first.substring(2), second.substring(2));
+        }
+    }
+
+    private static void awaitWriteWorkers(NdBenchDriver driver, int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && driver.getWriteWorkers() != expected; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, driver.getWriteWorkers());
+    }
 }
@@ -10,9 +10,13 @@ import org.libex.test.TestBase;
 import org.libex.test.logging.log4j.Log4jCapturer;
 import org.libex.test.logging.log4j.Log4jCapturer.LogAssertion;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -86,6 +90,30 @@ public class RPSCountTest extends TestBase {
                         89/*writeSuccess*/, 0/*writeFail*/));
     }
 
+    @Test
+    public void testUnderRateListenerToldOfShortfallOverFullInterval() {
+        List<String> underRate = new ArrayList<>();
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.getStatsUpdateFreqSeconds()).thenReturn(10);
+        when(config.isReadEnabled()).thenReturn(true);
+        when(config.isWriteEnabled()).thenReturn(true);
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        when(monitor.getReadSuccess()).thenReturn(0L, 0L, 80L);
+        when(monitor.getWriteSuccess()).thenReturn(0L, 0L, 89L);
+        RPSCount counter = new RPSCount(new AtomicBoolean(true), new AtomicBoolean(true),
+                new AtomicReference<>(RateLimiter.create(9)), new AtomicReference<>(RateLimiter.create(9)),
+                config, monitor,
+                (isRead, observed, expected) -> underRate.add((isRead ? "read " : "write ") + observed + "/" + expected));
+
+        // the interval the reads and writes started in is not a full one
+        counter.updateRPS();
+        assertEquals(Collections.emptyList(), underRate);
+
+        // 8 reads per second is a shortfall, 8.9 writes per second is not
+        counter.updateRPS();
+        assertEquals(Collections.singletonList("read 8/9"), underRate);
+    }
+
     private void verifyLoggerActivity(String fragmentOfExpectedLoggedMsg,
                                       boolean shouldBeLogged,
                                       RPSCount counter) {
@@ -113,6 +141,19 @@ public class RPSCountTest extends TestBase {
                                  long readFailure,
                                  long writeSuccess,
                                  long writeFailure) {
+        return getRPSCount(readsStarted, writesStarted, readRate, writeRate, readSuccess, readFailure,
+                writeSuccess, writeFailure, (isRead, observed, expected) -> {});
+    }
+
+    private RPSCount getRPSCount(boolean readsStarted,
+                                 boolean writesStarted,
+                                 double readRate,
+                                 double writeRate,
+                                 long readSuccess,
+                                 long readFailure,
+                                 long writeSuccess,
+                                 long writeFailure,
+                                 RPSCount.UnderRateListener underRateListener) {
 
         IConfiguration config = mock(IConfiguration.class);
         when(config.getStatsUpdateFreqSeconds()).thenReturn(10);
@@ -133,7 +174,8 @@ public class RPSCountTest extends TestBase {
                         new AtomicReference(RateLimiter.create(readRate)),
                         new AtomicReference(RateLimiter.create(writeRate)),
                         config,
-                        monitor);
+                        monitor,
+                        underRateListener);
         return counter;
     }
 }
@@ -0,0 +1,102 @@
+package com.netflix.ndbench.core.clients;
+
+import com.netflix.ndbench.api.plugin.DataGenerator;
+import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+import com.netflix.ndbench.core.config.IConfiguration;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CachingClientTest {
+
+    @Test
+    public void testReadsServedFromCacheUntilInvalidatedByWrite() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle("k1")).thenReturn("v1");
+        CachingClient<String> cache = newCachingClient(client, "invalidate");
+
+        assertEquals("v1", cache.readSingle("k1"));
+        assertEquals("v1", cache.readSingle("k1"));
+        verify(client, times(1)).readSingle("k1");
+        assertEquals(0.5, cache.getHitRatio(), 0.001);
+        assertEquals(0.5, cache.getBackendLoadReduction(), 0.001);
+
+        cache.writeSingle("k1");
+        cache.readSingle("k1");
+        verify(client, times(2)).readSingle("k1");
+    }
+
+    @Test
+    public void testWriteThroughCachesWrittenValues() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        CachingClient<String> cache = newCachingClient(client, "through");
+        DataGenerator dataGenerator = getDataGenerator(client);
+        when(client.writeSingle("k1")).thenAnswer(invocation -> dataGenerator.getRandomValue() == null ? null : "Ok");
+        when(client.writeBulk(Arrays.asList("k2", "k3"))).thenAnswer(invocation ->
+                Arrays.asList(dataGenerator.getRandomValue(), dataGenerator.getRandomValue()));
+
+        assertEquals("Ok", cache.writeSingle("k1"));
+        cache.writeBulk(Arrays.asList("k2", "k3"));
+        assertEquals("v1", cache.readSingle("k1"));
+        assertEquals(Arrays.asList("v2", "v3"), cache.readBulk(Arrays.asList("k2", "k3")));
+        verify(client, never()).readSingle(anyString());
+        verify(client, never()).readBulk(anyListOf(String.class));
+    }
+
+    @Test
+    public void testWriteThroughInvalidatesUnknownValues() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle("k1")).thenReturn("v0");
+        when(client.writeSingle("k1")).thenReturn("Ok");
+        CachingClient<String> cache = newCachingClient(client, "through");
+
+        assertEquals("v0", cache.readSingle("k1"));
+        // the client did not take its value from the data generator
+        cache.writeSingle("k1");
+        cache.readSingle("k1");
+        verify(client, times(2)).readSingle("k1");
+    }
+
+    @Test
+    public void testBulkReadOnlyReadsMissingKeys() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle("k1")).thenReturn("v1");
+        when(client.readBulk(Collections.singletonList("k2"))).thenReturn(Collections.singletonList("v2"));
+        CachingClient<String> cache = newCachingClient(client, "invalidate");
+
+        cache.readSingle("k1");
+        assertEquals(Arrays.asList("v1", "v2"), cache.readBulk(Arrays.asList("k1", "k2")));
+        assertEquals(Arrays.asList("v1", "v2"), cache.readBulk(Arrays.asList("k1", "k2")));
+        verify(client, times(1)).readBulk(Collections.singletonList("k2"));
+    }
+
+    private static CachingClient<String> newCachingClient(NdBenchClient client, String writeMode) throws Exception {
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        when(monitor.getPluginMetrics(anyString())).thenReturn(PluginMetrics.NOOP);
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.getClientCacheCapacity()).thenReturn(100);
+        when(config.getClientCacheTtlMillis()).thenReturn(60_000);
+        when(config.getClientCacheEvictionPolicy()).thenReturn("lru");
+        when(config.getClientCacheWriteMode()).thenReturn(writeMode);
+        DataGenerator dataGenerator = mock(DataGenerator.class);
+        when(dataGenerator.getRandomValue()).thenReturn("v1", "v2", "v3");
+        CachingClient<String> cache = new CachingClient<>(client, config, monitor);
+        cache.init(dataGenerator);
+        return cache;
+    }
+
+    private static DataGenerator getDataGenerator(NdBenchClient client) throws Exception {
+        ArgumentCaptor<DataGenerator> dataGenerator = ArgumentCaptor.forClass(DataGenerator.class);
+        verify(client).init(dataGenerator.capture());
+        return dataGenerator.getValue();
+    }
+}
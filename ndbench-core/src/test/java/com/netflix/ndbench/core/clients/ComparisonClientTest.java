@@ -0,0 +1,76 @@
+package com.netflix.ndbench.core.clients;
+
+import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+import com.netflix.ndbench.core.config.IConfiguration;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ComparisonClientTest {
+
+    @Test
+    public void testPairsGoToBothClientsWithAlternatingLead() throws Exception {
+        NdBenchClient clientA = mock(NdBenchClient.class);
+        NdBenchClient clientB = mock(NdBenchClient.class);
+        ComparisonClient comparison = newComparison(clientA, clientB);
+
+        // the driver issues both operations of a pair with the same key
+        ComparisonClient.Pairing pairing = comparison.createWorkerContext();
+        comparison.readSingle(pairing, "k1");
+        comparison.readSingle(pairing, "k1");
+        comparison.readSingle(pairing, "k2");
+        comparison.readSingle(pairing, "k2");
+
+        InOrder inOrder = inOrder(clientA, clientB);
+        inOrder.verify(clientA).readSingle("k1");
+        inOrder.verify(clientB).readSingle("k1");
+        inOrder.verify(clientB).readSingle("k2");
+        inOrder.verify(clientA).readSingle("k2");
+        verify(clientA, times(2)).readSingle(anyString());
+        verify(clientB, times(2)).readSingle(anyString());
+    }
+
+    @Test
+    public void testStatsKeptPerClient() throws Exception {
+        NdBenchClient clientA = mock(NdBenchClient.class);
+        NdBenchClient clientB = mock(NdBenchClient.class);
+        when(clientB.writeSingle(anyString())).thenThrow(new RuntimeException("write failed"));
+        ComparisonClient comparison = newComparison(clientA, clientB);
+
+        ComparisonClient.Pairing pairing = comparison.createWorkerContext();
+        for (int i = 0; i < 10; i++) {
+            try {
+                comparison.writeSingle(pairing, "k" + i);
+            } catch (RuntimeException e) {
+                assertEquals("write failed", e.getMessage());
+            }
+        }
+
+        Map<String, Object> report = comparison.getReport(0.01);
+        assertEquals(5L, getWriteStat(report, "a", "success"));
+        assertEquals(0L, getWriteStat(report, "a", "failure"));
+        assertEquals(0L, getWriteStat(report, "b", "success"));
+        assertEquals(5L, getWriteStat(report, "b", "failure"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object getWriteStat(Map<String, Object> report, String variant, String stat) {
+        Map<String, Object> write = (Map<String, Object>) ((Map<String, Object>) report.get(variant)).get("write");
+        return write.get(stat);
+    }
+
+    private static ComparisonClient newComparison(NdBenchClient clientA, NdBenchClient clientB) {
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        when(monitor.getPluginMetrics(anyString())).thenReturn(PluginMetrics.NOOP);
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.getRunResultIntervalSeconds()).thenReturn(1);
+        return new ComparisonClient("a", clientA, "b", clientB, config, monitor);
+    }
+}
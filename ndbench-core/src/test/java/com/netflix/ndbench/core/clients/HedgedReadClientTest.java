@@ -0,0 +1,90 @@
+package com.netflix.ndbench.core.clients;
+
+import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.config.RunPlan;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class HedgedReadClientTest {
+
+    @Test
+    public void testHedgeWinsWhenPrimaryIsSlow() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle(anyString())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                Thread.sleep(2000);
+                return "primary";
+            }
+            return "hedge";
+        });
+
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        HedgedReadClient<String> hedgedClient = new HedgedReadClient<>(client, getPlan(true), monitor);
+
+        assertEquals("hedge", hedgedClient.readSingle("key"));
+        verify(monitor).incHedgePrimary();
+        verify(monitor).incHedgeSent();
+        verify(monitor).incHedgeWin();
+        hedgedClient.shutdown();
+    }
+
+    @Test
+    public void testNoHedgeWhenDisabled() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle(anyString())).thenReturn("value");
+
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        HedgedReadClient<String> hedgedClient = new HedgedReadClient<>(client, getPlan(false), monitor);
+
+        assertEquals("value", hedgedClient.readSingle("key"));
+        verify(client, times(1)).readSingle("key");
+        verify(monitor, never()).incHedgePrimary();
+        hedgedClient.shutdown();
+    }
+
+    @Test
+    public void testHedgeDelayOnlyReadFromMonitorOnRefresh() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle(anyString())).thenReturn("value");
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        when(monitor.getReadLatP99()).thenReturn(0L);
+        IConfiguration config = getConfig(true);
+        when(config.getHedgeDelayPercentile()).thenReturn("p99");
+
+        RunPlan plan = RunPlan.of(config);
+        HedgedReadClient<String> hedgedClient = new HedgedReadClient<>(client, () -> plan, monitor);
+        // no percentile observed yet, the fixed delay applies
+        assertEquals(200_000L, hedgedClient.getHedgeDelayMicros());
+
+        when(monitor.getReadLatP99()).thenReturn(5_000L);
+        for (int i = 0; i < 10; i++) {
+            hedgedClient.readSingle("key");
+        }
+        verify(monitor, times(1)).getReadLatP99();
+
+        hedgedClient.refreshHedgeDelay();
+        assertEquals(5_000L, hedgedClient.getHedgeDelayMicros());
+        hedgedClient.shutdown();
+    }
+
+    private Supplier<RunPlan> getPlan(boolean hedgeReadsEnabled) {
+        RunPlan plan = RunPlan.of(getConfig(hedgeReadsEnabled));
+        return () -> plan;
+    }
+
+    private IConfiguration getConfig(boolean hedgeReadsEnabled) {
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.isHedgeReadsEnabled()).thenReturn(hedgeReadsEnabled);
+        when(config.getHedgeDelayMillis()).thenReturn(200);
+        when(config.getHedgeDelayPercentile()).thenReturn("");
+        return config;
+    }
+}
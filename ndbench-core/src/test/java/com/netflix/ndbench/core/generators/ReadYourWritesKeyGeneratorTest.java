@@ -0,0 +1,52 @@
+package com.netflix.ndbench.core.generators;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReadYourWritesKeyGeneratorTest {
+
+    @Test
+    public void testReadsAcknowledgedKeysOnceInOrder() {
+        AcknowledgedWrites writes = new AcknowledgedWrites(8);
+        ReadYourWritesKeyGenerator generator = new ReadYourWritesKeyGenerator(writes, 0, false, 100);
+        writes.publish(Collections.singletonList("T1"));
+        assertFalse("nothing is published before the reads start", writes.isEnabled());
+
+        generator.init();
+        writes.publish(Arrays.asList("T2", "T3"));
+        assertEquals("T2", generator.getNextKey());
+        assertEquals("T3", generator.getNextKey());
+        assertTrue(generator.takeAckNanos() > 0);
+
+        // nothing left to read, a random key is drawn and the read is not tracked
+        generator.getNextKey();
+        assertEquals(0L, generator.takeAckNanos());
+    }
+
+    @Test
+    public void testSkipsOverwrittenKeys() {
+        AcknowledgedWrites writes = new AcknowledgedWrites(4);
+        ReadYourWritesKeyGenerator generator = new ReadYourWritesKeyGenerator(writes, 0, false, 100);
+        generator.init();
+        writes.publish(Arrays.asList("T1", "T2", "T3", "T4", "T5", "T6"));
+
+        assertEquals("T3", generator.getNextKey());
+    }
+
+    @Test
+    public void testWaitsForTheLag() {
+        AcknowledgedWrites writes = new AcknowledgedWrites(4);
+        ReadYourWritesKeyGenerator generator = new ReadYourWritesKeyGenerator(writes, 60_000, false, 100);
+        generator.init();
+        writes.publish(Collections.singletonList("T1"));
+
+        generator.getNextKey();
+        assertEquals(0L, generator.takeAckNanos());
+    }
+}
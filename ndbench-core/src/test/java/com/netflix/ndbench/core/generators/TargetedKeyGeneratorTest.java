@@ -0,0 +1,90 @@
+package com.netflix.ndbench.core.generators;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TargetedKeyGeneratorTest {
+    @Test
+    public void testRedisClusterSlots() {
+        assertEquals(0x31C3, TokenPartitioner.crc16("123456789".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(12182L, TokenPartitioner.REDIS_CLUSTER.getToken("foo"));
+        assertEquals(TokenPartitioner.REDIS_CLUSTER.getToken("user1000"),
+                TokenPartitioner.REDIS_CLUSTER.getToken("{user1000}.following"));
+    }
+
+    @Test
+    public void testMurmur3TokensMatchCassandra() {
+        // token() of the int partition keys 1, 2 and 3 in Cassandra, whose keys are serialized as 4 bytes big endian
+        assertEquals(-4069959284402364209L, TokenPartitioner.MURMUR3.getToken("\u0000\u0000\u0000\u0001"));
+        assertEquals(-3248873570005575792L, TokenPartitioner.MURMUR3.getToken("\u0000\u0000\u0000\u0002"));
+        assertEquals(9010454139840013625L, TokenPartitioner.MURMUR3.getToken("\u0000\u0000\u0000\u0003"));
+    }
+
+    @Test
+    public void testAllKeysSteeredAtTargetRange() {
+        TokenRange range = TokenRange.parse("murmur3", "");
+        TargetedKeyGenerator generator = new TargetedKeyGenerator(range, 1D, false, 10000);
+        generator.init();
+
+        // the default range is a sixteenth of the tokens
+        assertTrue(generator.getNumTargetKeys() > 400 && generator.getNumTargetKeys() < 850);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(range.contains(generator.getNextKey()));
+        }
+    }
+
+    @Test
+    public void testShareOfKeysSteeredAtTargetRange() {
+        TokenRange range = TokenRange.parse("redis_cluster", "0:1023");
+        TargetedKeyGenerator generator = new TargetedKeyGenerator(range, 0.5, true, 10000);
+        generator.init();
+
+        int inRange = 0;
+        for (int i = 0; i < 20000; i++) {
+            if (range.contains(generator.getNextKey())) {
+                inRange++;
+            }
+        }
+        // half of the keys are targeted, and a sixteenth of the others fall in the range anyway
+        assertEquals(0.53, inRange / 20000D, 0.05);
+    }
+
+    @Test
+    public void testRangeWrapsAroundTheRing() {
+        assertTrue(TokenRange.parse("redis_cluster", "12000:100").contains("foo"));
+        assertFalse(TokenRange.parse("redis_cluster", "13000:12000").contains("foo"));
+        assertTrue(TokenRange.parse("md5", "-1:-2").contains("foo"));
+    }
+
+    @Test
+    public void testInvalidTargetsAreRejected() {
+        assertInvalid("byteordered", "");
+        assertInvalid("redis_cluster", "0:16384");
+        assertInvalid("murmur3", "-5:abc");
+        assertInvalid("murmur3", "12");
+
+        long slot = TokenPartitioner.REDIS_CLUSTER.getToken("T0");
+        long otherSlot = (slot + 1) % 16384;
+        TargetedKeyGenerator generator = new TargetedKeyGenerator(
+                TokenRange.parse("redis_cluster", otherSlot + ":" + otherSlot), 0.5, false, 1);
+        try {
+            generator.init();
+            fail("no key falls in the range");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static void assertInvalid(String partitioner, String range) {
+        try {
+            TokenRange.parse(partitioner, range);
+            fail(partitioner + " " + range + " is invalid");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.netflix.ndbench.core.generators;
+
+import com.netflix.ndbench.core.trace.TraceConverter;
+import com.netflix.ndbench.core.trace.TraceFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TraceReplayKeyGeneratorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File convert(String csv) throws IOException {
+        File trace = folder.newFile();
+        TraceConverter.convert(new StringReader(csv), trace);
+        return trace;
+    }
+
+    @Test
+    public void testConvertTrace() throws IOException {
+        File trace = convert("timestamp,op,key\n" +
+                             "1000,read,a\n" +
+                             "\n" +
+                             "# comment\n" +
+                             "1000.5,w,b,c\n" +
+                             "1250,r,a\n");
+        TraceFile file = TraceFile.open(trace);
+        assertEquals(3L, file.getRecordCount());
+        assertEquals(2L, file.getKeyCount());
+        assertTrue(file.hasTimestamps());
+        assertEquals(0L, file.getTimestampMicros(0));
+        assertEquals(500L, file.getTimestampMicros(1));
+        assertEquals(250000L, file.getDurationMicros());
+        assertEquals(TraceFile.OpType.READ, file.getOpType(0));
+        assertEquals(TraceFile.OpType.WRITE, file.getOpType(1));
+        assertEquals("b,c", file.getKey(file.getKeyId(1)));
+        assertEquals(file.getKeyId(0), file.getKeyId(2));
+    }
+
+    @Test
+    public void testReplayOnce() throws IOException {
+        File trace = convert("read,k1\nwrite,k2\nread,k3\nread,k1\n");
+        TraceReplayKeyGenerator reads = new TraceReplayKeyGenerator(
+                new TraceReplayKeyGenerator.Options(trace.getPath(), false, false, 1D), TraceFile.OpType.READ);
+        reads.init();
+
+        assertEquals("k1", reads.getNextKey());
+        assertEquals("k3", reads.getNextKey());
+        assertTrue(reads.hasNextKey());
+        assertEquals("k1", reads.getNextKey());
+        assertFalse(reads.hasNextKey());
+        assertNull(reads.getNextKey());
+    }
+
+    @Test
+    public void testReplayInLoop() throws IOException {
+        File trace = convert("read,k1\nwrite,k2\nread,k3\n");
+        TraceReplayKeyGenerator writes = new TraceReplayKeyGenerator(
+                new TraceReplayKeyGenerator.Options(trace.getPath(), true, false, 1D), TraceFile.OpType.WRITE);
+        writes.init();
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(writes.hasNextKey());
+            assertEquals("k2", writes.getNextKey());
+        }
+    }
+
+    @Test
+    public void testWorkersReplayEveryAccessOnce() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            csv.append("read,key").append(i).append('\n');
+        }
+        TraceReplayKeyGenerator reads = new TraceReplayKeyGenerator(
+                new TraceReplayKeyGenerator.Options(convert(csv.toString()).getPath(), false, false, 1D),
+                TraceFile.OpType.READ);
+        reads.init();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> workers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            workers.add(executor.submit(() -> {
+                List<String> keys = new ArrayList<>();
+                String key;
+                while ((key = reads.getNextKey()) != null) {
+                    keys.add(key);
+                }
+                return keys;
+            }));
+        }
+        List<String> keys = new ArrayList<>();
+        for (Future<List<String>> worker : workers) {
+            keys.addAll(worker.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(10000, keys.size());
+        Collections.sort(keys);
+        for (int i = 1; i < keys.size(); i++) {
+            assertFalse(keys.get(i).equals(keys.get(i - 1)));
+        }
+    }
+
+    @Test
+    public void testHonorInterArrival() throws IOException {
+        // 400ms of trace replayed twice as fast
+        File trace = convert("0,read,a\n200,read,b\n400,read,c\n");
+        TraceReplayKeyGenerator reads = new TraceReplayKeyGenerator(
+                new TraceReplayKeyGenerator.Options(trace.getPath(), false, true, 2D), TraceFile.OpType.READ);
+        reads.init();
+
+        long start = System.nanoTime();
+        long firstDue = reads.reserveNextKey();
+        assertEquals("a", reads.getNextKey());
+        long secondDue = reads.reserveNextKey();
+        assertEquals("b", reads.getNextKey());
+        long thirdDue = reads.reserveNextKey();
+        assertTrue(reads.hasNextKey());
+        assertEquals("c", reads.getNextKey());
+        assertFalse(reads.hasNextKey());
+        // keys are handed out at once, the workers wait for their due time before they acquire their permits
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+        assertEquals(100, TimeUnit.NANOSECONDS.toMillis(secondDue - firstDue), 5);
+        assertEquals(200, TimeUnit.NANOSECONDS.toMillis(thirdDue - firstDue), 5);
+    }
+
+    @Test
+    public void testReservedKeysAreNotPacedWithoutTimestamps() throws IOException {
+        File trace = convert("read,a\nread,b\n");
+        TraceReplayKeyGenerator reads = new TraceReplayKeyGenerator(
+                new TraceReplayKeyGenerator.Options(trace.getPath(), false, true, 1D), TraceFile.OpType.READ);
+        reads.init();
+
+        assertEquals(0L, reads.reserveNextKey());
+        assertEquals("a", reads.getNextKey());
+        assertEquals("b", reads.getNextKey());
+    }
+}
@@ -0,0 +1,45 @@
+package com.netflix.ndbench.core.monitoring;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BucketedLatencyHistogramTest {
+    @Test
+    public void testFineBuckets() {
+        assertEquals(0, BucketedLatencyHistogram.getFineBucket(7L));
+        assertEquals(0, BucketedLatencyHistogram.getFineBucket(10L));
+        assertEquals(1, BucketedLatencyHistogram.getFineBucket(11L));
+        assertEquals(90, BucketedLatencyHistogram.getFineBucket(100L));
+        assertEquals(91, BucketedLatencyHistogram.getFineBucket(101L));
+        assertEquals(BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS.length,
+                BucketedLatencyHistogram.getFineBucket(10_000_001L));
+    }
+
+    @Test
+    public void testCoarseBucketsAreSumsOfFineBuckets() {
+        BucketedLatencyHistogram histogram = new BucketedLatencyHistogram();
+        long[] latencies = {5L, 100L, 101L, 260L, 999L, 1_000L, 7_500L, 10_000_000L, 20_000_000L};
+        long[] expected = new long[histogram.getNumBuckets()];
+        for (long latency : latencies) {
+            histogram.record(latency);
+            expected[BucketedLatencyHistogram.getBucket(latency)]++;
+        }
+
+        assertArrayEquals(expected, histogram.getBucketCounts());
+        assertEquals(latencies.length, histogram.getCount());
+    }
+
+    @Test
+    public void testPercentileWithinTenPercent() {
+        BucketedLatencyHistogram histogram = new BucketedLatencyHistogram();
+        for (long latency = 1; latency <= 100_000; latency++) {
+            histogram.record(latency);
+        }
+
+        assertEquals(50_000L, histogram.getPercentile(0.5), 5_000L);
+        assertEquals(99_000L, histogram.getPercentile(0.99), 9_900L);
+        assertEquals(1_000L, histogram.getPercentile(0.01), 100L);
+    }
+}
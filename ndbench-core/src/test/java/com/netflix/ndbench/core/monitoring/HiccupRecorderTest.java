@@ -0,0 +1,68 @@
+package com.netflix.ndbench.core.monitoring;
+
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.config.IConfiguration;
+import org.junit.Test;
+
+import static org.mockito.Mockito.*;
+
+public class HiccupRecorderTest {
+
+    @Test
+    public void testIntervalFlaggedWhenHiccupExceedsThreshold() {
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        HiccupRecorder recorder = new HiccupRecorder(getConfig(), monitor);
+
+        recorder.recordHiccup(10);
+        recorder.recordHiccup(120_000);
+        recorder.endInterval();
+
+        verify(monitor).setClientHiccupMax(120_000);
+        verify(monitor).setClientStalled(true);
+        verify(monitor).incClientStalledIntervals();
+    }
+
+    @Test
+    public void testWorstHiccupOfBusyIntervalKept() {
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        HiccupRecorder recorder = new HiccupRecorder(getConfig(), monitor);
+
+        // about the hiccups of a 5 second interval at a 1 ms resolution
+        for (int i = 0; i < 5000; i++) {
+            recorder.recordHiccup(i == 2500 ? 120_000 : 10);
+        }
+        recorder.endInterval();
+        verify(monitor).setClientHiccupMax(120_000);
+        verify(monitor).setClientStalled(true);
+
+        recorder.recordHiccup(10);
+        recorder.endInterval();
+        verify(monitor).setClientHiccupMax(10);
+    }
+
+    @Test
+    public void testIntervalFlaggedWhenGcPausesExceedThreshold() {
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        HiccupRecorder recorder = new HiccupRecorder(getConfig(), monitor);
+
+        recorder.recordGcPause(30);
+        recorder.recordGcPause(30);
+        recorder.endInterval();
+        verify(monitor).setClientGcPauseMillis(60);
+        verify(monitor).setClientStalled(true);
+
+        // counters start over with every interval
+        recorder.recordHiccup(10);
+        recorder.endInterval();
+        verify(monitor).setClientGcPauseMillis(0);
+        verify(monitor).setClientStalled(false);
+        verify(monitor, times(1)).incClientStalledIntervals();
+    }
+
+    private IConfiguration getConfig() {
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.isHiccupRecorderEnabled()).thenReturn(false);
+        when(config.getClientStallThresholdMillis()).thenReturn(50);
+        return config;
+    }
+}
@@ -0,0 +1,59 @@
+package com.netflix.ndbench.core.monitoring;
+
+import com.netflix.ndbench.core.generators.ZipfianStringKeyGenerator;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeyTierStatsTest {
+    @Test
+    public void testTiersFromRank() {
+        assertEquals(KeyTier.HOT, KeyTier.of(1, 1000));
+        assertEquals(KeyTier.HOT, KeyTier.of(10, 1000));
+        assertEquals(KeyTier.WARM, KeyTier.of(11, 1000));
+        assertEquals(KeyTier.WARM, KeyTier.of(100, 1000));
+        assertEquals(KeyTier.COLD, KeyTier.of(101, 1000));
+        // Fewer than 100 keys still have a hot key
+        assertEquals(KeyTier.HOT, KeyTier.of(1, 50));
+        assertEquals(KeyTier.COLD, KeyTier.of(6, 50));
+    }
+
+    @Test
+    public void testZipfianKeyRank() {
+        ZipfianStringKeyGenerator generator = new ZipfianStringKeyGenerator(false, 1000, 0.9);
+        String key = generator.getNextKey();
+        assertEquals(Integer.parseInt(key.substring(1)), generator.getKeyRank(key));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testColdKeysMakeTheTail() {
+        BucketedLatencyHistogram overall = new BucketedLatencyHistogram();
+        KeyTierStats stats = new KeyTierStats();
+        for (int i = 0; i < 990; i++) {
+            overall.record(800);
+            stats.recordLatency(KeyTier.HOT, 800);
+            stats.recordCacheHit(KeyTier.HOT, true);
+        }
+        for (int i = 0; i < 20; i++) {
+            overall.record(40_000);
+            stats.recordLatency(KeyTier.COLD, 40_000);
+            stats.recordCacheHit(KeyTier.COLD, i % 2 == 0);
+        }
+
+        Map<String, Object> report = stats.getReport(overall);
+        Map<String, Object> hot = (Map<String, Object>) report.get("hot");
+        Map<String, Object> cold = (Map<String, Object>) report.get("cold");
+        assertEquals(100D, (Double) hot.get("cacheHitRatioPercent"), 0D);
+        assertEquals(50D, (Double) cold.get("cacheHitRatioPercent"), 0D);
+        assertEquals(100D, (Double) cold.get("p99TailSharePercent"), 0D);
+        assertEquals(0D, (Double) hot.get("p99TailSharePercent"), 0D);
+        assertEquals(0L, ((Map<String, Object>) report.get("warm")).get("count"));
+
+        stats.reset();
+        assertTrue(stats.isEmpty());
+    }
+}
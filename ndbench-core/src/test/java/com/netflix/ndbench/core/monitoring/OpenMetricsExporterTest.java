@@ -0,0 +1,40 @@
+package com.netflix.ndbench.core.monitoring;
+
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.NdBenchDriver;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OpenMetricsExporterTest {
+
+    @Test
+    public void testLatencyBucketsAreCumulative() {
+        BucketedLatencyHistogram readHistogram = new BucketedLatencyHistogram();
+        readHistogram.record(50);        // 0.0001
+        readHistogram.record(100);       // 0.0001, bounds are inclusive
+        readHistogram.record(2_000);     // 0.0025
+        readHistogram.record(60_000_000); // +Inf
+
+        NdBenchDriver driver = mock(NdBenchDriver.class);
+        when(driver.getReadLatencyHistogram()).thenReturn(readHistogram);
+        when(driver.getWriteLatencyHistogram()).thenReturn(new BucketedLatencyHistogram());
+        when(driver.getReadRateLimit()).thenReturn(100D);
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        when(monitor.getReadSuccess()).thenReturn(4L);
+
+        String metrics = new OpenMetricsExporter(driver, monitor).scrape();
+
+        assertTrue(metrics.contains("ndbench_operation_latency_seconds_bucket{op=\"read\",le=\"0.0001\"} 2\n"));
+        assertTrue(metrics.contains("ndbench_operation_latency_seconds_bucket{op=\"read\",le=\"0.001\"} 2\n"));
+        assertTrue(metrics.contains("ndbench_operation_latency_seconds_bucket{op=\"read\",le=\"0.0025\"} 3\n"));
+        assertTrue(metrics.contains("ndbench_operation_latency_seconds_bucket{op=\"read\",le=\"10\"} 3\n"));
+        assertTrue(metrics.contains("ndbench_operation_latency_seconds_bucket{op=\"read\",le=\"+Inf\"} 4\n"));
+        assertTrue(metrics.contains("ndbench_operation_latency_seconds_count{op=\"read\"} 4\n"));
+        assertTrue(metrics.contains("ndbench_operations_total{op=\"read\",outcome=\"success\"} 4\n"));
+        assertTrue(metrics.contains("ndbench_rate_limit{op=\"read\"} 100.0\n"));
+        assertTrue(metrics.endsWith("# EOF\n"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.netflix.ndbench.core.monitoring;
+
+import com.netflix.ndbench.core.monitoring.OperationProfiler.Phase;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class OperationProfilerTest {
+
+    @Test
+    public void testEveryOperationSampledAtFullRate() {
+        OperationProfiler profiler = new OperationProfiler(1.0);
+        OperationProfiler.Sample sample = profiler.newSample();
+        for (int i = 0; i < 3; i++) {
+            sample.begin();
+            sample.mark(Phase.LIMITER_WAIT);
+            OperationProfiler.mark(Phase.CLIENT_CALL);
+            sample.end();
+        }
+        assertEquals(3L, profiler.getReport().get("sampledOperations"));
+        assertEquals(Phase.values().length, ((Map) profiler.getReport().get("phasesMicros")).size());
+    }
+
+    @Test
+    public void testNothingSampledWhenDisabled() {
+        OperationProfiler profiler = new OperationProfiler(0);
+        OperationProfiler.Sample sample = profiler.newSample();
+        sample.begin();
+        OperationProfiler.mark(Phase.CLIENT_CALL);
+        sample.end();
+        assertEquals(0L, profiler.getReport().get("sampledOperations"));
+        assertEquals(0L, profiler.getReport().get("workerUtilizationPercent"));
+    }
+}
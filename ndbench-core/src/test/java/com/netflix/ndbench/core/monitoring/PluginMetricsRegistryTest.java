@@ -0,0 +1,39 @@
+package com.netflix.ndbench.core.monitoring;
+
+import com.codahale.metrics.MetricRegistry;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class PluginMetricsRegistryTest {
+
+    @Test
+    public void testMetricsReportedUnderTheirNamespace() {
+        MetricRegistry metrics = new MetricRegistry();
+        metrics.counter("NdBenchDefaultMonitor.readSuccess").inc();
+        PluginMetricsRegistry registry = new PluginMetricsRegistry(metrics);
+        PluginMetrics pluginMetrics = registry.forNamespace("TestPlugin");
+
+        pluginMetrics.counter("retries").add(3);
+        pluginMetrics.counter("retries").inc();
+        pluginMetrics.histogram("latency").record(10);
+        pluginMetrics.histogram("latency").record(30);
+        pluginMetrics.gauge("capacity", () -> 1.5);
+        pluginMetrics.gauge("capacity", () -> 2.5);
+
+        Map<String, Number> values = registry.getValues();
+        assertEquals(4L, values.get("TestPlugin.retries"));
+        assertEquals(2L, values.get("TestPlugin.latency.count"));
+        assertEquals(30L, values.get("TestPlugin.latency.max"));
+        assertEquals(20.0, values.get("TestPlugin.latency.mean").doubleValue(), 0.001);
+        assertEquals(2.5, values.get("TestPlugin.capacity").doubleValue(), 0.001);
+        assertFalse(values.containsKey("NdBenchDefaultMonitor.readSuccess"));
+
+        // the driver's metrics are left out
+        assertEquals(7, values.size());
+    }
+}
@@ -0,0 +1,79 @@
+package com.netflix.ndbench.core.monitoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.IConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StatsStreamerTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private NdBenchMonitor monitor;
+    private StatsStreamer streamer;
+
+    @Before
+    public void setUp() {
+        IConfiguration config = mock(IConfiguration.class);
+        // Frames are published by the tests themselves
+        when(config.getStatsStreamIntervalMillis()).thenReturn(3_600_000);
+        monitor = mock(NdBenchMonitor.class);
+        streamer = new StatsStreamer(config, monitor, mock(NdBenchDriver.class));
+    }
+
+    @After
+    public void tearDown() {
+        streamer.shutdown();
+    }
+
+    @Test
+    public void testFullFrameThenOnlyChangedStats() throws Exception {
+        when(monitor.getReadRPS()).thenReturn(100L);
+        when(monitor.getWriteRPS()).thenReturn(10L);
+        StatsStreamer.Subscriber subscriber = streamer.subscribe();
+
+        JsonNode first = mapper.readTree(subscriber.poll(1, TimeUnit.SECONDS));
+        assertTrue(first.get("full").asBoolean());
+        assertEquals(100L, first.get("stats").get("readRPS").asLong());
+        assertEquals(10L, first.get("stats").get("writeRPS").asLong());
+
+        when(monitor.getWriteRPS()).thenReturn(20L);
+        streamer.publish();
+
+        JsonNode delta = mapper.readTree(subscriber.poll(1, TimeUnit.SECONDS));
+        assertFalse(delta.get("full").asBoolean());
+        assertEquals(first.get("seq").asLong() + 1, delta.get("seq").asLong());
+        assertEquals(1, delta.get("stats").size());
+        assertEquals(20L, delta.get("stats").get("writeRPS").asLong());
+    }
+
+    @Test
+    public void testSlowSubscriberIsResynced() throws Exception {
+        StatsStreamer.Subscriber subscriber = streamer.subscribe();
+        // The full frame and the deltas fill the queue, the last frame overflows it
+        for (int i = 1; i <= StatsStreamer.SUBSCRIBER_QUEUE_CAPACITY; i++) {
+            when(monitor.getReadRPS()).thenReturn((long) i);
+            streamer.publish();
+        }
+
+        JsonNode frame = mapper.readTree(subscriber.poll(1, TimeUnit.SECONDS));
+        assertTrue(frame.get("full").asBoolean());
+        assertEquals(StatsStreamer.SUBSCRIBER_QUEUE_CAPACITY, frame.get("stats").get("readRPS").asLong());
+        assertNull(subscriber.poll(10, TimeUnit.MILLISECONDS));
+
+        streamer.unsubscribe(subscriber);
+        assertEquals(0, streamer.getNumSubscribers());
+    }
+}
@@ -0,0 +1,51 @@
+package com.netflix.ndbench.core.monitoring.events;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        assertTrue(FlightRecorderEvents.isAvailable());
+
+        File file = File.createTempFile("ndbench-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.netflix.ndbench.Operation");
+            recording.enable("com.netflix.ndbench.RateLimitChange");
+            recording.start();
+
+            FlightRecorderEvents.operation(1, "read", Arrays.asList("T1", "T2"), 1500, "success");
+            // Not sampled
+            FlightRecorderEvents.operation(0, "write", Arrays.asList("T3"), 1500, "success");
+            FlightRecorderEvents.rateLimitChange("writeLimiter", 100, 200);
+
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath()).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.netflix.ndbench."))
+                .collect(Collectors.toList());
+        file.delete();
+
+        assertEquals(2, events.size());
+        RecordedEvent operation = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.netflix.ndbench.Operation"))
+                .findFirst().get();
+        assertEquals("read", operation.getString("operation"));
+        assertEquals("T1", operation.getString("key"));
+        assertEquals(2, operation.getInt("keyCount"));
+        assertEquals(1500, operation.getDuration("latency").toNanos() / 1000);
+    }
+}
@@ -0,0 +1,163 @@
+package com.netflix.ndbench.core.operations;
+
+import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.ScanCallback;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.config.RunPlan;
+import com.netflix.ndbench.core.generators.AcknowledgedWrites;
+import com.netflix.ndbench.core.generators.FreshStringKeyGenerator;
+import com.netflix.ndbench.core.generators.ReadYourWritesKeyGenerator;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import com.netflix.ndbench.core.monitoring.VisibilityStats;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReadOperationTest {
+    @Test
+    public void testScanRowsAreRecordedPageByPage() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        doAnswer(invocation -> {
+            ScanCallback callback = (ScanCallback) invocation.getArguments()[3];
+            callback.onRow("T1", 10);
+            callback.onRow("T2", 10);
+            callback.onPage(2);
+            callback.onRow("T3", 5);
+            callback.onPage(1);
+            return null;
+        }).when(client).scan(eq("T1"), eq(3), eq(2), any(ScanCallback.class));
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+
+        ReadOperation operation = new ReadOperation(client);
+        assertTrue(operation.process(scanningDriver(), monitor, Collections.singletonList("T1"), null, false,
+                operation.newWorkerContext()));
+
+        verify(client, never()).readSingle(anyString());
+        verify(monitor).incScanSuccess();
+        verify(monitor, times(1)).recordScanFirstRowLatency(anyLong());
+        verify(monitor, times(2)).recordScanPageLatency(anyLong());
+        verify(monitor).recordScanRows(2, 20);
+        verify(monitor).recordScanRows(1, 5);
+        verify(monitor, never()).incReadSuccess();
+    }
+
+    @Test
+    public void testUnsupportedScanIsAFailure() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        doThrow(new UnsupportedOperationException()).when(client).scan(anyString(), anyInt(), anyInt(),
+                any(ScanCallback.class));
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+
+        ReadOperation operation = new ReadOperation(client);
+        assertFalse(operation.process(scanningDriver(), monitor, Collections.singletonList("T1"), null, false,
+                operation.newWorkerContext()));
+
+        verify(monitor).incScanFailure();
+        verify(monitor, never()).recordScanRows(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testScanTimeoutIsCountedAndLateRowsDropped() throws Exception {
+        AtomicReference<ScanCallback> abandoned = new AtomicReference<>();
+        NdBenchClient client = mock(NdBenchClient.class);
+        doAnswer(invocation -> {
+            abandoned.set((ScanCallback) invocation.getArguments()[3]);
+            return null;
+        }).when(client).scan(anyString(), anyInt(), anyInt(), any(ScanCallback.class));
+        NdBenchDriver driver = scanningDriver();
+        doAnswer(invocation -> {
+            ((Callable<?>) invocation.getArguments()[0]).call();
+            throw new OperationTimeoutException("Operation timed out");
+        }).when(driver).callWithDeadline(any(Callable.class));
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+
+        ReadOperation operation = new ReadOperation(client);
+        assertFalse(operation.process(driver, monitor, Collections.singletonList("T1"), null, false,
+                operation.newWorkerContext()));
+        // the scan goes on after it was reported
+        abandoned.get().onRow("T2", 10);
+        abandoned.get().onPage(1);
+
+        verify(monitor).incScanTimeout();
+        verify(monitor, never()).incScanFailure();
+        verify(monitor, never()).recordScanFirstRowLatency(anyLong());
+        verify(monitor, never()).recordScanRows(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testReadOfAWriteNotVisibleYetIsCounted() throws Exception {
+        // every key of the keyspace holds a value from an earlier backfill
+        Map<String, String> store = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            store.put("T" + i, "stale");
+        }
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle(anyString())).thenAnswer(invocation -> store.get(invocation.getArguments()[0]));
+
+        AcknowledgedWrites acknowledgedWrites = new AcknowledgedWrites(16);
+        ReadYourWritesKeyGenerator reads = new ReadYourWritesKeyGenerator(acknowledgedWrites, 0, false, 100);
+        reads.init();
+        FreshStringKeyGenerator writes = new FreshStringKeyGenerator(100);
+
+        RunPlan plan = RunPlan.of(mock(IConfiguration.class));
+        VisibilityStats visibilityStats = new VisibilityStats();
+        NdBenchDriver driver = mock(NdBenchDriver.class);
+        when(driver.getRunPlan()).thenReturn(plan);
+        when(driver.getIsReadRunning()).thenReturn(true);
+        when(driver.takeReadAckNanos()).thenAnswer(invocation -> reads.takeAckNanos());
+        when(driver.getVisibilityStats()).thenReturn(visibilityStats);
+        when(driver.getReadLatencyHistogram()).thenReturn(new BucketedLatencyHistogram());
+        when(driver.callWithDeadline(any(Callable.class)))
+                .thenAnswer(invocation -> ((Callable<?>) invocation.getArguments()[0]).call());
+        ReadOperation operation = new ReadOperation(client);
+
+        // acknowledged, not visible yet
+        String notVisible = writes.getNextKey();
+        acknowledgedWrites.publish(Collections.singletonList(notVisible));
+        String visible = writes.getNextKey();
+        acknowledgedWrites.publish(Collections.singletonList(visible));
+        store.put(visible, "value");
+
+        for (int i = 0; i < 2; i++) {
+            operation.process(driver, mock(NdBenchMonitor.class), Collections.singletonList(reads.getNextKey()), null,
+                    false, operation.newWorkerContext());
+        }
+        assertEquals(50D, visibilityStats.getNotVisiblePercent(), 0.001);
+    }
+
+    private NdBenchDriver scanningDriver() throws Exception {
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.getScanRatio()).thenReturn(1D);
+        when(config.getScanLimit()).thenReturn(3);
+        when(config.getScanPageSize()).thenReturn(2);
+        RunPlan plan = RunPlan.of(config);
+        NdBenchDriver driver = mock(NdBenchDriver.class);
+        when(driver.getRunPlan()).thenReturn(plan);
+        when(driver.getIsReadRunning()).thenReturn(true);
+        when(driver.callWithDeadline(any(Callable.class)))
+                .thenAnswer(invocation -> ((Callable<?>) invocation.getArguments()[0]).call());
+        return driver;
+    }
+}
@@ -0,0 +1,81 @@
+package com.netflix.ndbench.core.operations;
+
+import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchWorkerContextClient;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorkerContextTest {
+    @Test
+    public void testContextIsCreatedOnceAndReplacedAfterDiscard() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        @SuppressWarnings("unchecked")
+        NdBenchWorkerContextClient<String, StringBuilder> client = mock(NdBenchWorkerContextClient.class);
+        when(client.createWorkerContext()).thenAnswer(invocation -> {
+            created.incrementAndGet();
+            return new StringBuilder();
+        });
+        when(client.readSingle(any(StringBuilder.class), eq("T1")))
+                .thenReturn("value");
+        doAnswer(invocation -> closed.incrementAndGet())
+                .when(client).closeWorkerContext(any(StringBuilder.class));
+
+        WorkerContext workerContext = new WorkerContext(client);
+        Object context = workerContext.acquire();
+        assertSame(context, workerContext.acquire());
+        assertEquals("value", workerContext.readSingle(client, context, "T1"));
+        assertEquals(1, created.get());
+
+        workerContext.discard();
+        assertEquals(1, closed.get());
+        assertNotSame(context, workerContext.acquire());
+        assertEquals(2, created.get());
+
+        workerContext.close();
+        assertEquals(2, closed.get());
+    }
+
+    @Test
+    public void testContextIsReplacedOnlyWhenReportedBroken() throws Exception {
+        @SuppressWarnings("unchecked")
+        NdBenchWorkerContextClient<String, StringBuilder> client = mock(NdBenchWorkerContextClient.class);
+        when(client.createWorkerContext()).thenAnswer(invocation -> new StringBuilder());
+        when(client.isWorkerContextBroken(any(StringBuilder.class), isA(IllegalStateException.class)))
+                .thenReturn(true);
+
+        WorkerContext workerContext = new WorkerContext(client);
+        Object context = workerContext.acquire();
+        workerContext.onFailure(new IllegalArgumentException("bad value"));
+        assertSame(context, workerContext.acquire());
+
+        workerContext.onFailure(new IllegalStateException("connection lost"));
+        verify(client).closeWorkerContext((StringBuilder) context);
+        assertNotSame(context, workerContext.acquire());
+        workerContext.close();
+    }
+
+    @Test
+    public void testClientsWithoutContextsAreCalledDirectly() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.writeSingle("T1")).thenReturn("Ok");
+
+        WorkerContext workerContext = new WorkerContext(client);
+        assertNull(workerContext.acquire());
+        assertEquals("Ok", workerContext.writeSingle(client, null, "T1"));
+        workerContext.close();
+    }
+}
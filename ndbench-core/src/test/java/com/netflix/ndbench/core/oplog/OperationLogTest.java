@@ -0,0 +1,63 @@
+package com.netflix.ndbench.core.oplog;
+
+import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
+import com.netflix.ndbench.core.oplog.OperationLog.OpType;
+import com.netflix.ndbench.core.oplog.OperationLog.Outcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OperationLogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecordsFromAllWorkersAreConvertedToCsv() throws Exception {
+        NdBenchAbstractClient<?> client = mock(NdBenchAbstractClient.class);
+        when(client.getOperationTag("T42")).thenReturn("10.0.0.1");
+
+        File file = folder.newFile("oplog.bin");
+        OperationLog log = new OperationLog(file, 1.0, 3_600_000);
+        Thread worker = new Thread(() -> {
+            for (int i = 0; i < OperationLog.RING_CAPACITY / 2; i++) {
+                log.record(client, OpType.READ, Collections.singletonList("T" + i), 100, Outcome.SUCCESS);
+            }
+        });
+        worker.start();
+        worker.join();
+        // Reported payload bytes go to the operation the worker records next
+        log.record(client, OpType.READ, Collections.singletonList("T0"), 1, Outcome.SUCCESS);
+        OperationLog.addPayloadBytes(128);
+        log.record(client, OpType.WRITE, Arrays.asList("T42", "T7"), 2_500, Outcome.TIMEOUT);
+        log.close();
+
+        StringWriter csv = new StringWriter();
+        try (InputStream in = new FileInputStream(file)) {
+            assertEquals(OperationLog.RING_CAPACITY / 2 + 2, OperationLogReader.toCsv(in, csv));
+        }
+        String[] lines = csv.toString().split("\n");
+        assertEquals(OperationLogReader.CSV_HEADER, lines[0]);
+        assertEquals(OperationLog.RING_CAPACITY / 2 + 3, lines.length);
+        assertTrue(csv.toString().contains(",read,99,1,100,success,0,\n"));
+        assertTrue(lines[lines.length - 1].endsWith(",write,42,2,2500,timeout,128,10.0.0.1"));
+    }
+
+    @Test
+    public void testKeyIndex() {
+        assertEquals(1234L, OperationLog.getKeyIndex("T1234"));
+        assertEquals(-1L, OperationLog.getKeyIndex("key"));
+        assertEquals(-1L, OperationLog.getKeyIndex(null));
+    }
+}
@@ -0,0 +1,86 @@
+package com.netflix.ndbench.core.report;
+
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import com.netflix.ndbench.core.monitoring.HiccupRecorder;
+import com.netflix.ndbench.core.monitoring.KeyTier;
+import com.netflix.ndbench.core.monitoring.KeyTierStats;
+import com.netflix.ndbench.core.monitoring.VisibilityStats;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RunReporterTest {
+    private RunReporter reporter;
+
+    @Before
+    public void setUp() {
+        BucketedLatencyHistogram readHistogram = new BucketedLatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            readHistogram.record(800);       // (790, 800] bucket
+        }
+        readHistogram.record(40_000);        // (39000, 40000] bucket
+
+        NdBenchDriver driver = mock(NdBenchDriver.class);
+        when(driver.getReadLatencyHistogram()).thenReturn(readHistogram);
+        when(driver.getWriteLatencyHistogram()).thenReturn(new BucketedLatencyHistogram());
+        KeyTierStats readKeyTierStats = new KeyTierStats();
+        readKeyTierStats.recordLatency(KeyTier.COLD, 40_000);
+        when(driver.getReadKeyTierStats()).thenReturn(readKeyTierStats);
+        when(driver.getWriteKeyTierStats()).thenReturn(new KeyTierStats());
+        when(driver.getVisibilityStats()).thenReturn(new VisibilityStats());
+        NdBenchMonitor monitor = mock(NdBenchMonitor.class);
+        when(monitor.getReadSuccess()).thenReturn(20_000L);
+        when(monitor.getReadFailure()).thenReturn(10L);
+        when(monitor.getReadTimeout()).thenReturn(10L);
+        when(monitor.getReadBytes()).thenReturn(5_000_000L);
+        when(monitor.getReadPayloadSizeP99()).thenReturn(300L);
+
+        reporter = new RunReporter(driver, monitor, mock(HiccupRecorder.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReportFigures() {
+        Map<String, Object> report = reporter.buildReport(10_000, SloAssertion.parseAll(""));
+
+        Map<String, Object> read = (Map<String, Object>) report.get("read");
+        assertEquals(2000D, (Double) read.get("throughput"), 0.001);
+        assertEquals(0.1, (Double) read.get("errorRatePercent"), 0.001);
+        Map<String, Object> latency = (Map<String, Object>) read.get("latencyMicros");
+        assertEquals(800L, latency.get("p99"));
+        assertEquals(39_500L, latency.get("p995"));
+        Map<String, Object> payload = (Map<String, Object>) read.get("payload");
+        assertEquals(500_000D, (Double) payload.get("bytesPerSecond"), 0.001);
+        assertEquals(300L, ((Map<String, Object>) payload.get("sizeBytes")).get("p99"));
+        Map<String, Object> readKeyTiers = (Map<String, Object>) ((Map<String, Object>) report.get("keyTiers")).get("read");
+        assertEquals(1L, ((Map<String, Object>) readKeyTiers.get("cold")).get("count"));
+        assertTrue(RunReporter.isSloPassed(report));
+    }
+
+    @Test
+    public void testSloAssertionsDecideOutcome() {
+        List<SloAssertion> passing = SloAssertion.parseAll("read.latencyMicros.p99 <= 0.8ms; read.throughput >= 2000");
+        assertTrue(RunReporter.isSloPassed(reporter.buildReport(10_000, passing)));
+
+        List<SloAssertion> failing = SloAssertion.parseAll("read.latencyMicros.p99 < 0.8ms; read.throughput >= 2000");
+        assertFalse(RunReporter.isSloPassed(reporter.buildReport(10_000, failing)));
+
+        List<SloAssertion> unknownMetric = SloAssertion.parseAll("read.p99 < 1ms");
+        assertFalse(RunReporter.isSloPassed(reporter.buildReport(10_000, unknownMetric)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidAssertion() {
+        SloAssertion.parse("read.throughput = 2000");
+    }
+}
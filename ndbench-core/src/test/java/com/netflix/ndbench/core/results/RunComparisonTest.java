@@ -0,0 +1,149 @@
+package com.netflix.ndbench.core.results;
+
+import com.netflix.ndbench.core.config.IConfiguration;
+import com.netflix.ndbench.core.monitoring.BucketedLatencyHistogram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RunComparisonTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMannWhitneyPValue() {
+        double p = MannWhitneyTest.pValue(new double[]{1, 2, 3, 4, 5}, new double[]{6, 7, 8, 9, 10});
+        assertEquals(0.0122, p, 0.0005);
+        assertEquals(1D, MannWhitneyTest.pValue(new double[]{3, 3, 3}, new double[]{3, 3}), 0D);
+    }
+
+    @Test
+    public void testFlagsLatencyRegressionButNotNoise() throws Exception {
+        RunResult baseline = run("a", 2_000L, 11L);
+        RunResult sameAsBaseline = run("b", 2_000L, 12L);
+        RunResult slower = run("c", 2_600L, 13L);
+
+        RunComparison noise = RunComparison.compare(baseline, sameAsBaseline, null, 0.01);
+        assertFalse(noise.isRegression());
+
+        RunComparison regression = RunComparison.compare(baseline, slower, "load", 0.01);
+        assertTrue(regression.isRegression());
+        RunComparison.MetricComparison p50 = metric(regression, "read.latencyMicros.p50");
+        assertTrue(p50.isSignificant());
+        assertTrue(p50.getChangePercent() > 0);
+        assertFalse(metric(regression, "read.throughput").isRegression());
+        // No writes in either run
+        assertEquals(5, regression.getMetrics().size());
+    }
+
+    @Test
+    public void testIdleIntervalsLowerThroughputOnly() {
+        RunResult baseline = run("a", 2_000L, 11L);
+        RunResult stalled = run("b", 2_000L, 12L);
+        for (int i = 0; i < stalled.getIntervals().size(); i += 2) {
+            stalled.getIntervals().get(i).setReadLatencyBuckets(
+                    new long[BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS.length + 1]);
+        }
+
+        RunComparison comparison = RunComparison.compare(baseline, stalled, null, 0.01);
+        RunComparison.MetricComparison throughput = metric(comparison, "read.throughput");
+        assertEquals(30, throughput.getCandidateSamples());
+        assertTrue(throughput.isRegression());
+        RunComparison.MetricComparison p50 = metric(comparison, "read.latencyMicros.p50");
+        assertEquals(15, p50.getCandidateSamples());
+        assertFalse(p50.isRegression());
+    }
+
+    @Test
+    public void testComparesRunsSavedWithCoarseBuckets() {
+        RunResult baseline = coarse(run("a", 2_000L, 11L));
+        RunResult slower = coarse(run("b", 2_600L, 13L));
+
+        assertTrue(RunComparison.compare(baseline, slower, null, 0.01).isRegression());
+    }
+
+    @Test
+    public void testNoPValueWithTooFewIntervals() {
+        RunResult baseline = run("a", 2_000L, 11L);
+        RunResult candidate = run("b", 2_000L, 12L);
+        candidate.getIntervals().subList(RunComparison.MIN_SAMPLES - 1, candidate.getIntervals().size()).clear();
+
+        RunComparison comparison = RunComparison.compare(baseline, candidate, null, 0.01);
+        assertNull(metric(comparison, "read.throughput").getPValue());
+        assertFalse(comparison.isRegression());
+    }
+
+    @Test
+    public void testStoreRoundTrip() throws Exception {
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.getRunResultStoreDir()).thenReturn(folder.getRoot().getAbsolutePath());
+        RunResultStore store = new RunResultStore(config);
+
+        assertEquals("a", store.save(run("a", 2_000L, 11L)));
+        assertEquals("a-2", store.save(run("a", 2_000L, 11L)));
+        assertEquals(2, store.list().size());
+
+        RunResult loaded = store.load("a-2");
+        assertEquals(30, loaded.getIntervals().size());
+        assertEquals("load", loaded.getPhases().get(0).getName());
+        assertEquals(0D, RunComparison.compare(run("a", 2_000L, 11L), loaded, null, 0.01)
+                                      .getMetrics().get(0).getChangePercent(), 0D);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStoreRejectsPaths() throws Exception {
+        new RunResultStore(mock(IConfiguration.class)).load("../etc/passwd");
+    }
+
+    private static RunResult run(String id, long meanLatencyMicros, long seed) {
+        Random random = new Random(seed);
+        RunResult run = new RunResult();
+        run.setId(id);
+        run.setIntervalSeconds(1);
+        run.setLatencyBucketBoundsMicros(BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS);
+        RunResult.Phase phase = new RunResult.Phase("load", 0L);
+        phase.setEndTime(30_000L);
+        run.getPhases().add(phase);
+        for (int i = 1; i <= 30; i++) {
+            BucketedLatencyHistogram histogram = new BucketedLatencyHistogram();
+            for (int op = 0; op < 1000; op++) {
+                histogram.record((long) (meanLatencyMicros * (0.5 + random.nextDouble())));
+            }
+            run.getIntervals().add(new RunResult.Interval(i * 1000L, histogram.getFineBucketCounts(),
+                    new long[BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS.length + 1]));
+        }
+        return run;
+    }
+
+    /**
+     * @return the run with its fine buckets summed into the coarse ones, as runs were saved before
+     */
+    private static RunResult coarse(RunResult run) {
+        run.setLatencyBucketBoundsMicros(BucketedLatencyHistogram.BUCKET_BOUNDS_MICROS);
+        for (RunResult.Interval interval : run.getIntervals()) {
+            long[] fine = interval.getReadLatencyBuckets();
+            long[] coarse = new long[BucketedLatencyHistogram.BUCKET_BOUNDS_MICROS.length + 1];
+            for (int i = 0; i < fine.length; i++) {
+                long bound = i < BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS.length
+                             ? BucketedLatencyHistogram.FINE_BUCKET_BOUNDS_MICROS[i] : Long.MAX_VALUE;
+                coarse[BucketedLatencyHistogram.getBucket(bound)] += fine[i];
+            }
+            interval.setReadLatencyBuckets(coarse);
+            interval.setWriteLatencyBuckets(new long[coarse.length]);
+        }
+        return run;
+    }
+
+    private static RunComparison.MetricComparison metric(RunComparison comparison, String name) {
+        return comparison.getMetrics().stream().filter(m -> m.getMetric().equals(name)).findFirst().get();
+    }
+}
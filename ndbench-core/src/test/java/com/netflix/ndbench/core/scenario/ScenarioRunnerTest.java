@@ -0,0 +1,72 @@
+package com.netflix.ndbench.core.scenario;
+
+import com.netflix.archaius.api.config.SettableConfig;
+import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.core.DataBackfill;
+import com.netflix.ndbench.core.NdBenchClientFactory;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.results.RunResultRecorder;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ScenarioRunnerTest {
+    @Test
+    public void testLoadTimeLeavesOutBackfill() throws Exception {
+        NdBenchDriver driver = mock(NdBenchDriver.class);
+        doReturn(mock(NdBenchClient.class)).when(driver).getClient();
+        DataBackfill dataBackfill = mock(DataBackfill.class);
+        // Runs until the first poll, one second later
+        when(dataBackfill.getIsBackfillRunning()).thenReturn(true, false);
+        ScenarioRunner runner = new ScenarioRunner(driver, dataBackfill, mock(NdBenchClientFactory.class),
+                mock(SettableConfig.class), mock(RunResultRecorder.class));
+
+        Scenario scenario = Scenario.fromYaml("phases:\n" +
+                                              "  - type: backfill\n" +
+                                              "  - durationSeconds: 1\n" +
+                                              "    rate: 10\n");
+        scenario.validate();
+        runner.run(scenario);
+
+        long loadMillis = runner.getLoadMillis();
+        assertTrue("load ran for " + loadMillis + " ms", loadMillis >= 900 && loadMillis < 1500);
+    }
+
+    @Test
+    public void testScenarioNamingAnotherClientIsRejected() throws Exception {
+        NdBenchClient current = mock(NdBenchClient.class);
+        NdBenchDriver driver = mock(NdBenchDriver.class);
+        doReturn(current).when(driver).getClient();
+        doReturn(current).when(driver).getPluginClient();
+        NdBenchClientFactory clientFactory = mock(NdBenchClientFactory.class);
+        doReturn(current).when(clientFactory).getClient("current");
+        doReturn(mock(NdBenchClient.class)).when(clientFactory).getClient("other");
+        ScenarioRunner runner = new ScenarioRunner(driver, mock(DataBackfill.class), clientFactory,
+                mock(SettableConfig.class), mock(RunResultRecorder.class));
+
+        Scenario other = Scenario.fromYaml("client: other\n" +
+                                           "phases:\n" +
+                                           "  - durationSeconds: 1\n" +
+                                           "    rate: 10\n");
+        try {
+            runner.start(other);
+            fail("the driver is initialized with another client");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("other"));
+        }
+        assertFalse(runner.isRunning());
+
+        Scenario same = Scenario.fromYaml("client: current\n" +
+                                          "phases:\n" +
+                                          "  - durationSeconds: 1\n" +
+                                          "    rate: 10\n");
+        runner.start(same).get(5, TimeUnit.SECONDS);
+    }
+}
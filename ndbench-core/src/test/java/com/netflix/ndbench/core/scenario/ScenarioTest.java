@@ -0,0 +1,66 @@
+package com.netflix.ndbench.core.scenario;
+
+import com.netflix.ndbench.core.util.LoadPattern;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScenarioTest {
+
+    private static final String SOAK = "name: soak\n" +
+            "client: InMemoryTest\n" +
+            "phases:\n" +
+            "  - name: fill\n" +
+            "    type: backfill\n" +
+            "  - name: warmup\n" +
+            "    durationSeconds: 60\n" +
+            "    rate: 1000\n" +
+            "    readRatio: 0.8\n" +
+            "  - name: ramp\n" +
+            "    durationSeconds: 120\n" +
+            "    rampToRate: 5000\n" +
+            "  - name: steady\n" +
+            "    durationSeconds: 600\n" +
+            "    loadPattern: zipfian\n" +
+            "    numReaders: 32\n";
+
+    @Test
+    public void testPhasesInheritFromPreviousLoadPhase() throws Exception {
+        Scenario scenario = Scenario.fromYaml(SOAK);
+        scenario.validate();
+
+        assertEquals("soak", scenario.getName());
+        assertEquals(4, scenario.getPhases().size());
+        assertEquals(ScenarioPhase.Type.BACKFILL, scenario.getPhases().get(0).getType());
+
+        ScenarioPhase warmup = scenario.getPhases().get(1);
+        assertEquals(800, warmup.getReadRate(0), 0.001);
+        assertEquals(200, warmup.getWriteRate(1), 0.001);
+        assertEquals(LoadPattern.RANDOM, warmup.getLoadPatternType());
+
+        ScenarioPhase ramp = scenario.getPhases().get(2);
+        assertTrue(ramp.isRamp());
+        assertEquals(800, ramp.getReadRate(0), 0.001);
+        assertEquals(2400, ramp.getReadRate(0.5), 0.001);
+        assertTrue(ramp.hasSameWorkers(warmup));
+
+        // Continues at the rate the ramp ended at, with different workers
+        ScenarioPhase steady = scenario.getPhases().get(3);
+        assertFalse(steady.isRamp());
+        assertEquals(4000, steady.getReadRate(0), 0.001);
+        assertEquals(LoadPattern.ZIPFIAN, steady.getLoadPatternType());
+        assertFalse(steady.hasSameWorkers(ramp));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFirstLoadPhaseNeedsRate() throws Exception {
+        Scenario.fromYaml("phases:\n  - durationSeconds: 10\n").validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadPhaseNeedsDuration() throws Exception {
+        Scenario.fromYaml("phases:\n  - rate: 10\n").validate();
+    }
+}
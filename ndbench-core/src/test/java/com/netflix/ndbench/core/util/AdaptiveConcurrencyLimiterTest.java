@@ -0,0 +1,68 @@
+package com.netflix.ndbench.core.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+    @Test
+    public void testRejectsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 2, 10);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void testDisabledNeverRejects() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 1);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        limiter.onSample(1000, false);
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitGrowsWithoutQueueingAndShrinksWithIt() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 10, 100);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+        }
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(1000, true);
+        }
+        int grownLimit = limiter.getLimit();
+        assertTrue(grownLimit > 10);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(10000, true);
+        }
+        assertTrue(limiter.getLimit() < grownLimit);
+    }
+
+    @Test
+    public void testMaxLimitChange() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 4, 4);
+        limiter.setMaxLimit(20, 10);
+        assertEquals(10, limiter.getLimit());
+
+        limiter.onSample(1000, false);
+        limiter.setMaxLimit(40, 10);
+        assertEquals("a limit below the maximum is kept", 9, limiter.getLimit());
+
+        limiter.setMaxLimit(5, 5);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    public void testFailureBacksOff() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 50, 100);
+        limiter.onSample(1000, false);
+        assertEquals(45, limiter.getLimit());
+    }
+}
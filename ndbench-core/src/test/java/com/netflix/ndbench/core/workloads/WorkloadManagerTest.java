@@ -0,0 +1,102 @@
+package com.netflix.ndbench.core.workloads;
+
+import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.core.NdBenchDriver;
+import com.netflix.ndbench.core.config.IConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorkloadManagerTest {
+    private WorkloadManager manager;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        NdBenchClient client = mock(NdBenchClient.class);
+        when(client.readSingle(anyString())).thenReturn("value");
+        when(client.writeSingle(anyString())).thenReturn("ok");
+        NdBenchDriver driver = mock(NdBenchDriver.class);
+        doReturn(client).when(driver).getClient();
+        when(driver.callWithDeadline(any(Callable.class))).thenAnswer(
+                invocation -> ((Callable<?>) invocation.getArguments()[0]).call());
+
+        IConfiguration config = mock(IConfiguration.class);
+        when(config.getNumKeys()).thenReturn(100);
+        when(config.getZipfExponent()).thenReturn(0.5);
+        when(config.getReadRateLimit()).thenReturn(1000);
+        when(config.getWriteRateLimit()).thenReturn(1000);
+        when(config.getNumReaders()).thenReturn(1);
+        when(config.getNumWriters()).thenReturn(1);
+        when(config.getStopDrainTimeoutMillis()).thenReturn(1000);
+        manager = new WorkloadManager(driver, config);
+    }
+
+    @After
+    public void tearDown() {
+        manager.stopAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWorkloadsKeepTheirStatsApart() throws Exception {
+        manager.start("appends", WorkloadSpec.fromJson("{\"numReaders\": 0, \"numWriters\": 2}"));
+        manager.start("hot", WorkloadSpec.fromJson("{\"loadPattern\": \"zipfian\", \"numWriters\": 0}"));
+        Thread.sleep(300);
+        manager.stop("appends");
+        manager.stop("hot");
+
+        Map<String, Object> appends = manager.getStatus("appends");
+        Map<String, Object> hot = manager.getStatus("hot");
+        assertFalse((Boolean) appends.get("running"));
+        assertTrue((Long) ((Map<String, Object>) appends.get("write")).get("success") > 0);
+        assertEquals(0L, ((Map<String, Object>) appends.get("read")).get("success"));
+        assertTrue((Long) ((Map<String, Object>) hot.get("read")).get("success") > 0);
+        assertEquals(0L, ((Map<String, Object>) hot.get("write")).get("success"));
+    }
+
+    @Test
+    public void testTuneResizesWorkers() throws Exception {
+        manager.start("tenant", new WorkloadSpec());
+        manager.tune("tenant", Collections.singletonMap("numReaders", "3"));
+        assertEquals(3, manager.getStatus("tenant").get("readWorkers"));
+
+        manager.tune("tenant", Collections.singletonMap("numReaders", "0"));
+        for (int i = 0; i < 50 && !manager.getStatus("tenant").get("readWorkers").equals(0); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, manager.getStatus("tenant").get("readWorkers"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTuneRejectsSettingsFixedAtStart() throws Exception {
+        manager.start("tenant", new WorkloadSpec());
+        manager.tune("tenant", Collections.singletonMap("loadPattern", "zipfian"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadYourWritesIsRejected() throws Exception {
+        WorkloadSpec spec = new WorkloadSpec();
+        spec.setLoadPattern("read_your_writes");
+        manager.start("tenant", spec);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWorkloadNamesAreUnique() throws Exception {
+        manager.start("tenant", new WorkloadSpec());
+        manager.start("tenant", new WorkloadSpec());
+    }
+}
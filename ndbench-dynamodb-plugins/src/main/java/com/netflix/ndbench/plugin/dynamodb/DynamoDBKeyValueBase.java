@@ -26,9 +26,12 @@ import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
 import com.google.common.base.Preconditions;
 import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.PluginMetrics;
+import com.netflix.ndbench.api.plugin.ScanCallback;
 import com.netflix.ndbench.plugin.dynamodb.configs.DynamoDBConfigurationBase;
 import com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.dataplane.DynamoDBReadBulk;
 import com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.dataplane.DynamoDBReadSingle;
+import com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.dataplane.DynamoDBScan;
 import com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.dataplane.DynamoDBWriteBulk;
 import com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.dataplane.DynamoDBWriteSingle;
 import com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.dataplane.DynamoDBWriteTransaction;
@@ -57,9 +60,11 @@ public abstract class DynamoDBKeyValueBase<C extends DynamoDBConfigurationBase>
     protected AmazonDynamoDB dynamoDB;
     protected DynamoDBReadSingle singleRead;
     protected DynamoDBReadBulk bulkRead;
+    protected DynamoDBScan scan;
     protected DynamoDBWriteSingle singleWrite;
     protected DynamoDBWriteBulk bulkWrite;
     protected DynamoDBWriteTransaction transactionWrite;
+    private volatile PluginMetrics pluginMetrics = PluginMetrics.NOOP;
 
     /**
      * Protected method to inject credentials and configuration
@@ -76,7 +81,9 @@ public abstract class DynamoDBKeyValueBase<C extends DynamoDBConfigurationBase>
         //instantiate operations
         String tableName = config.getTableName();
         String partitionKeyName = config.getAttributeName();
-        ReturnConsumedCapacity returnConsumedCapacity = ReturnConsumedCapacity.NONE;
+        // consumed capacity is only returned when there are plugin metrics to report it to
+        ReturnConsumedCapacity returnConsumedCapacity = pluginMetrics == PluginMetrics.NOOP
+                ? ReturnConsumedCapacity.NONE : ReturnConsumedCapacity.TOTAL;
         Preconditions.checkState(StringUtils.isNotEmpty(tableName));
         Preconditions.checkState(StringUtils.isNotEmpty(partitionKeyName));
 
@@ -86,12 +93,24 @@ public abstract class DynamoDBKeyValueBase<C extends DynamoDBConfigurationBase>
                 returnConsumedCapacity);
         this.bulkRead = new DynamoDBReadBulk(dataGenerator, dynamoDB, tableName, partitionKeyName, consistentRead,
                 returnConsumedCapacity);
+        this.scan = new DynamoDBScan(dataGenerator, dynamoDB, tableName, partitionKeyName, consistentRead,
+                returnConsumedCapacity);
         this.singleWrite = new DynamoDBWriteSingle(dataGenerator, dynamoDB, tableName, partitionKeyName,
                 returnConsumedCapacity);
         this.bulkWrite = new DynamoDBWriteBulk(dataGenerator, dynamoDB, tableName, partitionKeyName,
                 returnConsumedCapacity);
         this.transactionWrite = new DynamoDBWriteTransaction(dataGenerator, dynamoDB, tableName, partitionKeyName,
                                                              config.getChildTableNamePrefix(), config.getMainTableColsPerRow(), returnConsumedCapacity);
+
+        pluginMetrics.gauge("consumedReadCapacityUnits",
+                () -> singleRead.getTotalConsumed() + bulkRead.getTotalConsumed() + scan.getTotalConsumed());
+        pluginMetrics.gauge("consumedWriteCapacityUnits",
+                () -> singleWrite.getTotalConsumed() + bulkWrite.getTotalConsumed() + transactionWrite.getTotalConsumed());
+    }
+
+    @Override
+    public void setPluginMetrics(PluginMetrics metrics) {
+        this.pluginMetrics = metrics;
     }
 
     protected void createAndSetDynamoDBClient() {
@@ -122,6 +141,11 @@ public abstract class DynamoDBKeyValueBase<C extends DynamoDBConfigurationBase>
         return singleRead.apply(key);
     }
 
+    @Override
+    public void scan(String startKey, int limit, int pageSize, ScanCallback callback) {
+        scan.scan(startKey, limit, pageSize, callback);
+    }
+
     @Override
     public String writeSingle(String key) {
         return singleWrite.apply(key);
@@ -156,7 +180,7 @@ public abstract class DynamoDBKeyValueBase<C extends DynamoDBConfigurationBase>
     }
 
     double getAndResetReadCounsumed() {
-        return singleRead.getAndResetConsumed() + bulkRead.getAndResetConsumed();
+        return singleRead.getAndResetConsumed() + bulkRead.getAndResetConsumed() + scan.getAndResetConsumed();
     }
 
     double getAndResetWriteCounsumed() {
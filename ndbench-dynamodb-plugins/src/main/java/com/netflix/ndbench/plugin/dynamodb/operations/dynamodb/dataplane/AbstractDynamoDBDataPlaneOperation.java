@@ -25,6 +25,7 @@ import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.AbstractDynamoDBOperation;
 
 import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
 
 /**
  * @author Alexander Patrikalakis
@@ -32,6 +33,7 @@ import java.util.List;
 public class AbstractDynamoDBDataPlaneOperation extends AbstractDynamoDBOperation {
     protected final DataGenerator dataGenerator;
     protected final AtomicDouble consumed = new AtomicDouble(0.0);
+    private final DoubleAdder totalConsumed = new DoubleAdder();
     protected final ReturnConsumedCapacity returnConsumedCapacity;
 
     protected AbstractDynamoDBDataPlaneOperation(AmazonDynamoDB dynamoDB, String tableName, String partitionKeyName,
@@ -51,7 +53,20 @@ public class AbstractDynamoDBDataPlaneOperation extends AbstractDynamoDBOperatio
                 .orElse(0.0);
     }
 
+    protected void addConsumed(double capacityUnits) {
+        consumed.addAndGet(capacityUnits);
+        totalConsumed.add(capacityUnits);
+    }
+
     public double getAndResetConsumed() {
         return consumed.getAndSet(0.0);
     }
+
+    /**
+     * @return the capacity units consumed since the operation was created, unlike {@link #getAndResetConsumed()} it is
+     * never reset
+     */
+    public double getTotalConsumed() {
+        return totalConsumed.sum();
+    }
 }
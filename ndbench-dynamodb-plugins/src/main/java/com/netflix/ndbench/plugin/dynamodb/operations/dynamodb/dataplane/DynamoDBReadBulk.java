@@ -88,7 +88,7 @@ public class DynamoDBReadBulk extends AbstractDynamoDBReadOperation
 
     @Override
     public BatchGetItemResult measureConsumedCapacity(BatchGetItemResult result) {
-        consumed.addAndGet(result.getConsumedCapacity() == null ? 0 : getConsumedCapacityForTable(result.getConsumedCapacity()));
+        addConsumed(result.getConsumedCapacity() == null ? 0 : getConsumedCapacityForTable(result.getConsumedCapacity()));
         return result;
     }
 }
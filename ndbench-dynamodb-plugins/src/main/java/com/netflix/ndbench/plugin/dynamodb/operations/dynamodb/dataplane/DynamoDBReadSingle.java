@@ -66,7 +66,7 @@ public class DynamoDBReadSingle extends AbstractDynamoDBReadOperation
     public GetItemResult measureConsumedCapacity(GetItemResult result) {
         ConsumedCapacity consumedCapacity = result.getConsumedCapacity();
         if (consumedCapacity != null && consumedCapacity.getCapacityUnits() != null) {
-            consumed.addAndGet(result.getConsumedCapacity().getCapacityUnits());
+            addConsumed(result.getConsumedCapacity().getCapacityUnits());
         }
         return result;
     }
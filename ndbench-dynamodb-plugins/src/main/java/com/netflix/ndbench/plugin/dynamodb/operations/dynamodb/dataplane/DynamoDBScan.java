@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2018 Netflix, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package com.netflix.ndbench.plugin.dynamodb.operations.dynamodb.dataplane;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
+import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.ndbench.api.plugin.DataGenerator;
+import com.netflix.ndbench.api.plugin.ScanCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scans the items of the table that come after the start key in the order of the table's partitions, one page of
+ * items per scan request, following the last evaluated key of each page until the limit is reached or the table ends.
+ * <p>
+ * An exclusive start key has to name every attribute of the table's primary key. The start key only gives the
+ * partition key, so on a table which also has a sort key the scan starts at the beginning of the table instead. The
+ * size of a row is that of its attribute names and values, as DynamoDB counts item sizes.
+ */
+public class DynamoDBScan extends AbstractDynamoDBReadOperation {
+    private volatile Boolean hasSortKey;
+
+    public DynamoDBScan(DataGenerator dataGenerator, AmazonDynamoDB dynamoDB, String tableName,
+                        String partitionKeyName, boolean consistentRead,
+                        ReturnConsumedCapacity returnConsumedCapacity) {
+        super(dataGenerator, dynamoDB, tableName, partitionKeyName, consistentRead, returnConsumedCapacity);
+    }
+
+    public void scan(String startKey, int limit, int pageSize, ScanCallback callback) {
+        int rows = 0;
+        try {
+            Map<String, AttributeValue> exclusiveStartKey = hasSortKey() ? null
+                    : ImmutableMap.of(partitionKeyName, new AttributeValue(startKey));
+            while (rows < limit) {
+                final ScanRequest request = new ScanRequest()
+                        .withTableName(tableName)
+                        .withExclusiveStartKey(exclusiveStartKey)
+                        .withLimit(Math.min(pageSize, limit - rows))
+                        .withReturnConsumedCapacity(returnConsumedCapacity)
+                        .withConsistentRead(consistentRead);
+                ScanResult result = measureConsumedCapacity(dynamoDB.scan(request));
+                for (Map<String, AttributeValue> item : result.getItems()) {
+                    AttributeValue key = item.get(partitionKeyName);
+                    callback.onRow(key == null ? null : key.getS(), getItemSize(item));
+                }
+                rows += result.getItems().size();
+                callback.onPage(result.getItems().size());
+                exclusiveStartKey = result.getLastEvaluatedKey();
+                if (exclusiveStartKey == null || exclusiveStartKey.isEmpty()) {
+                    break;
+                }
+            }
+        } catch (AmazonServiceException ase) {
+            throw amazonServiceException(ase);
+        } catch (AmazonClientException ace) {
+            throw amazonClientException(ace);
+        }
+    }
+
+    private boolean hasSortKey() {
+        Boolean result = hasSortKey;
+        if (result == null) {
+            List<KeySchemaElement> keySchema = dynamoDB.describeTable(tableName).getTable().getKeySchema();
+            result = keySchema.stream().anyMatch(key -> KeyType.RANGE.toString().equals(key.getKeyType()));
+            hasSortKey = result;
+        }
+        return result;
+    }
+
+    static int getItemSize(Map<String, AttributeValue> item) {
+        int size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += utf8Length(attribute.getKey()) + getValueSize(attribute.getValue());
+        }
+        return size;
+    }
+
+    private static int getValueSize(AttributeValue value) {
+        if (value.getS() != null) {
+            return utf8Length(value.getS());
+        } else if (value.getN() != null) {
+            return value.getN().length();
+        } else if (value.getB() != null) {
+            return value.getB().remaining();
+        } else if (value.getSS() != null) {
+            return value.getSS().stream().mapToInt(DynamoDBScan::utf8Length).sum();
+        } else if (value.getNS() != null) {
+            return value.getNS().stream().mapToInt(String::length).sum();
+        } else if (value.getBS() != null) {
+            return value.getBS().stream().mapToInt(b -> b.remaining()).sum();
+        } else if (value.getM() != null) {
+            // Maps and lists take 3 bytes, plus 1 byte per element
+            return 3 + getItemSize(value.getM()) + value.getM().size();
+        } else if (value.getL() != null) {
+            return 3 + getListSize(value.getL()) + value.getL().size();
+        }
+        // Boolean or null
+        return 1;
+    }
+
+    private static int getListSize(Collection<AttributeValue> values) {
+        int size = 0;
+        for (AttributeValue value : values) {
+            size += getValueSize(value);
+        }
+        return size;
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private ScanResult measureConsumedCapacity(ScanResult result) {
+        ConsumedCapacity consumedCapacity = result.getConsumedCapacity();
+        if (consumedCapacity != null && consumedCapacity.getCapacityUnits() != null) {
+            addConsumed(consumedCapacity.getCapacityUnits());
+        }
+        return result;
+    }
+}
@@ -88,7 +88,7 @@ public class DynamoDBWriteBulk extends AbstractDynamoDBDataPlaneOperation
 
     @Override
     public BatchWriteItemResult measureConsumedCapacity(BatchWriteItemResult result) {
-        consumed.addAndGet(result.getConsumedCapacity() == null ? 0 : getConsumedCapacityForTable(result.getConsumedCapacity()));
+        addConsumed(result.getConsumedCapacity() == null ? 0 : getConsumedCapacityForTable(result.getConsumedCapacity()));
         return result;
     }
 }
@@ -130,7 +130,7 @@ public class DynamoDBWriteTransaction extends AbstractDynamoDBDataPlaneOperation
     public PutItemResult measureConsumedCapacity(PutItemResult result) {
         ConsumedCapacity consumedCapacity = result.getConsumedCapacity();
         if (consumedCapacity != null && consumedCapacity.getCapacityUnits() != null) {
-            consumed.addAndGet(result.getConsumedCapacity().getCapacityUnits());
+            addConsumed(result.getConsumedCapacity().getCapacityUnits());
         }
         return result;
     }
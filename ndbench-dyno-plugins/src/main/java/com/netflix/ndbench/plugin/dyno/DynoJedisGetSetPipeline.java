@@ -22,24 +22,26 @@ import com.netflix.dyno.connectionpool.HostSupplier;
 import com.netflix.dyno.jedis.DynoJedisClient;
 import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchWorkerContextClient;
 import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This pluging performs GET/SET inside a pipeline of size MAX_PIPE_KEYS against
- * Dynomite.
+ * Dynomite. Workers each use their own {@link DynoJedisUtils}, with its own random generator.
  * 
  * @author ipapapa
  *
  */
 @Singleton
 @NdBenchClientPlugin("DynoGetSetPipeline")
-public class DynoJedisGetSetPipeline implements NdBenchClient {
+public class DynoJedisGetSetPipeline implements NdBenchClient, NdBenchWorkerContextClient<String, DynoJedisUtils> {
     private static final Logger logger = LoggerFactory.getLogger(DynoJedisGetSetPipeline.class);
 
     private static final int MIN_PIPE_KEYS = 3;
@@ -107,6 +109,21 @@ public class DynoJedisGetSetPipeline implements NdBenchClient {
         return jedisUtils.pipelineWrite(key, dataGenerator, MAX_PIPE_KEYS, MIN_PIPE_KEYS);
     }
 
+    @Override
+    public DynoJedisUtils createWorkerContext() {
+        return new DynoJedisUtils(jedisClient, new Random());
+    }
+
+    @Override
+    public String readSingle(DynoJedisUtils jedisUtils, String key) throws Exception {
+        return jedisUtils.pipelineRead(key, MAX_PIPE_KEYS, MIN_PIPE_KEYS);
+    }
+
+    @Override
+    public String writeSingle(DynoJedisUtils jedisUtils, String key) throws Exception {
+        return jedisUtils.pipelineWrite(key, dataGenerator, MAX_PIPE_KEYS, MIN_PIPE_KEYS);
+    }
+
     /**
      * Perform a bulk read operation
      * @return a list of response codes
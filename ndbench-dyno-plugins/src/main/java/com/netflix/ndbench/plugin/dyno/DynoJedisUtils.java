@@ -33,10 +33,19 @@ public class DynoJedisUtils {
     private static final String CacheMiss = null;
 
     private static final Logger logger = LoggerFactory.getLogger(DynoJedisUtils.class);
-    private static Random randomGenerator = new Random();
+    private static final Random sharedRandomGenerator = new Random();
+    private final Random randomGenerator;
 
     public DynoJedisUtils(AtomicReference<DynoJedisClient> jedisClient) {
+        this(jedisClient, sharedRandomGenerator);
+    }
+
+    /**
+     * @param randomGenerator picks the pipeline sizes, a worker owning its instance does not contend on a shared one
+     */
+    public DynoJedisUtils(AtomicReference<DynoJedisClient> jedisClient, Random randomGenerator) {
         this.jedisClient = jedisClient;
+        this.randomGenerator = randomGenerator;
     }
 
     /**
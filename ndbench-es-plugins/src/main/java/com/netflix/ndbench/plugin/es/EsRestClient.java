@@ -17,6 +17,7 @@
 package com.netflix.ndbench.plugin.es;
 
 import com.google.inject.ImplementedBy;
+import com.netflix.ndbench.api.plugin.ScanCallback;
 import org.apache.http.StatusLine;
 
 import java.io.Closeable;
@@ -33,4 +34,11 @@ public interface EsRestClient extends Closeable {
     StatusLine readSingleDocument(String index, String docType, String id) throws IOException;
 
     StatusLine writeDocumentsBulk(String bulkPayload) throws IOException;
+
+    /**
+     * Passes up to limit documents to the callback, searching pageSize documents at a time. Implementations start after
+     * startId where the cluster can page from a given id cheaply, and at the beginning of the index otherwise.
+     */
+    void scanDocuments(String index, String docType, String startId, int limit, int pageSize, ScanCallback callback)
+            throws IOException;
 }
@@ -21,6 +21,7 @@ import com.google.inject.Singleton;
 import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.api.plugin.NdBenchAbstractClient;
 import com.netflix.ndbench.api.plugin.NdBenchMonitor;
+import com.netflix.ndbench.api.plugin.ScanCallback;
 import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
 import com.netflix.ndbench.core.config.IConfiguration;
 import com.netflix.ndbench.core.discovery.IClusterDiscovery;
@@ -51,6 +52,7 @@ public class EsRestPlugin implements NdBenchAbstractClient<WriteResult> {
 
     private EsRestClient restClient;
     private EsWriter writer;
+    private NdBenchMonitor payloadMonitor;
 
     private String esHostPort;
     private String connectionInfo;
@@ -89,6 +91,11 @@ public class EsRestPlugin implements NdBenchAbstractClient<WriteResult> {
             return config.getCluster();
     }
 
+    @Override
+    public synchronized void setPayloadMonitor(NdBenchMonitor monitor) {
+        this.payloadMonitor = monitor;
+    }
+
     /**
      * Initialize key data structures for plugin, using "synchronized" to ensure other threads are guaranteed
      * visibility of end result of initializing said structures.
@@ -130,6 +137,7 @@ public class EsRestPlugin implements NdBenchAbstractClient<WriteResult> {
                 indexRollsPerHour,
                 config.getBulkWriteBatchSize(),
                 config.isRandomizeStrings() ? dataGenerator : new FakeWordDictionaryBasedDataGenerator(dataGenerator, coreConfig.getDataSize()));
+        writer.setPayloadMonitor(payloadMonitor);
 
         if (coreConfig.isAutoTuneEnabled()) {
             this.autoTuner = new EsAutoTuner(
@@ -189,6 +197,13 @@ public class EsRestPlugin implements NdBenchAbstractClient<WriteResult> {
         return RESULT_OK;
     }
 
+    @Override
+    public void scan(String startKey, int limit, int pageSize, ScanCallback callback) throws Exception {
+        logger.debug("scan startKey=[{}] limit={}", startKey, limit);
+
+        this.restClient.scanDocuments(config.getIndexName(), config.getDocumentType(), startKey, limit, pageSize, callback);
+    }
+
     /**
      * Perform a bulk read operation
      *
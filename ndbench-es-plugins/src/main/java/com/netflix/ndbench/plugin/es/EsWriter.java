@@ -17,6 +17,7 @@
 package com.netflix.ndbench.plugin.es;
 
 import com.netflix.ndbench.api.plugin.DataGenerator;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
 import org.apache.http.StatusLine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +62,8 @@ class EsWriter {
 
     private final DataGenerator dataGenerator;
 
+    private volatile NdBenchMonitor payloadMonitor;
+
     /**
      * Returns a writer whose {@link EsWriter#writeDocument } method will issue writes to 'indexName' and 'docType'.
      *
@@ -97,6 +100,13 @@ class EsWriter {
         this.dataGenerator = dataGenerator;
     }
 
+    /**
+     * Sets the monitor the size of the documents sent is reported to, null to not report it.
+     */
+    void setPayloadMonitor(NdBenchMonitor payloadMonitor) {
+        this.payloadMonitor = payloadMonitor;
+    }
+
     /**
      * Issues writes to esIndexName' and esDocType given 'restClient'
      * (which determines the host/port of the Elasticsearch cluster to write to)
@@ -116,6 +126,7 @@ class EsWriter {
         String doc = EsUtils.createDefaultDocumentAsJson(dataGenerator, false);
 
         StatusLine response = restClient.writeSingleDocument(this.indexName, this.docType, randomizedKey, doc);
+        recordWritePayload(doc);
 
         logger.debug("Writing document id=[{}] to index [{}], response=[{}]",
                 randomizedKey, indexName, response);
@@ -139,6 +150,7 @@ class EsWriter {
         String bulkPayload = stringBuilder.toString();
 
         StatusLine response = restClient.writeDocumentsBulk(bulkPayload);
+        recordWritePayload(bulkPayload);
 
         if (logger.isTraceEnabled()) {
             logger.trace("Received [{}] after sending bulk write payload of [{}]", response, bulkPayload);
@@ -147,6 +159,14 @@ class EsWriter {
         }
     }
 
+    private void recordWritePayload(String payload) {
+        NdBenchMonitor monitor = payloadMonitor;
+        if (monitor != null) {
+            // Documents are generated as ASCII JSON, one char per byte
+            monitor.recordWritePayload(payload.length(), 0);
+        }
+    }
+
     private String getBulkWriteEntry(String key, String doc, String indexName, String docType) {
         String bulkWriteEntry = String.format(
                 "{\"index\":{\"_index\":\"%s\",\"_type\":\"%s\",\"_id\":\"%s\"}}\n%s\n",
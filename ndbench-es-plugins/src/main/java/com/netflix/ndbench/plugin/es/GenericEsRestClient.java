@@ -16,9 +16,15 @@
  */
 package com.netflix.ndbench.plugin.es;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.netflix.ndbench.api.plugin.ScanCallback;
 import org.apache.http.StatusLine;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
@@ -28,10 +34,14 @@ import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.util.EntityUtils;
 
 import com.google.inject.Singleton;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -40,6 +50,8 @@ import java.util.Random;
 public class GenericEsRestClient implements EsRestClient {
     private static final BasicHeader APPLICATION_JSON_HEADER = new BasicHeader("Content-Type", "application/json");
     private static final BasicHeader APPLICATION_XNDJSON_HEADER = new BasicHeader("Content-Type", "application/x-ndjson");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String SCROLL_KEEP_ALIVE = "1m";
 
     private Random random;
 
@@ -110,6 +122,158 @@ public class GenericEsRestClient implements EsRestClient {
         }
     }
 
+    /**
+     * Pages through the documents with a scroll sorted by _doc, the order documents are stored in, which is the cheapest
+     * way to read an index and unlike a sort on _id does not load the ids into fielddata. A scroll can not start after
+     * a given id, so every scan starts at the beginning of the index and the start id is not used. The search responses
+     * are parsed as a stream, so the hits of a page are passed to the callback as they are read and never held as a
+     * whole. The scroll is cleared once the scan ends.
+     */
+    @Override
+    public void scanDocuments(String index, String docType, String startId, int limit, int pageSize,
+                              ScanCallback callback) throws IOException {
+        if (this.httpClient == null) {
+            throw new RuntimeException("GenericEsRestClient must be initialized");
+        }
+
+        URI host = selectHost();
+        int size = Math.min(pageSize, limit);
+        HttpPost post = new HttpPost(String.format("%s/%s/%s/_search?scroll=%s", host.toString(), index, docType,
+                SCROLL_KEEP_ALIVE));
+        post.setEntity(new StringEntity(getScrollQuery(size)));
+        post.addHeader(APPLICATION_JSON_HEADER);
+
+        String scrollId = null;
+        int rows = 0;
+        try {
+            while (rows < limit) {
+                Hits hits = new Hits(callback, limit - rows);
+                try (CloseableHttpResponse response = this.httpClient.execute(post)) {
+                    int responseCode = response.getStatusLine().getStatusCode();
+                    if (responseCode != 200) {
+                        throw new IOException("Scan of index \"" + index + "\" failed (HTTP code " + responseCode + ")");
+                    }
+                    try (JsonParser parser = JSON_FACTORY.createParser(response.getEntity().getContent())) {
+                        hits.read(parser);
+                    }
+                }
+                scrollId = hits.scrollId;
+                rows += hits.count;
+                callback.onPage(hits.count);
+                if (hits.total < size || scrollId == null) {
+                    break;
+                }
+                post = new HttpPost(String.format("%s/_search/scroll", host.toString()));
+                post.setEntity(new StringEntity(getScrollContinuation(scrollId)));
+                post.addHeader(APPLICATION_JSON_HEADER);
+            }
+        } finally {
+            if (scrollId != null) {
+                clearScroll(host, scrollId);
+            }
+        }
+    }
+
+    private void clearScroll(URI host, String scrollId) throws IOException {
+        HttpDelete delete = new HttpDelete(String.format("%s/_search/scroll/%s", host.toString(),
+                URLEncoder.encode(scrollId, StandardCharsets.UTF_8.name())));
+        try (CloseableHttpResponse response = this.httpClient.execute(delete)) {
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+    }
+
+    private static String getScrollQuery(int size) throws IOException {
+        StringWriter query = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(query)) {
+            generator.writeStartObject();
+            generator.writeNumberField("size", size);
+            generator.writeArrayFieldStart("sort");
+            generator.writeString("_doc");
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return query.toString();
+    }
+
+    private static String getScrollContinuation(String scrollId) throws IOException {
+        StringWriter query = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(query)) {
+            generator.writeStartObject();
+            generator.writeStringField("scroll", SCROLL_KEEP_ALIVE);
+            generator.writeStringField("scroll_id", scrollId);
+            generator.writeEndObject();
+        }
+        return query.toString();
+    }
+
+    /**
+     * Reads the scroll id and the hits.hits array of a search response, passing the id and the size in bytes of the
+     * source of every hit to the callback, up to the given number of hits.
+     */
+    private static class Hits {
+        private final ScanCallback callback;
+        private final int maxCount;
+        private int total = 0;
+        private int count = 0;
+        private String scrollId;
+
+        Hits(ScanCallback callback, int maxCount) {
+            this.callback = callback;
+            this.maxCount = maxCount;
+        }
+
+        void read(JsonParser parser) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected search response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("_scroll_id".equals(field)) {
+                    scrollId = parser.getText();
+                } else if ("hits".equals(field)) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String hitsField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("hits".equals(hitsField)) {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                readHit(parser);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private void readHit(JsonParser parser) throws IOException {
+            String id = null;
+            long sourceBytes = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("_id".equals(field)) {
+                    id = parser.getText();
+                } else if ("_source".equals(field)) {
+                    long start = parser.getTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    sourceBytes = parser.getCurrentLocation().getByteOffset() - start;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            total++;
+            // The last page of a scroll can hold more hits than the scan has left to read
+            if (count < maxCount) {
+                callback.onRow(id, sourceBytes);
+                count++;
+            }
+        }
+    }
+
     /**
      * Override this method to add custom configuration to the Apache HttpClient before it is built, called during init phase.
      * @param clientBuilder - HTTP client builder with preset RequestConfig and 0-retry DefaultHttpRequestRetryHandler
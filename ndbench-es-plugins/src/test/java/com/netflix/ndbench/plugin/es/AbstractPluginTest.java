@@ -171,6 +171,96 @@ public class AbstractPluginTest {
                 return 0;
             }
 
+            @Override
+            public int getOperationTimeoutMillis() {
+                return 0;
+            }
+
+            @Override
+            public int getStopDrainTimeoutMillis() {
+                return 2000;
+            }
+
+            @Override
+            public boolean isAdaptiveConcurrencyEnabled() {
+                return false;
+            }
+
+            @Override
+            public int getAdaptiveConcurrencyInitialLimit() {
+                return 10;
+            }
+
+            @Override
+            public int getAdaptiveConcurrencyMaxLimit() {
+                return 1000;
+            }
+
+            @Override
+            public boolean isHiccupRecorderEnabled() {
+                return false;
+            }
+
+            @Override
+            public int getHiccupResolutionMillis() {
+                return 1;
+            }
+
+            @Override
+            public int getClientStallThresholdMillis() {
+                return 50;
+            }
+
+            @Override
+            public boolean isRunResultStoreEnabled() {
+                return false;
+            }
+
+            @Override
+            public String getRunResultStoreDir() {
+                return "ndbench-results";
+            }
+
+            @Override
+            public int getRunResultIntervalSeconds() {
+                return 1;
+            }
+
+            @Override
+            public double getOperationLogSampleRate() {
+                return 0;
+            }
+
+            @Override
+            public String getOperationLogDir() {
+                return "ndbench-oplogs";
+            }
+
+            @Override
+            public int getOperationLogFlushIntervalMillis() {
+                return 1000;
+            }
+
+            @Override
+            public long getComparisonSeed() {
+                return 42L;
+            }
+
+            @Override
+            public double getPhaseTimingSampleRate() {
+                return 0;
+            }
+
+            @Override
+            public int getStatsStreamIntervalMillis() {
+                return 1000;
+            }
+
+            @Override
+            public double getJfrOperationSampleRate() {
+                return 0;
+            }
+
             @Override
             public boolean isUseVariableDataSize() {
                 return false;
@@ -231,6 +321,121 @@ public class AbstractPluginTest {
                 return maxAcceptableWriteFailures;
             }
 
+            @Override
+            public boolean isHedgeReadsEnabled() {
+                return false;
+            }
+
+            @Override
+            public int getHedgeDelayMillis() {
+                return 10;
+            }
+
+            @Override
+            public String getHedgeDelayPercentile() {
+                return "";
+            }
+
+            @Override
+            public boolean isClientCacheEnabled() {
+                return false;
+            }
+
+            @Override
+            public int getClientCacheCapacity() {
+                return 10000;
+            }
+
+            @Override
+            public int getClientCacheTtlMillis() {
+                return 60000;
+            }
+
+            @Override
+            public String getClientCacheEvictionPolicy() {
+                return "lru";
+            }
+
+            @Override
+            public String getClientCacheWriteMode() {
+                return "invalidate";
+            }
+
+            @Override
+            public int getReadYourWritesLagMillis() {
+                return 100;
+            }
+
+            @Override
+            public int getReadYourWritesRingSize() {
+                return 65536;
+            }
+
+            @Override
+            public boolean isAutoGrowWorkersEnabled() {
+                return false;
+            }
+
+            @Override
+            public int getAutoGrowWorkersMax() {
+                return 256;
+            }
+
+            @Override
+            public int getOperationTimeoutMaxAbandoned() {
+                return 100;
+            }
+
+            @Override
+            public String getTraceFile() {
+                return "";
+            }
+
+            @Override
+            public boolean isTraceLoop() {
+                return true;
+            }
+
+            @Override
+            public boolean isTraceHonorInterArrival() {
+                return false;
+            }
+
+            @Override
+            public double getTraceSpeed() {
+                return 1.0;
+            }
+
+            @Override
+            public String getTargetPartitioner() {
+                return "murmur3";
+            }
+
+            @Override
+            public String getTargetTokenRange() {
+                return "";
+            }
+
+            @Override
+            public double getTargetTrafficRatio() {
+                return 0.5;
+            }
+
+            @Override
+            public double getScanRatio() {
+                return 0;
+            }
+
+            @Override
+            public int getScanLimit() {
+                return 1000;
+            }
+
+            @Override
+            public int getScanPageSize() {
+                return 100;
+            }
+
             @Override
             public String getAllowedOrigins() {
                 return "";
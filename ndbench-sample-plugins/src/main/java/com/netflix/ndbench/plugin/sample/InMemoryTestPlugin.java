@@ -20,6 +20,7 @@ import com.google.common.collect.Maps;
 import com.google.inject.Singleton;
 import com.netflix.ndbench.api.plugin.DataGenerator;
 import com.netflix.ndbench.api.plugin.NdBenchClient;
+import com.netflix.ndbench.api.plugin.NdBenchMonitor;
 import com.netflix.ndbench.api.plugin.annotations.NdBenchClientPlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,8 +38,10 @@ public class InMemoryTestPlugin implements NdBenchClient{
     private static final Logger logger = LoggerFactory.getLogger(InMemoryTestPlugin.class);
 
     private final Map<String, String> data = Maps.newConcurrentMap();
+    private final Map<String, InMemoryTestPlugin> targets = Maps.newConcurrentMap();
 
     private DataGenerator dataGenerator;
+    private volatile NdBenchMonitor payloadMonitor;
     private static final String ResultOK = "Ok";
     private static final String CacheMiss = null;
 
@@ -55,6 +58,24 @@ public class InMemoryTestPlugin implements NdBenchClient{
         logger.info("Initialized InMemoryTestPlugin");
     }
 
+    @Override
+    public void setPayloadMonitor(NdBenchMonitor monitor) {
+        this.payloadMonitor = monitor;
+    }
+
+    /**
+     * Each target is a map of its own
+     */
+    @Override
+    public InMemoryTestPlugin forTarget(String target) throws Exception {
+        return targets.computeIfAbsent(target, name -> {
+            InMemoryTestPlugin client = new InMemoryTestPlugin();
+            client.dataGenerator = dataGenerator;
+            client.payloadMonitor = payloadMonitor;
+            return client;
+        });
+    }
+
     /**
      * Perform a single read operation
      *
@@ -65,6 +86,9 @@ public class InMemoryTestPlugin implements NdBenchClient{
     @Override
     public String readSingle(String key) throws Exception {
         String res = data.get(key);
+        if (payloadMonitor != null) {
+            payloadMonitor.recordReadPayload(key.length(), res == null ? 0 : res.length());
+        }
         if(res!=null)
         {
             if(res.isEmpty())
@@ -89,7 +113,11 @@ public class InMemoryTestPlugin implements NdBenchClient{
      */
     @Override
     public String writeSingle(String key) throws Exception {
-        data.put(key, this.dataGenerator.getRandomValue());
+        String value = this.dataGenerator.getRandomValue();
+        data.put(key, value);
+        if (payloadMonitor != null) {
+            payloadMonitor.recordWritePayload(key.length() + value.length(), 0);
+        }
         return ResultOK;
     }
 